@@ -0,0 +1,232 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.dataservice;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a zip whose entries were compressed before they are added, which {@link java.util.zip.ZipOutputStream} cannot do. The
+ * entries are written in the order they are added. Zip64 records are written only when sizes, offsets, or the number of entries
+ * need them. Names are UTF-8. The stream is neither flushed nor closed.
+ */
+final class CompressedZipWriter {
+
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_EXTRA = 0x0001;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+
+    private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+    private final int dosDate;
+    private final int dosTime;
+    private int entries = 0;
+    private final ByteArrayOutputStream header = new ByteArrayOutputStream();
+    private final Set< String > names = new HashSet<>();
+    private long offset = 0;
+    private final OutputStream stream;
+
+    /**
+     * @param stream
+     *        the stream the zip is written to (cannot be <code>null</code>)
+     */
+    CompressedZipWriter( final OutputStream stream ) {
+        this.stream = stream;
+
+        final LocalDateTime now = LocalDateTime.now();
+        this.dosDate = ( ( ( now.getYear() - 1980 ) << 9 ) | ( now.getMonthValue() << 5 ) | now.getDayOfMonth() );
+        this.dosTime = ( ( now.getHour() << 11 ) | ( now.getMinute() << 5 ) | ( now.getSecond() >> 1 ) );
+    }
+
+    /**
+     * @param name
+     *        the entry name (cannot be <code>null</code> or empty)
+     * @param method
+     *        either {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+     * @param crc
+     *        the CRC-32 of the uncompressed content
+     * @param size
+     *        the number of bytes of the uncompressed content
+     * @param content
+     *        the compressed content (cannot be <code>null</code>)
+     * @param buffer
+     *        the buffer used to copy the content (cannot be <code>null</code> or empty)
+     * @throws IOException
+     *         if the name was already added or an error occurs writing the entry
+     */
+    void add( final String name,
+              final int method,
+              final long crc,
+              final long size,
+              final SpoolingOutputStream content,
+              final byte[] buffer ) throws IOException {
+        if ( !this.names.add( name ) ) {
+            throw new ZipException( "duplicate entry: " + name );
+        }
+
+        final byte[] nameBytes = name.getBytes( StandardCharsets.UTF_8 );
+        final long compressedSize = content.getSize();
+        final boolean zip64Sizes = ( ( size >= ZIP64_MAGIC ) || ( compressedSize >= ZIP64_MAGIC ) );
+        final boolean zip64Offset = ( this.offset >= ZIP64_MAGIC );
+        final int version = ( ( zip64Sizes || zip64Offset ) ? VERSION_ZIP64 : VERSION );
+        final int zip64Size = ( ( zip64Sizes ? 16 : 0 ) + ( zip64Offset ? 8 : 0 ) ); // of the central zip64 extra field
+
+        // local header, which has both sizes in its zip64 extra field
+        this.header.reset();
+        writeInt( this.header, LOCAL_HEADER );
+        writeShort( this.header, ( zip64Sizes ? VERSION_ZIP64 : VERSION ) );
+        writeEntryFields( this.header, method, crc );
+        writeInt( this.header, ( zip64Sizes ? ZIP64_MAGIC : compressedSize ) );
+        writeInt( this.header, ( zip64Sizes ? ZIP64_MAGIC : size ) );
+        writeShort( this.header, nameBytes.length );
+        writeShort( this.header, ( zip64Sizes ? 20 : 0 ) );
+        this.header.write( nameBytes );
+
+        if ( zip64Sizes ) {
+            writeShort( this.header, ZIP64_EXTRA );
+            writeShort( this.header, 16 );
+            writeLong( this.header, size );
+            writeLong( this.header, compressedSize );
+        }
+
+        // central directory header, whose zip64 extra field has only the values that do not fit
+        writeInt( this.centralDirectory, CENTRAL_HEADER );
+        writeShort( this.centralDirectory, version );
+        writeShort( this.centralDirectory, version );
+        writeEntryFields( this.centralDirectory, method, crc );
+        writeInt( this.centralDirectory, ( zip64Sizes ? ZIP64_MAGIC : compressedSize ) );
+        writeInt( this.centralDirectory, ( zip64Sizes ? ZIP64_MAGIC : size ) );
+        writeShort( this.centralDirectory, nameBytes.length );
+        writeShort( this.centralDirectory, ( ( zip64Size == 0 ) ? 0 : ( 4 + zip64Size ) ) );
+        writeShort( this.centralDirectory, 0 ); // comment length
+        writeShort( this.centralDirectory, 0 ); // disk number
+        writeShort( this.centralDirectory, 0 ); // internal attributes
+        writeInt( this.centralDirectory, 0 ); // external attributes
+        writeInt( this.centralDirectory, ( zip64Offset ? ZIP64_MAGIC : this.offset ) );
+        this.centralDirectory.write( nameBytes );
+
+        if ( zip64Size != 0 ) {
+            writeShort( this.centralDirectory, ZIP64_EXTRA );
+            writeShort( this.centralDirectory, zip64Size );
+
+            if ( zip64Sizes ) {
+                writeLong( this.centralDirectory, size );
+                writeLong( this.centralDirectory, compressedSize );
+            }
+
+            if ( zip64Offset ) {
+                writeLong( this.centralDirectory, this.offset );
+            }
+        }
+
+        this.header.writeTo( this.stream );
+        content.writeTo( this.stream, buffer );
+        this.offset += ( this.header.size() + compressedSize );
+        ++this.entries;
+    }
+
+    /**
+     * Writes the central directory. No entries can be added afterwards.
+     *
+     * @throws IOException
+     *         if an error occurs writing the central directory
+     */
+    void finish() throws IOException {
+        final long directoryOffset = this.offset;
+        final int directorySize = this.centralDirectory.size();
+        final boolean zip64 = ( ( this.entries >= 0xFFFF ) || ( directoryOffset >= ZIP64_MAGIC ) );
+
+        this.header.reset();
+
+        if ( zip64 ) {
+            writeInt( this.header, ZIP64_END_OF_CENTRAL_DIRECTORY );
+            writeLong( this.header, 44 ); // size of the rest of the record
+            writeShort( this.header, VERSION_ZIP64 );
+            writeShort( this.header, VERSION_ZIP64 );
+            writeInt( this.header, 0 ); // disk number
+            writeInt( this.header, 0 ); // disk with the central directory
+            writeLong( this.header, this.entries );
+            writeLong( this.header, this.entries );
+            writeLong( this.header, directorySize );
+            writeLong( this.header, directoryOffset );
+
+            writeInt( this.header, ZIP64_LOCATOR );
+            writeInt( this.header, 0 ); // disk with the zip64 end of central directory
+            writeLong( this.header, directoryOffset + directorySize );
+            writeInt( this.header, 1 ); // number of disks
+        }
+
+        writeInt( this.header, END_OF_CENTRAL_DIRECTORY );
+        writeShort( this.header, 0 ); // disk number
+        writeShort( this.header, 0 ); // disk with the central directory
+        writeShort( this.header, ( zip64 ? 0xFFFF : this.entries ) );
+        writeShort( this.header, ( zip64 ? 0xFFFF : this.entries ) );
+        writeInt( this.header, directorySize );
+        writeInt( this.header, ( zip64 ? ZIP64_MAGIC : directoryOffset ) );
+        writeShort( this.header, 0 ); // comment length
+
+        this.centralDirectory.writeTo( this.stream );
+        this.header.writeTo( this.stream );
+    }
+
+    private void writeEntryFields( final ByteArrayOutputStream out,
+                                   final int method,
+                                   final long crc ) {
+        writeShort( out, UTF8_FLAG );
+        writeShort( out, method );
+        writeShort( out, this.dosTime );
+        writeShort( out, this.dosDate );
+        writeInt( out, crc );
+    }
+
+    private static void writeShort( final ByteArrayOutputStream out,
+                                    final int value ) {
+        out.write( value & 0xFF );
+        out.write( ( value >>> 8 ) & 0xFF );
+    }
+
+    private static void writeInt( final ByteArrayOutputStream out,
+                                  final long value ) {
+        writeShort( out, ( int )( value & 0xFFFF ) );
+        writeShort( out, ( int )( ( value >>> 16 ) & 0xFFFF ) );
+    }
+
+    private static void writeLong( final ByteArrayOutputStream out,
+                                   final long value ) {
+        writeInt( out, value & ZIP64_MAGIC );
+        writeInt( out, value >>> 32 );
+    }
+
+}
@@ -22,14 +22,14 @@
 
 package org.teiid.modeshape.sequencer.dataservice;
 
-import java.io.StringWriter;
+import java.io.OutputStream;
 import java.util.Properties;
 import javax.jcr.Node;
 import javax.jcr.Property;
 import javax.jcr.PropertyIterator;
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import org.modeshape.common.annotation.ThreadSafe;
 import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.StringUtil;
 import org.teiid.modeshape.sequencer.Options;
@@ -40,6 +40,7 @@ import org.teiid.modeshape.sequencer.internal.AbstractExporter;
 /**
  * An exporter for {@link Connection connections}.
  */
+@ThreadSafe
 public class ConnectionExporter extends AbstractExporter {
 
     private static final Logger LOGGER = Logger.getLogger( ConnectionExporter.class );
@@ -96,7 +97,7 @@ public class ConnectionExporter extends AbstractExporter {
             final PropertyIterator itr = connectionNode.getProperties();
 
             if ( itr.hasNext() ) {
-                final Options.PropertyFilter filter = getPropertyFilter( options );
+                final Options.PropertyFilter filter = getPropertyFilter( options, connectionNode.getSession() );
 
                 while ( itr.hasNext() ) {
                     final Property property = itr.nextProperty();
@@ -122,81 +123,89 @@ public class ConnectionExporter extends AbstractExporter {
     protected void doExport( final Node connectionNode,
                              final Options options,
                              final ResultImpl result ) {
-        XMLStreamWriter xmlWriter = null;
+        try {
+            final Connection connection = constructConnection( connectionNode, options );
+            final String xml = writeXml( options, xmlWriter -> writeConnection( connectionNode, connection, xmlWriter ) );
+            LOGGER.debug( "Connection {0} xml: \n{1}", connection.getName(), xml );
+            result.setOutcome( xml, String.class );
+        } catch ( final Exception e ) {
+            result.setError( TeiidI18n.errorExportingConnection.text(), e );
+        }
+    }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.internal.AbstractExporter#doExport(javax.jcr.Node,
+     *      org.teiid.modeshape.sequencer.Options, java.io.OutputStream,
+     *      org.teiid.modeshape.sequencer.internal.AbstractExporter.ResultImpl)
+     */
+    @Override
+    protected void doExport( final Node connectionNode,
+                             final Options options,
+                             final OutputStream stream,
+                             final ResultImpl result ) {
         try {
             final Connection connection = constructConnection( connectionNode, options );
-            final StringWriter stringWriter = new StringWriter();
-
-            final XMLOutputFactory xof = XMLOutputFactory.newInstance();
-            xmlWriter = xof.createXMLStreamWriter( stringWriter );
-            xmlWriter.writeStartDocument( "UTF-8", "1.0" );
-
-            // root element
-            if ( connection.getType() == Type.JDBC ) {
-                xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.JDBC_CONNECTION );
-            } else if ( connection.getType() == Type.RESOURCE ) {
-                xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.RESOURCE_CONNECTION );
-            } else {
-                assert ( connection.getType() != null ); // should be checked in constructConnection method
-                throw new Exception( TeiidI18n.unhandledConnectionType.text( connectionNode.getPath(),
-                                                                             connection.getType().name() ) );
-            }
+            writeXml( stream, options, xmlWriter -> writeConnection( connectionNode, connection, xmlWriter ) );
+        } catch ( final Exception e ) {
+            result.setError( TeiidI18n.errorExportingConnection.text(), e );
+        }
+    }
 
-            xmlWriter.writeAttribute( DataVirtLexicon.ConnectionXmlId.NAME_ATTR, connection.getName() );
+    private void writeConnection( final Node connectionNode,
+                                  final Connection connection,
+                                  final XMLStreamWriter xmlWriter ) throws Exception {
+        xmlWriter.writeStartDocument( "UTF-8", "1.0" );
+
+        // root element
+        if ( connection.getType() == Type.JDBC ) {
+            xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.JDBC_CONNECTION );
+        } else if ( connection.getType() == Type.RESOURCE ) {
+            xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.RESOURCE_CONNECTION );
+        } else {
+            assert ( connection.getType() != null ); // should be checked in constructConnection method
+            throw new Exception( TeiidI18n.unhandledConnectionType.text( connectionNode.getPath(),
+                                                                         connection.getType().name() ) );
+        }
 
-            // description element
-            if ( !StringUtil.isBlank( connection.getDescription() ) ) {
-                xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.DESCRIPTION );
-                xmlWriter.writeCharacters( connection.getDescription() );
-                xmlWriter.writeEndElement();
-            }
+        xmlWriter.writeAttribute( DataVirtLexicon.ConnectionXmlId.NAME_ATTR, connection.getName() );
 
-            // JNDI name element
-            xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.JNDI_NAME );
-            xmlWriter.writeCharacters( connection.getJndiName() );
+        // description element
+        if ( !StringUtil.isBlank( connection.getDescription() ) ) {
+            xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.DESCRIPTION );
+            xmlWriter.writeCharacters( connection.getDescription() );
             xmlWriter.writeEndElement();
+        }
 
-            // driver name element
-            xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.DRIVER_NAME );
-            xmlWriter.writeCharacters( connection.getDriverName() );
-            xmlWriter.writeEndElement();
+        // JNDI name element
+        xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.JNDI_NAME );
+        xmlWriter.writeCharacters( connection.getJndiName() );
+        xmlWriter.writeEndElement();
 
-            { // properties
-                final Properties props = connection.getProperties(); // already filtered
+        // driver name element
+        xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.DRIVER_NAME );
+        xmlWriter.writeCharacters( connection.getDriverName() );
+        xmlWriter.writeEndElement();
 
-                for ( final String propName : props.stringPropertyNames() ) {
-                    final Object value = props.get( propName );
-                    writePropertyElement( xmlWriter, propName, value.toString() );
-                }
-            }
+        { // properties
+            final Properties props = connection.getProperties(); // already filtered
 
-            // class name element
-            if ( connection.getType() == Type.RESOURCE ) {
-                xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.CLASSNAME );
-                xmlWriter.writeCharacters( connection.getClassName() );
-                xmlWriter.writeEndElement();
+            for ( final String propName : props.stringPropertyNames() ) {
+                final Object value = props.get( propName );
+                writePropertyElement( xmlWriter, propName, value.toString() );
             }
+        }
 
+        // class name element
+        if ( connection.getType() == Type.RESOURCE ) {
+            xmlWriter.writeStartElement( DataVirtLexicon.ConnectionXmlId.CLASSNAME );
+            xmlWriter.writeCharacters( connection.getClassName() );
             xmlWriter.writeEndElement();
-            xmlWriter.writeEndDocument();
-
-            final String xml = stringWriter.toString().trim();
-            LOGGER.debug( "Connection {0} xml: \n{1}", connection.getName(), prettyPrint( xml, options ) );
-
-            final String pretty = ( isPrettyPrint( options ) ? prettyPrint( xml, options ) : xml );
-            result.setOutcome( pretty, String.class );
-        } catch ( final Exception e ) {
-            result.setError( TeiidI18n.errorExportingConnection.text(), e );
-        } finally {
-            if ( xmlWriter != null ) {
-                try {
-                    xmlWriter.close();
-                } catch ( final Exception e ) {
-                    // do nothing
-                }
-            }
         }
+
+        xmlWriter.writeEndElement();
+        xmlWriter.writeEndDocument();
     }
 
     private void writePropertyElement( final XMLStreamWriter writer,
@@ -22,21 +22,38 @@
 package org.teiid.modeshape.sequencer.dataservice;
 
 import static org.teiid.modeshape.sequencer.dataservice.DataServiceManifest.MANIFEST_ZIP_PATH;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import javax.jcr.Binary;
@@ -48,9 +65,9 @@ import javax.jcr.Session;
 import javax.jcr.query.Query;
 import javax.jcr.query.QueryManager;
 import javax.jcr.query.QueryResult;
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import org.modeshape.common.annotation.ThreadSafe;
 import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.StringUtil;
 import org.modeshape.jcr.api.JcrConstants;
@@ -59,6 +76,7 @@ import org.teiid.modeshape.sequencer.Result;
 import org.teiid.modeshape.sequencer.dataservice.DataServiceEntry.PublishPolicy;
 import org.teiid.modeshape.sequencer.dataservice.lexicon.DataVirtLexicon;
 import org.teiid.modeshape.sequencer.internal.AbstractExporter;
+import org.teiid.modeshape.sequencer.internal.ChildNodeLookup;
 import org.teiid.modeshape.sequencer.vdb.VdbExporter;
 import org.teiid.modeshape.sequencer.vdb.VdbManifest;
 import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon;
@@ -66,6 +84,7 @@ import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon;
 /**
  * An exporter for data services.
  */
+@ThreadSafe
 public class DataServiceExporter extends AbstractExporter {
 
     /**
@@ -77,11 +96,22 @@ public class DataServiceExporter extends AbstractExporter {
      */
     public static final String RESULT_ENTRY_PATHS = "data-service-exporter.result-entry-paths";
 
+    /**
+     * The size of the buffer binaries are copied through.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The number of bytes of a rendered entry kept in memory before it is spooled to a temporary file.
+     */
+    private static final int SPOOL_MEMORY_THRESHOLD = 1024 * 1024;
+
     private static final String DEFAULT_CONNECTIONS_FOLDER = "connections/";
-    private static final SimpleDateFormat DEFAULT_DATE_FORMATTER = new SimpleDateFormat( DataServiceManifest.DATE_PATTERN );
     private static final String DEFAULT_DRIVERS_EXPORT_FOLDER = "drivers/";
     private static final String DEFAULT_METADATA_FOLDER = "metadata/";
+    private static final int DEFAULT_PARALLELISM = 1;
     private static final String DEFAULT_RESOURCES_FOLDER = "resources/";
+    private static final String[] DEFAULT_STORED_EXTENSIONS = new String[ 0 ];
     private static final String DEFAULT_UDFS_FOLDER = "udfs/";
     private static final String DEFAULT_VDBS_FOLDER = "vdbs/";
 
@@ -94,6 +124,52 @@ public class DataServiceExporter extends AbstractExporter {
 
     private static final Logger LOGGER = Logger.getLogger( DataServiceExporter.class );
 
+    /**
+     * The executor used by default to deflate zip entries. It has at most one thread per processor. Its threads are created when
+     * needed and are discarded when idle.
+     */
+    private static final Executor SHARED_EXECUTOR = createSharedExecutor();
+
+    private final ConnectionExporter connectionExporter = new ConnectionExporter();
+    private final Executor executor;
+    private final VdbExporter vdbExporter = new VdbExporter();
+
+    /**
+     * Constructs an exporter that deflates zip entries {@link OptionName#PARALLELISM in parallel} using an executor shared by all
+     * data service exporters.
+     */
+    public DataServiceExporter() {
+        this( null );
+    }
+
+    /**
+     * @param executor
+     *        the executor used to deflate zip entries {@link OptionName#PARALLELISM in parallel} (can be <code>null</code> if an
+     *        executor shared by all data service exporters should be used)
+     */
+    public DataServiceExporter( final Executor executor ) {
+        this.executor = ( ( executor == null ) ? SHARED_EXECUTOR : executor );
+    }
+
+    private static Executor createSharedExecutor() {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final AtomicInteger count = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread( runnable, "data-service-zip-deflater-" + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        };
+
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor( threads,
+                                                                    threads,
+                                                                    60,
+                                                                    TimeUnit.SECONDS,
+                                                                    new LinkedBlockingQueue<>(),
+                                                                    threadFactory );
+        executor.allowCoreThreadTimeOut( true );
+        return executor;
+    }
+
     private DataServiceManifest constructManifest( final Node dataService,
                                                    final Options options,
                                                    final Map< DataServiceEntry, Node > entryNodeMap ) throws Exception {
@@ -134,7 +210,7 @@ public class DataServiceExporter extends AbstractExporter {
             final PropertyIterator itr = dataService.getProperties();
 
             if ( itr.hasNext() ) {
-                final Options.PropertyFilter filter = getPropertyFilter( options );
+                final Options.PropertyFilter filter = getPropertyFilter( options, dataService.getSession() );
 
                 while ( itr.hasNext() ) {
                     final Property property = itr.nextProperty();
@@ -316,7 +392,7 @@ public class DataServiceExporter extends AbstractExporter {
                 }
                 case SERVICE_VDB_AS_XML: {
                     LOGGER.debug( "Exporting data service {0} service VDB manifest as XML", dataServiceNode.getPath() );
-                    exportServiceVdb( dataServiceNode, result );
+                    exportServiceVdb( dataServiceNode, null, result );
                     break;
                 }
                 case DATA_SERVICE_AS_FILES: {
@@ -324,21 +400,102 @@ public class DataServiceExporter extends AbstractExporter {
                     exportAsFiles( dataServiceNode, options, entryNodeMap, result );
                     break;
                 }
+                case DATA_SERVICE_AS_FILE_ENTRIES: {
+                    LOGGER.debug( "Exporting data service {0} as file entries", dataServiceNode.getPath() );
+                    exportAsFileEntries( dataServiceNode, options, entryNodeMap, result );
+                    break;
+                }
+                default:
+                    result.setError( TeiidI18n.unhandledDataServiceExportArtifactType.text( dataServiceNode.getPath() ), null );
+                    break;
+            }
+
+            // referenced nodes may be outside of the data service
+            for ( final Node node : entryNodeMap.values() ) {
+                result.addDependency( node.getPath() );
+            }
+        } catch ( final Exception e ) {
+            result.setError( TeiidI18n.unhandledErrorDuringDataServiceExport.text(), e );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.internal.AbstractExporter#doExport(javax.jcr.Node,
+     *      org.teiid.modeshape.sequencer.Options, java.io.OutputStream,
+     *      org.teiid.modeshape.sequencer.internal.AbstractExporter.ResultImpl)
+     */
+    @Override
+    protected void doExport( final Node dataServiceNode,
+                             final Options options,
+                             final OutputStream stream,
+                             final ResultImpl result ) {
+        final Map< DataServiceEntry, Node > entryNodeMap = new HashMap<>();
+
+        try {
+            switch ( getExportArtifact( options ) ) {
+                case DATA_SERVICE_AS_ZIP: {
+                    LOGGER.debug( "Streaming data service {0} as zip", dataServiceNode.getPath() );
+                    exportAsZip( dataServiceNode, options, entryNodeMap, stream, result );
+                    break;
+                }
+                case MANIFEST_AS_XML: {
+                    LOGGER.debug( "Streaming data service {0} manifest as XML", dataServiceNode.getPath() );
+                    exportManifest( dataServiceNode, options, entryNodeMap, stream, result );
+                    break;
+                }
+                case SERVICE_VDB_AS_XML: {
+                    LOGGER.debug( "Streaming data service {0} service VDB manifest as XML", dataServiceNode.getPath() );
+                    exportServiceVdb( dataServiceNode, stream, result );
+                    break;
+                }
+                case DATA_SERVICE_AS_FILES:
+                case DATA_SERVICE_AS_FILE_ENTRIES: {
+                    result.setError( TeiidI18n.dataServiceFilesCannotBeStreamed.text( dataServiceNode.getPath() ), null );
+                    break;
+                }
                 default:
                     result.setError( TeiidI18n.unhandledDataServiceExportArtifactType.text( dataServiceNode.getPath() ), null );
                     break;
             }
+
+            // referenced nodes may be outside of the data service
+            for ( final Node node : entryNodeMap.values() ) {
+                result.addDependency( node.getPath() );
+            }
         } catch ( final Exception e ) {
             result.setError( TeiidI18n.unhandledErrorDuringDataServiceExport.text(), e );
         }
     }
 
+    private void exportAsFileEntries( final Node dataService,
+                                      final Options options,
+                                      final Map< DataServiceEntry, Node > entryNodeMap,
+                                      final ResultImpl result ) {
+        try {
+            final NodeIterator itr = dataService.getNodes();
+
+            if ( !itr.hasNext() ) {
+                result.setError( TeiidI18n.missingDataServiceEntries.text( dataService.getPath() ), null );
+                return;
+            }
+
+            final DataServiceManifest manifest = constructManifest( dataService, options, entryNodeMap );
+            final List< ExportedFile > files = new ArrayList<>( collectEntries( dataService, manifest, options, entryNodeMap ) );
+            result.setOutcome( Collections.unmodifiableList( files ), Iterable.class );
+        } catch ( final Exception e ) {
+            result.setError( TeiidI18n.errorExportingDataServiceFiles.text(), e );
+        }
+    }
+
     private void exportAsFiles( final Node dataService,
                                 final Options options,
                                 final Map< DataServiceEntry, Node > entryNodeMap,
                                 final ResultImpl result ) throws Exception {
         final List< String > entryPaths = new ArrayList<>();
         final List< byte[] > contents = new ArrayList<>();
+        final byte[] buffer = new byte[ BUFFER_SIZE ];
 
         try {
             final NodeIterator itr = dataService.getNodes();
@@ -376,9 +533,8 @@ public class DataServiceExporter extends AbstractExporter {
 
                 if ( !entries.isEmpty() ) {
                     for ( final VdbEntry entry : entries ) {
-                        final VdbExporter exporter = new VdbExporter();
                         final Node vdb = entryNodeMap.get( entry );
-                        final Result vdbResult = exporter.execute( vdb, options );
+                        final Result vdbResult = this.vdbExporter.execute( vdb, options );
 
                         if ( vdbResult.wasSuccessful() ) {
                             final String xml = ( String )vdbResult.getOutcome();
@@ -401,9 +557,8 @@ public class DataServiceExporter extends AbstractExporter {
 
                 if ( connections.length != 0 ) {
                     for ( final ConnectionEntry entry : connections ) {
-                        final ConnectionExporter exporter = new ConnectionExporter();
                         final Node connection = entryNodeMap.get( entry );
-                        final Result connectionResult = exporter.execute( connection, options );
+                        final Result connectionResult = this.connectionExporter.execute( connection, options );
 
                         if ( connectionResult.wasSuccessful() ) {
                             final String xml = ( String )connectionResult.getOutcome();
@@ -437,8 +592,7 @@ public class DataServiceExporter extends AbstractExporter {
 
                             if ( content.hasProperty( JcrConstants.JCR_DATA ) ) {
                                 final Binary value = content.getProperty( JcrConstants.JCR_DATA ).getBinary();
-                                final byte[] data = new byte[ ( int )value.getSize() ];
-                                value.read( data, 0 );
+                                final byte[] data = toByteArray( value, reference, buffer );
                                 entryPaths.add( entry.getPath() );
                                 contents.add( data );
                                 LOGGER.debug( "Added {0} resource to exported data service files", entry.getPath() );
@@ -474,415 +628,368 @@ public class DataServiceExporter extends AbstractExporter {
                               final Options options,
                               final Map< DataServiceEntry, Node > entryNodeMap,
                               final ResultImpl result ) {
-        try ( final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-              final ZipOutputStream zipStream = new ZipOutputStream( bos ); ) {
-            final NodeIterator itr = dataService.getNodes();
+        try ( final ByteArrayOutputStream bos = new ByteArrayOutputStream() ) {
+            exportAsZip( dataService, options, entryNodeMap, bos, result );
 
-            if ( !itr.hasNext() ) {
-                result.setError( TeiidI18n.missingDataServiceEntries.text( dataService.getPath() ), null );
-                return;
+            if ( result.wasSuccessful() ) {
+                result.setOutcome( bos.toByteArray(), byte[].class );
             }
+        } catch ( final Exception e ) {
+            result.setError( TeiidI18n.errorExportingDataServiceZip.text(), e );
+        }
+    }
 
-            // export the data service manifest
-            exportManifest( dataService, options, entryNodeMap, result );
+    private void exportAsZip( final Node dataService,
+                              final Options options,
+                              final Map< DataServiceEntry, Node > entryNodeMap,
+                              final OutputStream stream,
+                              final ResultImpl result ) {
+        try {
+            final NodeIterator itr = dataService.getNodes();
 
-            if ( !result.wasSuccessful() ) {
+            if ( !itr.hasNext() ) {
+                result.setError( TeiidI18n.missingDataServiceEntries.text( dataService.getPath() ), null );
                 return;
             }
 
-            final String manifestXml = ( String )result.getOutcome();
-            final ZipEntry manZipEntry = new ZipEntry( MANIFEST_ZIP_PATH );
-            zipStream.putNextEntry( manZipEntry );
-            zipStream.write( manifestXml.getBytes() );
-            zipStream.closeEntry();
-            LOGGER.debug( "Added manifest zip entry {0}", manZipEntry.getName() );
-
-            // export the data service entries
             final DataServiceManifest manifest = constructManifest( dataService, options, entryNodeMap );
             LOGGER.debug( "Manifest constructed" );
 
-            { // export VDBs
-                final List< VdbEntry > entries = new ArrayList<>();
+            final List< ExportEntry > entries = collectEntries( dataService, manifest, options, entryNodeMap );
+            final int parallelism = getParallelism( options );
 
-                if ( manifest.getServiceVdb() != null ) {
-                    entries.add( manifest.getServiceVdb() );
+            if ( ( parallelism > 1 ) && ( entries.size() > 1 ) ) {
+                writeZipEntries( stream, entries, parallelism );
+            } else {
+                // not closed as that would close the caller's stream
+                final ZipOutputStream zipStream = new ZipOutputStream( stream );
+                writeZipEntries( zipStream, entries );
+                zipStream.finish();
+            }
+        } catch ( final EntryExportException e ) {
+            result.setError( e.getResult().getErrorMessage(), e.getResult().getError() );
+        } catch ( final Exception e ) {
+            result.setError( TeiidI18n.errorExportingDataServiceZip.text(), e );
+        }
+    }
 
-                    if ( manifest.getServiceVdb().getVdbs().length != 0 ) {
-                        entries.addAll( Arrays.asList( manifest.getServiceVdb().getVdbs() ) );
-                    }
+    /**
+     * The entries are in the order they are written to the zip: the manifest, the VDBs, the connections, and then the drivers,
+     * DDLs, UDFs, and resources.
+     */
+    private List< ExportEntry > collectEntries( final Node dataService,
+                                                final DataServiceManifest manifest,
+                                                final Options options,
+                                                final Map< DataServiceEntry, Node > entryNodeMap ) throws Exception {
+        final List< ExportEntry > result = new ArrayList<>();
+        result.add( new ExportEntry( MANIFEST_ZIP_PATH,
+                                     null,
+                                     false,
+                                     ( stream, buffer ) -> writeXml( stream,
+                                                                     options,
+                                                                     xmlWriter -> writeManifest( manifest,
+                                                                                                 options,
+                                                                                                 xmlWriter ) ) ) );
+
+        { // VDBs
+            final List< VdbEntry > entries = new ArrayList<>();
+
+            if ( manifest.getServiceVdb() != null ) {
+                entries.add( manifest.getServiceVdb() );
+
+                if ( manifest.getServiceVdb().getVdbs().length != 0 ) {
+                    entries.addAll( Arrays.asList( manifest.getServiceVdb().getVdbs() ) );
                 }
+            }
 
-                entries.addAll( Arrays.asList( manifest.getVdbs() ) );
+            entries.addAll( Arrays.asList( manifest.getVdbs() ) );
 
-                if ( !entries.isEmpty() ) {
-                    for ( final VdbEntry entry : entries ) {
-                        final VdbExporter exporter = new VdbExporter();
-                        final Node vdb = entryNodeMap.get( entry );
-                        final Result vdbResult = exporter.execute( vdb, options );
+            if ( entries.isEmpty() ) {
+                LOGGER.debug( "No VDBs found to export" );
+            }
 
-                        if ( vdbResult.wasSuccessful() ) {
-                            final String xml = ( String )vdbResult.getOutcome();
-                            final byte[] data = xml.getBytes();
+            for ( final VdbEntry entry : entries ) {
+                final Node vdb = entryNodeMap.get( entry );
+                result.add( new ExportEntry( entry.getPath(), null, false, ( stream, buffer ) -> {
+                    final Result vdbResult = this.vdbExporter.execute( vdb, options, stream );
 
-                            final ZipEntry zipEntry = new ZipEntry( entry.getPath() );
-                            zipStream.putNextEntry( zipEntry );
-                            zipStream.write( data );
-                            zipStream.flush();
-                            zipStream.closeEntry();
-                            LOGGER.debug( "Added VDB zip entry: {0}", entry.getPath() );
-                        } else {
-                            result.setError( vdbResult.getErrorMessage(), vdbResult.getError() );
-                            return;
-                        }
+                    if ( !vdbResult.wasSuccessful() ) {
+                        throw new EntryExportException( vdbResult );
                     }
-                } else {
-                    LOGGER.debug( "No VDBs found to export" );
-                }
+                } ) );
             }
+        }
 
-            { // export connections
-                final ConnectionEntry[] connections = manifest.getConnections();
+        { // connections
+            final ConnectionEntry[] connections = manifest.getConnections();
 
-                if ( connections.length != 0 ) {
-                    for ( final ConnectionEntry entry : connections ) {
-                        final ConnectionExporter exporter = new ConnectionExporter();
-                        final Node connection = entryNodeMap.get( entry );
-                        final Result connectionResult = exporter.execute( connection, options );
+            if ( connections.length == 0 ) {
+                LOGGER.debug( "No connections found to export" );
+            }
 
-                        if ( connectionResult.wasSuccessful() ) {
-                            final String xml = ( String )connectionResult.getOutcome();
-                            final byte[] data = xml.getBytes();
+            for ( final ConnectionEntry entry : connections ) {
+                final Node connection = entryNodeMap.get( entry );
+                result.add( new ExportEntry( entry.getPath(), null, false, ( stream, buffer ) -> {
+                    final Result connectionResult = this.connectionExporter.execute( connection, options, stream );
 
-                            final ZipEntry zipEntry = new ZipEntry( entry.getPath() );
-                            zipStream.putNextEntry( zipEntry );
-                            zipStream.write( data );
-                            zipStream.flush();
-                            zipStream.closeEntry();
-                            LOGGER.debug( "Added connection zip entry: {0}", entry.getPath() );
-                        } else {
-                            result.setError( connectionResult.getErrorMessage(), connectionResult.getError() );
-                            return;
-                        }
+                    if ( !connectionResult.wasSuccessful() ) {
+                        throw new EntryExportException( connectionResult );
                     }
-                } else {
-                    LOGGER.debug( "No connections found to export" );
-                }
+                } ) );
             }
+        }
 
-            { // export drivers, DDLs, UDFs, and resources
-                final List< DataServiceEntry > entries = new ArrayList<>();
-                entries.addAll( Arrays.asList( manifest.getMetadata() ) );
-                entries.addAll( Arrays.asList( manifest.getDrivers() ) );
-                entries.addAll( Arrays.asList( manifest.getUdfs() ) );
-                entries.addAll( Arrays.asList( manifest.getResources() ) );
+        { // drivers, DDLs, UDFs, and resources
+            final List< DataServiceEntry > entries = new ArrayList<>();
+            entries.addAll( Arrays.asList( manifest.getMetadata() ) );
+            entries.addAll( Arrays.asList( manifest.getDrivers() ) );
+            entries.addAll( Arrays.asList( manifest.getUdfs() ) );
+            entries.addAll( Arrays.asList( manifest.getResources() ) );
 
-                if ( !entries.isEmpty() ) {
-                    for ( final DataServiceEntry entry : entries ) {
-                        final Node reference = entryNodeMap.get( entry );
+            if ( entries.isEmpty() ) {
+                LOGGER.debug( "No drivers, metadata files, UDFs, or resource files found to export" );
+            }
 
-                        if ( reference.hasNode( JcrConstants.JCR_CONTENT ) ) {
-                            final Node content = reference.getNode( JcrConstants.JCR_CONTENT );
+            final String[] storedExtensions = getStoredExtensions( options );
 
-                            if ( content.hasProperty( JcrConstants.JCR_DATA ) ) {
-                                final Binary value = content.getProperty( JcrConstants.JCR_DATA ).getBinary();
-                                final byte[] data = new byte[ ( int )value.getSize() ];
-                                value.read( data, 0 );
-
-                                final ZipEntry zipEntry = new ZipEntry( entry.getPath() );
-                                zipStream.putNextEntry( zipEntry );
-                                zipStream.write( data );
-                                zipStream.flush();
-                                zipStream.closeEntry();
-                                LOGGER.debug( "Added zip entry: {0}", entry.getPath() );
-                            } else {
-                                LOGGER.info( TeiidI18n.missingDataServiceReferenceDataProperty,
-                                             dataService.getPath(),
-                                             entry.getEntryName(),
-                                             reference.getPath() );
-                            }
-                        } else {
-                            LOGGER.info( TeiidI18n.missingDataServiceReferenceContent,
-                                         dataService.getPath(),
-                                         entry.getEntryName(),
-                                         reference.getPath() );
-                        }
+            for ( final DataServiceEntry entry : entries ) {
+                final Node reference = entryNodeMap.get( entry );
+
+                if ( reference.hasNode( JcrConstants.JCR_CONTENT ) ) {
+                    final Node content = reference.getNode( JcrConstants.JCR_CONTENT );
+
+                    if ( content.hasProperty( JcrConstants.JCR_DATA ) ) {
+                        final Binary value = content.getProperty( JcrConstants.JCR_DATA ).getBinary();
+                        result.add( new ExportEntry( entry.getPath(),
+                                                     value,
+                                                     isStored( entry.getPath(), storedExtensions ),
+                                                     ( stream, buffer ) -> copy( value, stream, buffer ) ) );
+                    } else {
+                        LOGGER.info( TeiidI18n.missingDataServiceReferenceDataProperty,
+                                     dataService.getPath(),
+                                     entry.getEntryName(),
+                                     reference.getPath() );
                     }
                 } else {
-                    LOGGER.debug( "No drivers, metadata files, UDFs, or resource files found to export" );
+                    LOGGER.info( TeiidI18n.missingDataServiceReferenceContent,
+                                 dataService.getPath(),
+                                 entry.getEntryName(),
+                                 reference.getPath() );
                 }
             }
-
-            result.setOutcome( bos.toByteArray(), byte[].class );
-        } catch ( final Exception e ) {
-            result.setError( TeiidI18n.errorExportingDataServiceZip.text(), e );
         }
-    }
 
-    private void exportManifest( final Node dataService,
-                                 final Options options,
-                                 final Map< DataServiceEntry, Node > entryNodeMap,
-                                 final ResultImpl result ) {
-        try {
-            final DataServiceManifest manifest = constructManifest( dataService, options, entryNodeMap );
-            exportManifest( dataService, options, manifest, result );
-        } catch ( final Exception e ) {
-            result.setError( TeiidI18n.errorConstructingDataServiceManifest.text(), e );
-        }
+        return result;
     }
 
-    private void exportManifest( final Node dataService,
-                                 final Options options,
-                                 final DataServiceManifest manifest,
-                                 final ResultImpl result ) {
-        XMLStreamWriter xmlWriter = null;
-
-        try {
-            final StringWriter stringWriter = new StringWriter();
-            final XMLOutputFactory xof = XMLOutputFactory.newInstance();
-            xmlWriter = xof.createXMLStreamWriter( stringWriter );
-            xmlWriter.writeStartDocument( "UTF-8", "1.0" );
-
-            // root element
-            xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DATASERVICE );
-            xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.NAME, manifest.getName() );
-
-            // data service description element
-            if ( !StringUtil.isBlank( manifest.getDescription() ) ) {
-                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DESCRIPTION );
-                xmlWriter.writeCharacters( manifest.getDescription() );
-                xmlWriter.writeEndElement();
-            }
+    private void writeZipEntries( final ZipOutputStream zipStream,
+                                  final List< ExportEntry > entries ) throws Exception {
+        final byte[] buffer = new byte[ BUFFER_SIZE ]; // reused by all entries
 
-            // data service lastModified element
-            if ( manifest.getLastModified() != null ) {
-                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.LAST_MODIFIED );
+        for ( final ExportEntry entry : entries ) {
+            final ZipEntry zipEntry = new ZipEntry( entry.getPath() );
 
-                final LocalDateTime modifiedDate = manifest.getLastModified();
-                final Calendar calendar = GregorianCalendar.from( modifiedDate.atZone( ZoneId.systemDefault() ) );
-                xmlWriter.writeCharacters( getDateFormatter( options ).format( calendar.getTime() ) );
-                xmlWriter.writeEndElement();
+            if ( entry.isStored() ) {
+                prepareStoredEntry( zipEntry, entry.getBinary(), buffer );
             }
 
-            // data service modifiedBy element
-            if ( !StringUtil.isBlank( manifest.getModifiedBy() ) ) {
-                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.MODIFIED_BY );
-                xmlWriter.writeCharacters( manifest.getModifiedBy() );
-                xmlWriter.writeEndElement();
-            }
+            zipStream.putNextEntry( zipEntry );
+            entry.write( zipStream, buffer );
+            zipStream.closeEntry();
+            LOGGER.debug( "Added zip entry: {0}", entry.getPath() );
+        }
+    }
 
-            { // properties
-                final Properties props = manifest.getProperties(); // already filtered
+    /**
+     * Entries are read from the repository into spools by the calling thread, which hands each spool to the executor to be
+     * deflated while it reads the next entries. At most <code>parallelism</code> entries are deflated at the same time. The
+     * calling thread appends the deflated entries to the zip in order. Only the detached spools are handed to the executor, as a
+     * session must not be used by more than one thread. Stored entries get their size and CRC from the spool so their binary is
+     * only read once.
+     */
+    private void writeZipEntries( final OutputStream stream,
+                                  final List< ExportEntry > entries,
+                                  final int parallelism ) throws Exception {
+        final Deque< CompletableFuture< CompressedEntry > > pending = new ArrayDeque<>();
+        final CompressedZipWriter zipWriter = new CompressedZipWriter( stream );
+        final byte[] buffer = new byte[ BUFFER_SIZE ]; // used to copy compressed entries, only by the calling thread
 
-                for ( final String propName : props.stringPropertyNames() ) {
-                    final Object value = props.get( propName );
-                    writePropertyElement( xmlWriter, propName, value.toString() );
+        try {
+            for ( final ExportEntry entry : entries ) {
+                if ( pending.stream().anyMatch( CompletableFuture::isCompletedExceptionally ) ) {
+                    break; // a deflater failed
                 }
-            }
 
-            { // service VDB entry
-                final ServiceVdbEntry entry = manifest.getServiceVdb();
+                pending.add( compress( entry, spool( entry ) ) );
 
-                if ( entry != null ) {
-                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.SERVICE_VDB );
-
-                    // path attribute
-                    final String path = entry.getPath();
-                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, path );
+                if ( pending.size() > parallelism ) {
+                    writeZipEntry( zipWriter, await( pending.remove() ), buffer );
+                }
+            }
 
-                    // publish policy attribute
-                    final PublishPolicy policy = entry.getPublishPolicy();
+            while ( !pending.isEmpty() ) {
+                writeZipEntry( zipWriter, await( pending.remove() ), buffer );
+            }
 
-                    if ( policy != null ) {
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH, policy.toXml() );
+            zipWriter.finish();
+        } finally {
+            // close the entries that were not written once their deflaters are done with them
+            for ( final CompletableFuture< CompressedEntry > future : pending ) {
+                future.handle( ( compressed, error ) -> {
+                    if ( compressed != null ) {
+                        compressed.close();
                     }
 
-                    // VDB name attribute
-                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_NAME, entry.getVdbName() );
-
-                    // VDB version attribute
-                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_VERSION, entry.getVdbVersion() );
-
-                    { // dependencies
-                        final VdbEntry[] dependencies = entry.getVdbs();
-
-                        if ( dependencies.length != 0 ) {
-                            xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DEPENDENCIES );
-
-                            for ( final VdbEntry dependency : dependencies ) {
-                                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.VDB_FILE );
-                                xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, dependency.getPath() );
-                                xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
-                                                          dependency.getPublishPolicy().toXml() );
-                                xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_NAME,
-                                                          dependency.getVdbName() );
-                                xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_VERSION,
-                                                          dependency.getVdbVersion() );
-                                xmlWriter.writeEndElement();
-                            }
+                    return null;
+                } ).join();
+            }
+        }
+    }
 
-                            xmlWriter.writeEndElement();
-                        }
-                    }
+    /**
+     * @param entry
+     *        the entry (cannot be <code>null</code>)
+     * @param spool
+     *        the entry content, which is closed by the returned entry or when compressing fails (cannot be <code>null</code>)
+     * @return the entry as it is added to the zip (never <code>null</code>)
+     */
+    private CompletableFuture< CompressedEntry > compress( final ExportEntry entry,
+                                                           final SpoolingOutputStream spool ) throws Exception {
+        if ( entry.isStored() ) {
+            return CompletableFuture.completedFuture( new CompressedEntry( entry, ZipEntry.STORED, spool, spool ) );
+        }
 
-                    xmlWriter.writeEndElement();
+        try {
+            return CompletableFuture.supplyAsync( () -> {
+                try {
+                    return deflate( entry, spool );
+                } catch ( final Exception e ) {
+                    throw new CompletionException( e );
                 }
-            }
-
-            { // metadata entries
-                final DataServiceEntry[] entries = manifest.getMetadata();
+            }, this.executor );
+        } catch ( final RuntimeException e ) {
+            spool.close();
+            throw e;
+        }
+    }
 
-                if ( entries.length != 0 ) {
-                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.METADATA );
+    private CompressedEntry deflate( final ExportEntry entry,
+                                     final SpoolingOutputStream spool ) throws Exception {
+        final SpoolingOutputStream deflated = new SpoolingOutputStream( SPOOL_MEMORY_THRESHOLD );
+        final Deflater deflater = new Deflater( Deflater.DEFAULT_COMPRESSION, true ); // raw deflate data, as in a zip
 
-                    for ( final DataServiceEntry entry : entries ) {
-                        xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DDL_FILE );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
-                                                  entry.getPublishPolicy().toXml() );
-                        xmlWriter.writeEndElement();
-                    }
+        try ( final SpoolingOutputStream content = spool ) {
+            final DeflaterOutputStream deflaterStream = new DeflaterOutputStream( deflated, deflater, BUFFER_SIZE );
+            content.writeTo( deflaterStream, new byte[ BUFFER_SIZE ] );
+            deflaterStream.finish(); // not closed as that would close the deflated spool
+            return new CompressedEntry( entry, ZipEntry.DEFLATED, content, deflated );
+        } catch ( final Exception e ) {
+            deflated.close();
+            throw e;
+        } finally {
+            deflater.end();
+        }
+    }
 
-                    xmlWriter.writeEndElement();
-                }
-            }
+    private void writeZipEntry( final CompressedZipWriter zipWriter,
+                                final CompressedEntry compressed,
+                                final byte[] buffer ) throws Exception {
+        try ( final CompressedEntry entry = compressed ) {
+            zipWriter.add( entry.path, entry.method, entry.crc, entry.size, entry.content, buffer );
+        }
 
-            { // connection entries
-                final ConnectionEntry[] entries = manifest.getConnections();
+        LOGGER.debug( "Added zip entry: {0}", compressed.path );
+    }
 
-                if ( entries.length != 0 ) {
-                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.CONNECTIONS );
+    private SpoolingOutputStream spool( final ExportEntry entry ) throws Exception {
+        final SpoolingOutputStream spool = new SpoolingOutputStream( SPOOL_MEMORY_THRESHOLD );
 
-                    for ( final ConnectionEntry entry : entries ) {
-                        xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.CONNECTION_FILE );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
-                                                  entry.getPublishPolicy().toXml() );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.JNDI_NAME, entry.getJndiName() );
-                        xmlWriter.writeEndElement();
-                    }
+        try {
+            entry.write( spool, new byte[ BUFFER_SIZE ] );
+            return spool;
+        } catch ( final Exception e ) {
+            spool.close();
+            throw e;
+        }
+    }
 
-                    xmlWriter.writeEndElement();
-                }
+    private < T > T await( final CompletableFuture< T > future ) throws Exception {
+        try {
+            return future.join();
+        } catch ( final CompletionException e ) {
+            if ( e.getCause() instanceof Exception ) {
+                throw ( Exception )e.getCause();
             }
 
-            { // driver entries
-                final DataServiceEntry[] entries = manifest.getDrivers();
-
-                if ( entries.length != 0 ) {
-                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DRIVERS );
+            throw e;
+        }
+    }
 
-                    for ( final DataServiceEntry entry : entries ) {
-                        xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DRIVER_FILE );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
-                                                  entry.getPublishPolicy().toXml() );
-                        xmlWriter.writeEndElement();
-                    }
-
-                    xmlWriter.writeEndElement();
-                }
-            }
-
-            { // udf entries
-                final DataServiceEntry[] entries = manifest.getUdfs();
-
-                if ( entries.length != 0 ) {
-                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.UDFS );
-
-                    for ( final DataServiceEntry entry : entries ) {
-                        xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.UDF_FILE );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
-                                                  entry.getPublishPolicy().toXml() );
-                        xmlWriter.writeEndElement();
-                    }
-
-                    xmlWriter.writeEndElement();
-                }
-            }
-
-            { // vdb entries
-                final VdbEntry[] entries = manifest.getVdbs();
-
-                if ( entries.length != 0 ) {
-                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.VDBS );
-
-                    for ( final VdbEntry entry : entries ) {
-                        xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.VDB_FILE );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
-                                                  entry.getPublishPolicy().toXml() );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_NAME, entry.getVdbName() );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_VERSION, entry.getVdbVersion() );
-                        xmlWriter.writeEndElement();
-                    }
-
-                    xmlWriter.writeEndElement();
-                }
-            }
-
-            { // resource entries
-                final DataServiceEntry[] entries = manifest.getResources();
-
-                if ( entries.length != 0 ) {
-                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.RESOURCES );
-
-                    for ( final DataServiceEntry entry : entries ) {
-                        xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.RESOURCE_FILE );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
-                        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
-                                                  entry.getPublishPolicy().toXml() );
-                        xmlWriter.writeEndElement();
-                    }
+    private void exportManifest( final Node dataService,
+                                 final Options options,
+                                 final Map< DataServiceEntry, Node > entryNodeMap,
+                                 final ResultImpl result ) {
+        try {
+            final DataServiceManifest manifest = constructManifest( dataService, options, entryNodeMap );
+            exportManifest( dataService, options, manifest, result );
+        } catch ( final Exception e ) {
+            result.setError( TeiidI18n.errorConstructingDataServiceManifest.text(), e );
+        }
+    }
 
-                    xmlWriter.writeEndElement();
-                }
-            }
+    private void exportManifest( final Node dataService,
+                                 final Options options,
+                                 final DataServiceManifest manifest,
+                                 final ResultImpl result ) {
+        try {
+            final String xml = writeXml( options, xmlWriter -> writeManifest( manifest, options, xmlWriter ) );
+            LOGGER.debug( "Data service {0} manifest: \n{1}", dataService.getPath(), xml );
+            result.setOutcome( xml, String.class );
+        } catch ( final Exception e ) {
+            result.setError( TeiidI18n.errorExportingDataServiceManifest.text(), e );
+        }
+    }
 
-            xmlWriter.writeEndElement();
-            xmlWriter.writeEndDocument();
+    private void exportManifest( final Node dataService,
+                                 final Options options,
+                                 final Map< DataServiceEntry, Node > entryNodeMap,
+                                 final OutputStream stream,
+                                 final ResultImpl result ) {
+        final DataServiceManifest manifest;
 
-            final String xml = stringWriter.toString().trim();
-            LOGGER.debug( "Data service {0} manifest: \n{1}", dataService.getPath(), prettyPrint( xml, options ) );
+        try {
+            manifest = constructManifest( dataService, options, entryNodeMap );
+        } catch ( final Exception e ) {
+            result.setError( TeiidI18n.errorConstructingDataServiceManifest.text(), e );
+            return;
+        }
 
-            final String pretty = ( isPrettyPrint( options ) ? prettyPrint( xml, options ) : xml );
-            result.setOutcome( pretty, String.class );
+        try {
+            writeXml( stream, options, xmlWriter -> writeManifest( manifest, options, xmlWriter ) );
         } catch ( final Exception e ) {
             result.setError( TeiidI18n.errorExportingDataServiceManifest.text(), e );
-        } finally {
-            if ( xmlWriter != null ) {
-                try {
-                    xmlWriter.close();
-                } catch ( final Exception e ) {
-                    // do nothing
-                }
-            }
         }
     }
 
     private void exportServiceVdb( final Node dataService,
+                                   final OutputStream stream,
                                    final ResultImpl result ) {
         try {
-            final String queryText = String.format( FIND_SERVICE_VDB_PATTERN, dataService.getPath() );
-            final Session session = dataService.getSession();
-            final QueryManager queryMgr = session.getWorkspace().getQueryManager();
-            final Query query = queryMgr.createQuery( queryText, Query.JCR_SQL2 );
-            final QueryResult queryResult = query.execute();
-            final NodeIterator itr = queryResult.getNodes();
-
-            // make sure there is a service VDB to export
-            if ( itr.getSize() == 0 ) {
+            final Node vdb = findServiceVdb( dataService, result.getOptions() );
+
+            if ( vdb == null ) {
                 result.setError( TeiidI18n.noServiceVdbToExport.text(), null );
             } else {
-                final Node serviceVdbEntry = itr.nextNode(); // should only be one
-                final Node vdb = findReference( serviceVdbEntry );
-                final VdbExporter exporter = new VdbExporter();
-                final Result vdbExportResult = exporter.execute( vdb, result.getOptions() );
+                result.addDependency( vdb.getPath() );
+                final Result vdbExportResult = ( ( stream == null ) ? this.vdbExporter.execute( vdb, result.getOptions() )
+                                                                    : this.vdbExporter.execute( vdb,
+                                                                                                result.getOptions(),
+                                                                                                stream ) );
 
-                if ( vdbExportResult.wasSuccessful() ) {
-                    result.setOutcome( vdbExportResult.getOutcome(), vdbExportResult.getType() );
-                } else {
+                if ( !vdbExportResult.wasSuccessful() ) {
                     result.setError( vdbExportResult.getErrorMessage(), vdbExportResult.getError() );
+                } else if ( stream == null ) {
+                    result.setOutcome( vdbExportResult.getOutcome(), vdbExportResult.getType() );
                 }
             }
         } catch ( final Exception e ) {
@@ -890,6 +997,18 @@ public class DataServiceExporter extends AbstractExporter {
         }
     }
 
+    private void copy( final Binary binary,
+                       final OutputStream stream,
+                       final byte[] buffer ) throws Exception {
+        try ( final InputStream input = binary.getStream() ) {
+            int read = 0;
+
+            while ( ( read = input.read( buffer ) ) != -1 ) {
+                stream.write( buffer, 0, read );
+            }
+        }
+    }
+
     private Node findReference( final Node node ) throws Exception {
         Node reference = null;
 
@@ -905,15 +1024,70 @@ public class DataServiceExporter extends AbstractExporter {
         return reference;
     }
 
-    private DateFormat getDateFormatter( final Options options ) {
+    private Node findServiceVdb( final Node dataService,
+                                 final Options options ) throws Exception {
+        final ChildNodeLookup lookup = new ChildNodeLookup( isQueryChildNodes( options ) );
+        final Node[] entries = lookup.getChildren( dataService, DataVirtLexicon.ServiceVdbEntry.NODE_TYPE );
+
+        if ( entries.length != 0 ) {
+            return findReference( entries[ 0 ] ); // should only be one
+        }
+
+        // fall back to querying in case the entry is not a direct child
+        final String queryText = String.format( FIND_SERVICE_VDB_PATTERN, dataService.getPath() );
+        final Session session = dataService.getSession();
+        final QueryManager queryMgr = session.getWorkspace().getQueryManager();
+        final Query query = queryMgr.createQuery( queryText, Query.JCR_SQL2 );
+        final QueryResult queryResult = query.execute();
+        final NodeIterator itr = queryResult.getNodes();
+
+        // make sure there is a service VDB to export
+        if ( itr.getSize() == 0 ) {
+            return null;
+        }
+
+        final Node serviceVdbEntry = itr.nextNode(); // should only be one
+        return findReference( serviceVdbEntry );
+    }
+
+    private String[] getStoredExtensions( final Options options ) {
+        assert ( options != null );
+        final Object temp = options.get( OptionName.STORED_EXTENSIONS, DEFAULT_STORED_EXTENSIONS );
+
+        if ( !( temp instanceof String[] ) ) {
+            return DEFAULT_STORED_EXTENSIONS;
+        }
+
+        return ( String[] )temp;
+    }
+
+    private String formatDate( final LocalDateTime date,
+                               final Options options ) {
+        assert ( options != null );
+        final Object temp = options.get( OptionName.DATE_FORMATTER, DataServiceManifest.DATE_FORMATTER );
+
+        if ( temp instanceof DateFormat ) {
+            // a DateFormat is not thread-safe so a copy is used
+            final Calendar calendar = GregorianCalendar.from( date.atZone( ZoneId.systemDefault() ) );
+            return ( ( DateFormat )( ( DateFormat )temp ).clone() ).format( calendar.getTime() );
+        }
+
+        if ( temp instanceof DateTimeFormatter ) {
+            return date.format( ( DateTimeFormatter )temp );
+        }
+
+        return date.format( DataServiceManifest.DATE_FORMATTER );
+    }
+
+    private int getParallelism( final Options options ) {
         assert ( options != null );
-        final Object temp = options.get( OptionName.DATE_FORMATTER, DEFAULT_DATE_FORMATTER );
+        final Object temp = options.get( OptionName.PARALLELISM, DEFAULT_PARALLELISM );
 
-        if ( !( temp instanceof DateFormat ) ) {
-            return DEFAULT_DATE_FORMATTER;
+        if ( !( temp instanceof Number ) ) {
+            return DEFAULT_PARALLELISM;
         }
 
-        return ( DateFormat )temp;
+        return ( ( Number )temp ).intValue();
     }
 
     private ExportArtifact getExportArtifact( final Options options ) {
@@ -927,6 +1101,41 @@ public class DataServiceExporter extends AbstractExporter {
         return ( ExportArtifact )temp;
     }
 
+    private boolean isStored( final String path,
+                              final String[] storedExtensions ) {
+        for ( final String extension : storedExtensions ) {
+            if ( path.regionMatches( true, path.length() - extension.length(), extension, 0, extension.length() ) ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Stored entries must have their size and CRC set before they are written, so the binary is read once to compute the CRC.
+     */
+    private void prepareStoredEntry( final ZipEntry zipEntry,
+                                     final Binary binary,
+                                     final byte[] buffer ) throws Exception {
+        final CRC32 crc = new CRC32();
+        long size = 0;
+
+        try ( final InputStream input = binary.getStream() ) {
+            int read = 0;
+
+            while ( ( read = input.read( buffer ) ) != -1 ) {
+                crc.update( buffer, 0, read );
+                size += read;
+            }
+        }
+
+        zipEntry.setMethod( ZipEntry.STORED );
+        zipEntry.setSize( size );
+        zipEntry.setCompressedSize( size );
+        zipEntry.setCrc( crc.getValue() );
+    }
+
     private void setEntryProperties( final Node node,
                                      final DataServiceEntry entry,
                                      final String entryFolder ) throws Exception {
@@ -1003,6 +1212,224 @@ public class DataServiceExporter extends AbstractExporter {
         }
     }
 
+    private byte[] toByteArray( final Binary binary,
+                                final Node reference,
+                                final byte[] buffer ) throws Exception {
+        final long size = binary.getSize();
+
+        if ( size > ( Integer.MAX_VALUE - 8 ) ) {
+            throw new Exception( TeiidI18n.dataServiceReferenceTooLargeForByteArray.text( reference.getPath(), size ) );
+        }
+
+        final ByteArrayOutputStream data = new ByteArrayOutputStream( ( int )Math.max( size, 0 ) );
+        copy( binary, data, buffer );
+        return data.toByteArray();
+    }
+
+    private void writeManifest( final DataServiceManifest manifest,
+                                final Options options,
+                                final XMLStreamWriter xmlWriter ) throws Exception {
+        xmlWriter.writeStartDocument( "UTF-8", "1.0" );
+
+        // root element
+        xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DATASERVICE );
+        xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.NAME, manifest.getName() );
+
+        // data service description element
+        if ( !StringUtil.isBlank( manifest.getDescription() ) ) {
+            xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DESCRIPTION );
+            xmlWriter.writeCharacters( manifest.getDescription() );
+            xmlWriter.writeEndElement();
+        }
+
+        // data service lastModified element
+        if ( manifest.getLastModified() != null ) {
+            xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.LAST_MODIFIED );
+
+            xmlWriter.writeCharacters( formatDate( manifest.getLastModified(), options ) );
+            xmlWriter.writeEndElement();
+        }
+
+        // data service modifiedBy element
+        if ( !StringUtil.isBlank( manifest.getModifiedBy() ) ) {
+            xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.MODIFIED_BY );
+            xmlWriter.writeCharacters( manifest.getModifiedBy() );
+            xmlWriter.writeEndElement();
+        }
+
+        { // properties
+            final Properties props = manifest.getProperties(); // already filtered
+
+            for ( final String propName : props.stringPropertyNames() ) {
+                final Object value = props.get( propName );
+                writePropertyElement( xmlWriter, propName, value.toString() );
+            }
+        }
+
+        { // service VDB entry
+            final ServiceVdbEntry entry = manifest.getServiceVdb();
+
+            if ( entry != null ) {
+                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.SERVICE_VDB );
+
+                // path attribute
+                final String path = entry.getPath();
+                xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, path );
+
+                // publish policy attribute
+                final PublishPolicy policy = entry.getPublishPolicy();
+
+                if ( policy != null ) {
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH, policy.toXml() );
+                }
+
+                // VDB name attribute
+                xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_NAME, entry.getVdbName() );
+
+                // VDB version attribute
+                xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_VERSION, entry.getVdbVersion() );
+
+                { // dependencies
+                    final VdbEntry[] dependencies = entry.getVdbs();
+
+                    if ( dependencies.length != 0 ) {
+                        xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DEPENDENCIES );
+
+                        for ( final VdbEntry dependency : dependencies ) {
+                            xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.VDB_FILE );
+                            xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, dependency.getPath() );
+                            xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
+                                                      dependency.getPublishPolicy().toXml() );
+                            xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_NAME,
+                                                      dependency.getVdbName() );
+                            xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_VERSION,
+                                                      dependency.getVdbVersion() );
+                            xmlWriter.writeEndElement();
+                        }
+
+                        xmlWriter.writeEndElement();
+                    }
+                }
+
+                xmlWriter.writeEndElement();
+            }
+        }
+
+        { // metadata entries
+            final DataServiceEntry[] entries = manifest.getMetadata();
+
+            if ( entries.length != 0 ) {
+                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.METADATA );
+
+                for ( final DataServiceEntry entry : entries ) {
+                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DDL_FILE );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
+                                              entry.getPublishPolicy().toXml() );
+                    xmlWriter.writeEndElement();
+                }
+
+                xmlWriter.writeEndElement();
+            }
+        }
+
+        { // connection entries
+            final ConnectionEntry[] entries = manifest.getConnections();
+
+            if ( entries.length != 0 ) {
+                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.CONNECTIONS );
+
+                for ( final ConnectionEntry entry : entries ) {
+                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.CONNECTION_FILE );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
+                                              entry.getPublishPolicy().toXml() );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.JNDI_NAME, entry.getJndiName() );
+                    xmlWriter.writeEndElement();
+                }
+
+                xmlWriter.writeEndElement();
+            }
+        }
+
+        { // driver entries
+            final DataServiceEntry[] entries = manifest.getDrivers();
+
+            if ( entries.length != 0 ) {
+                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DRIVERS );
+
+                for ( final DataServiceEntry entry : entries ) {
+                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.DRIVER_FILE );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
+                                              entry.getPublishPolicy().toXml() );
+                    xmlWriter.writeEndElement();
+                }
+
+                xmlWriter.writeEndElement();
+            }
+        }
+
+        { // udf entries
+            final DataServiceEntry[] entries = manifest.getUdfs();
+
+            if ( entries.length != 0 ) {
+                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.UDFS );
+
+                for ( final DataServiceEntry entry : entries ) {
+                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.UDF_FILE );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
+                                              entry.getPublishPolicy().toXml() );
+                    xmlWriter.writeEndElement();
+                }
+
+                xmlWriter.writeEndElement();
+            }
+        }
+
+        { // vdb entries
+            final VdbEntry[] entries = manifest.getVdbs();
+
+            if ( entries.length != 0 ) {
+                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.VDBS );
+
+                for ( final VdbEntry entry : entries ) {
+                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.VDB_FILE );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
+                                              entry.getPublishPolicy().toXml() );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_NAME, entry.getVdbName() );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.VDB_VERSION, entry.getVdbVersion() );
+                    xmlWriter.writeEndElement();
+                }
+
+                xmlWriter.writeEndElement();
+            }
+        }
+
+        { // resource entries
+            final DataServiceEntry[] entries = manifest.getResources();
+
+            if ( entries.length != 0 ) {
+                xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.RESOURCES );
+
+                for ( final DataServiceEntry entry : entries ) {
+                    xmlWriter.writeStartElement( DataVirtLexicon.DataServiceManifestId.RESOURCE_FILE );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PATH, entry.getPath() );
+                    xmlWriter.writeAttribute( DataVirtLexicon.DataServiceManifestId.PUBLISH,
+                                              entry.getPublishPolicy().toXml() );
+                    xmlWriter.writeEndElement();
+                }
+
+                xmlWriter.writeEndElement();
+            }
+        }
+
+        xmlWriter.writeEndElement();
+        xmlWriter.writeEndDocument();
+    }
+
     private void writePropertyElement( final XMLStreamWriter writer,
                                        final String propName,
                                        final String propValue ) throws XMLStreamException {
@@ -1012,6 +1439,199 @@ public class DataServiceExporter extends AbstractExporter {
         writer.writeEndElement();
     }
 
+    /**
+     * A zip entry whose content was compressed, or spooled if it is stored, before it is added to the zip.
+     */
+    private static final class CompressedEntry implements AutoCloseable {
+
+        private final SpoolingOutputStream content;
+        private final long crc;
+        private final int method;
+        private final String path;
+        private final long size;
+
+        /**
+         * @param entry
+         *        the entry (cannot be <code>null</code>)
+         * @param method
+         *        either {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+         * @param spool
+         *        the uncompressed content (cannot be <code>null</code>)
+         * @param content
+         *        the content as it is written to the zip, which is closed with this entry (cannot be <code>null</code>)
+         */
+        CompressedEntry( final ExportEntry entry,
+                         final int method,
+                         final SpoolingOutputStream spool,
+                         final SpoolingOutputStream content ) {
+            this.path = entry.getPath();
+            this.method = method;
+            this.crc = spool.getCrc();
+            this.size = spool.getSize();
+            this.content = content;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.lang.AutoCloseable#close()
+         */
+        @Override
+        public void close() {
+            try {
+                this.content.close();
+            } catch ( final IOException e ) {
+                LOGGER.debug( e, "Unable to delete the spool of zip entry {0}", this.path );
+            }
+        }
+
+    }
+
+    /**
+     * Writes the content of a zip entry.
+     */
+    @FunctionalInterface
+    private interface EntryContent {
+
+        /**
+         * @param stream
+         *        the stream the content is written to (cannot be <code>null</code>)
+         * @param buffer
+         *        a buffer the content may be copied through (cannot be <code>null</code>)
+         * @throws Exception
+         *         if an error occurs writing the content
+         */
+        void write( final OutputStream stream,
+                    final byte[] buffer ) throws Exception;
+
+    }
+
+    /**
+     * Thrown when a nested export of a zip entry fails. The nested result is reported as the result of the zip export.
+     */
+    private static final class EntryExportException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Result result;
+
+        EntryExportException( final Result result ) {
+            super( result.getErrorMessage(), result.getError() );
+            this.result = result;
+        }
+
+        Result getResult() {
+            return this.result;
+        }
+
+    }
+
+    /**
+     * A data service file or zip entry whose content has not been written yet.
+     */
+    private static final class ExportEntry implements ExportedFile {
+
+        private final Binary binary;
+        private final EntryContent content;
+        private final String path;
+        private final boolean stored;
+
+        ExportEntry( final String path,
+                     final Binary binary,
+                     final boolean stored,
+                     final EntryContent content ) {
+            this.path = path;
+            this.binary = binary;
+            this.stored = stored;
+            this.content = content;
+        }
+
+        /**
+         * @return the binary the content is copied from or <code>null</code> if the content is rendered
+         */
+        Binary getBinary() {
+            return this.binary;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.dataservice.DataServiceExporter.ExportedFile#getPath()
+         */
+        @Override
+        public String getPath() {
+            return this.path;
+        }
+
+        /**
+         * @return <code>true</code> if the zip entry is stored without compression
+         */
+        boolean isStored() {
+            return this.stored;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.dataservice.DataServiceExporter.ExportedFile#openStream()
+         */
+        @Override
+        public InputStream openStream() throws Exception {
+            if ( this.binary != null ) {
+                return this.binary.getStream();
+            }
+
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            write( bos, new byte[ BUFFER_SIZE ] );
+            return new ByteArrayInputStream( bos.toByteArray() );
+        }
+
+        void write( final OutputStream stream,
+                    final byte[] buffer ) throws Exception {
+            this.content.write( stream, buffer );
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.dataservice.DataServiceExporter.ExportedFile#writeTo(java.io.OutputStream)
+         */
+        @Override
+        public void writeTo( final OutputStream stream ) throws Exception {
+            write( stream, new byte[ BUFFER_SIZE ] );
+        }
+
+    }
+
+    /**
+     * A file of a data service exported as {@link ExportArtifact#DATA_SERVICE_AS_FILE_ENTRIES entries}. The content is read from
+     * the repository, or rendered, each time it is requested, so it must be requested while the session of the exported node is
+     * still live.
+     */
+    public interface ExportedFile {
+
+        /**
+         * @return the path of the file relative to the data service archive (never empty)
+         */
+        String getPath();
+
+        /**
+         * @return a new stream of the file content that the caller must close (never <code>null</code>)
+         * @throws Exception
+         *         if an error occurs reading or rendering the content
+         */
+        InputStream openStream() throws Exception;
+
+        /**
+         * @param stream
+         *        the stream the content is written to and which is not closed (cannot be <code>null</code>)
+         * @throws Exception
+         *         if an error occurs reading or rendering the content
+         */
+        void writeTo( final OutputStream stream ) throws Exception;
+
+    }
+
     public enum ExportArtifact {
 
         /**
@@ -1019,6 +1639,11 @@ public class DataServiceExporter extends AbstractExporter {
          */
         DATA_SERVICE_AS_FILES,
 
+        /**
+         * Export data service as an <code>Iterable</code> of {@link ExportedFile files} whose content is written on demand.
+         */
+        DATA_SERVICE_AS_FILE_ENTRIES,
+
         /**
          * Export data service as the <code>byte</code> array of a zip file.
          */
@@ -1053,9 +1678,10 @@ public class DataServiceExporter extends AbstractExporter {
         public String CONNECTIONS_FOLDER = "export.connections_folder";
 
         /**
-         * The {@link DateFormat formatter} to use for dates.
+         * The {@link DateTimeFormatter formatter} to use for dates. A {@link DateFormat} is also accepted and is copied for each
+         * use as it is not thread-safe.
          *
-         * @see DataServiceExporter#DEFAULT_DATE_FORMATTER
+         * @see DataServiceManifest#DATE_FORMATTER
          */
         public String DATE_FORMATTER = "export.date_formatter";
 
@@ -1076,11 +1702,26 @@ public class DataServiceExporter extends AbstractExporter {
          */
         public String METADATA_FOLDER = "export.metadata_folder";
 
+        /**
+         * Property whose value is the <code>Integer</code> number of zip entries of a data service zip export that may be
+         * deflated at the same time. When greater than <code>1</code>, the calling thread reads the entries into spools and the
+         * threads of the exporter's executor deflate them while the next entries are read. The calling thread appends the
+         * deflated entries to the zip in manifest order. All repository reads stay on the calling thread, as a session must not
+         * be used concurrently. Default value is <code>1</code>, which reads and compresses each entry on the calling thread.
+         */
+        public String PARALLELISM = "export.parallelism";
+
         /**
          * Property whose value is the zip entry folder path for resource files. Default value is <code>resources/</code>.
          */
         public String RESOURCES_FOLDER = "export.resources_folder";
 
+        /**
+         * Property whose value is a <code>String</code> array of file extensions (like <code>.jar</code>) whose zip entries are
+         * stored without compression. Use for content that is already compressed. Default value is an empty array.
+         */
+        public String STORED_EXTENSIONS = "export.stored_extensions";
+
         /**
          * Property whose value is the zip entry folder path for UDF files. Default value is <code>udfs/</code>.
          */
@@ -50,6 +50,10 @@ import org.modeshape.common.util.StringUtil;
 import org.modeshape.jcr.api.JcrConstants;
 import org.modeshape.jcr.api.nodetype.NodeTypeManager;
 import org.modeshape.jcr.api.sequencer.Sequencer;
+import org.teiid.modeshape.metrics.MeteredZipInputStream;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.MetricsRegistry;
+import org.teiid.modeshape.metrics.Timer;
 import org.teiid.modeshape.sequencer.dataservice.DataServiceEntry.PublishPolicy;
 import org.teiid.modeshape.sequencer.dataservice.lexicon.DataVirtLexicon;
 import org.teiid.modeshape.sequencer.vdb.VdbDynamicSequencer;
@@ -123,6 +127,14 @@ public class DataServiceSequencer extends Sequencer {
     public boolean execute( final Property inputProperty,
                             final Node outputNode,
                             final Context context ) throws Exception {
+        try ( final Timer timer = MetricsRegistry.get().start( MetricNames.DATA_SERVICE_SEQUENCE ) ) {
+            return sequence( inputProperty, outputNode, context );
+        }
+    }
+
+    private boolean sequence( final Property inputProperty,
+                              final Node outputNode,
+                              final Context context ) throws Exception {
         LOGGER.debug( "DataServiceSequencer.execute called:outputNode name='{0}', path='{1}'",
                       outputNode.getName(),
                       outputNode.getPath() );
@@ -133,8 +145,10 @@ public class DataServiceSequencer extends Sequencer {
 
         try {
             // read manifest
-            try ( final ZipInputStream zis = new ZipInputStream( Objects.requireNonNull( binaryValue,
-                                                                                         "binaryValue" ).getStream() ) ) {
+            MetricsRegistry.get().record( MetricNames.SEQUENCED_ARCHIVE_SIZE,
+                                          Objects.requireNonNull( binaryValue, "binaryValue" ).getSize() );
+
+            try ( final ZipInputStream zis = new MeteredZipInputStream( binaryValue.getStream() ) ) {
                 ZipEntry entry = null;
 
                 while ( ( entry = zis.getNextEntry() ) != null ) {
@@ -164,7 +178,7 @@ public class DataServiceSequencer extends Sequencer {
             if ( serviceVdb != null ) {
                 final String serviceVdbPath = serviceVdb.getPath();
 
-                try ( final ZipInputStream zis = new ZipInputStream( binaryValue.getStream() ) ) {
+                try ( final ZipInputStream zis = new MeteredZipInputStream( binaryValue.getStream() ) ) {
                     ZipEntry entry = null;
 
                     while ( ( entry = zis.getNextEntry() ) != null ) {
@@ -429,7 +443,12 @@ public class DataServiceSequencer extends Sequencer {
                                               final Context context ) throws Exception {
         LOGGER.debug( "before reading manifest xml" );
 
-        final DataServiceManifest manifest = DataServiceManifest.read( inputStream );
+        DataServiceManifest manifest = null;
+
+        try ( final Timer timer = MetricsRegistry.get().start( MetricNames.DATA_SERVICE_MANIFEST_READ ) ) {
+            manifest = DataServiceManifest.read( inputStream );
+        }
+
         outputNode.setPrimaryType( DataVirtLexicon.DataService.NODE_TYPE );
         outputNode.setProperty( DataVirtLexicon.DataService.NAME, manifest.getName() );
 
@@ -527,7 +546,7 @@ public class DataServiceSequencer extends Sequencer {
                                       final Property inputProperty,
                                       final Context context ) throws Exception {
         LOGGER.debug( "sequenceDataSources called: all connections sequenced at once" );
-        try ( final ZipInputStream zis = new ZipInputStream( binaryValue.getStream() ) ) {
+        try ( final ZipInputStream zis = new MeteredZipInputStream( binaryValue.getStream() ) ) {
             ZipEntry entry = null;
 
             while ( ( entry = zis.getNextEntry() ) != null ) {
@@ -637,7 +656,7 @@ public class DataServiceSequencer extends Sequencer {
                                 final Binary binaryValue,
                                 final Node dataServiceNode ) throws Exception {
         LOGGER.debug( "sequenceFiles called: all files sequenced at once" );
-        try ( final ZipInputStream zis = new ZipInputStream( binaryValue.getStream() ) ) {
+        try ( final ZipInputStream zis = new MeteredZipInputStream( binaryValue.getStream() ) ) {
             ZipEntry entry = null;
 
             while ( ( entry = zis.getNextEntry() ) != null ) {
@@ -819,7 +838,7 @@ public class DataServiceSequencer extends Sequencer {
                                final Property inputProperty,
                                final Context context ) throws Exception {
         LOGGER.debug( "sequenceVdbs called: all VDBs sequenced at once" );
-        try ( final ZipInputStream zis = new ZipInputStream( binaryValue.getStream() ) ) {
+        try ( final ZipInputStream zis = new MeteredZipInputStream( binaryValue.getStream() ) ) {
             ZipEntry entry = null;
 
             while ( ( entry = zis.getNextEntry() ) != null ) {
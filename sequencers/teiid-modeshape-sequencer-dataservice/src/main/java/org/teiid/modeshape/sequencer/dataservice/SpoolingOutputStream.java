@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.dataservice;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * An output stream that keeps its content in memory until it gets too large and then moves it to a temporary file. The CRC and
+ * size of the content are computed as it is written. Closing the stream deletes the temporary file.
+ */
+final class SpoolingOutputStream extends OutputStream implements Closeable {
+
+    private final CRC32 crc = new CRC32();
+    private final int memoryThreshold;
+
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private Path file;
+    private OutputStream fileStream;
+    private long size = 0;
+
+    /**
+     * @param memoryThreshold
+     *        the number of bytes kept in memory before the content is moved to a temporary file
+     */
+    SpoolingOutputStream( final int memoryThreshold ) {
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.OutputStream#close()
+     */
+    @Override
+    public void close() throws IOException {
+        this.memory = null;
+
+        try {
+            if ( this.fileStream != null ) {
+                this.fileStream.close();
+                this.fileStream = null;
+            }
+        } finally {
+            if ( this.file != null ) {
+                Files.deleteIfExists( this.file );
+                this.file = null;
+            }
+        }
+    }
+
+    /**
+     * @return the CRC-32 of the content written
+     */
+    long getCrc() {
+        return this.crc.getValue();
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    long getSize() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.OutputStream#write(int)
+     */
+    @Override
+    public void write( final int b ) throws IOException {
+        write( new byte[] { ( byte )b }, 0, 1 );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.OutputStream#write(byte[], int, int)
+     */
+    @Override
+    public void write( final byte[] b,
+                       final int off,
+                       final int len ) throws IOException {
+        if ( ( this.fileStream == null ) && ( ( this.size + len ) > this.memoryThreshold ) ) {
+            this.file = Files.createTempFile( "dataservice-export", ".spool" );
+            this.fileStream = Files.newOutputStream( this.file );
+            this.memory.writeTo( this.fileStream );
+            this.memory = null;
+        }
+
+        if ( this.fileStream == null ) {
+            this.memory.write( b, off, len );
+        } else {
+            this.fileStream.write( b, off, len );
+        }
+
+        this.crc.update( b, off, len );
+        this.size += len;
+    }
+
+    /**
+     * @param stream
+     *        the stream the content is copied to (cannot be <code>null</code>)
+     * @param buffer
+     *        the buffer used to copy file content (cannot be <code>null</code> or empty)
+     * @throws IOException
+     *         if an error occurs copying the content
+     */
+    void writeTo( final OutputStream stream,
+                  final byte[] buffer ) throws IOException {
+        if ( this.fileStream == null ) {
+            this.memory.writeTo( stream );
+            return;
+        }
+
+        this.fileStream.close();
+        this.fileStream = null;
+
+        try ( final InputStream input = Files.newInputStream( this.file ) ) {
+            int read = 0;
+
+            while ( ( read = input.read( buffer ) ) != -1 ) {
+                stream.write( buffer, 0, read );
+            }
+        }
+    }
+
+}
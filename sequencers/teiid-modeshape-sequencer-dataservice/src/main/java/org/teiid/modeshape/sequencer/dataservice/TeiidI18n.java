@@ -28,6 +28,8 @@ import org.modeshape.common.i18n.I18n;
  */
 public final class TeiidI18n {
 
+    public static I18n dataServiceFilesCannotBeStreamed;
+    public static I18n dataServiceReferenceTooLargeForByteArray;
     public static I18n errorConstructingDataServiceManifest;
     public static I18n errorExportingConnection;
     public static I18n errorExportingDataServiceFiles;
@@ -28,10 +28,14 @@ import static org.hamcrest.core.IsNull.notNullValue;
 import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import javax.jcr.Node;
 import org.junit.Test;
 import org.teiid.modeshape.sequencer.AbstractSequencerTest;
+import org.teiid.modeshape.sequencer.Exporter;
+import org.teiid.modeshape.sequencer.Options;
 import org.teiid.modeshape.sequencer.Result;
 
 public final class ConnectionExporterTest extends AbstractSequencerTest {
@@ -97,4 +101,45 @@ public final class ConnectionExporterTest extends AbstractSequencerTest {
         assertThat( connection.getPropertyValue( "prop2" ), is( "prop2Value" ) );
     }
 
+    @Test
+    public void shouldStreamSameConnectionAsExport() throws Exception {
+        createNodeWithContentFromFile( "resource-connection.xml", "connections/resource-connection.xml" );
+        final Node connectionNode = getOutputNode( this.rootNode, "connections/resourceConnection" );
+        assertThat( connectionNode, is( notNullValue() ) );
+
+        for ( final boolean prettyPrint : new boolean[] { true, false } ) {
+            final Options options = new Options();
+            options.set( Options.PRETTY_PRINT_PROPERTY, prettyPrint );
+
+            final ConnectionExporter exporter = new ConnectionExporter();
+            final String xml = ( String )exporter.execute( connectionNode, options ).getOutcome();
+
+            final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            final Result result = exporter.execute( connectionNode, options, stream );
+            assertThat( result.getError(), is( nullValue() ) );
+            assertThat( result.getErrorMessage(), is( nullValue() ) );
+            assertThat( result.getType(), is( ( Object )Long.class ) );
+            assertThat( result.getOutcome(), is( ( Object )( long )stream.size() ) );
+            assertThat( new String( stream.toByteArray(), StandardCharsets.UTF_8 ), is( xml ) );
+        }
+    }
+
+    @Test
+    public void shouldStreamExportOfExporterWithoutStreamingSupport() throws Exception {
+        createNodeWithContentFromFile( "resource-connection.xml", "connections/resource-connection.xml" );
+        final Node connectionNode = getOutputNode( this.rootNode, "connections/resourceConnection" );
+        assertThat( connectionNode, is( notNullValue() ) );
+
+        final ConnectionExporter connectionExporter = new ConnectionExporter();
+        final String xml = ( String )connectionExporter.execute( connectionNode, null ).getOutcome();
+
+        final Exporter exporter = ( node, options ) -> connectionExporter.execute( node, options );
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final Result result = exporter.execute( connectionNode, null, stream );
+        assertThat( result.wasSuccessful(), is( true ) );
+        assertThat( result.getType(), is( ( Object )Long.class ) );
+        assertThat( result.getOutcome(), is( ( Object )( long )stream.size() ) );
+        assertThat( new String( stream.toByteArray(), StandardCharsets.UTF_8 ), is( xml ) );
+    }
+
 }
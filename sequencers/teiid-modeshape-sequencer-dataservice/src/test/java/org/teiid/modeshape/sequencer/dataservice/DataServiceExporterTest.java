@@ -32,22 +32,37 @@ import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
+import javax.jcr.Session;
 import javax.jcr.Value;
 import org.junit.Test;
 import org.teiid.modeshape.sequencer.AbstractSequencerTest;
 import org.teiid.modeshape.sequencer.Options;
 import org.teiid.modeshape.sequencer.Result;
 import org.teiid.modeshape.sequencer.dataservice.DataServiceExporter.ExportArtifact;
+import org.teiid.modeshape.sequencer.dataservice.DataServiceExporter.ExportedFile;
 import org.teiid.modeshape.sequencer.dataservice.DataServiceExporter.OptionName;
 import org.teiid.modeshape.sequencer.dataservice.lexicon.DataVirtLexicon;
 import org.teiid.modeshape.sequencer.vdb.VdbManifest;
@@ -69,6 +84,28 @@ public final class DataServiceExporterTest extends AbstractSequencerTest {
         return null;
     }
 
+    private Map< String, byte[] > readZip( final byte[] zipBytes ) throws Exception {
+        final Map< String, byte[] > entries = new LinkedHashMap<>();
+
+        try ( final ZipInputStream zis = new ZipInputStream( new ByteArrayInputStream( zipBytes ) ) ) {
+            ZipEntry entry = null;
+
+            while ( ( entry = zis.getNextEntry() ) != null ) {
+                final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[ 8192 ];
+                int read = 0;
+
+                while ( ( read = zis.read( buffer ) ) != -1 ) {
+                    content.write( buffer, 0, read );
+                }
+
+                entries.put( entry.getName(), content.toByteArray() );
+            }
+        }
+
+        return entries;
+    }
+
     @Override
     protected InputStream getRepositoryConfigStream() {
         return resourceStream( "config/repo-config.json" );
@@ -426,4 +463,327 @@ public final class DataServiceExporterTest extends AbstractSequencerTest {
         assertModel( manifest.getModels(), "ProductSummary" );
     }
 
+    @Test
+    public void shouldNotStreamDataServiceAsFiles() throws Exception {
+        createNodeWithContentFromFile( "MyDataService.zip", "dataservice/sample-ds.zip" );
+        final Node dataServiceNode = getOutputNode( this.rootNode, "dataservices/MyDataService.zip" );
+        assertThat( dataServiceNode, is( notNullValue() ) );
+
+        final Options options = new Options();
+        options.set( OptionName.EXPORT_ARTIFACT, ExportArtifact.DATA_SERVICE_AS_FILES );
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final Result result = new DataServiceExporter().execute( dataServiceNode, options, stream );
+        assertThat( result.wasSuccessful(), is( false ) );
+        assertThat( result.getOutcome(), is( nullValue() ) );
+        assertThat( stream.size(), is( 0 ) );
+    }
+
+    @Test
+    public void shouldExportFileEntriesWithSameContentAsZip() throws Exception {
+        createNodeWithContentFromFile( "MyDataService.zip", "dataservice/sample-ds.zip" );
+        final Node dataServiceNode = getOutputNode( this.rootNode, "dataservices/MyDataService.zip" );
+        assertThat( dataServiceNode, is( notNullValue() ) );
+
+        final DataServiceExporter exporter = new DataServiceExporter();
+        final Map< String, byte[] > expected = readZip( ( byte[] )exporter.execute( dataServiceNode, null ).getOutcome() );
+
+        final Options options = new Options();
+        options.set( OptionName.EXPORT_ARTIFACT, ExportArtifact.DATA_SERVICE_AS_FILE_ENTRIES );
+        final Result result = exporter.execute( dataServiceNode, options );
+        assertThat( result.getError(), is( nullValue() ) );
+        assertThat( result.getErrorMessage(), is( nullValue() ) );
+        assertThat( result.getOutcome(), is( instanceOf( Iterable.class ) ) );
+
+        @SuppressWarnings( "unchecked" )
+        final Iterable< ExportedFile > files = ( Iterable< ExportedFile > )result.getOutcome();
+        final List< String > paths = new ArrayList<>();
+
+        for ( final ExportedFile file : files ) {
+            paths.add( file.getPath() );
+            final byte[] content = expected.get( file.getPath() );
+            assertThat( file.getPath(), content, is( notNullValue() ) );
+
+            final ByteArrayOutputStream written = new ByteArrayOutputStream();
+            file.writeTo( written );
+            assertThat( file.getPath(), Arrays.equals( written.toByteArray(), content ), is( true ) );
+
+            final ByteArrayOutputStream read = new ByteArrayOutputStream();
+
+            try ( final InputStream stream = file.openStream() ) {
+                final byte[] buffer = new byte[ 1024 ];
+                int count = 0;
+
+                while ( ( count = stream.read( buffer ) ) != -1 ) {
+                    read.write( buffer, 0, count );
+                }
+            }
+
+            assertThat( file.getPath(), Arrays.equals( read.toByteArray(), content ), is( true ) );
+        }
+
+        assertThat( paths, is( new ArrayList<>( expected.keySet() ) ) );
+    }
+
+    @Test
+    public void shouldStreamSameDataServiceZipAsExport() throws Exception {
+        createNodeWithContentFromFile( "MyDataService.zip", "dataservice/sample-ds.zip" );
+        final Node dataServiceNode = getOutputNode( this.rootNode, "dataservices/MyDataService.zip" );
+        assertThat( dataServiceNode, is( notNullValue() ) );
+
+        final DataServiceExporter exporter = new DataServiceExporter();
+        final Map< String, byte[] > expected = readZip( ( byte[] )exporter.execute( dataServiceNode, null ).getOutcome() );
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final Result result = exporter.execute( dataServiceNode, null, stream );
+        assertThat( result.getError(), is( nullValue() ) );
+        assertThat( result.getErrorMessage(), is( nullValue() ) );
+        assertThat( result.getOutcome(), is( ( Object )( long )stream.size() ) );
+
+        final Map< String, byte[] > actual = readZip( stream.toByteArray() );
+        assertThat( actual.keySet(), is( expected.keySet() ) );
+
+        for ( final Map.Entry< String, byte[] > entry : expected.entrySet() ) {
+            assertThat( entry.getKey(), Arrays.equals( actual.get( entry.getKey() ), entry.getValue() ), is( true ) );
+        }
+    }
+
+    @Test
+    public void shouldStreamWithSameDependenciesAsExport() throws Exception {
+        createNodeWithContentFromFile( "MyDataService.zip", "dataservice/sample-ds.zip" );
+        final Node dataServiceNode = getOutputNode( this.rootNode, "dataservices/MyDataService.zip" );
+        assertThat( dataServiceNode, is( notNullValue() ) );
+
+        final DataServiceExporter exporter = new DataServiceExporter();
+        final Result expected = exporter.execute( dataServiceNode, null );
+        assertThat( expected.getDependencies().isEmpty(), is( false ) );
+
+        final Result actual = exporter.execute( dataServiceNode, null, new ByteArrayOutputStream() );
+        assertThat( actual.getError(), is( nullValue() ) );
+        assertThat( new HashSet<>( actual.getDependencies() ), is( new HashSet<>( expected.getDependencies() ) ) );
+    }
+
+    @Test
+    public void shouldStreamSameDataServiceManifestAsExport() throws Exception {
+        createNodeWithContentFromFile( "MyDataService.zip", "dataservice/sample-ds.zip" );
+        final Node dataServiceNode = getOutputNode( this.rootNode, "dataservices/MyDataService.zip" );
+        assertThat( dataServiceNode, is( notNullValue() ) );
+
+        final DataServiceExporter exporter = new DataServiceExporter();
+        final Options options = new Options();
+        options.set( OptionName.EXPORT_ARTIFACT, ExportArtifact.MANIFEST_AS_XML );
+        final String xml = ( String )exporter.execute( dataServiceNode, options ).getOutcome();
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final Result result = exporter.execute( dataServiceNode, options, stream );
+        assertThat( result.getError(), is( nullValue() ) );
+        assertThat( result.getErrorMessage(), is( nullValue() ) );
+        assertThat( new String( stream.toByteArray(), StandardCharsets.UTF_8 ), is( xml ) );
+    }
+
+    @Test
+    public void shouldStoreEntriesWithStoredExtensions() throws Exception {
+        createNodeWithContentFromFile( "MyDataService.zip", "dataservice/sample-ds.zip" );
+        final Node dataServiceNode = getOutputNode( this.rootNode, "dataservices/MyDataService.zip" );
+        assertThat( dataServiceNode, is( notNullValue() ) );
+
+        final DataServiceExporter exporter = new DataServiceExporter();
+        final Map< String, byte[] > expected = readZip( ( byte[] )exporter.execute( dataServiceNode, null ).getOutcome() );
+
+        final Options options = new Options();
+        options.set( OptionName.STORED_EXTENSIONS, new String[] { ".JAR" } );
+        final Result result = exporter.execute( dataServiceNode, options );
+        assertThat( result.getError(), is( nullValue() ) );
+        assertThat( result.getErrorMessage(), is( nullValue() ) );
+
+        final byte[] zipBytes = ( byte[] )result.getOutcome();
+        int numStored = 0;
+
+        try ( final ZipInputStream zis = new ZipInputStream( new ByteArrayInputStream( zipBytes ) ) ) {
+            ZipEntry entry = null;
+
+            while ( ( entry = zis.getNextEntry() ) != null ) {
+                final boolean stored = ( entry.getMethod() == ZipEntry.STORED );
+                assertThat( entry.getName(), stored, is( entry.getName().endsWith( ".jar" ) ) );
+
+                if ( stored ) {
+                    ++numStored;
+                }
+            }
+        }
+
+        assertThat( numStored, is( 4 ) );
+
+        final Map< String, byte[] > actual = readZip( zipBytes );
+        assertThat( actual.keySet(), is( expected.keySet() ) );
+
+        for ( final Map.Entry< String, byte[] > entry : expected.entrySet() ) {
+            assertThat( entry.getKey(), Arrays.equals( actual.get( entry.getKey() ), entry.getValue() ), is( true ) );
+        }
+    }
+
+    @Test
+    public void shouldExportSameZipWhenRenderingEntriesInParallel() throws Exception {
+        createNodeWithContentFromFile( "MyDataService.zip", "dataservice/sample-ds.zip" );
+        final Node dataServiceNode = getOutputNode( this.rootNode, "dataservices/MyDataService.zip" );
+        assertThat( dataServiceNode, is( notNullValue() ) );
+
+        final DataServiceExporter exporter = new DataServiceExporter();
+        final Options options = new Options();
+        options.set( OptionName.STORED_EXTENSIONS, new String[] { ".jar" } );
+        final Map< String, byte[] > expected = readZip( ( byte[] )exporter.execute( dataServiceNode, options ).getOutcome() );
+
+        options.set( OptionName.PARALLELISM, 3 );
+        final Result result = exporter.execute( dataServiceNode, options );
+        assertThat( result.getError(), is( nullValue() ) );
+        assertThat( result.getErrorMessage(), is( nullValue() ) );
+
+        final byte[] zipBytes = ( byte[] )result.getOutcome();
+        final Map< String, byte[] > actual = readZip( zipBytes );
+
+        // same entries in the same order
+        assertThat( new ArrayList<>( actual.keySet() ), is( new ArrayList<>( expected.keySet() ) ) );
+
+        for ( final Map.Entry< String, byte[] > entry : expected.entrySet() ) {
+            assertThat( entry.getKey(), Arrays.equals( actual.get( entry.getKey() ), entry.getValue() ), is( true ) );
+        }
+
+        try ( final ZipInputStream zis = new ZipInputStream( new ByteArrayInputStream( zipBytes ) ) ) {
+            ZipEntry entry = null;
+
+            while ( ( entry = zis.getNextEntry() ) != null ) {
+                final boolean stored = ( entry.getMethod() == ZipEntry.STORED );
+                assertThat( entry.getName(), stored, is( entry.getName().endsWith( ".jar" ) ) );
+            }
+        }
+
+        // the central directory lists the same entries
+        final Path zipFile = Files.createTempFile( "parallel-export", ".zip" );
+
+        try {
+            Files.write( zipFile, zipBytes );
+
+            try ( final ZipFile zip = new ZipFile( zipFile.toFile() ) ) {
+                final List< String > names = new ArrayList<>();
+
+                for ( final ZipEntry entry : Collections.list( zip.entries() ) ) {
+                    names.add( entry.getName() );
+
+                    try ( final InputStream content = zip.getInputStream( entry ) ) {
+                        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        final byte[] buffer = new byte[ 8192 ];
+                        int read = 0;
+
+                        while ( ( read = content.read( buffer ) ) != -1 ) {
+                            bytes.write( buffer, 0, read );
+                        }
+
+                        final byte[] expectedContent = expected.get( entry.getName() );
+                        assertThat( entry.getName(), Arrays.equals( bytes.toByteArray(), expectedContent ), is( true ) );
+                    }
+                }
+
+                assertThat( names, is( new ArrayList<>( expected.keySet() ) ) );
+            }
+        } finally {
+            Files.delete( zipFile );
+        }
+    }
+
+    @Test
+    public void shouldDeflateEntriesWithGivenExecutor() throws Exception {
+        createNodeWithContentFromFile( "MyDataService.zip", "dataservice/sample-ds.zip" );
+        final Node dataServiceNode = getOutputNode( this.rootNode, "dataservices/MyDataService.zip" );
+        assertThat( dataServiceNode, is( notNullValue() ) );
+
+        final Map< String, byte[] > expected = readZip( ( byte[] )new DataServiceExporter().execute( dataServiceNode, null )
+                                                                                        .getOutcome() );
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final AtomicInteger deflations = new AtomicInteger();
+
+        try {
+            final DataServiceExporter exporter = new DataServiceExporter( task -> {
+                deflations.incrementAndGet();
+                executor.execute( task );
+            } );
+            final Options options = new Options();
+            options.set( OptionName.PARALLELISM, 2 );
+
+            final Result result = exporter.execute( dataServiceNode, options );
+            assertThat( result.getError(), is( nullValue() ) );
+
+            final Map< String, byte[] > actual = readZip( ( byte[] )result.getOutcome() );
+            assertThat( new ArrayList<>( actual.keySet() ), is( new ArrayList<>( expected.keySet() ) ) );
+            assertThat( deflations.get(), is( expected.size() ) ); // one deflation per entry
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldExportConcurrentlySameAsSequentially() throws Exception {
+        createNodeWithContentFromFile( "MyDataService.zip", "dataservice/sample-ds.zip" );
+        final Node dataServiceNode = getOutputNode( this.rootNode, "dataservices/MyDataService.zip" );
+        assertThat( dataServiceNode, is( notNullValue() ) );
+        final String path = dataServiceNode.getPath();
+
+        // one exporter and one set of options shared by all threads
+        final DataServiceExporter exporter = new DataServiceExporter();
+        final Options zipOptions = new Options();
+        zipOptions.set( OptionName.DATE_FORMATTER, new SimpleDateFormat( DataServiceManifest.DATE_PATTERN ) );
+        final Options manifestOptions = new Options();
+        manifestOptions.set( OptionName.EXPORT_ARTIFACT, ExportArtifact.MANIFEST_AS_XML );
+
+        final String expectedManifest = ( String )exporter.execute( dataServiceNode, manifestOptions ).getOutcome();
+        assertThat( expectedManifest.contains( "2002-05-30T09:30:10" ), is( true ) );
+        final Map< String, byte[] > expectedZip = readZip( ( byte[] )exporter.execute( dataServiceNode, zipOptions ).getOutcome() );
+
+        final int numThreads = 4;
+        final int numExports = 32;
+        final ExecutorService executor = Executors.newFixedThreadPool( numThreads );
+
+        try {
+            final List< Future< Void > > futures = new ArrayList<>();
+
+            for ( int i = 0; i < numExports; ++i ) {
+                futures.add( executor.submit( new Callable< Void >() {
+
+                    @Override
+                    public Void call() throws Exception {
+                        final Session session = repository.login();
+
+                        try {
+                            final Node node = session.getNode( path );
+                            final Result manifestResult = exporter.execute( node, manifestOptions );
+                            assertThat( manifestResult.getError(), is( nullValue() ) );
+                            assertThat( manifestResult.getOutcome(), is( ( Object )expectedManifest ) );
+
+                            final Result zipResult = exporter.execute( node, zipOptions );
+                            assertThat( zipResult.getError(), is( nullValue() ) );
+
+                            final Map< String, byte[] > zip = readZip( ( byte[] )zipResult.getOutcome() );
+                            assertThat( zip.keySet(), is( expectedZip.keySet() ) );
+
+                            for ( final Map.Entry< String, byte[] > entry : expectedZip.entrySet() ) {
+                                assertThat( entry.getKey(), Arrays.equals( zip.get( entry.getKey() ), entry.getValue() ), is( true ) );
+                            }
+                        } finally {
+                            session.logout();
+                        }
+
+                        return null;
+                    }
+
+                } ) );
+            }
+
+            for ( final Future< Void > future : futures ) {
+                future.get(); // rethrows assertion failures
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
 }
@@ -786,6 +786,19 @@ final class CreateTableParser extends StatementParser {
         return columnNode;
     }
 
+    /**
+     * Moves the unresolved foreign key table references of the other parser into this parser so that they are resolved when
+     * this parser post-processes the tree.
+     * 
+     * @see org.teiid.modeshape.sequencer.ddl.StatementParser#absorb(org.teiid.modeshape.sequencer.ddl.StatementParser)
+     */
+    @Override
+    void absorb( final StatementParser other ) {
+        final CreateTableParser that = (CreateTableParser)other;
+        this.unresolvedTableReferences.addAll(that.unresolvedTableReferences);
+        that.unresolvedTableReferences.clear();
+    }
+
     /**
      * Process the AstNode tree to look for table references from foreign keys that are not resolved
      */
@@ -0,0 +1,364 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.ddl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.modeshape.common.annotation.Immutable;
+import org.modeshape.common.annotation.ThreadSafe;
+import org.modeshape.common.util.CheckArg;
+import org.teiid.modeshape.sequencer.ddl.node.AstNode;
+
+/**
+ * A bounded cache of DDL parsing results keyed by a hash of the DDL content (and anything else that affects parsing). Entries are
+ * {@link Snapshot immutable snapshots} of the AST that can be turned back into an AST without tokenizing or parsing. The least
+ * recently used entries are evicted once the estimated size of all entries exceeds the size budget.
+ */
+@ThreadSafe
+public final class DdlParseCache {
+
+    private final long maxSize;
+    private final LinkedHashMap<String, Snapshot> snapshots = new LinkedHashMap<String, Snapshot>(16, 0.75f, true);
+    private long size;
+    private long evictions;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxSize the maximum estimated size in bytes of all the cached snapshots (must be positive)
+     */
+    public DdlParseCache( final long maxSize ) {
+        CheckArg.isPositive(maxSize, "maxSize");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Removes all entries. The counters are not reset.
+     */
+    public synchronized void clear() {
+        this.snapshots.clear();
+        this.size = 0;
+    }
+
+    /**
+     * @param key the key of the snapshot being requested (cannot be <code>null</code>)
+     * @return the snapshot or <code>null</code> if not cached
+     */
+    public synchronized Snapshot get( final String key ) {
+        CheckArg.isNotNull(key, "key");
+        final Snapshot result = this.snapshots.get(key);
+
+        if (result == null) {
+            ++this.misses;
+        } else {
+            ++this.hits;
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the number of entries evicted because the size budget was exceeded
+     */
+    public synchronized long getEvictionCount() {
+        return this.evictions;
+    }
+
+    /**
+     * @return the number of requests that found a cached snapshot
+     */
+    public synchronized long getHitCount() {
+        return this.hits;
+    }
+
+    /**
+     * @return the maximum estimated size in bytes of all the cached snapshots
+     */
+    public long getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * @return the number of requests that did not find a cached snapshot
+     */
+    public synchronized long getMissCount() {
+        return this.misses;
+    }
+
+    /**
+     * @return the estimated size in bytes of all the cached snapshots
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Snapshots larger than the size budget are not cached.
+     * 
+     * @param key the key of the snapshot (cannot be <code>null</code>)
+     * @param snapshot the snapshot being cached (cannot be <code>null</code>)
+     */
+    public synchronized void put( final String key,
+                                  final Snapshot snapshot ) {
+        CheckArg.isNotNull(key, "key");
+        CheckArg.isNotNull(snapshot, "snapshot");
+
+        if (snapshot.getSize() > this.maxSize) {
+            return;
+        }
+
+        final Snapshot replaced = this.snapshots.put(key, snapshot);
+
+        if (replaced != null) {
+            this.size -= replaced.getSize();
+        }
+
+        this.size += snapshot.getSize();
+
+        // evict least recently used
+        for (final Iterator<Snapshot> itr = this.snapshots.values().iterator(); (this.size > this.maxSize) && itr.hasNext();) {
+            final Snapshot eldest = itr.next();
+
+            if (eldest != snapshot) {
+                itr.remove();
+                this.size -= eldest.getSize();
+                ++this.evictions;
+            }
+        }
+    }
+
+    /**
+     * @return the number of cached snapshots
+     */
+    public synchronized int size() {
+        return this.snapshots.size();
+    }
+
+    /**
+     * An immutable copy of an AST. References to other nodes of the AST are kept as paths of child indexes.
+     */
+    @Immutable
+    public static final class Snapshot {
+
+        private static final int NODE_SIZE = 64;
+        private static final int PROPERTY_SIZE = 32;
+        private static final int VALUE_SIZE = 16;
+        private static final int STRING_SIZE = 40;
+
+        /**
+         * @param rootNode the root of the AST being copied (cannot be <code>null</code>)
+         * @return the snapshot (never <code>null</code>)
+         */
+        public static Snapshot of( final AstNode rootNode ) {
+            CheckArg.isNotNull(rootNode, "rootNode");
+            return new Snapshot(rootNode, rootNode);
+        }
+
+        private final String name;
+        private final String[] propertyNames;
+        private final Object[] values;
+        private final Snapshot[] children;
+        private final long size;
+
+        private Snapshot( final AstNode node,
+                          final AstNode rootNode ) {
+            this.name = node.getName();
+
+            final List<String> names = node.getPropertyNames();
+            this.propertyNames = names.toArray(new String[names.size()]);
+            this.values = new Object[this.propertyNames.length];
+            long estimate = NODE_SIZE + sizeOf(this.name);
+
+            for (int i = 0; i < this.propertyNames.length; ++i) {
+                this.values[i] = copy(node.getProperty(this.propertyNames[i]), rootNode);
+                estimate += PROPERTY_SIZE + sizeOf(this.propertyNames[i]) + sizeOf(this.values[i]);
+            }
+
+            this.children = new Snapshot[node.getChildCount()];
+            int i = 0;
+
+            for (final AstNode kid : node) {
+                this.children[i++] = new Snapshot(kid, rootNode);
+                estimate += this.children[i - 1].size;
+            }
+
+            this.size = estimate;
+        }
+
+        private static Object copy( final Object value,
+                                    final AstNode rootNode ) {
+            if (value instanceof AstNode) {
+                return new Reference((AstNode)value, rootNode);
+            }
+
+            if (value instanceof Collection) {
+                final Collection<?> items = (Collection<?>)value;
+                final List<Object> result = new ArrayList<Object>(items.size());
+
+                for (final Object item : items) {
+                    result.add(copy(item, rootNode));
+                }
+
+                return Collections.unmodifiableList(result);
+            }
+
+            if ((value instanceof String) || (value instanceof Number) || (value instanceof Boolean)) {
+                return value;
+            }
+
+            // everything else is sequenced as a string
+            return value.toString();
+        }
+
+        private static long sizeOf( final Object value ) {
+            if (value instanceof String) {
+                return STRING_SIZE + (2L * ((String)value).length());
+            }
+
+            if (value instanceof Reference) {
+                return VALUE_SIZE + (4L * ((Reference)value).path.length);
+            }
+
+            if (value instanceof List) {
+                long result = VALUE_SIZE;
+
+                for (final Object item : (List<?>)value) {
+                    result += sizeOf(item);
+                }
+
+                return result;
+            }
+
+            return VALUE_SIZE;
+        }
+
+        /**
+         * @return the estimated size in bytes of this snapshot
+         */
+        public long getSize() {
+            return this.size;
+        }
+
+        /**
+         * @return a new AST equivalent to the one the snapshot was taken from (never <code>null</code>)
+         */
+        public AstNode toAstNode() {
+            final AstNode result = create(null);
+            resolve(result, result);
+            return result;
+        }
+
+        private AstNode create( final AstNode parent ) {
+            final AstNode node = new AstNode(parent, this.name);
+
+            for (int i = 0; i < this.propertyNames.length; ++i) {
+                final Object value = this.values[i];
+                // lists are copied as they may be changed (mixins for instance)
+                node.setProperty(this.propertyNames[i], ((value instanceof List) ? new ArrayList<Object>((List<?>)value) : value));
+            }
+
+            for (final Snapshot kid : this.children) {
+                kid.create(node);
+            }
+
+            return node;
+        }
+
+        private void resolve( final AstNode node,
+                              final AstNode rootNode ) {
+            for (int i = 0; i < this.propertyNames.length; ++i) {
+                final Object value = this.values[i];
+
+                if (value instanceof Reference) {
+                    node.setProperty(this.propertyNames[i], ((Reference)value).resolve(rootNode));
+                } else if (value instanceof List) {
+                    final List<?> items = (List<?>)value;
+                    boolean hasReferences = false;
+
+                    for (final Object item : items) {
+                        if (item instanceof Reference) {
+                            hasReferences = true;
+                            break;
+                        }
+                    }
+
+                    if (hasReferences) {
+                        final List<Object> resolved = new ArrayList<Object>(items.size());
+
+                        for (final Object item : items) {
+                            resolved.add((item instanceof Reference) ? ((Reference)item).resolve(rootNode) : item);
+                        }
+
+                        node.setProperty(this.propertyNames[i], resolved);
+                    }
+                }
+            }
+
+            for (int i = 0; i < this.children.length; ++i) {
+                this.children[i].resolve(node.getChild(i), rootNode);
+            }
+        }
+
+    }
+
+    /**
+     * A reference to a node of the same AST.
+     */
+    @Immutable
+    private static final class Reference {
+
+        private final int[] path;
+
+        Reference( final AstNode node,
+                   final AstNode rootNode ) {
+            final List<Integer> indexes = new ArrayList<Integer>();
+            AstNode current = node;
+
+            while ((current != rootNode) && (current.getParent() != null)) {
+                indexes.add(0, current.getParent().getChildren().indexOf(current));
+                current = current.getParent();
+            }
+
+            this.path = new int[indexes.size()];
+
+            for (int i = 0; i < this.path.length; ++i) {
+                this.path[i] = indexes.get(i);
+            }
+        }
+
+        AstNode resolve( final AstNode rootNode ) {
+            AstNode result = rootNode;
+
+            for (final int index : this.path) {
+                result = result.getChild(index);
+            }
+
+            return result;
+        }
+
+    }
+
+}
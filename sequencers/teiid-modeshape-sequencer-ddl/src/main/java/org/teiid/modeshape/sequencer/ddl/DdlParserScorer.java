@@ -22,6 +22,7 @@
 package org.teiid.modeshape.sequencer.ddl;
 
 import org.modeshape.common.annotation.NotThreadSafe;
+import org.modeshape.common.util.CheckArg;
 
 /**
  * Interface used by a parser to determine a score describing how well it handles the DDL content.
@@ -58,22 +59,25 @@ public class DdlParserScorer {
                            int factor,
                            String... keywords ) {
         if (text != null && keywords != null) {
-            // Increment the score once for each keyword that is found within the text ...
-            String lowercaseText = text.toLowerCase();
-            for (String keyword : keywords) {
-                if (keyword == null) continue;
-                String lowercaseKeyword = keyword.toLowerCase();
-                int index = 0;
-                while (true) {
-                    index = lowercaseText.indexOf(lowercaseKeyword, index);
-                    if (index == -1) break;
-                    score += factor;
-                    ++index;
-                }
-            }
+            scoreText(text, factor, new KeywordMatcher(keywords));
         }
     }
 
+    /**
+     * Increment the score once for each occurrence of any of the matcher's keywords in the given text. Parsers that score text
+     * repeatedly with the same keywords should create the matcher once.
+     * 
+     * @param text the text to evaluate; may be null
+     * @param factor the factor to use for each increment
+     * @param keywords the matcher of the keywords to be found in the text; may not be null
+     */
+    public void scoreText( CharSequence text,
+                           int factor,
+                           KeywordMatcher keywords ) {
+        CheckArg.isNotNull(keywords, "keywords");
+        score += (factor * keywords.count(text));
+    }
+
     /**
      * Increment the score if the given text contains any of the supply keywords.
      * 
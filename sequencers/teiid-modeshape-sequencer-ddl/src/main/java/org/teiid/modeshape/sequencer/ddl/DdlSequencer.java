@@ -29,13 +29,19 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
 import javax.jcr.Binary;
 import javax.jcr.Node;
+import javax.jcr.NodeIterator;
 import javax.jcr.Property;
 import javax.jcr.RepositoryException;
 import javax.jcr.Value;
@@ -45,9 +51,13 @@ import org.modeshape.common.logging.Logger;
 import org.modeshape.common.text.ParsingException;
 import org.modeshape.common.util.CheckArg;
 import org.modeshape.common.util.IoUtil;
+import org.modeshape.common.util.SecureHash;
 import org.modeshape.jcr.api.JcrConstants;
 import org.modeshape.jcr.api.Session;
 import org.modeshape.jcr.api.sequencer.Sequencer;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.MetricsRegistry;
+import org.teiid.modeshape.metrics.Timer;
 import org.teiid.modeshape.sequencer.ddl.node.AstNode;
 
 /**
@@ -76,7 +86,11 @@ abstract class DdlSequencer extends Sequencer {
 
     private String[] parserGrammars = DEFAULT_GRAMMARS.toArray(new String[DEFAULT_GRAMMARS.size()]);
     private URL[] classpath = DEFAULT_CLASSPATH;
+    private boolean includeStatementExpressions = true;
+    private DdlParseCache parseCache;
+    private boolean incremental = false;
     private final Map<AstNode, Node> nodeMap = new HashMap<AstNode, Node>();
+    private final Map<AstNode, Node> unchangedNodeMap = new HashMap<AstNode, Node>();
 
     /**
      * Get the names of the grammars that should be considered during processing. The grammar names may be the case-insensitive
@@ -121,6 +135,74 @@ abstract class DdlSequencer extends Sequencer {
         this.classpath = classpath != null ? classpath : DEFAULT_CLASSPATH;
     }
 
+    /**
+     * @return <code>true</code> if only the statements that changed since the output node was last sequenced are replaced
+     * @see #setIncremental(boolean)
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * When incremental, each top level statement is given a {@link StandardDdlLexicon#DDL_FINGERPRINT fingerprint} computed from
+     * its type and source. When the output node already has a statements node, statements whose fingerprint matches an existing
+     * statement node are not recreated, so they keep their identifiers and the references to them. Only their position
+     * properties are updated. A statement that references a statement that changed is also replaced.
+     * 
+     * @param incremental <code>true</code> if only the statements that changed should be replaced when sequencing into an output
+     *        node that has already been sequenced
+     */
+    public void setIncremental( boolean incremental ) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * @return the cache of parsing results or <code>null</code> if parsing results are not cached
+     * @see #setParseCacheSize(long)
+     */
+    public DdlParseCache getParseCache() {
+        return parseCache;
+    }
+
+    /**
+     * @return the maximum estimated size in bytes of the cached parsing results (zero when parsing results are not cached)
+     */
+    public long getParseCacheSize() {
+        return ((parseCache == null) ? 0 : parseCache.getMaxSize());
+    }
+
+    /**
+     * Parsing results are cached by the SHA-1 of the DDL binary (and by the file name when more than one grammar is used), so
+     * sequencing the same DDL again only creates the output nodes.
+     * 
+     * @param maxSize the maximum estimated size in bytes of the cached parsing results; zero or less if parsing results should not
+     *        be cached
+     */
+    public void setParseCacheSize( long maxSize ) {
+        this.parseCache = ((maxSize > 0) ? new DdlParseCache(maxSize) : null);
+    }
+
+    /**
+     * @return <code>true</code> if the source of each statement is stored in its expression property; <code>false</code> if only
+     *         the start index and length of each statement are stored
+     * @see StandardDdlParser#isIncludeStatementExpressions()
+     */
+    public boolean isIncludeStatementExpressions() {
+        return includeStatementExpressions;
+    }
+
+    /**
+     * When statement expressions are not included, the statements node records the SHA-1 of the DDL binary it was sequenced from
+     * and {@link StatementExpressions} can be used to obtain the source of a statement.
+     * 
+     * @param includeStatementExpressions <code>true</code> if the source of each statement should be stored in its expression
+     *        property
+     * @see StandardDdlParser#setIncludeStatementExpressions(boolean)
+     */
+    public void setIncludeStatementExpressions( boolean includeStatementExpressions ) {
+        this.includeStatementExpressions = includeStatementExpressions;
+    }
+
     /**
      * Method that creates the DdlParsers instance. This may be overridden in subclasses to creates specific implementations.
      * 
@@ -173,51 +255,318 @@ abstract class DdlSequencer extends Sequencer {
     public boolean execute( Property inputProperty,
                             Node outputNode,
                             Context context ) throws Exception {
+        try (final Timer timer = MetricsRegistry.get().start(MetricNames.DDL_SEQUENCE)) {
+            return sequence(inputProperty, outputNode, context);
+        }
+    }
+
+    private boolean sequence( final Property inputProperty,
+                              final Node outputNode,
+                              final Context context ) throws Exception {
         Binary ddlContent = inputProperty.getBinary();
         CheckArg.isNotNull(ddlContent, "ddl content binary value");
 
-        // make sure node map is empty
+        // make sure node maps are empty
         this.nodeMap.clear();
+        this.unchangedNodeMap.clear();
 
         // Look at the input path to get the name of the input node (or it's parent if it's "jcr:content") ...
         String fileName = getNameOfDdlContent(inputProperty);
 
-        // Perform the parsing
+        // Perform the parsing (unless the same DDL has already been parsed)
+        final DdlParseCache cache = this.parseCache;
+        final String cacheKey = ((cache == null) ? null : getParseCacheKey(ddlContent, fileName));
+        final DdlParseCache.Snapshot snapshot = ((cacheKey == null) ? null : cache.get(cacheKey));
         final AstNode rootNode;
-        DdlParsers parsers = createParsers(getParserList());
-        try (InputStream stream = ddlContent.getStream()) {
-            rootNode = parsers.parse(IoUtil.read(stream), fileName);
-        } catch (ParsingException e) {
-            LOGGER.error(e, DdlSequencerI18n.errorParsingDdlContent, e.getLocalizedMessage());
-            return false;
-        } catch (IOException e) {
-            LOGGER.error(e, DdlSequencerI18n.errorSequencingDdlContent, e.getLocalizedMessage());
-            return false;
+
+        if (snapshot == null) {
+            DdlParsers parsers = createParsers(getParserList());
+            try (InputStream stream = ddlContent.getStream();
+                 Timer timer = MetricsRegistry.get().start(MetricNames.DDL_PARSE)) {
+                final String ddl = IoUtil.read(stream);
+                rootNode = parsers.parse(ddl, fileName);
+
+                if (this.incremental) {
+                    addFingerprints(rootNode, ddl);
+                }
+            } catch (ParsingException e) {
+                LOGGER.error(e, DdlSequencerI18n.errorParsingDdlContent, e.getLocalizedMessage());
+                return false;
+            } catch (IOException e) {
+                LOGGER.error(e, DdlSequencerI18n.errorSequencingDdlContent, e.getLocalizedMessage());
+                return false;
+            }
+
+            if (cacheKey != null) {
+                cache.put(cacheKey, DdlParseCache.Snapshot.of(rootNode));
+            }
+        } else {
+            LOGGER.debug("Using cached parsing result for DDL '{0}'", fileName);
+            rootNode = snapshot.toAstNode();
+        }
+
+        if (!this.includeStatementExpressions && (ddlContent instanceof org.modeshape.jcr.api.Binary)) {
+            // statement nodes only have offsets into the DDL so record which DDL that is
+            rootNode.setProperty(StandardDdlLexicon.SOURCE_SHA1, ((org.modeshape.jcr.api.Binary)ddlContent).getHexHash());
         }
 
+        try (final Timer timer = MetricsRegistry.get().start(MetricNames.DDL_WRITE)) {
+            if (this.incremental && outputNode.hasNode(rootNode.getName())) {
+                updateStatements(outputNode.getNode(rootNode.getName()), rootNode);
+            } else {
+                createNodes(outputNode, rootNode);
+            }
+        }
+
+        // second pass to lookup references (this allows for DDL to have forward references)
+        try (final Timer timer = MetricsRegistry.get().start(MetricNames.DDL_REFERENCES)) {
+            for (final Entry<AstNode, Node> entry : this.nodeMap.entrySet()) {
+                appendNodeProperties(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return true;
+    }
+
+    private void createNodes( final Node parent,
+                              final AstNode astNode ) throws RepositoryException {
         Queue<AstNode> queue = new LinkedList<AstNode>();
-        queue.add(rootNode);
+        queue.add(astNode);
         while (queue.peek() != null) {
-            AstNode astNode = queue.poll();
-            createFromAstNode(outputNode, astNode);
+            AstNode node = queue.poll();
+            createFromAstNode(parent, node);
 
             // Add the children to the queue ...
-            for (AstNode child : astNode.getChildren()) {
+            for (AstNode child : node.getChildren()) {
                 queue.add(child);
             }
         }
+    }
 
-        // second pass to lookup references (this allows for DDL to have forward references)
-        for (final Entry<AstNode, Node> entry : this.nodeMap.entrySet()) {
-            appendNodeProperties(entry.getKey(), entry.getValue());
+    /**
+     * @param rootNode the root of the AST whose top level statements are being fingerprinted (cannot be <code>null</code>)
+     * @param ddl the DDL the AST was parsed from (cannot be <code>null</code>)
+     */
+    private void addFingerprints( final AstNode rootNode,
+                                  final String ddl ) {
+        for (final AstNode kid : rootNode) {
+            final String source = StatementExpressions.get(kid, ddl);
+
+            if (source != null) {
+                final StringBuilder type = new StringBuilder(String.valueOf(kid.getPrimaryType()));
+
+                for (final String mixin : new TreeSet<String>(kid.getMixins())) {
+                    type.append(',').append(mixin);
+                }
+
+                kid.setProperty(StandardDdlLexicon.DDL_FINGERPRINT, SecureHash.sha1(type.append('\n').append(source).toString()));
+            }
+        }
+    }
+
+    /**
+     * Replaces the statement nodes that changed. Statement nodes without a fingerprint are always replaced.
+     * 
+     * @param statementsNode the existing statements node (cannot be <code>null</code>)
+     * @param rootNode the root of the new AST (cannot be <code>null</code>)
+     * @throws RepositoryException if an error occurs
+     */
+    private void updateStatements( final Node statementsNode,
+                                   final AstNode rootNode ) throws RepositoryException {
+        final Map<String, LinkedList<Node>> existingByFingerprint = new HashMap<String, LinkedList<Node>>();
+
+        for (final NodeIterator itr = statementsNode.getNodes(); itr.hasNext();) {
+            final Node kid = itr.nextNode();
+
+            if (kid.hasProperty(StandardDdlLexicon.DDL_FINGERPRINT)) {
+                final String fingerprint = kid.getProperty(StandardDdlLexicon.DDL_FINGERPRINT).getString();
+                LinkedList<Node> nodes = existingByFingerprint.get(fingerprint);
+
+                if (nodes == null) {
+                    nodes = new LinkedList<Node>();
+                    existingByFingerprint.put(fingerprint, nodes);
+                }
+
+                nodes.add(kid);
+            }
+        }
+
+        // match statements in order
+        final Map<AstNode, Map<AstNode, Node>> unchanged = new LinkedHashMap<AstNode, Map<AstNode, Node>>();
+
+        for (final AstNode kid : rootNode) {
+            final Object fingerprint = kid.getProperty(StandardDdlLexicon.DDL_FINGERPRINT);
+            final LinkedList<Node> nodes = ((fingerprint == null) ? null : existingByFingerprint.get(fingerprint));
+
+            if ((nodes != null) && !nodes.isEmpty()) {
+                final Map<AstNode, Node> mapping = new HashMap<AstNode, Node>();
+
+                if (mapSubtree(kid, nodes.getFirst(), mapping)) {
+                    unchanged.put(kid, mapping);
+                    nodes.removeFirst();
+                }
+            }
+        }
+
+        // a statement referencing a statement that is being replaced has to be replaced too
+        boolean replaced = true;
+
+        while (replaced) {
+            replaced = false;
+
+            for (final Iterator<Map.Entry<AstNode, Map<AstNode, Node>>> itr = unchanged.entrySet().iterator(); itr.hasNext();) {
+                final Map.Entry<AstNode, Map<AstNode, Node>> entry = itr.next();
+
+                if (referencesChangedStatement(entry.getKey(), rootNode, unchanged.keySet())) {
+                    itr.remove();
+                    replaced = true;
+                }
+            }
+        }
+
+        final Set<String> unchangedIds = new HashSet<String>();
+
+        for (final Map<AstNode, Node> mapping : unchanged.values()) {
+            this.unchangedNodeMap.putAll(mapping);
+        }
+
+        for (final AstNode kid : unchanged.keySet()) {
+            unchangedIds.add(this.unchangedNodeMap.get(kid).getIdentifier());
+        }
+
+        // remove the changed statements
+        final List<Node> removed = new ArrayList<Node>();
+
+        for (final NodeIterator itr = statementsNode.getNodes(); itr.hasNext();) {
+            final Node kid = itr.nextNode();
+
+            if (!unchangedIds.contains(kid.getIdentifier())) {
+                removed.add(kid);
+            }
+        }
+
+        for (final Node kid : removed) {
+            kid.remove();
+        }
+
+        LOGGER.debug("Incremental DDL sequencing of '{0}' kept {1} statement(s) and replaced {2} statement(s)",
+                     statementsNode.getPath(),
+                     unchanged.size(),
+                     removed.size());
+
+        // root and unchanged statements get their properties updated (positions may have changed)
+        rootNode.removeProperty(JcrConstants.JCR_MIXIN_TYPES);
+        rootNode.removeProperty(JcrConstants.JCR_PRIMARY_TYPE);
+        this.nodeMap.put(rootNode, statementsNode);
+
+        for (final AstNode kid : rootNode) {
+            if (unchanged.containsKey(kid)) {
+                kid.removeProperty(JcrConstants.JCR_MIXIN_TYPES);
+                kid.removeProperty(JcrConstants.JCR_PRIMARY_TYPE);
+                this.nodeMap.put(kid, this.unchangedNodeMap.get(kid));
+            } else {
+                createNodes(statementsNode, kid);
+            }
+        }
+
+        // put statements in DDL order
+        for (final AstNode kid : rootNode) {
+            final Node node = getNode(kid);
+            statementsNode.orderBefore(node.getName() + '[' + node.getIndex() + ']', null);
+        }
+    }
+
+    /**
+     * @param astNode the AST node being mapped (cannot be <code>null</code>)
+     * @param node the existing node being mapped to (cannot be <code>null</code>)
+     * @param mapping the mapping being populated (cannot be <code>null</code>)
+     * @return <code>true</code> if the existing node has the same structure as the AST node (the fingerprints already match)
+     * @throws RepositoryException if an error occurs
+     */
+    private boolean mapSubtree( final AstNode astNode,
+                                final Node node,
+                                final Map<AstNode, Node> mapping ) throws RepositoryException {
+        if (node.getNodes().getSize() != astNode.getChildCount()) {
+            return false;
+        }
+
+        mapping.put(astNode, node);
+        int i = 0;
+
+        for (final NodeIterator itr = node.getNodes(); itr.hasNext();) {
+            if (!mapSubtree(astNode.getChild(i++), itr.nextNode(), mapping)) {
+                return false;
+            }
         }
 
         return true;
     }
 
+    private boolean referencesChangedStatement( final AstNode astNode,
+                                                final AstNode rootNode,
+                                                final Set<AstNode> unchangedStatements ) {
+        for (final String propertyName : astNode.getPropertyNames()) {
+            final Object value = astNode.getProperty(propertyName);
+            final Collection<?> values = ((value instanceof Collection) ? (Collection<?>)value : Collections.singleton(value));
+
+            for (final Object item : values) {
+                if (item instanceof AstNode) {
+                    AstNode statement = (AstNode)item;
+
+                    while ((statement.getParent() != null) && (statement.getParent() != rootNode)) {
+                        statement = statement.getParent();
+                    }
+
+                    if (!unchangedStatements.contains(statement)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        for (final AstNode kid : astNode) {
+            if (referencesChangedStatement(kid, rootNode, unchangedStatements)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param ddlContent the DDL binary being sequenced (cannot be <code>null</code>)
+     * @param fileName the name of the DDL file (can be <code>null</code>)
+     * @return the key of the cached parsing result or <code>null</code> if the binary does not have a hash
+     * @throws RepositoryException if an error occurs
+     */
+    private String getParseCacheKey( final Binary ddlContent,
+                                     final String fileName ) throws RepositoryException {
+        if (!(ddlContent instanceof org.modeshape.jcr.api.Binary)) {
+            return null;
+        }
+
+        // anything that changes the resulting AST is part of the key
+        final StringBuilder key = new StringBuilder(((org.modeshape.jcr.api.Binary)ddlContent).getHexHash());
+        key.append('|').append(this.includeStatementExpressions).append('|').append(this.incremental);
+
+        final String[] grammars = getGrammars();
+
+        for (final String grammar : grammars) {
+            key.append('|').append(grammar);
+        }
+
+        // the grammars are scored using the file name, so the same DDL in another file may be parsed by another grammar
+        if (grammars.length > 1) {
+            key.append('|').append(fileName);
+        }
+
+        return key.toString();
+    }
+
     private void appendNodeProperties( AstNode astNode,
                                        Node sequenceNode ) throws RepositoryException {
         ValueFactory valueFactory = sequenceNode.getSession().getValueFactory();
+        MetricsRegistry.get().increment(MetricNames.PROPERTIES_SET, astNode.getPropertyNames().size());
 
         for (String propertyName : astNode.getPropertyNames()) {
             Object astNodePropertyValue = astNode.getProperty(propertyName);
@@ -260,6 +609,7 @@ abstract class DdlSequencer extends Sequencer {
         }
 
         this.nodeMap.put(astNode, sequenceNode);
+        MetricsRegistry.get().increment(MetricNames.NODES_CREATED, 1);
         for (String mixin : astNode.getMixins()) {
             sequenceNode.addMixin(mixin);
         }
@@ -308,7 +658,8 @@ abstract class DdlSequencer extends Sequencer {
     }
 
     private Node getNode( final AstNode node ) {
-        return this.nodeMap.get(node);
+        final Node result = this.nodeMap.get(node);
+        return ((result == null) ? this.unchangedNodeMap.get(node) : result);
     }
 
     private String getNameOfDdlContent( Property inputProperty ) throws RepositoryException {
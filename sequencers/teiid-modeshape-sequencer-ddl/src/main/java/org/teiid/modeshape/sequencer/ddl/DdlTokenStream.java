@@ -23,6 +23,7 @@ package org.teiid.modeshape.sequencer.ddl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -53,6 +54,21 @@ public class DdlTokenStream extends TokenStream {
 
     private Position currentMarkedPosition = Position.EMPTY_CONTENT_POSITION;
 
+    /**
+     * The re-typed tokens. Set once the stream has been started.
+     */
+    private List<Token> typedTokens;
+
+    /**
+     * Indicates if this stream is a {@link #range(int, int) range} of another stream.
+     */
+    private boolean range;
+
+    /**
+     * The position marked when there are no more tokens. A <code>null</code> value means the end of the content.
+     */
+    private Position endPosition;
+
     /**
      * {@inheritDoc}
      * 
@@ -60,6 +76,12 @@ public class DdlTokenStream extends TokenStream {
      */
     @Override
     protected List<Token> initializeTokens( List<Token> tokens ) {
+        if (this.range) {
+            // tokens of an already started stream have already been re-typed
+            this.typedTokens = tokens;
+            return tokens;
+        }
+
         // THIS IS WHERE WE DO THE WORK OF PRE-PARSING TOKENS AND REPLACING KEYWORDS AND STATEMENT STARTS WITH
         // APPLICABLE TOKEN TYPE BITMASK VALUES
         // MyClass[] array = (MyClass[])list.toArray(new MyClass[list.size()]);
@@ -110,6 +132,7 @@ public class DdlTokenStream extends TokenStream {
 
         }
 
+        this.typedTokens = reTypedTokens;
         return reTypedTokens;
     }
 
@@ -124,6 +147,42 @@ public class DdlTokenStream extends TokenStream {
         super(content, tokenizer, caseSensitive);
     }
 
+    private DdlTokenStream( final DdlTokenStream source,
+                            final List<Token> tokens,
+                            final Position endPosition ) {
+        super(source.inputString, new RangeTokenizer(tokens), false);
+        this.registeredKeyWords = source.registeredKeyWords;
+        this.registeredStatementStartPhrases = source.registeredStatementStartPhrases;
+        this.endPosition = endPosition;
+        this.range = true;
+    }
+
+    /**
+     * The tokens are bound to this stream and must only be matched by their {@link Token#type() type} and
+     * {@link Token#value() value} (token matching methods use the current token of this stream).
+     * 
+     * @return the re-typed tokens of this stream (never <code>null</code> but can be empty if the stream has not been started)
+     */
+    List<Token> getTokens() {
+        return ((this.typedTokens == null) ? Collections.<Token>emptyList() : this.typedTokens);
+    }
+
+    /**
+     * Obtains a stream over a range of the tokens of this started stream. The tokens keep their type and are not re-tokenized or
+     * re-typed, and all positions stay relative to the whole content. Once the range is exhausted the marked content ends where
+     * the next token of this stream starts.
+     * 
+     * @param fromIndex the index of the first token of the range (inclusive)
+     * @param toIndex the index of the token after the last token of the range (exclusive)
+     * @return the new, not yet started, stream (never <code>null</code>)
+     */
+    DdlTokenStream range( final int fromIndex,
+                          final int toIndex ) {
+        final List<Token> tokens = getTokens();
+        final Position end = ((toIndex < tokens.size()) ? tokens.get(toIndex).position() : null);
+        return new DdlTokenStream(this, tokens.subList(fromIndex, toIndex), end);
+    }
+
     /**
      * Register a phrase representing the start of a DDL statement
      * <p>
@@ -213,7 +272,7 @@ public class DdlTokenStream extends TokenStream {
         if (this.hasNext()) {
             currentMarkedPosition = this.nextPosition();
         } else {
-            currentMarkedPosition = null;
+            currentMarkedPosition = this.endPosition;
         }
 
     }
@@ -234,6 +293,37 @@ public class DdlTokenStream extends TokenStream {
         return getContentBetween(startPosition, currentMarkedPosition);
     }
 
+    /**
+     * Same as {@link #getMarkedContent()} followed by a {@link String#trim() trim} but without copying the content. Method also
+     * marks() the new position the the currentToken.
+     * 
+     * @return the length of the trimmed string content for characters bounded by the previous marked position and the position
+     *         of the currentToken
+     */
+    public int getMarkedContentLength() {
+        final int start = currentMarkedPosition.getIndexInContent();
+
+        mark();
+
+        int end = ((currentMarkedPosition == null) ? inputString.length() : currentMarkedPosition.getIndexInContent());
+
+        if (start >= end) {
+            throw new IllegalArgumentException(CommonI18n.endPositionMustBeGreaterThanStartingPosition.text(start, end));
+        }
+
+        int from = start;
+
+        while ((from < end) && (inputString.charAt(from) <= ' ')) {
+            ++from;
+        }
+
+        while ((end > from) && (inputString.charAt(end - 1) <= ' ')) {
+            --end;
+        }
+
+        return (end - from);
+    }
+
     /**
      * Obtain a ddl {@link DdlTokenizer} implementation that ignores whitespace but includes tokens for individual symbols, the
      * period ('.'), single-quoted strings, double-quoted strings, whitespace-delimited words, and optionally comments.
@@ -250,6 +340,34 @@ public class DdlTokenStream extends TokenStream {
         return new DdlTokenizer(includeComments);
     }
 
+    /**
+     * Used by {@link #range(int, int) ranges} to copy tokens that already exist. Tokens are bound to the stream that created
+     * them, so they cannot simply be shared.
+     */
+    private static class RangeTokenizer implements Tokenizer {
+
+        private final List<Token> source;
+
+        RangeTokenizer( final List<Token> source ) {
+            this.source = source;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.modeshape.common.text.TokenStream.Tokenizer#tokenize(org.modeshape.common.text.TokenStream.CharacterStream,
+         *      org.modeshape.common.text.TokenStream.Tokens)
+         */
+        @Override
+        public void tokenize( final CharacterStream input,
+                              final Tokens tokens ) {
+            for (final Token token : this.source) {
+                tokens.addToken(token.position(), token.startIndex(), token.endIndex(), token.type());
+            }
+        }
+
+    }
+
     public static class DdlTokenizer implements Tokenizer {
         public static final String PARSER_ID = "PARSER_ID";
 
@@ -0,0 +1,201 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.ddl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import org.modeshape.common.annotation.Immutable;
+
+/**
+ * Counts the case-insensitive occurrences of a set of keywords in one pass over the text (an Aho-Corasick automaton). Overlapping
+ * occurrences are all counted, and a keyword supplied more than once is counted once for each time it was supplied.
+ */
+@Immutable
+public final class KeywordMatcher {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final int[] NO_STATES = new int[0];
+
+    private static final int ROOT = 0;
+
+    private final int numEmptyKeywords;
+
+    /*
+     * Per state: the sorted characters of its edges and the states they lead to, its failure state, and the number of keywords
+     * that end in it (including the ones ending in the states its failure chain leads to).
+     */
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] failures;
+    private final int[] outputs;
+
+    /**
+     * @param keywords the keywords being counted (can be <code>null</code> or empty and can contain <code>null</code> keywords
+     *        which are ignored)
+     */
+    public KeywordMatcher( final String... keywords ) {
+        final List<char[]> chars = new ArrayList<char[]>();
+        final List<int[]> targets = new ArrayList<int[]>();
+        final List<Integer> counts = new ArrayList<Integer>();
+        int empty = 0;
+
+        chars.add(NO_CHARS);
+        targets.add(NO_STATES);
+        counts.add(0);
+
+        if (keywords != null) {
+            for (final String keyword : keywords) {
+                if (keyword == null) {
+                    continue;
+                }
+
+                if (keyword.isEmpty()) {
+                    ++empty;
+                    continue;
+                }
+
+                int state = ROOT;
+
+                for (int i = 0, length = keyword.length(); i < length; ++i) {
+                    final char c = fold(keyword.charAt(i));
+                    int next = find(chars.get(state), targets.get(state), c);
+
+                    if (next == -1) {
+                        next = chars.size();
+                        chars.add(NO_CHARS);
+                        targets.add(NO_STATES);
+                        counts.add(0);
+                        addEdge(chars, targets, state, c, next);
+                    }
+
+                    state = next;
+                }
+
+                counts.set(state, counts.get(state) + 1);
+            }
+        }
+
+        final int numStates = chars.size();
+        this.numEmptyKeywords = empty;
+        this.edgeChars = chars.toArray(new char[numStates][]);
+        this.edgeTargets = targets.toArray(new int[numStates][]);
+        this.failures = new int[numStates];
+        this.outputs = new int[numStates];
+
+        for (int i = 0; i < numStates; ++i) {
+            this.outputs[i] = counts.get(i);
+        }
+
+        // breadth first so that the failure state of a state is done before the state
+        final Queue<Integer> queue = new LinkedList<Integer>();
+
+        for (final int kid : this.edgeTargets[ROOT]) {
+            this.failures[kid] = ROOT;
+            queue.add(kid);
+        }
+
+        while (!queue.isEmpty()) {
+            final int state = queue.remove();
+            final char[] stateChars = this.edgeChars[state];
+            final int[] stateTargets = this.edgeTargets[state];
+
+            for (int i = 0; i < stateChars.length; ++i) {
+                final int kid = stateTargets[i];
+                int failure = this.failures[state];
+                int next;
+
+                while (((next = find(this.edgeChars[failure], this.edgeTargets[failure], stateChars[i])) == -1) && (failure != ROOT)) {
+                    failure = this.failures[failure];
+                }
+
+                this.failures[kid] = ((next == -1) ? ROOT : next);
+                this.outputs[kid] += this.outputs[this.failures[kid]];
+                queue.add(kid);
+            }
+        }
+    }
+
+    private static void addEdge( final List<char[]> chars,
+                                 final List<int[]> targets,
+                                 final int state,
+                                 final char c,
+                                 final int target ) {
+        final char[] oldChars = chars.get(state);
+        final int[] oldTargets = targets.get(state);
+        final int insertAt = -(Arrays.binarySearch(oldChars, c) + 1);
+
+        final char[] newChars = new char[oldChars.length + 1];
+        final int[] newTargets = new int[oldTargets.length + 1];
+        System.arraycopy(oldChars, 0, newChars, 0, insertAt);
+        System.arraycopy(oldTargets, 0, newTargets, 0, insertAt);
+        newChars[insertAt] = c;
+        newTargets[insertAt] = target;
+        System.arraycopy(oldChars, insertAt, newChars, insertAt + 1, oldChars.length - insertAt);
+        System.arraycopy(oldTargets, insertAt, newTargets, insertAt + 1, oldTargets.length - insertAt);
+
+        chars.set(state, newChars);
+        targets.set(state, newTargets);
+    }
+
+    private static int find( final char[] chars,
+                             final int[] targets,
+                             final char c ) {
+        final int index = Arrays.binarySearch(chars, c);
+        return ((index < 0) ? -1 : targets[index]);
+    }
+
+    private static char fold( final char c ) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * @param text the text being searched (can be <code>null</code>)
+     * @return the number of keyword occurrences found in the text
+     */
+    public int count( final CharSequence text ) {
+        if (text == null) {
+            return 0;
+        }
+
+        final int length = text.length();
+        int result = (this.numEmptyKeywords * (length + 1));
+        int state = ROOT;
+
+        for (int i = 0; i < length; ++i) {
+            final char c = fold(text.charAt(i));
+            int next;
+
+            while (((next = find(this.edgeChars[state], this.edgeTargets[state], c)) == -1) && (state != ROOT)) {
+                state = this.failures[state];
+            }
+
+            state = ((next == -1) ? ROOT : next);
+            result += this.outputs[state];
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,332 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.ddl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.modeshape.common.logging.Logger;
+import org.modeshape.common.text.ParsingException;
+import org.modeshape.common.text.TokenStream.Token;
+import org.teiid.modeshape.sequencer.ddl.DdlTokenStream.DdlTokenizer;
+import org.teiid.modeshape.sequencer.ddl.TeiidDdlConstants.DdlStatement;
+import org.teiid.modeshape.sequencer.ddl.TeiidDdlConstants.TeiidReservedWord;
+import org.teiid.modeshape.sequencer.ddl.node.AstNode;
+
+/**
+ * Parses the top level statements of Teiid DDL on a fork/join pool.
+ * <p>
+ * The already typed tokens are split into ranges right after a statement terminator that is followed by a statement start and is
+ * not nested in a <code>BEGIN</code> (or <code>CASE</code>) block. Ranges of independent statements are parsed by
+ * {@link TeiidDdlParser#newWorker() worker parsers} into their own root nodes. Statements that look up earlier statements while
+ * being parsed (<code>ALTER</code>, <code>CREATE TRIGGER</code>) and namespace declarations are parsed by the owning parser,
+ * in source order, once the statements before them have been stitched into the real root node. When the DDL cannot be split
+ * safely nothing is parsed and the caller should parse sequentially.
+ */
+final class ParallelStatementParsing {
+
+    private static final Logger LOGGER = Logger.getLogger(ParallelStatementParsing.class);
+
+    /**
+     * The number of ranges of independent statements handed to each thread of the pool.
+     */
+    private static final int BATCHES_PER_THREAD = 2;
+
+    /**
+     * Each range gets its own token stream, and each token stream its own copy of the DDL content, so the total number of ranges
+     * is capped.
+     */
+    private static final int MAX_SEGMENTS_PER_THREAD = 8;
+
+    private final TeiidDdlParser parser;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parser the parser that owns the root node and does the post processing (cannot be <code>null</code>)
+     */
+    ParallelStatementParsing( final TeiidDdlParser parser ) {
+        this.parser = parser;
+        this.pool = parser.getParallelParsingPool();
+    }
+
+    /**
+     * @param tokens the started tokens of the whole DDL (cannot be <code>null</code>)
+     * @param rootNode the node the statement nodes are added to (cannot be <code>null</code>)
+     * @return <code>true</code> if the statements were parsed; <code>false</code> if they must be parsed sequentially
+     * @throws ParsingException if there is an error parsing the tokens
+     */
+    boolean parse( final DdlTokenStream tokens,
+                   final AstNode rootNode ) throws ParsingException {
+        final List<Token> typedTokens = tokens.getTokens();
+        final List<Integer> starts = findStatementStarts(typedTokens);
+
+        if (starts.size() < this.parser.getParallelParsingThreshold()) {
+            return false;
+        }
+
+        final List<Segment> segments = createSegments(typedTokens, starts);
+
+        if (segments == null) {
+            return false;
+        }
+
+        LOGGER.debug("Parsing {0} statement ranges in {1} segments", starts.size(), segments.size());
+
+        // statements before the first batch (namespace declarations) are needed by all workers
+        int index = 0;
+
+        while (!segments.get(index).parallel) {
+            final Segment segment = segments.get(index++);
+            this.parser.parseRange(tokens.range(segment.from, segment.to), rootNode);
+        }
+
+        for (int i = index, size = segments.size(); i < size; ++i) {
+            final Segment segment = segments.get(i);
+
+            if (segment.parallel) {
+                segment.worker = this.parser.newWorker();
+                segment.task = this.pool.submit(() -> {
+                    segment.parse(tokens);
+                    return segment;
+                });
+            }
+        }
+
+        // stitch back together in source order
+        for (int i = index, size = segments.size(); i < size; ++i) {
+            final Segment segment = segments.get(i);
+
+            if (segment.parallel) {
+                segment.task.join();
+
+                if (segment.error != null) {
+                    cancel(segments, i + 1);
+                    throw segment.error;
+                }
+
+                this.parser.adopt(segment.worker, segment.rootNode, rootNode);
+            } else {
+                try {
+                    this.parser.parseRange(tokens.range(segment.from, segment.to), rootNode);
+                } catch (final RuntimeException e) {
+                    cancel(segments, i + 1);
+                    throw e;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void cancel( final List<Segment> segments,
+                         final int fromIndex ) {
+        for (int i = fromIndex, size = segments.size(); i < size; ++i) {
+            final Segment segment = segments.get(i);
+
+            if (segment.task != null) {
+                segment.task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * @param typedTokens the tokens being split (cannot be <code>null</code>)
+     * @param starts the indexes of the first token of each statement range (cannot be <code>null</code> or empty)
+     * @return the segments in source order or <code>null</code> if the statements cannot be split safely
+     */
+    private List<Segment> createSegments( final List<Token> typedTokens,
+                                          final List<Integer> starts ) {
+        final int numRanges = starts.size();
+        final boolean[] inline = new boolean[numRanges];
+        int numParallelRanges = 0;
+        boolean parallelFound = false;
+
+        for (int i = 0; i < numRanges; ++i) {
+            final int first = skipComments(typedTokens, starts.get(i));
+
+            if (first < typedTokens.size()) {
+                final Token token = typedTokens.get(first);
+
+                if (isWord(token, DdlConstants.SET)) {
+                    // namespace aliases must be known before any worker starts
+                    if (parallelFound) {
+                        LOGGER.debug("Statement at {0} must be parsed before the statements preceding it are parsed in parallel",
+                                     token.position());
+                        return null;
+                    }
+
+                    inline[i] = true;
+                } else if (isWord(token, DdlConstants.ALTER) || matches(typedTokens, first, DdlStatement.CREATE_TRIGGER.tokens())) {
+                    inline[i] = true;
+                }
+            }
+
+            if (!inline[i]) {
+                parallelFound = true;
+                ++numParallelRanges;
+            }
+        }
+
+        if (numParallelRanges == 0) {
+            return null;
+        }
+
+        final int parallelism = this.pool.getParallelism();
+        final int batchSize = Math.max(1, (int)Math.ceil((double)numParallelRanges / (parallelism * BATCHES_PER_THREAD)));
+        final List<Segment> segments = new ArrayList<>();
+        Segment current = null;
+
+        for (int i = 0; i < numRanges; ++i) {
+            final int from = starts.get(i);
+            final int to = ((i + 1) < numRanges) ? starts.get(i + 1) : typedTokens.size();
+
+            if ((current != null) && (current.parallel == !inline[i]) && (!current.parallel || (current.numRanges < batchSize))) {
+                current.to = to;
+                ++current.numRanges;
+            } else {
+                current = new Segment(from, to, !inline[i]);
+                segments.add(current);
+            }
+        }
+
+        if (segments.size() > (parallelism * MAX_SEGMENTS_PER_THREAD)) {
+            LOGGER.debug("Too many segments ({0}) to parse in parallel", segments.size());
+            return null;
+        }
+
+        return segments;
+    }
+
+    /**
+     * A statement range starts right after a terminator that is not nested in a block and that is followed (ignoring comments) by
+     * a statement start. Splitting there leaves every parser in the same state a sequential parse would be in. Counting
+     * <code>CASE</code> as a block start only makes the split more conservative.
+     *
+     * @param typedTokens the tokens being split (cannot be <code>null</code>)
+     * @return the index of the first token of each statement range (never <code>null</code> or empty)
+     */
+    private List<Integer> findStatementStarts( final List<Token> typedTokens ) {
+        final String terminator = this.parser.getTerminator();
+        final String begin = TeiidReservedWord.BEGIN.toDdl();
+        final String caseWord = TeiidReservedWord.CASE.toDdl();
+        final String end = TeiidReservedWord.END.toDdl();
+        final List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        int depth = 0;
+
+        for (int i = 0, size = typedTokens.size(); i < size; ++i) {
+            final Token token = typedTokens.get(i);
+
+            if (isWord(token, begin) || isWord(token, caseWord)) {
+                ++depth;
+            } else if (isWord(token, end)) {
+                if (depth > 0) {
+                    --depth;
+                }
+            } else if ((depth == 0) && isWord(token, terminator)) {
+                final int next = skipComments(typedTokens, i + 1);
+
+                if ((next < size) && isType(typedTokens.get(next), DdlTokenizer.STATEMENT_KEY)) {
+                    starts.add(i + 1);
+                }
+            }
+        }
+
+        return starts;
+    }
+
+    /*
+     * Tokens delegate matching to the current token of the stream that created them, so they are matched by type and value here.
+     */
+    private boolean isType( final Token token,
+                            final int type ) {
+        return ((token.type() & type) == type);
+    }
+
+    private boolean isWord( final Token token,
+                            final String word ) {
+        return token.value().equalsIgnoreCase(word);
+    }
+
+    private boolean matches( final List<Token> typedTokens,
+                             final int index,
+                             final String[] phrase ) {
+        if ((index + phrase.length) > typedTokens.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < phrase.length; ++i) {
+            if (!isWord(typedTokens.get(index + i), phrase[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int skipComments( final List<Token> typedTokens,
+                              final int index ) {
+        int result = index;
+
+        while ((result < typedTokens.size()) && isType(typedTokens.get(result), DdlTokenizer.COMMENT)) {
+            ++result;
+        }
+
+        return result;
+    }
+
+    /**
+     * A run of consecutive statement ranges parsed either by a worker or by the owning parser.
+     */
+    private final class Segment {
+
+        private final int from;
+        private int to;
+        private int numRanges = 1;
+        private final boolean parallel;
+
+        private TeiidDdlParser worker;
+        private AstNode rootNode;
+        private RuntimeException error;
+        private ForkJoinTask<Segment> task;
+
+        Segment( final int from,
+                 final int to,
+                 final boolean parallel ) {
+            this.from = from;
+            this.to = to;
+            this.parallel = parallel;
+        }
+
+        void parse( final DdlTokenStream tokens ) {
+            try {
+                this.rootNode = this.worker.nodeFactory().node(StandardDdlLexicon.STATEMENTS_CONTAINER);
+                this.worker.parseRange(tokens.range(this.from, this.to), this.rootNode);
+            } catch (final RuntimeException e) {
+                this.error = e;
+            }
+        }
+
+    }
+
+}
@@ -34,6 +34,7 @@ public class StandardDdlLexicon {
     }
 
     public static final String PARSER_ID = PREFIX + ":parserId";
+    public static final String SOURCE_SHA1 = PREFIX + ":sourceSha1";
     public static final String STATEMENTS_CONTAINER = PREFIX + ":statements";
     /*
      * mixin types
@@ -140,6 +141,7 @@ public class StandardDdlLexicon {
     public static final String DDL_START_CHAR_INDEX = PREFIX + ":startCharIndex";
     public static final String DDL_PROBLEM = PREFIX + ":problem";
     public static final String DDL_LENGTH = PREFIX + ":length";
+    public static final String DDL_FINGERPRINT = PREFIX + ":fingerprint";
 
     public static final String OPTION = PREFIX + ":option";
     public static final String TYPE = PREFIX + ":type";
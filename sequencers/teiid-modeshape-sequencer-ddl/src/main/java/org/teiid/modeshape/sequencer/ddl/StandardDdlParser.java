@@ -153,7 +153,9 @@ public class StandardDdlParser implements DdlParser, DdlConstants, DdlConstants.
     private boolean useTerminator = false;
     private Position currentMarkedPosition;
     private boolean includeComments = true;
+    private boolean includeStatementExpressions = true;
     private int ignoredStatementSuffix = 1;
+    private KeywordMatcher identifyingKeywordMatcher;
 
     public StandardDdlParser() {
         super();
@@ -217,7 +219,7 @@ public class StandardDdlParser implements DdlParser, DdlConstants, DdlConstants.
 
         if (fileName != null) {
             // Score the filename using the identifier only ...
-            scorer.scoreText(fileName, 2, getIdentifyingKeywords());
+            scorer.scoreText(fileName, 2, getIdentifyingKeywordMatcher());
         }
 
         // Create the state of this parser ...
@@ -232,7 +234,7 @@ public class StandardDdlParser implements DdlParser, DdlConstants, DdlConstants.
         while (tokens.matches(DdlTokenizer.COMMENT)) {
             // Consume the comment ...
             String comment = tokens.consume();
-            scorer.scoreText(comment, 2, getIdentifyingKeywords());
+            scorer.scoreText(comment, 2, getIdentifyingKeywordMatcher());
         }
 
         // Compute the score for the rest of this content ...
@@ -263,6 +265,18 @@ public class StandardDdlParser implements DdlParser, DdlConstants, DdlConstants.
         return new String[] {getId()};
     }
 
+    /**
+     * @return the matcher of the {@link #getIdentifyingKeywords() identifying keywords}, created the first time it is requested
+     *         (never <code>null</code>)
+     */
+    protected KeywordMatcher getIdentifyingKeywordMatcher() {
+        if (identifyingKeywordMatcher == null) {
+            identifyingKeywordMatcher = new KeywordMatcher(getIdentifyingKeywords());
+        }
+
+        return identifyingKeywordMatcher;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -292,20 +306,7 @@ public class StandardDdlParser implements DdlParser, DdlConstants, DdlConstants.
 
         testPrint("\n== >> StandardDdlParser.parse() PARSING STARTED: ");
 
-        // Simply move to the next statement start (registered prior to tokenizing).
-        while (moveToNextStatementStart(tokens)) {
-
-            // It is assumed that if a statement is registered, the registering dialect will handle the parsing of that object
-            // and successfully create a statement {@link AstNode}
-            AstNode stmtNode = parseNextStatement(tokens, rootNode);
-            if (stmtNode == null) {
-                markStartOfStatement(tokens);
-                final String stmtName = ( IGNORED_STATEMENT_NAME + this.ignoredStatementSuffix++ );
-                stmtNode = parseIgnorableStatement(tokens, stmtName, rootNode);
-                markEndOfStatement(tokens, stmtNode);
-            }
-            // testPrint("== >> Found Statement" + "(" + (++count) + "):\n" + stmtNode);
-        }
+        parseStatements(tokens, rootNode);
 
         postProcess(rootNode);
 
@@ -331,6 +332,51 @@ public class StandardDdlParser implements DdlParser, DdlConstants, DdlConstants.
         }
     }
 
+    /**
+     * Parses all the statements of the supplied tokens, in order, adding a statement node to the supplied root for each one. Called
+     * by {@link #parse(String, AstNode, Object)} before {@link #postProcess(AstNode) post processing}.
+     * 
+     * @param tokens the tokenized {@link DdlTokenStream} of the DDL input content; may not be null
+     * @param rootNode the top level {@link AstNode}; may not be null
+     * @throws ParsingException if there is an error parsing the supplied tokens
+     */
+    protected void parseStatements( DdlTokenStream tokens,
+                                    AstNode rootNode ) throws ParsingException {
+        // Simply move to the next statement start (registered prior to tokenizing).
+        while (moveToNextStatementStart(tokens)) {
+
+            // It is assumed that if a statement is registered, the registering dialect will handle the parsing of that object
+            // and successfully create a statement {@link AstNode}
+            AstNode stmtNode = parseNextStatement(tokens, rootNode);
+            if (stmtNode == null) {
+                parseIgnoredStatement(tokens, rootNode);
+            }
+            // testPrint("== >> Found Statement" + "(" + (++count) + "):\n" + stmtNode);
+        }
+    }
+
+    /**
+     * Parses a statement no dialect parser claimed, naming it after the next ignored statement name.
+     * 
+     * @param tokens the tokenized {@link DdlTokenStream} of the DDL input content; may not be null
+     * @param rootNode the top level {@link AstNode}; may not be null
+     * @return the ignored statement node (never <code>null</code>)
+     */
+    AstNode parseIgnoredStatement( DdlTokenStream tokens,
+                                   AstNode rootNode ) {
+        markStartOfStatement(tokens);
+        final AstNode stmtNode = parseIgnorableStatement(tokens, nextIgnoredStatementName(), rootNode);
+        markEndOfStatement(tokens, stmtNode);
+        return stmtNode;
+    }
+
+    /**
+     * @return the name of the next ignored statement (never <code>null</code> or empty)
+     */
+    String nextIgnoredStatementName() {
+        return ( IGNORED_STATEMENT_NAME + this.ignoredStatementSuffix++ );
+    }
+
     /**
      * Method called by {@link #score(String, String, DdlParserScorer)} and {@link #parse(String, AstNode, Object)} to initialize
      * the {@link DdlTokenStream token stream}, giving subclasses a chance to {@link DdlTokenStream#registeredKeyWords register
@@ -393,7 +439,9 @@ public class StandardDdlParser implements DdlParser, DdlConstants, DdlConstants.
             while (tokens.hasNext()) {
 				if (!this.includeComments && tokens.matches(DdlTokenizer.COMMENT)) {
 					final String comment = tokens.consume();
-					LOGGER.debug("consumed comment: " + comment);
+					if (LOGGER.isDebugEnabled()) {
+						LOGGER.debug("consumed comment: " + comment);
+					}
 					continue;
 				}
 
@@ -519,12 +567,17 @@ public class StandardDdlParser implements DdlParser, DdlConstants, DdlConstants.
 
         int firstStartIndex = (Integer)firstNode.getProperty(DDL_START_CHAR_INDEX);
         int secondStartIndex = (Integer)secondNode.getProperty(DDL_START_CHAR_INDEX);
-        int deltaLength = ((String)secondNode.getProperty(DDL_EXPRESSION)).length();
-        Position startPosition = new Position(firstStartIndex, 1, 0);
-        Position endPosition = new Position((secondStartIndex + deltaLength), 1, 0);
-        String source = tokens.getContentBetween(startPosition, endPosition);
-        firstNode.setProperty(DDL_EXPRESSION, source);
-        firstNode.setProperty(DDL_LENGTH, source.length());
+        int deltaLength = (Integer)secondNode.getProperty(DDL_LENGTH);
+
+        if (this.includeStatementExpressions) {
+            Position startPosition = new Position(firstStartIndex, 1, 0);
+            Position endPosition = new Position((secondStartIndex + deltaLength), 1, 0);
+            String source = tokens.getContentBetween(startPosition, endPosition);
+            firstNode.setProperty(DDL_EXPRESSION, source);
+            firstNode.setProperty(DDL_LENGTH, source.length());
+        } else {
+            firstNode.setProperty(DDL_LENGTH, (secondStartIndex + deltaLength - firstStartIndex));
+        }
     }
 
     /**
@@ -2920,14 +2973,19 @@ public class StandardDdlParser implements DdlParser, DdlConstants, DdlConstants.
             setAsSchemaChildNode(statementNode, false);
         }
 
-        String source = tokens.getMarkedContent().trim();
-        statementNode.setProperty(DDL_EXPRESSION, source);
-        statementNode.setProperty(DDL_LENGTH, source.length());
+        if (this.includeStatementExpressions) {
+            String source = tokens.getMarkedContent().trim();
+            statementNode.setProperty(DDL_EXPRESSION, source);
+            statementNode.setProperty(DDL_LENGTH, source.length());
+            testPrint("== >> SOURCE:\n" + source + "\n");
+        } else {
+            // only the offsets are kept, see StatementExpressions for obtaining the source
+            statementNode.setProperty(DDL_LENGTH, tokens.getMarkedContentLength());
+        }
+
         statementNode.setProperty(DDL_START_LINE_NUMBER, currentMarkedPosition.getLine());
         statementNode.setProperty(DDL_START_CHAR_INDEX, currentMarkedPosition.getIndexInContent());
         statementNode.setProperty(DDL_START_COLUMN_NUMBER, currentMarkedPosition.getColumn());
-
-        testPrint("== >> SOURCE:\n" + source + "\n");
     }
 
     /**
@@ -2962,6 +3020,29 @@ public class StandardDdlParser implements DdlParser, DdlConstants, DdlConstants.
         this.testMode = testMode;
     }
 
+    /**
+     * @return <code>true</code> if the source of each statement is copied into its {@link StandardDdlLexicon#DDL_EXPRESSION
+     *         expression} property; <code>false</code> if only the start offset and length of the statement are recorded
+     * @see StatementExpressions
+     */
+    public boolean isIncludeStatementExpressions() {
+        return includeStatementExpressions;
+    }
+
+    /**
+     * Large DDL files are duplicated in the AST (and in the repository once sequenced) when the source of each statement is
+     * copied into the statement node. When not included, the {@link StandardDdlLexicon#DDL_START_CHAR_INDEX start index} and
+     * {@link StandardDdlLexicon#DDL_LENGTH length} properties can be used to obtain the source on demand. Defaults to
+     * <code>true</code>.
+     * 
+     * @param includeStatementExpressions <code>true</code> if the source of each statement should be copied into its
+     *        {@link StandardDdlLexicon#DDL_EXPRESSION expression} property
+     * @see StatementExpressions
+     */
+    public void setIncludeStatementExpressions( boolean includeStatementExpressions ) {
+        this.includeStatementExpressions = includeStatementExpressions;
+    }
+
     /**
      * {@inheritDoc}
      * 
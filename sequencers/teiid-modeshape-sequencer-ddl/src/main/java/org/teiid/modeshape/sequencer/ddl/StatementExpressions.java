@@ -0,0 +1,107 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.ddl;
+
+import static org.teiid.modeshape.sequencer.ddl.StandardDdlLexicon.DDL_EXPRESSION;
+import static org.teiid.modeshape.sequencer.ddl.StandardDdlLexicon.DDL_LENGTH;
+import static org.teiid.modeshape.sequencer.ddl.StandardDdlLexicon.DDL_START_CHAR_INDEX;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import org.modeshape.common.util.CheckArg;
+import org.teiid.modeshape.sequencer.ddl.node.AstNode;
+
+/**
+ * Obtains the source of a DDL statement. When a {@link StandardDdlParser parser} does not
+ * {@link StandardDdlParser#setIncludeStatementExpressions(boolean) include statement expressions}, only the start index and
+ * length of each statement are recorded and the source is sliced from the original DDL on demand.
+ */
+public final class StatementExpressions {
+
+    /**
+     * @param statementNode the statement node whose source is being requested (cannot be <code>null</code>)
+     * @param ddl the DDL the statement was parsed from (cannot be <code>null</code>)
+     * @return the statement source or <code>null</code> if the node is not a statement node
+     */
+    public static String get( final AstNode statementNode,
+                              final String ddl ) {
+        CheckArg.isNotNull(statementNode, "statementNode");
+        CheckArg.isNotNull(ddl, "ddl");
+
+        final Object expression = statementNode.getProperty(DDL_EXPRESSION);
+
+        if (expression != null) {
+            return expression.toString();
+        }
+
+        final Object start = statementNode.getProperty(DDL_START_CHAR_INDEX);
+        final Object length = statementNode.getProperty(DDL_LENGTH);
+
+        if ((start == null) || (length == null)) {
+            return null;
+        }
+
+        return slice(ddl, ((Number)start).intValue(), ((Number)length).intValue());
+    }
+
+    /**
+     * @param statementNode the sequenced statement node whose source is being requested (cannot be <code>null</code>)
+     * @param ddl the DDL the statement was sequenced from (cannot be <code>null</code>)
+     * @return the statement source or <code>null</code> if the node is not a statement node
+     * @throws RepositoryException if an error occurs
+     * @see StandardDdlLexicon#SOURCE_SHA1
+     */
+    public static String get( final Node statementNode,
+                              final String ddl ) throws RepositoryException {
+        CheckArg.isNotNull(statementNode, "statementNode");
+        CheckArg.isNotNull(ddl, "ddl");
+
+        if (statementNode.hasProperty(DDL_EXPRESSION)) {
+            return statementNode.getProperty(DDL_EXPRESSION).getString();
+        }
+
+        if (!statementNode.hasProperty(DDL_START_CHAR_INDEX) || !statementNode.hasProperty(DDL_LENGTH)) {
+            return null;
+        }
+
+        return slice(ddl,
+                     (int)statementNode.getProperty(DDL_START_CHAR_INDEX).getLong(),
+                     (int)statementNode.getProperty(DDL_LENGTH).getLong());
+    }
+
+    private static String slice( final String ddl,
+                                 final int start,
+                                 final int length ) {
+        if ((start < 0) || ((start + length) > ddl.length())) {
+            throw new IllegalArgumentException(DdlSequencerI18n.statementOutsideOfDdl.text(start, length, ddl.length()));
+        }
+
+        return ddl.substring(start, (start + length));
+    }
+
+    /**
+     * Don't allow construction outside of this class.
+     */
+    private StatementExpressions() {
+        // nothing to do
+    }
+
+}
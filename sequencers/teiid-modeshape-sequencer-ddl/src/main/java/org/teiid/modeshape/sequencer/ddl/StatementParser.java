@@ -314,6 +314,16 @@ abstract class StatementParser implements DdlConstants {
         return id;
     }
 
+    /**
+     * Takes over the state another parser of the same type collected for {@link #postProcess(AstNode) post processing}. Used
+     * when statements have been parsed by more than one {@link TeiidDdlParser}. Default implementation does nothing.
+     * 
+     * @param other the parser whose post processing state is being taken over (never <code>null</code>)
+     */
+    void absorb( final StatementParser other ) {
+        // nothing to do
+    }
+
     /**
      * @param rootNode the top level {@link AstNode}; may not be null
      */
@@ -25,8 +25,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.modeshape.common.text.ParsingException;
 import org.teiid.modeshape.sequencer.ddl.DdlTokenStream.DdlTokenizer;
 import org.teiid.modeshape.sequencer.ddl.node.AstNode;
 
@@ -42,6 +47,13 @@ public final class TeiidDdlParser extends StandardDdlParser implements TeiidDdlC
 
     private final Map<String, String> namespaceAliases;
     private final Collection<StatementParser> parsers;
+    private int parallelParsingThreshold = 0;
+    private ForkJoinPool parallelParsingPool;
+
+    /**
+     * The ignored statements parsed by a worker whose names must be replaced when adopted. Only set for workers.
+     */
+    private Set<AstNode> ignoredStatements;
 
     /**
      * Constructs a Teiid DDL parser.
@@ -60,6 +72,70 @@ public final class TeiidDdlParser extends StandardDdlParser implements TeiidDdlC
         this.parsers = Collections.unmodifiableCollection(temp);
     }
 
+    /**
+     * Moves the statement nodes a worker parsed into the supplied root, in order, and takes over the problems and post processing
+     * state of the worker. Ignored statements are renamed so that they are numbered as if this parser had parsed them.
+     * 
+     * @param worker the worker whose statements are being adopted (cannot be <code>null</code>)
+     * @param workerRootNode the root node the worker parsed into (cannot be <code>null</code>)
+     * @param rootNode the root node receiving the statement nodes (cannot be <code>null</code>)
+     */
+    void adopt( final TeiidDdlParser worker,
+                final AstNode workerRootNode,
+                final AstNode rootNode ) {
+        for (final AstNode kid : workerRootNode.removeAllChildren()) {
+            if (worker.ignoredStatements.contains(kid)) {
+                final AstNode renamed = nodeFactory().node(nextIgnoredStatementName());
+
+                for (final String propName : kid.getPropertyNames()) {
+                    renamed.setProperty(propName, kid.getProperty(propName));
+                }
+
+                rootNode.addLastChild(renamed);
+            } else {
+                rootNode.addLastChild(kid);
+            }
+        }
+
+        for (final DdlParserProblem problem : worker.getProblems()) {
+            addProblem(problem);
+        }
+
+        final Iterator<StatementParser> itr = worker.parsers.iterator();
+
+        for (final StatementParser parser : this.parsers) {
+            parser.absorb(itr.next());
+        }
+    }
+
+    /**
+     * @return a parser, configured like this one, that can parse a range of statements on another thread (never
+     *         <code>null</code>)
+     */
+    TeiidDdlParser newWorker() {
+        final TeiidDdlParser worker = new TeiidDdlParser();
+        worker.namespaceAliases.putAll(this.namespaceAliases);
+        worker.ignoredStatements = Collections.newSetFromMap(new IdentityHashMap<AstNode, Boolean>());
+        worker.setTestMode(isTestMode());
+        worker.setIncludeStatementExpressions(isIncludeStatementExpressions());
+        return worker;
+    }
+
+    /**
+     * Sequentially parses a range of statements. The parser's state (problems, namespace aliases, post processing state) carries
+     * over from one range to the next.
+     * 
+     * @param tokens the range of tokens being parsed (cannot be <code>null</code>)
+     * @param rootNode the node the statement nodes are added to (cannot be <code>null</code>)
+     * @throws ParsingException if there is an error parsing the tokens
+     */
+    void parseRange( final DdlTokenStream tokens,
+                     final AstNode rootNode ) throws ParsingException {
+        setRootNode(rootNode);
+        tokens.start();
+        super.parseStatements(tokens, rootNode);
+    }
+
     boolean accessParseDefaultClause( final DdlTokenStream tokens,
                                       final AstNode columnNode ) {
         return super.parseDefaultClause(tokens, columnNode);
@@ -98,6 +174,21 @@ public final class TeiidDdlParser extends StandardDdlParser implements TeiidDdlC
         return ID;
     }
 
+    /**
+     * @return the pool used when parsing statements in parallel (never <code>null</code>)
+     */
+    public ForkJoinPool getParallelParsingPool() {
+        return ((this.parallelParsingPool == null) ? ForkJoinPool.commonPool() : this.parallelParsingPool);
+    }
+
+    /**
+     * @return the minimum number of top level statements the DDL must have before its statements are parsed in parallel (zero or
+     *         less when parallel parsing is disabled)
+     */
+    public int getParallelParsingThreshold() {
+        return this.parallelParsingThreshold;
+    }
+
     /**
      * @param alias the alias whose namespace URI is being requested (cannot be <code>null</code> or empty)
      * @return the URI or <code>null</code> if not found
@@ -132,6 +223,24 @@ public final class TeiidDdlParser extends StandardDdlParser implements TeiidDdlC
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.teiid.modeshape.sequencer.ddl.StandardDdlParser#parseIgnoredStatement(org.teiid.modeshape.sequencer.ddl.DdlTokenStream,
+     *      org.teiid.modeshape.sequencer.ddl.node.AstNode)
+     */
+    @Override
+    AstNode parseIgnoredStatement( final DdlTokenStream tokens,
+                                   final AstNode rootNode ) {
+        final AstNode stmtNode = super.parseIgnoredStatement(tokens, rootNode);
+
+        if (this.ignoredStatements != null) {
+            this.ignoredStatements.add(stmtNode);
+        }
+
+        return stmtNode;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -157,6 +266,25 @@ public final class TeiidDdlParser extends StandardDdlParser implements TeiidDdlC
         throw new TeiidDdlParsingException(tokens, "Unparsable DDL statement");
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When the DDL has at least the {@link #getParallelParsingThreshold() threshold} number of top level statements, ranges of
+     * statements are parsed on the {@link #getParallelParsingPool() parallel parsing pool} and stitched back together in source
+     * order. Otherwise, or when the statements cannot safely be split, the statements are parsed sequentially.
+     * 
+     * @see org.teiid.modeshape.sequencer.ddl.StandardDdlParser#parseStatements(org.teiid.modeshape.sequencer.ddl.DdlTokenStream,
+     *      org.teiid.modeshape.sequencer.ddl.node.AstNode)
+     */
+    @Override
+    protected void parseStatements( final DdlTokenStream tokens,
+                                    final AstNode rootNode ) throws ParsingException {
+        if ((this.parallelParsingThreshold <= 0) || (this.ignoredStatements != null)
+            || !new ParallelStatementParsing(this).parse(tokens, rootNode)) {
+            super.parseStatements(tokens, rootNode);
+        }
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -171,4 +299,19 @@ public final class TeiidDdlParser extends StandardDdlParser implements TeiidDdlC
         }
     }
 
+    /**
+     * @param pool the pool used when parsing statements in parallel (can be <code>null</code> if the common pool should be used)
+     */
+    public void setParallelParsingPool( final ForkJoinPool pool ) {
+        this.parallelParsingPool = pool;
+    }
+
+    /**
+     * @param threshold the minimum number of top level statements the DDL must have before its statements are parsed in parallel
+     *        (zero or less disables parallel parsing)
+     */
+    public void setParallelParsingThreshold( final int threshold ) {
+        this.parallelParsingThreshold = threshold;
+    }
+
 }
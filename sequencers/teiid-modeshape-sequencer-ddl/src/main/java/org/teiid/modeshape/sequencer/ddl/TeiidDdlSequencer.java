@@ -42,6 +42,8 @@ public class TeiidDdlSequencer extends DdlSequencer {
 
     private static final String[] GRAMMARS = new String[] { TeiidDdlParser.ID };
 
+    private int parallelParsingThreshold = 0;
+
     /**
      * {@inheritDoc}
      *
@@ -69,7 +71,19 @@ public class TeiidDdlSequencer extends DdlSequencer {
      */
     @Override
     protected List< DdlParser > getParserList() {
-        return Collections.singletonList( ( DdlParser )new TeiidDdlParser() );
+        final TeiidDdlParser parser = new TeiidDdlParser();
+        parser.setParallelParsingThreshold( this.parallelParsingThreshold );
+        parser.setIncludeStatementExpressions( isIncludeStatementExpressions() );
+        return Collections.singletonList( ( DdlParser )parser );
+    }
+
+    /**
+     * @return the minimum number of top level statements a DDL file must have before its statements are parsed in parallel (zero
+     *         or less when parallel parsing is disabled)
+     * @see TeiidDdlParser#getParallelParsingThreshold()
+     */
+    public int getParallelParsingThreshold() {
+        return this.parallelParsingThreshold;
     }
 
     /**
@@ -125,6 +139,15 @@ public class TeiidDdlSequencer extends DdlSequencer {
         }
     }
 
+    /**
+     * @param threshold the minimum number of top level statements a DDL file must have before its statements are parsed in
+     *        parallel (zero or less disables parallel parsing)
+     * @see TeiidDdlParser#setParallelParsingThreshold(int)
+     */
+    public void setParallelParsingThreshold( final int threshold ) {
+        this.parallelParsingThreshold = threshold;
+    }
+
     /**
      * {@inheritDoc}
      *
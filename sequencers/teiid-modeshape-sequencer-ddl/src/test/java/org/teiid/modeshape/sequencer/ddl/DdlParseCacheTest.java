@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.ddl;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.teiid.modeshape.sequencer.ddl.DdlParseCache.Snapshot;
+import org.teiid.modeshape.sequencer.ddl.node.AstNode;
+
+/**
+ * A test class for {@link DdlParseCache}.
+ */
+public class DdlParseCacheTest extends DdlParserTestHelper {
+
+    private static final String DDL_FILE_PATH = "ddl/";
+
+    @Before
+    public void beforeEach() {
+        this.parser = new TeiidDdlParser();
+    }
+
+    private void assertSameTree( final AstNode expected,
+                                 final AstNode actual,
+                                 final AstNode actualRoot ) {
+        assertThat(actual.getName(), is(expected.getName()));
+        assertThat(actual.getPropertyNames().size(), is(expected.getPropertyNames().size()));
+
+        for (final String propName : expected.getPropertyNames()) {
+            final Object expectedValue = expected.getProperty(propName);
+            final Object actualValue = actual.getProperty(propName);
+
+            if (expectedValue instanceof AstNode) {
+                assertReference((AstNode)expectedValue, (AstNode)actualValue, actualRoot);
+            } else if (expectedValue instanceof List) {
+                final List<?> expectedValues = (List<?>)expectedValue;
+                final List<?> actualValues = (List<?>)actualValue;
+                assertThat(actualValues.size(), is(expectedValues.size()));
+
+                for (int i = 0, size = expectedValues.size(); i < size; ++i) {
+                    if (expectedValues.get(i) instanceof AstNode) {
+                        assertReference((AstNode)expectedValues.get(i), (AstNode)actualValues.get(i), actualRoot);
+                    } else {
+                        assertThat(actualValues.get(i), is((Object)expectedValues.get(i)));
+                    }
+                }
+            } else {
+                assertThat(actualValue, is(expectedValue));
+            }
+        }
+
+        assertThat(actual.getChildCount(), is(expected.getChildCount()));
+
+        for (int i = 0, size = expected.getChildCount(); i < size; ++i) {
+            assertSameTree(expected.getChild(i), actual.getChild(i), actualRoot);
+        }
+    }
+
+    private void assertReference( final AstNode expected,
+                                  final AstNode actual,
+                                  final AstNode actualRoot ) {
+        assertThat(actual.getAbsolutePath(), is(expected.getAbsolutePath()));
+
+        // must reference a node of the new AST
+        AstNode root = actual;
+
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+
+        assertThat(root, is(sameInstance(actualRoot)));
+    }
+
+    private Snapshot parse( final String fileName ) {
+        final AstNode root = this.parser.nodeFactory().node(StandardDdlLexicon.STATEMENTS_CONTAINER);
+        this.parser.parse(getFileContent(DDL_FILE_PATH + fileName), root, null);
+        return Snapshot.of(root);
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        final DdlParseCache cache = new DdlParseCache(Long.MAX_VALUE);
+        final Snapshot snapshot = parse("accounts.ddl");
+        assertThat(cache.get("accounts"), is(nullValue()));
+
+        cache.put("accounts", snapshot);
+        assertThat(cache.get("accounts"), is(sameInstance(snapshot)));
+        assertThat(cache.get("accounts"), is(sameInstance(snapshot)));
+        assertThat(cache.get("flatFile"), is(nullValue()));
+
+        assertThat(cache.getHitCount(), is(2L));
+        assertThat(cache.getMissCount(), is(2L));
+        assertThat(cache.getEvictionCount(), is(0L));
+        assertThat(cache.getSize(), is(snapshot.getSize()));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedWhenOverBudget() {
+        final Snapshot first = parse("accounts.ddl");
+        final Snapshot second = parse("flatFile.ddl");
+        final Snapshot third = parse("createTrigger.ddl");
+        final DdlParseCache cache = new DdlParseCache(first.getSize() + second.getSize() + third.getSize() - 1);
+
+        cache.put("first", first);
+        cache.put("second", second);
+        cache.get("first"); // second is now the least recently used
+        cache.put("third", third);
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getEvictionCount(), is(1L));
+        assertThat(cache.get("second"), is(nullValue()));
+        assertThat(cache.get("first"), is(notNullValue()));
+        assertThat(cache.get("third"), is(notNullValue()));
+        assertThat(cache.getSize(), is(first.getSize() + third.getSize()));
+    }
+
+    @Test
+    public void shouldNotCacheSnapshotLargerThanBudget() {
+        final Snapshot snapshot = parse("accounts.ddl");
+        final DdlParseCache cache = new DdlParseCache(snapshot.getSize() - 1);
+        cache.put("accounts", snapshot);
+        assertThat(cache.size(), is(0));
+        assertThat(cache.getSize(), is(0L));
+    }
+
+    @Test
+    public void shouldRecreateAstFromSnapshot() {
+        for (final String fileName : new String[] {"accounts.ddl", "alterOptions.ddl", "sap-hana.ddl"}) {
+            final AstNode expected = this.parser.nodeFactory().node(StandardDdlLexicon.STATEMENTS_CONTAINER);
+            this.parser.parse(getFileContent(DDL_FILE_PATH + fileName), expected, null);
+
+            final Snapshot snapshot = Snapshot.of(expected);
+            final AstNode first = snapshot.toAstNode();
+            assertSameTree(expected, first, first);
+
+            // each AST is a new AST
+            final AstNode second = snapshot.toAstNode();
+            assertThat(second, is(not(sameInstance(first))));
+            assertSameTree(expected, second, second);
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.ddl;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ * A test class for {@link KeywordMatcher}.
+ */
+public class KeywordMatcherTest {
+
+    /*
+     * How the scorer used to count occurrences.
+     */
+    private int countWithIndexOf( final String text,
+                                  final String... keywords ) {
+        final String lowercaseText = text.toLowerCase();
+        int result = 0;
+
+        for (final String keyword : keywords) {
+            if (keyword == null) {
+                continue;
+            }
+
+            final String lowercaseKeyword = keyword.toLowerCase();
+            int index = 0;
+
+            while ((index = lowercaseText.indexOf(lowercaseKeyword, index)) != -1) {
+                ++result;
+                ++index;
+            }
+        }
+
+        return result;
+    }
+
+    private void assertCount( final String text,
+                              final String... keywords ) {
+        assertThat(new KeywordMatcher(keywords).count(text), is(countWithIndexOf(text, keywords)));
+    }
+
+    @Test
+    public void shouldCountLikeIndexOf() {
+        assertCount("-- Teiid DDL for the TEIID server", "teiid");
+        assertCount("aaaa", "aa");
+        assertCount("ushers", "he", "she", "his", "hers");
+        assertCount("Oracle, ORACLE 11g, oracle", "ORACLE", "oracle 11g", "ora");
+        assertCount("SQL92 sql-92 SqL92", "SQL92", "sql92");
+        assertCount("nothing to see here", "teiid", "derby");
+        assertCount("", "teiid");
+        assertCount("teiid", "teiid", null);
+    }
+
+    @Test
+    public void shouldMatchNothingWithoutKeywords() {
+        assertThat(new KeywordMatcher().count("TEIID"), is(0));
+        assertThat(new KeywordMatcher((String[])null).count("TEIID"), is(0));
+        assertThat(new KeywordMatcher("TEIID").count(null), is(0));
+    }
+
+    @Test
+    public void shouldScoreUsingFactor() {
+        final DdlParserScorer scorer = new DdlParserScorer();
+        scorer.scoreText("Teiid: the TEIID DDL", 2, new KeywordMatcher("teiid"));
+        assertThat(scorer.getScore(), is(4));
+    }
+
+}
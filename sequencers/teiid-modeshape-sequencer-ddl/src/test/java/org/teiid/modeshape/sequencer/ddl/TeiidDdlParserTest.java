@@ -22,9 +22,11 @@
 package org.teiid.modeshape.sequencer.ddl;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Before;
 import org.junit.Test;
 import org.teiid.modeshape.sequencer.ddl.node.AstNode;
@@ -511,4 +513,114 @@ public class TeiidDdlParserTest extends DdlParserTestHelper implements TeiidDdlC
         }
     }
 
+    private void assertSameTree( final AstNode expected,
+                                 final AstNode actual ) {
+        assertThat(actual.getName(), is(expected.getName()));
+        assertThat(actual.getPropertyNames().size(), is(expected.getPropertyNames().size()));
+
+        for (final String propName : expected.getPropertyNames()) {
+            assertThat(propName, toComparable(actual.getProperty(propName)), is(toComparable(expected.getProperty(propName))));
+        }
+
+        assertThat(actual.getAbsolutePath(), actual.getChildCount(), is(expected.getChildCount()));
+
+        for (int i = 0, size = expected.getChildCount(); i < size; ++i) {
+            assertSameTree(expected.getChild(i), actual.getChild(i));
+        }
+    }
+
+    private Object toComparable( final Object value ) {
+        if (value instanceof AstNode) {
+            return ((AstNode)value).getAbsolutePath();
+        }
+
+        if (value instanceof List) {
+            final List<Object> result = new ArrayList<>();
+
+            for (final Object item : (List<?>)value) {
+                result.add(toComparable(item));
+            }
+
+            return result;
+        }
+
+        return value;
+    }
+
+    private void assertParallelParseMatchesSequentialParse( final String content ) {
+        final AstNode expected = this.parser.nodeFactory().node("DdlRootNode");
+        this.parser.parse(content, expected, null);
+
+        final ForkJoinPool pool = new ForkJoinPool(3);
+
+        try {
+            final TeiidDdlParser parallelParser = new TeiidDdlParser();
+            parallelParser.setParallelParsingThreshold(1);
+            parallelParser.setParallelParsingPool(pool);
+
+            final AstNode actual = parallelParser.nodeFactory().node("DdlRootNode");
+            parallelParser.parse(content, actual, null);
+            assertSameTree(expected, actual);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldParseInParallelSameAsSequentially() {
+        for (final String fileName : new String[] {"GreenPlum.ddl", "accounts.ddl", "alterOptions.ddl", "createTrigger.ddl",
+            "flatFile.ddl", "foreignTemporaryTable.ddl", "localTemporaryTable.ddl", "mySqlBqt.ddl", "optionNamespace.ddl",
+            "resultSetOptions.ddl", "sap-flight.ddl", "sap-hana.ddl", "sap_short_test.ddl", "sfddl.ddl", "twitterWebService.ddl"}) {
+            assertParallelParseMatchesSequentialParse(getFileContent(DDL_FILE_PATH + fileName));
+        }
+    }
+
+    @Test
+    public void shouldParseInParallelWithForwardReferencesAndComments() {
+        final StringBuilder ddl = new StringBuilder("SET NAMESPACE 'http://www.teiid.org/ext/relational/2012' AS teiid_rel;\n");
+
+        for (int i = 0; i < 50; ++i) {
+            ddl.append("-- table ").append(i).append('\n');
+            ddl.append("CREATE FOREIGN TABLE t").append(i).append(" (c1 integer PRIMARY KEY, c2 string, FOREIGN KEY (c1) REFERENCES t")
+               .append((i + 1) % 50).append(" (c1)) OPTIONS (\"teiid_rel:ALLOW_MATVIEW_MANAGEMENT\" 'true');\n");
+            ddl.append("CREATE VIRTUAL PROCEDURE p").append(i)
+               .append("() RETURNS integer AS BEGIN DECLARE integer x = 1; CREATE LOCAL TEMPORARY TABLE tmp (e1 integer); RETURN x; END;\n");
+
+            if ((i % 10) == 9) {
+                ddl.append("ALTER FOREIGN TABLE t").append(i).append(" OPTIONS (ADD CARDINALITY 12);\n");
+            }
+        }
+
+        assertParallelParseMatchesSequentialParse(ddl.toString());
+    }
+
+    private void assertSameExpressions( final AstNode expected,
+                                        final AstNode actual,
+                                        final String ddl ) {
+        assertThat(actual.getProperty(StandardDdlLexicon.DDL_EXPRESSION), is(nullValue()));
+        assertThat(actual.getProperty(StandardDdlLexicon.DDL_LENGTH), is(expected.getProperty(StandardDdlLexicon.DDL_LENGTH)));
+        assertThat(StatementExpressions.get(actual, ddl), is(expected.getProperty(StandardDdlLexicon.DDL_EXPRESSION)));
+        assertThat(actual.getChildCount(), is(expected.getChildCount()));
+
+        for (int i = 0, size = expected.getChildCount(); i < size; ++i) {
+            assertSameExpressions(expected.getChild(i), actual.getChild(i), ddl);
+        }
+    }
+
+    @Test
+    public void shouldObtainStatementExpressionsFromOffsets() {
+        for (final String fileName : new String[] {"accounts.ddl", "createTrigger.ddl", "flatFile.ddl", "sap-hana.ddl"}) {
+            final String content = getFileContent(DDL_FILE_PATH + fileName);
+            final AstNode expected = this.parser.nodeFactory().node("DdlRootNode");
+            this.parser.parse(content, expected, null);
+
+            final TeiidDdlParser offsetsParser = new TeiidDdlParser();
+            offsetsParser.setIncludeStatementExpressions(false);
+
+            final AstNode actual = offsetsParser.nodeFactory().node("DdlRootNode");
+            offsetsParser.parse(content, actual, null);
+            assertSameExpressions(expected, actual, content);
+        }
+    }
+
 }
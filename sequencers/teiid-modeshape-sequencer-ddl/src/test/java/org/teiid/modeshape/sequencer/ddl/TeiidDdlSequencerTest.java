@@ -22,6 +22,7 @@
 package org.teiid.modeshape.sequencer.ddl;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.modeshape.jcr.api.JcrConstants.NT_UNSTRUCTURED;
@@ -777,4 +778,49 @@ public class TeiidDdlSequencerTest extends AbstractDdlSequencerTest {
         }
     }
 
+    @Test
+    public void shouldOnlyReplaceChangedStatementsWhenIncremental() throws Exception {
+        final TeiidDdlSequencer sequencer = new TeiidDdlSequencer();
+        sequencer.setIncremental(true);
+
+        final Node outputNode = this.rootNode.addNode("incremental");
+        final String tableA = "CREATE FOREIGN TABLE A (c1 integer PRIMARY KEY);";
+        final String tableB = "CREATE FOREIGN TABLE B (c1 integer, FOREIGN KEY (c1) REFERENCES A (c1));";
+        final String tableC = "CREATE FOREIGN TABLE C (c1 integer);";
+        sequencer.sequenceDdl(tableA + '\n' + tableB + '\n' + tableC, outputNode);
+        this.session.save();
+
+        this.statementsNode = outputNode.getNode(StandardDdlLexicon.STATEMENTS_CONTAINER);
+        final String idA = this.statementsNode.getNode("A").getIdentifier();
+        final String idB = this.statementsNode.getNode("B").getIdentifier();
+        final String idC = this.statementsNode.getNode("C").getIdentifier();
+
+        // add a statement at the start and change table C
+        final String tableD = "CREATE FOREIGN TABLE D (c1 integer);";
+        sequencer.sequenceDdl(tableD + '\n' + tableA + '\n' + tableB + '\n' + "CREATE FOREIGN TABLE C (c1 string);", outputNode);
+        this.session.save();
+
+        this.statementsNode = outputNode.getNode(StandardDdlLexicon.STATEMENTS_CONTAINER);
+        assertThat(this.statementsNode.getNodes().getSize(), is(4L));
+        assertThat(this.statementsNode.getNode("A").getIdentifier(), is(idA));
+        assertThat(this.statementsNode.getNode("B").getIdentifier(), is(idB));
+        assertThat(this.statementsNode.getNode("C").getIdentifier(), is(not(idC)));
+        verifyProperty(this.statementsNode.getNode("A"), StandardDdlLexicon.DDL_START_CHAR_INDEX, (tableD.length() + 1));
+
+        final NodeIterator itr = this.statementsNode.getNodes();
+        assertThat(itr.nextNode().getName(), is("D"));
+        assertThat(itr.nextNode().getName(), is("A"));
+        assertThat(itr.nextNode().getName(), is("B"));
+        assertThat(itr.nextNode().getName(), is("C"));
+
+        // change table A so that table B, which references it, is replaced too
+        sequencer.sequenceDdl("CREATE FOREIGN TABLE A (c1 integer PRIMARY KEY, c2 string);\n" + tableB, outputNode);
+        this.session.save();
+
+        this.statementsNode = outputNode.getNode(StandardDdlLexicon.STATEMENTS_CONTAINER);
+        assertThat(this.statementsNode.getNodes().getSize(), is(2L));
+        assertThat(this.statementsNode.getNode("A").getIdentifier(), is(not(idA)));
+        assertThat(this.statementsNode.getNode("B").getIdentifier(), is(not(idB)));
+    }
+
 }
@@ -26,6 +26,7 @@ import javax.jcr.Binary;
 import javax.jcr.Node;
 import javax.jcr.Property;
 import org.modeshape.common.util.CheckArg;
+import org.teiid.modeshape.sequencer.internal.NamespaceRegistryCache;
 import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon;
 
 /**
@@ -34,6 +35,8 @@ import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon;
  */
 public class VdbDynamicSequencer extends VdbSequencer {
 
+    private boolean streaming; // set from the sequencer configuration
+
     @Override
     public boolean execute(Property inputProperty, Node outputNode, Context context) throws Exception {
         LOGGER.debug("VdbDynamicSequencer.execute called:outputNode name='{0}', path='{1}'", outputNode.getName(), outputNode.getPath());
@@ -43,7 +46,7 @@ public class VdbDynamicSequencer extends VdbSequencer {
 
         try (final InputStream stream = binaryValue.getStream()) {
 
-            VdbManifest manifest = readManifest(binaryValue, stream, outputNode, context);
+            VdbManifest manifest = readManifest(binaryValue, stream, outputNode, context, namespaces(outputNode), this.streaming);
             if (manifest == null) {
                 throw new Exception("VdbDynamicSequencer.execute failed. The xml cannot be read.");
             }
@@ -69,7 +72,12 @@ public class VdbDynamicSequencer extends VdbSequencer {
         }
 
         try {
-            final VdbManifest manifest = readManifest( null, vdbStream, vdbOutputNode, null );
+            final VdbManifest manifest = readManifest( null,
+                                                       vdbStream,
+                                                       vdbOutputNode,
+                                                       null,
+                                                       namespaces( vdbOutputNode ),
+                                                       this.streaming );
 
             if ( manifest == null ) {
                 throw new Exception( "VdbDynamicSequencer.execute failed. The xml cannot be read." );
@@ -80,5 +88,28 @@ public class VdbDynamicSequencer extends VdbSequencer {
 
         return true;
     }
-    
+
+    /**
+     * @return <code>true</code> if the manifest objects are written to the VDB node while the manifest is being read instead of
+     *         after the whole manifest has been read
+     */
+    public boolean isStreaming() {
+        return this.streaming;
+    }
+
+    /**
+     * Streaming is turned off by default. It is typically turned on in the sequencer configuration by setting the
+     * <code>streaming</code> field to <code>true</code>. When streaming, the models, translators, data roles, entries and
+     * imported VDBs are not kept in memory and their nodes are added in the order they appear in the manifest.
+     *
+     * @param newStreaming <code>true</code> if the manifest objects should be written while the manifest is being read
+     */
+    public void setStreaming( final boolean newStreaming ) {
+        this.streaming = newStreaming;
+    }
+
+    private static NamespaceRegistryCache namespaces( final Node outputNode ) throws Exception {
+        return new NamespaceRegistryCache( outputNode.getSession().getWorkspace().getNamespaceRegistry() );
+    }
+
 }
@@ -22,26 +22,23 @@
 
 package org.teiid.modeshape.sequencer.vdb;
 
-import java.io.StringWriter;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.Property;
 import javax.jcr.PropertyIterator;
-import javax.jcr.Session;
 import javax.jcr.Value;
-import javax.jcr.query.Query;
-import javax.jcr.query.QueryManager;
-import javax.jcr.query.QueryResult;
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import org.modeshape.common.annotation.ThreadSafe;
 import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.StringUtil;
 import org.teiid.modeshape.sequencer.Options;
 import org.teiid.modeshape.sequencer.internal.AbstractExporter;
+import org.teiid.modeshape.sequencer.internal.ChildNodeLookup;
+import org.teiid.modeshape.sequencer.internal.NamespaceResolver;
 import org.teiid.modeshape.sequencer.vdb.VdbDataRole.Condition;
 import org.teiid.modeshape.sequencer.vdb.VdbDataRole.Mask;
 import org.teiid.modeshape.sequencer.vdb.VdbDataRole.Permission;
@@ -54,23 +51,15 @@ import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon.DataRole;
 /**
  * An exporter for VDBs.
  */
+@ThreadSafe
 public class VdbExporter extends AbstractExporter {
 
-    /**
-     * First param is child node type. Second param is the parent node path. Third param is child node name.
-     */
-    private static final String FIND_CHILD_BY_NAME_AND_TYPE = "SELECT [jcr:path] FROM ['%s'] WHERE ISCHILDNODE('%s') AND [jcr:name] = '%s' LIMIT 1";
-
-    /**
-     * First param is child node type. Second param is the parent node path.
-     */
-    private static final String FIND_CHILD_WITH_TYPE = "SELECT [jcr:path] FROM ['%s'] WHERE ISCHILDNODE('%s')";
-
     private static final Logger LOGGER = Logger.getLogger( VdbExporter.class );
 
     private VdbManifest constructManifest( final Node vdb,
                                            final Options options ) throws Exception {
-
+        final ChildNodeLookup lookup = new ChildNodeLookup( isQueryChildNodes( options ) );
+        final Options.PropertyFilter filter = getPropertyFilter( options, vdb.getSession() );
         VdbManifest manifest = null;
 
         { // name is required
@@ -102,7 +91,7 @@ public class VdbExporter extends AbstractExporter {
 
         { // properties
             final Map< String, String > props = manifest.getProperties();
-            final Options.PropertyFilter filter = getPropertyFilter( options );
+            final NamespaceResolver namespaces = new NamespaceResolver( vdb.getSession() );
             final PropertyIterator itr = vdb.getProperties();
 
             while ( itr.hasNext() ) {
@@ -110,25 +99,13 @@ public class VdbExporter extends AbstractExporter {
                 final String propName = property.getName();
 
                 if ( filter.accept( propName ) ) {
-                    String name = propName;
-                    final int index = name.indexOf( ':' );
-
-                    if ( index != -1 ) {
-                        final String uri = vdb.getSession().getNamespaceURI( name.substring( 0, index ) );
-                        name = '{'
-                               + uri
-                               + '}'
-                               + name.substring( index
-                                                 + 1 );
-                    }
-
-                    props.put( name, property.getValue().getString() );
+                    props.put( namespaces.toExpandedName( propName ), property.getValue().getString() );
                 }
             }
         }
 
         { // models
-            final Node[] modelNodes = findChildrenWithType( vdb, VdbLexicon.Vdb.DECLARATIVE_MODEL );
+            final Node[] modelNodes = lookup.getChildren( vdb, VdbLexicon.Vdb.DECLARATIVE_MODEL );
 
             if ( modelNodes.length != 0 ) {
                 final List< VdbModel > models = manifest.getModels();
@@ -155,7 +132,6 @@ public class VdbExporter extends AbstractExporter {
 
                     { // properties
                         final Map< String, String > props = model.getProperties();
-                        final Options.PropertyFilter filter = getPropertyFilter( options );
                         final PropertyIterator itr = modelNode.getProperties();
 
                         while ( itr.hasNext() ) {
@@ -183,12 +159,12 @@ public class VdbExporter extends AbstractExporter {
                     }
 
                     { // sources
-                        final Node groupingNode = findNodeByNameAndType( modelNode,
-                                                                         VdbLexicon.Vdb.SOURCES,
-                                                                         VdbLexicon.Vdb.SOURCES );
+                        final Node groupingNode = lookup.getChild( modelNode,
+                                                                   VdbLexicon.Vdb.SOURCES,
+                                                                   VdbLexicon.Vdb.SOURCES );
 
                         if ( groupingNode != null ) {
-                            final Node[] sourceNodes = findChildrenWithType( groupingNode, VdbLexicon.Source.SOURCE );
+                            final Node[] sourceNodes = lookup.getChildren( groupingNode, VdbLexicon.Source.SOURCE );
 
                             if ( sourceNodes.length != 0 ) {
                                 final List< Source > sources = model.getSources();
@@ -216,10 +192,10 @@ public class VdbExporter extends AbstractExporter {
         }
 
         { // translators
-            final Node groupingNode = findNodeByNameAndType( vdb, VdbLexicon.Vdb.TRANSLATORS, VdbLexicon.Vdb.TRANSLATORS );
+            final Node groupingNode = lookup.getChild( vdb, VdbLexicon.Vdb.TRANSLATORS, VdbLexicon.Vdb.TRANSLATORS );
 
             if ( groupingNode != null ) {
-                final Node[] translatorNodes = findChildrenWithType( groupingNode, VdbLexicon.Translator.TRANSLATOR );
+                final Node[] translatorNodes = lookup.getChildren( groupingNode, VdbLexicon.Translator.TRANSLATOR );
 
                 if ( translatorNodes.length != 0 ) {
                     final List< VdbTranslator > translators = manifest.getTranslators();
@@ -235,7 +211,6 @@ public class VdbExporter extends AbstractExporter {
 
                         { // properties
                             final Map< String, String > props = translator.getProperties();
-                            final Options.PropertyFilter filter = getPropertyFilter( options );
                             final PropertyIterator itr = translatorNode.getProperties();
 
                             while ( itr.hasNext() ) {
@@ -255,10 +230,10 @@ public class VdbExporter extends AbstractExporter {
         }
 
         { // data roles
-            final Node groupingNode = findNodeByNameAndType( vdb, VdbLexicon.Vdb.DATA_ROLES, VdbLexicon.Vdb.DATA_ROLES );
+            final Node groupingNode = lookup.getChild( vdb, VdbLexicon.Vdb.DATA_ROLES, VdbLexicon.Vdb.DATA_ROLES );
 
             if ( groupingNode != null ) {
-                final Node[] dataRoleNodes = findChildrenWithType( groupingNode, DataRole.DATA_ROLE );
+                final Node[] dataRoleNodes = lookup.getChildren( groupingNode, DataRole.DATA_ROLE );
 
                 if ( dataRoleNodes.length != 0 ) {
                     final List< VdbDataRole > dataRoles = manifest.getDataRoles();
@@ -286,13 +261,13 @@ public class VdbExporter extends AbstractExporter {
                         }
 
                         { // permissions
-                            final Node permissionsGroupingNode = findNodeByNameAndType( dataRoleNode,
-                                                                                        VdbLexicon.DataRole.PERMISSIONS,
-                                                                                        VdbLexicon.DataRole.PERMISSIONS );
+                            final Node permissionsGroupingNode = lookup.getChild( dataRoleNode,
+                                                                                  VdbLexicon.DataRole.PERMISSIONS,
+                                                                                  VdbLexicon.DataRole.PERMISSIONS );
 
                             if ( permissionsGroupingNode != null ) {
-                                final Node[] permissionNodes = findChildrenWithType( permissionsGroupingNode,
-                                                                                     org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon.DataRole.Permission.PERMISSION );
+                                final Node[] permissionNodes = lookup.getChildren( permissionsGroupingNode,
+                                                                                   org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon.DataRole.Permission.PERMISSION );
 
                                 if ( permissionNodes.length != 0 ) {
                                     final List< Permission > permissions = dataRole.getPermissions();
@@ -308,8 +283,8 @@ public class VdbExporter extends AbstractExporter {
                                         permission.allowUpdate( permissionNode.getProperty( VdbLexicon.DataRole.Permission.ALLOW_UPDATE ).getBoolean() );
 
                                         { // conditions
-                                            final Node[] conditionNodes = findChildrenWithType( permissionNode,
-                                                                                                VdbLexicon.DataRole.Permission.Condition.CONDITION );
+                                            final Node[] conditionNodes = lookup.getChildren( permissionNode,
+                                                                                              VdbLexicon.DataRole.Permission.Condition.CONDITION );
 
                                             if ( conditionNodes.length != 0 ) {
                                                 final List< Condition > conditions = permission.getConditions();
@@ -327,8 +302,8 @@ public class VdbExporter extends AbstractExporter {
                                         }
 
                                         { // masks
-                                            final Node[] maskNodes = findChildrenWithType( permissionNode,
-                                                                                           VdbLexicon.DataRole.Permission.Mask.MASK );
+                                            final Node[] maskNodes = lookup.getChildren( permissionNode,
+                                                                                         VdbLexicon.DataRole.Permission.Mask.MASK );
 
                                             if ( maskNodes.length != 0 ) {
                                                 final List< Mask > masks = permission.getMasks();
@@ -362,10 +337,10 @@ public class VdbExporter extends AbstractExporter {
         }
 
         { // entries
-            final Node groupingNode = findNodeByNameAndType( vdb, VdbLexicon.Vdb.ENTRIES, VdbLexicon.Vdb.ENTRIES );
+            final Node groupingNode = lookup.getChild( vdb, VdbLexicon.Vdb.ENTRIES, VdbLexicon.Vdb.ENTRIES );
 
             if ( groupingNode != null ) {
-                final Node[] entryNodes = findChildrenWithType( groupingNode, VdbLexicon.Entry.ENTRY );
+                final Node[] entryNodes = lookup.getChildren( groupingNode, VdbLexicon.Entry.ENTRY );
 
                 if ( entryNodes.length != 0 ) {
                     final List< VdbEntry > entries = manifest.getEntries();
@@ -381,7 +356,6 @@ public class VdbExporter extends AbstractExporter {
 
                         { // properties
                             final Map< String, String > props = entry.getProperties();
-                            final Options.PropertyFilter filter = getPropertyFilter( options );
                             final PropertyIterator itr = entryNode.getProperties();
 
                             while ( itr.hasNext() ) {
@@ -401,10 +375,10 @@ public class VdbExporter extends AbstractExporter {
         }
 
         { // import VDBs
-            final Node groupingNode = findNodeByNameAndType( vdb, VdbLexicon.Vdb.IMPORT_VDBS, VdbLexicon.Vdb.IMPORT_VDBS );
+            final Node groupingNode = lookup.getChild( vdb, VdbLexicon.Vdb.IMPORT_VDBS, VdbLexicon.Vdb.IMPORT_VDBS );
 
             if ( groupingNode != null ) {
-                final Node[] children = findChildrenWithType( groupingNode, VdbLexicon.ImportVdb.IMPORT_VDB );
+                final Node[] children = lookup.getChildren( groupingNode, VdbLexicon.ImportVdb.IMPORT_VDB );
 
                 if ( children.length != 0 ) {
                     final List< ImportVdb > importVdbs = manifest.getImportVdbs();
@@ -438,397 +412,362 @@ public class VdbExporter extends AbstractExporter {
     protected void doExport( final Node vdbNode,
                              final Options options,
                              final ResultImpl result ) {
-        XMLStreamWriter xmlWriter = null;
+        try {
+            final VdbManifest manifest = constructManifest( vdbNode, options );
+            final String xml = writeXml( options, xmlWriter -> writeManifest( manifest, xmlWriter ) );
+            LOGGER.debug( "VDB {0} manifest: \n{1}", vdbNode.getPath(), xml );
+            result.setOutcome( xml, String.class );
+        } catch ( final Exception e ) {
+            result.setError( null, e );
+        }
+    }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.internal.AbstractExporter#doExport(javax.jcr.Node,
+     *      org.teiid.modeshape.sequencer.Options, java.io.OutputStream,
+     *      org.teiid.modeshape.sequencer.internal.AbstractExporter.ResultImpl)
+     */
+    @Override
+    protected void doExport( final Node vdbNode,
+                             final Options options,
+                             final OutputStream stream,
+                             final ResultImpl result ) {
         try {
             final VdbManifest manifest = constructManifest( vdbNode, options );
-            final StringWriter stringWriter = new StringWriter();
-            final XMLOutputFactory xof = XMLOutputFactory.newInstance();
-            xmlWriter = xof.createXMLStreamWriter( stringWriter );
-            xmlWriter.writeStartDocument( "UTF-8", "1.0" );
-
-            // root element
-            xmlWriter.writeStartElement( VdbLexicon.ManifestIds.VDB );
-            xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, manifest.getName() );
-            xmlWriter.writeAttribute( VdbLexicon.ManifestIds.VERSION, Integer.toString( manifest.getVersion() ) );
-
-            // VDB description element is optional
-            if ( !StringUtil.isBlank( manifest.getDescription() ) ) {
-                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.DESCRIPTION );
-                xmlWriter.writeCharacters( manifest.getDescription() );
-                xmlWriter.writeEndElement();
-            }
+            writeXml( stream, options, xmlWriter -> writeManifest( manifest, xmlWriter ) );
+        } catch ( final Exception e ) {
+            result.setError( null, e );
+        }
+    }
 
-            // VDB connection type element is optional
-            if ( !StringUtil.isBlank( manifest.getConnectionType() ) ) {
-                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.CONNECTION_TYPE );
-                xmlWriter.writeCharacters( manifest.getConnectionType() );
-                xmlWriter.writeEndElement();
-            }
+    private void writeManifest( final VdbManifest manifest,
+                                final XMLStreamWriter xmlWriter ) throws Exception {
+        xmlWriter.writeStartDocument( "UTF-8", "1.0" );
 
-            { // properties are optional
-                final Map< String, String > props = manifest.getProperties();
+        // root element
+        xmlWriter.writeStartElement( VdbLexicon.ManifestIds.VDB );
+        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, manifest.getName() );
+        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.VERSION, Integer.toString( manifest.getVersion() ) );
 
-                if ( !props.isEmpty() ) {
-                    for ( final Entry< String, String > property : props.entrySet() ) {
-                        writePropertyElement( xmlWriter, property.getKey(), property.getValue() );
-                    }
+        // VDB description element is optional
+        if ( !StringUtil.isBlank( manifest.getDescription() ) ) {
+            xmlWriter.writeStartElement( VdbLexicon.ManifestIds.DESCRIPTION );
+            xmlWriter.writeCharacters( manifest.getDescription() );
+            xmlWriter.writeEndElement();
+        }
+
+        // VDB connection type element is optional
+        if ( !StringUtil.isBlank( manifest.getConnectionType() ) ) {
+            xmlWriter.writeStartElement( VdbLexicon.ManifestIds.CONNECTION_TYPE );
+            xmlWriter.writeCharacters( manifest.getConnectionType() );
+            xmlWriter.writeEndElement();
+        }
+
+        { // properties are optional
+            final Map< String, String > props = manifest.getProperties();
+
+            if ( !props.isEmpty() ) {
+                for ( final Entry< String, String > property : props.entrySet() ) {
+                    writePropertyElement( xmlWriter, property.getKey(), property.getValue() );
                 }
             }
+        }
 
-            { // import-vdb collection is optional
-                final List< ImportVdb > imports = manifest.getImportVdbs();
-
-                if ( !imports.isEmpty() ) {
-                    for ( final ImportVdb importVdb : imports ) {
-                        xmlWriter.writeStartElement( VdbLexicon.ManifestIds.IMPORT_VDB );
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.IMPORT_DATA_POLICIES,
-                                                  Boolean.toString( importVdb.isImportDataPolicies() ) );
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, importVdb.getName() );
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.VERSION, Integer.toString( importVdb.getVersion() ) );
-                        xmlWriter.writeEndElement();
-                    }
+        { // import-vdb collection is optional
+            final List< ImportVdb > imports = manifest.getImportVdbs();
+
+            if ( !imports.isEmpty() ) {
+                for ( final ImportVdb importVdb : imports ) {
+                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.IMPORT_VDB );
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.IMPORT_DATA_POLICIES,
+                                              Boolean.toString( importVdb.isImportDataPolicies() ) );
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, importVdb.getName() );
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.VERSION, Integer.toString( importVdb.getVersion() ) );
+                    xmlWriter.writeEndElement();
                 }
             }
+        }
 
-            { // model collection is optional
-                final List< VdbModel > models = manifest.getModels();
+        { // model collection is optional
+            final List< VdbModel > models = manifest.getModels();
 
-                if ( !models.isEmpty() ) {
-                    for ( final VdbModel model : models ) {
-                        xmlWriter.writeStartElement( VdbLexicon.ManifestIds.MODEL );
+            if ( !models.isEmpty() ) {
+                for ( final VdbModel model : models ) {
+                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.MODEL );
 
-                        // name attribute
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, model.getName() );
+                    // name attribute
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, model.getName() );
 
-                        // model type attribute
-                        if ( ( model.getType() != null )
-                             && !model.getType().equals( VdbModel.DEFAULT_MODEL_TYPE ) ) {
-                            xmlWriter.writeAttribute( VdbLexicon.ManifestIds.TYPE, model.getType() );
-                        }
+                    // model type attribute
+                    if ( ( model.getType() != null )
+                         && !model.getType().equals( VdbModel.DEFAULT_MODEL_TYPE ) ) {
+                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.TYPE, model.getType() );
+                    }
 
-                        // visible attribute
-                        if ( model.isVisible() != VdbModel.DEFAULT_VISIBLE ) {
-                            xmlWriter.writeAttribute( VdbLexicon.ManifestIds.VISIBLE, Boolean.toString( model.isVisible() ) );
-                        }
+                    // visible attribute
+                    if ( model.isVisible() != VdbModel.DEFAULT_VISIBLE ) {
+                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.VISIBLE, Boolean.toString( model.isVisible() ) );
+                    }
 
-                        if ( !StringUtil.isBlank( model.getPathInVdb() ) ) {
-                            xmlWriter.writeAttribute( VdbLexicon.ManifestIds.PATH, model.getPathInVdb() );
-                        }
+                    if ( !StringUtil.isBlank( model.getPathInVdb() ) ) {
+                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.PATH, model.getPathInVdb() );
+                    }
 
-                        // model description element is optional
-                        if ( !StringUtil.isBlank( model.getDescription() ) ) {
-                            xmlWriter.writeStartElement( VdbLexicon.ManifestIds.DESCRIPTION );
-                            xmlWriter.writeCharacters( model.getDescription() );
-                            xmlWriter.writeEndElement();
-                        }
+                    // model description element is optional
+                    if ( !StringUtil.isBlank( model.getDescription() ) ) {
+                        xmlWriter.writeStartElement( VdbLexicon.ManifestIds.DESCRIPTION );
+                        xmlWriter.writeCharacters( model.getDescription() );
+                        xmlWriter.writeEndElement();
+                    }
 
-                        { // properties are optional
-                            final Map< String, String > props = model.getProperties();
+                    { // properties are optional
+                        final Map< String, String > props = model.getProperties();
 
-                            if ( !props.isEmpty() ) {
-                                for ( final Entry< String, String > property : props.entrySet() ) {
-                                    writePropertyElement( xmlWriter, property.getKey(), property.getValue() );
-                                }
+                        if ( !props.isEmpty() ) {
+                            for ( final Entry< String, String > property : props.entrySet() ) {
+                                writePropertyElement( xmlWriter, property.getKey(), property.getValue() );
                             }
                         }
+                    }
 
-                        { // metadata is optional
-                          // the VDB schema actually permits more than one metadata entry. We have assumed there to be
-                          // only one at this time so that is what is reflected in our design.
-                            if ( !StringUtil.isBlank( model.getModelDefinition() ) ) {
-                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.METADATA );
-
-                                if ( !StringUtil.isBlank( model.getMetadataType() ) ) {
-                                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.TYPE, model.getMetadataType() );
-                                }
+                    { // metadata is optional
+                      // the VDB schema actually permits more than one metadata entry. We have assumed there to be
+                      // only one at this time so that is what is reflected in our design.
+                        if ( !StringUtil.isBlank( model.getModelDefinition() ) ) {
+                            xmlWriter.writeStartElement( VdbLexicon.ManifestIds.METADATA );
 
-                                // when the model definition was imported and the metadata type was DDL-FILE, the model
-                                // definition actually was set using a DDL file contents. On import for this type, the
-                                // model definition was the VDB zip archive entry path. Here we are just going to export
-                                // the model definition as it stands regardless if it was set using a file. So the
-                                // vdb:ddlFileEntryPath property is being ignored.
-                                xmlWriter.writeCData( model.getModelDefinition() );
-                                xmlWriter.writeEndElement();
+                            if ( !StringUtil.isBlank( model.getMetadataType() ) ) {
+                                xmlWriter.writeAttribute( VdbLexicon.ManifestIds.TYPE, model.getMetadataType() );
                             }
-                        }
 
-                        { // model source collection is optional
-                            final List< Source > sources = model.getSources();
+                            // when the model definition was imported and the metadata type was DDL-FILE, the model
+                            // definition actually was set using a DDL file contents. On import for this type, the
+                            // model definition was the VDB zip archive entry path. Here we are just going to export
+                            // the model definition as it stands regardless if it was set using a file. So the
+                            // vdb:ddlFileEntryPath property is being ignored.
+                            xmlWriter.writeCData( model.getModelDefinition() );
+                            xmlWriter.writeEndElement();
+                        }
+                    }
 
-                            if ( !sources.isEmpty() ) {
-                                for ( final Source source : sources ) {
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.SOURCE );
-                                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, source.getName() );
-                                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.TRANSLATOR_NAME, source.getTranslator() );
+                    { // model source collection is optional
+                        final List< Source > sources = model.getSources();
 
-                                    if ( !StringUtil.isBlank( source.getJndiName() ) ) {
-                                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.JNDI_NAME, source.getJndiName() );
-                                    }
+                        if ( !sources.isEmpty() ) {
+                            for ( final Source source : sources ) {
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.SOURCE );
+                                xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, source.getName() );
+                                xmlWriter.writeAttribute( VdbLexicon.ManifestIds.TRANSLATOR_NAME, source.getTranslator() );
 
-                                    xmlWriter.writeEndElement();
+                                if ( !StringUtil.isBlank( source.getJndiName() ) ) {
+                                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.JNDI_NAME, source.getJndiName() );
                                 }
+
+                                xmlWriter.writeEndElement();
                             }
                         }
+                    }
 
-                        { // validation error collection is optional
-                            final List< ValidationMarker > markers = model.getProblems();
-
-                            if ( !markers.isEmpty() ) {
-                                for ( final ValidationMarker marker : markers ) {
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.VALIDATION_ERROR );
-                                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.SEVERITY, marker.getSeverity().name() );
+                    { // validation error collection is optional
+                        final List< ValidationMarker > markers = model.getProblems();
 
-                                    if ( !StringUtil.isBlank( marker.getPath() ) ) {
-                                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.PATH, marker.getPath() );
-                                    }
+                        if ( !markers.isEmpty() ) {
+                            for ( final ValidationMarker marker : markers ) {
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.VALIDATION_ERROR );
+                                xmlWriter.writeAttribute( VdbLexicon.ManifestIds.SEVERITY, marker.getSeverity().name() );
 
-                                    xmlWriter.writeCharacters( marker.getMessage() );
-                                    xmlWriter.writeEndElement();
+                                if ( !StringUtil.isBlank( marker.getPath() ) ) {
+                                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.PATH, marker.getPath() );
                                 }
+
+                                xmlWriter.writeCharacters( marker.getMessage() );
+                                xmlWriter.writeEndElement();
                             }
                         }
-
-                        xmlWriter.writeEndElement();
                     }
+
+                    xmlWriter.writeEndElement();
                 }
             }
+        }
 
-            { // translator collection is optional
-                final List< VdbTranslator > translators = manifest.getTranslators();
+        { // translator collection is optional
+            final List< VdbTranslator > translators = manifest.getTranslators();
 
-                if ( !translators.isEmpty() ) {
-                    for ( final VdbTranslator translator : translators ) {
-                        xmlWriter.writeStartElement( VdbLexicon.ManifestIds.TRANSLATOR );
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, translator.getName() );
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.TYPE, translator.getType() );
+            if ( !translators.isEmpty() ) {
+                for ( final VdbTranslator translator : translators ) {
+                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.TRANSLATOR );
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, translator.getName() );
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.TYPE, translator.getType() );
 
-                        // description is optional
-                        if ( !StringUtil.isBlank( translator.getDescription() ) ) {
-                            xmlWriter.writeAttribute( VdbLexicon.ManifestIds.DESCRIPTION, translator.getDescription() );
-                        }
+                    // description is optional
+                    if ( !StringUtil.isBlank( translator.getDescription() ) ) {
+                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.DESCRIPTION, translator.getDescription() );
+                    }
 
-                        { // translator properties are optional
-                            final Map< String, String > props = translator.getProperties();
+                    { // translator properties are optional
+                        final Map< String, String > props = translator.getProperties();
 
-                            if ( !props.isEmpty() ) {
-                                for ( final Entry< String, String > property : props.entrySet() ) {
-                                    writePropertyElement( xmlWriter, property.getKey(), property.getValue() );
-                                }
+                        if ( !props.isEmpty() ) {
+                            for ( final Entry< String, String > property : props.entrySet() ) {
+                                writePropertyElement( xmlWriter, property.getKey(), property.getValue() );
                             }
                         }
-
-                        xmlWriter.writeEndElement();
                     }
+
+                    xmlWriter.writeEndElement();
                 }
             }
+        }
 
-            { // data-role collection is optional
-                final List< VdbDataRole > dataRoles = manifest.getDataRoles();
-
-                if ( !dataRoles.isEmpty() ) {
-                    for ( final VdbDataRole dataRole : dataRoles ) {
-                        xmlWriter.writeStartElement( VdbLexicon.ManifestIds.DATA_ROLE );
-
-                        // attributes
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, dataRole.getName() );
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.ANY_AUTHENTICATED,
-                                                  Boolean.toString( dataRole.isAnyAuthenticated() ) );
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.ALLOW_CREATE_TEMP_TABLES,
-                                                  Boolean.toString( dataRole.isAllowCreateTempTables() ) );
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.GRANT_ALL, Boolean.toString( dataRole.isGrantAll() ) );
-
-                        // data role description element is optional
-                        if ( !StringUtil.isBlank( dataRole.getDescription() ) ) {
-                            xmlWriter.writeStartElement( VdbLexicon.ManifestIds.DESCRIPTION );
-                            xmlWriter.writeCharacters( dataRole.getDescription() );
-                            xmlWriter.writeEndElement();
-                        }
+        { // data-role collection is optional
+            final List< VdbDataRole > dataRoles = manifest.getDataRoles();
+
+            if ( !dataRoles.isEmpty() ) {
+                for ( final VdbDataRole dataRole : dataRoles ) {
+                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.DATA_ROLE );
+
+                    // attributes
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.NAME, dataRole.getName() );
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.ANY_AUTHENTICATED,
+                                              Boolean.toString( dataRole.isAnyAuthenticated() ) );
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.ALLOW_CREATE_TEMP_TABLES,
+                                              Boolean.toString( dataRole.isAllowCreateTempTables() ) );
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.GRANT_ALL, Boolean.toString( dataRole.isGrantAll() ) );
+
+                    // data role description element is optional
+                    if ( !StringUtil.isBlank( dataRole.getDescription() ) ) {
+                        xmlWriter.writeStartElement( VdbLexicon.ManifestIds.DESCRIPTION );
+                        xmlWriter.writeCharacters( dataRole.getDescription() );
+                        xmlWriter.writeEndElement();
+                    }
 
-                        { // permission elements are optional
-                            final List< Permission > permissions = dataRole.getPermissions();
-
-                            if ( !permissions.isEmpty() ) {
-                                for ( final Permission permission : permissions ) {
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.PERMISSION );
-
-                                    // resource name element
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.RESOURCE_NAME );
-                                    xmlWriter.writeCharacters( permission.getResourceName() );
-                                    xmlWriter.writeEndElement();
-
-                                    // allow create
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_CREATE );
-                                    xmlWriter.writeCharacters( Boolean.toString( permission.canCreate() ) );
-                                    xmlWriter.writeEndElement();
-
-                                    // read
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_READ );
-                                    xmlWriter.writeCharacters( Boolean.toString( permission.canRead() ) );
-                                    xmlWriter.writeEndElement();
-
-                                    // update
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_UPDATE );
-                                    xmlWriter.writeCharacters( Boolean.toString( permission.canUpdate() ) );
-                                    xmlWriter.writeEndElement();
-
-                                    // delete
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_DELETE );
-                                    xmlWriter.writeCharacters( Boolean.toString( permission.canDelete() ) );
-                                    xmlWriter.writeEndElement();
-
-                                    // execute
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_EXECUTE );
-                                    xmlWriter.writeCharacters( Boolean.toString( permission.canExecute() ) );
-                                    xmlWriter.writeEndElement();
-
-                                    // alter
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_ALTER );
-                                    xmlWriter.writeCharacters( Boolean.toString( permission.canAlter() ) );
-                                    xmlWriter.writeEndElement();
-
-                                    { // condition elements are optional
-                                        final List< Condition > conditions = permission.getConditions();
-
-                                        if ( !conditions.isEmpty() ) {
-                                            for ( final Condition condition : conditions ) {
-                                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.CONDITION );
-                                                xmlWriter.writeAttribute( VdbLexicon.ManifestIds.CONSTRAINT,
-                                                                          Boolean.toString( condition.isConstraint() ) );
-                                                xmlWriter.writeCharacters( condition.getRule() );
-                                                xmlWriter.writeEndElement();
-                                            }
+                    { // permission elements are optional
+                        final List< Permission > permissions = dataRole.getPermissions();
+
+                        if ( !permissions.isEmpty() ) {
+                            for ( final Permission permission : permissions ) {
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.PERMISSION );
+
+                                // resource name element
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.RESOURCE_NAME );
+                                xmlWriter.writeCharacters( permission.getResourceName() );
+                                xmlWriter.writeEndElement();
+
+                                // allow create
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_CREATE );
+                                xmlWriter.writeCharacters( Boolean.toString( permission.canCreate() ) );
+                                xmlWriter.writeEndElement();
+
+                                // read
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_READ );
+                                xmlWriter.writeCharacters( Boolean.toString( permission.canRead() ) );
+                                xmlWriter.writeEndElement();
+
+                                // update
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_UPDATE );
+                                xmlWriter.writeCharacters( Boolean.toString( permission.canUpdate() ) );
+                                xmlWriter.writeEndElement();
+
+                                // delete
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_DELETE );
+                                xmlWriter.writeCharacters( Boolean.toString( permission.canDelete() ) );
+                                xmlWriter.writeEndElement();
+
+                                // execute
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_EXECUTE );
+                                xmlWriter.writeCharacters( Boolean.toString( permission.canExecute() ) );
+                                xmlWriter.writeEndElement();
+
+                                // alter
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ALLOW_ALTER );
+                                xmlWriter.writeCharacters( Boolean.toString( permission.canAlter() ) );
+                                xmlWriter.writeEndElement();
+
+                                { // condition elements are optional
+                                    final List< Condition > conditions = permission.getConditions();
+
+                                    if ( !conditions.isEmpty() ) {
+                                        for ( final Condition condition : conditions ) {
+                                            xmlWriter.writeStartElement( VdbLexicon.ManifestIds.CONDITION );
+                                            xmlWriter.writeAttribute( VdbLexicon.ManifestIds.CONSTRAINT,
+                                                                      Boolean.toString( condition.isConstraint() ) );
+                                            xmlWriter.writeCharacters( condition.getRule() );
+                                            xmlWriter.writeEndElement();
                                         }
                                     }
+                                }
 
-                                    { // mask elements are optional
-                                        final List< Mask > masks = permission.getMasks();
+                                { // mask elements are optional
+                                    final List< Mask > masks = permission.getMasks();
 
-                                        if ( !masks.isEmpty() ) {
-                                            for ( final Mask mask : masks ) {
-                                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.MASK );
-                                                xmlWriter.writeAttribute( VdbLexicon.ManifestIds.ORDER,
-                                                                          Integer.toString( mask.getOrder() ) );
-                                                xmlWriter.writeCharacters( mask.getRule() );
-                                                xmlWriter.writeEndElement();
-                                            }
+                                    if ( !masks.isEmpty() ) {
+                                        for ( final Mask mask : masks ) {
+                                            xmlWriter.writeStartElement( VdbLexicon.ManifestIds.MASK );
+                                            xmlWriter.writeAttribute( VdbLexicon.ManifestIds.ORDER,
+                                                                      Integer.toString( mask.getOrder() ) );
+                                            xmlWriter.writeCharacters( mask.getRule() );
+                                            xmlWriter.writeEndElement();
                                         }
                                     }
-
-                                    xmlWriter.writeEndElement();
                                 }
+
+                                xmlWriter.writeEndElement();
                             }
                         }
+                    }
 
-                        { // mapped role elements are optional
-                            final List< String > mappedRoles = dataRole.getMappedRoleNames();
+                    { // mapped role elements are optional
+                        final List< String > mappedRoles = dataRole.getMappedRoleNames();
 
-                            if ( !mappedRoles.isEmpty() ) {
-                                for ( final String role : mappedRoles ) {
-                                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.MAPPED_ROLE_NAME );
-                                    xmlWriter.writeCharacters( role );
-                                    xmlWriter.writeEndElement();
-                                }
+                        if ( !mappedRoles.isEmpty() ) {
+                            for ( final String role : mappedRoles ) {
+                                xmlWriter.writeStartElement( VdbLexicon.ManifestIds.MAPPED_ROLE_NAME );
+                                xmlWriter.writeCharacters( role );
+                                xmlWriter.writeEndElement();
                             }
                         }
-
-                        xmlWriter.writeEndElement();
                     }
+
+                    xmlWriter.writeEndElement();
                 }
             }
+        }
 
-            { // entries collection is optional
-                final List< VdbEntry > entries = manifest.getEntries();
+        { // entries collection is optional
+            final List< VdbEntry > entries = manifest.getEntries();
 
-                if ( !entries.isEmpty() ) {
-                    for ( final VdbEntry entry : entries ) {
-                        xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ENTRY );
-                        xmlWriter.writeAttribute( VdbLexicon.ManifestIds.PATH, entry.getPath() );
+            if ( !entries.isEmpty() ) {
+                for ( final VdbEntry entry : entries ) {
+                    xmlWriter.writeStartElement( VdbLexicon.ManifestIds.ENTRY );
+                    xmlWriter.writeAttribute( VdbLexicon.ManifestIds.PATH, entry.getPath() );
 
-                        // entry description element is optional
-                        if ( !StringUtil.isBlank( entry.getDescription() ) ) {
-                            xmlWriter.writeStartElement( VdbLexicon.ManifestIds.DESCRIPTION );
-                            xmlWriter.writeCharacters( entry.getDescription() );
-                            xmlWriter.writeEndElement();
-                        }
+                    // entry description element is optional
+                    if ( !StringUtil.isBlank( entry.getDescription() ) ) {
+                        xmlWriter.writeStartElement( VdbLexicon.ManifestIds.DESCRIPTION );
+                        xmlWriter.writeCharacters( entry.getDescription() );
+                        xmlWriter.writeEndElement();
+                    }
 
-                        { // entry properties are optional
-                            final Map< String, String > props = entry.getProperties();
+                    { // entry properties are optional
+                        final Map< String, String > props = entry.getProperties();
 
-                            if ( !props.isEmpty() ) {
-                                for ( final Entry< String, String > property : props.entrySet() ) {
-                                    writePropertyElement( xmlWriter, property.getKey(), property.getValue() );
-                                }
+                        if ( !props.isEmpty() ) {
+                            for ( final Entry< String, String > property : props.entrySet() ) {
+                                writePropertyElement( xmlWriter, property.getKey(), property.getValue() );
                             }
                         }
-
-                        xmlWriter.writeEndElement();
                     }
-                }
-            }
-
-            xmlWriter.writeEndElement();
-            xmlWriter.writeEndDocument();
 
-            final String xml = stringWriter.toString().trim();
-            LOGGER.debug( "VDB {0} manifest: \n{1}", vdbNode.getPath(), prettyPrint( xml, options ) );
-
-            final String pretty = ( isPrettyPrint( options ) ? prettyPrint( xml, options ) : xml );
-            result.setOutcome( pretty, String.class );
-        } catch ( final Exception e ) {
-            result.setError( null, e );
-        } finally {
-            if ( xmlWriter != null ) {
-                try {
-                    xmlWriter.close();
-                } catch ( final Exception e ) {
-                    // do nothing
+                    xmlWriter.writeEndElement();
                 }
             }
         }
-    }
-
-    private Node[] findChildrenWithType( final Node parentNode,
-                                         final String childType ) throws Exception {
-        final String queryText = String.format( FIND_CHILD_WITH_TYPE, childType, parentNode.getPath() );
-        final Session session = parentNode.getSession();
-        final QueryManager queryMgr = session.getWorkspace().getQueryManager();
-        final Query query = queryMgr.createQuery( queryText, Query.JCR_SQL2 );
-        final QueryResult result = query.execute();
-        final NodeIterator itr = result.getNodes();
-
-        if ( itr.getSize() == 0 ) {
-            return NO_NODES;
-        }
-
-        final Node[] children = new Node[ ( int )itr.getSize() ];
-        int i = 0;
-
-        while ( itr.hasNext() ) {
-            children[ i++ ] = itr.nextNode();
-        }
-
-        return children;
-    }
-
-    private Node findNodeByNameAndType( final Node parentNode,
-                                        final String groupingNodeName,
-                                        final String groupingNodeType ) throws Exception {
-        final String queryText = String.format( FIND_CHILD_BY_NAME_AND_TYPE,
-                                                groupingNodeType,
-                                                parentNode.getPath(),
-                                                groupingNodeName );
-        final Session session = parentNode.getSession();
-        final QueryManager queryMgr = session.getWorkspace().getQueryManager();
-        final Query query = queryMgr.createQuery( queryText, Query.JCR_SQL2 );
-        final QueryResult result = query.execute();
-        final NodeIterator itr = result.getNodes();
-
-        if ( itr.getSize() == 0 ) {
-            return null;
-        }
 
-        return itr.nextNode();
+        xmlWriter.writeEndElement();
+        xmlWriter.writeEndDocument();
     }
 
     private void writePropertyElement( final XMLStreamWriter writer,
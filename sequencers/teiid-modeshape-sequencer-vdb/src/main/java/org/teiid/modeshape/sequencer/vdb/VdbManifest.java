@@ -22,13 +22,14 @@
 package org.teiid.modeshape.sequencer.vdb;
 
 import java.io.InputStream;
-import java.util.AbstractMap;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import javax.xml.namespace.QName;
+import java.util.RandomAccess;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamReader;
@@ -136,6 +137,20 @@ public class VdbManifest implements Comparable<VdbManifest> {
         return new Reader().read(stream, context);
     }
 
+    /**
+     * @param stream the manifest stream (cannot be <code>null</code>)
+     * @param context the sequencer context (can be <code>null</code>)
+     * @param handler the handler receiving the models, translators, data roles, entries and imported VDBs as they are read
+     *        instead of the returned manifest (can be <code>null</code> if they should be added to the manifest)
+     * @return the manifest or <code>null</code> if the stream does not contain a VDB manifest
+     * @throws Exception if the manifest cannot be read or the handler fails
+     */
+    public static VdbManifest read( final InputStream stream,
+                                    final Context context,
+                                    final Handler handler ) throws Exception {
+        return new Reader(handler).read(stream, context);
+    }
+
     private final String name;
     private String description;
     private String connectionType;
@@ -144,7 +159,7 @@ public class VdbManifest implements Comparable<VdbManifest> {
 
     private final List<VdbDataRole> dataRoles = new ArrayList<VdbDataRole>();
     private final List<VdbEntry> entries = new ArrayList<VdbEntry>();
-    private final List<VdbModel> models = new ArrayList<VdbModel>();
+    private final ModelList models = new ModelList();
     private final List<VdbTranslator> translators = new ArrayList<VdbTranslator>();
     private final List<ImportVdb> importVdbs = new ArrayList<ImportVdb>();
 
@@ -205,17 +220,27 @@ public class VdbManifest implements Comparable<VdbManifest> {
      */
     public VdbModel getModel( String path ) {
         CheckArg.isNotEmpty(path, "path");
+        return this.models.byPath.get(normalize(path));
+    }
 
-        for (VdbModel model : getModels()) {
-            if (path.equals(model.getPathInVdb())) {
-                return model;
-            }
-        }
+    /**
+     * @param entryPath the archive path of the DDL file (cannot be <code>null</code> or empty)
+     * @return the first model whose metadata type is {@link VdbModel#DDL_FILE_METADATA_TYPE} and whose DDL file entry path is the
+     *         specified path or <code>null</code> if not found
+     */
+    public VdbModel getDdlFileModel( final String entryPath ) {
+        CheckArg.isNotEmpty(entryPath, "entryPath");
+        return this.models.byDdlFileEntryPath.get(normalize(entryPath));
+    }
 
-        return null;
+    private static String normalize( final String path ) {
+        return (((path.length() != 0) && (path.charAt(0) == '/')) ? path.substring(1) : path);
     }
 
     /**
+     * The models are indexed by path and by DDL file entry path as they are added, so the path, metadata type, and DDL file
+     * entry path of a model must be set before it is added.
+     *
      * @return the models (never <code>null</code>)
      */
     public List<VdbModel> getModels() {
@@ -293,817 +318,930 @@ public class VdbManifest implements Comparable<VdbManifest> {
         return this.name + " v" + this.version + " (\"" + this.description + "\")";
     }
 
-    protected static class Reader {
-        private VdbDataRole parseDataRole( final XMLStreamReader streamReader ) throws Exception {
-            assert VdbLexicon.ManifestIds.DATA_ROLE.equals(streamReader.getLocalName());
-
-            // create data role and collect attributes
-            final VdbDataRole dataRole = processDataRoleAttributes(streamReader);
-            assert (dataRole != null) : "data role should not be null";
-
-            while (streamReader.hasNext()) {
-                final int eventType = streamReader.next();
+    /**
+     * Receives the manifest objects as soon as each one has been read. Objects given to a handler are not added to the manifest
+     * returned by {@link VdbManifest#read(InputStream, Context, Handler)}, which then only holds the VDB attributes, description,
+     * connection type and properties.
+     */
+    public interface Handler {
+
+        /**
+         * @param dataRole the data role that was read (never <code>null</code>)
+         * @throws Exception if the data role cannot be handled
+         */
+        void dataRole( final VdbDataRole dataRole ) throws Exception;
+
+        /**
+         * @param entry the entry that was read (never <code>null</code>)
+         * @throws Exception if the entry cannot be handled
+         */
+        void entry( final VdbEntry entry ) throws Exception;
+
+        /**
+         * @param importVdb the imported VDB that was read (never <code>null</code>)
+         * @throws Exception if the imported VDB cannot be handled
+         */
+        void importVdb( final ImportVdb importVdb ) throws Exception;
+
+        /**
+         * @param model the model that was read (never <code>null</code>)
+         * @throws Exception if the model cannot be handled
+         */
+        void model( final VdbModel model ) throws Exception;
+
+        /**
+         * @param translator the translator that was read (never <code>null</code>)
+         * @throws Exception if the translator cannot be handled
+         */
+        void translator( final VdbTranslator translator ) throws Exception;
 
-                if (streamReader.isStartElement()) {
-                    final String elementName = streamReader.getLocalName();
+    }
 
-                    if (VdbLexicon.ManifestIds.DESCRIPTION.equals(elementName)) {
-                        final String description = streamReader.getElementText();
-                        dataRole.setDescription(description);
-                    } else if (VdbLexicon.ManifestIds.PERMISSION.equals(elementName)) {
-                        final VdbDataRole.Permission permission = parsePermission(streamReader, dataRole);
-                        assert (permission != null) : "permission is null";
-                        dataRole.getPermissions().add(permission);
-                    } else if (VdbLexicon.ManifestIds.MAPPED_ROLE_NAME.equals(elementName)) {
-                        final String roleName = streamReader.getElementText();
-                        dataRole.getMappedRoleNames().add(roleName);
-                    } else {
-                        LOGGER.debug("**** unexpected data role element={0}", elementName);
-                    }
-                } else if (streamReader.isEndElement() && VdbLexicon.ManifestIds.DATA_ROLE.equals(
-                        streamReader.getLocalName())) {
-                    break;
-                } else {
-                    if (streamReader.isCharacters()) {
-                        if (!StringUtil.isBlank(streamReader.getText())) {
-                            LOGGER.debug("**** unhandled data role event type CHARACTERS={0}", streamReader.getText());
-                        }
-                    } else if (streamReader.isEndElement()) {
-                        LOGGER.debug("**** unhandled data role event type END_ELEMENT={0}", streamReader.getLocalName());
-                    } else {
-                        LOGGER.debug("**** unhandled data role event type={0}", eventType);
-                    }
-                }
+    /**
+     * The models of a manifest, indexed by path and by DDL file entry path as they are added. The index keys are paths without
+     * a leading slash and the first model in the list wins when models share a path.
+     */
+    private static final class ModelList extends AbstractList<VdbModel> implements RandomAccess {
+
+        private final List<VdbModel> models = new ArrayList<VdbModel>();
+        private final Map<String, VdbModel> byPath = new HashMap<String, VdbModel>();
+        private final Map<String, VdbModel> byDdlFileEntryPath = new HashMap<String, VdbModel>();
+
+        @Override
+        public void add( final int index,
+                         final VdbModel model ) {
+            CheckArg.isNotNull(model, "model");
+            this.models.add(index, model);
+            ++this.modCount;
+
+            if (index == (this.models.size() - 1)) {
+                index(model);
+            } else {
+                reindex(); // may precede a model with the same path
             }
+        }
 
-            assert (dataRole != null) : "dataRole is null";
-            return dataRole;
+        @Override
+        public void clear() {
+            this.models.clear();
+            ++this.modCount;
+            reindex();
         }
 
-        private VdbEntry parseEntry( final XMLStreamReader streamReader ) throws Exception {
-            assert VdbLexicon.ManifestIds.ENTRY.equals(streamReader.getLocalName());
+        @Override
+        public VdbModel get( final int index ) {
+            return this.models.get(index);
+        }
 
-            // collect attributes
-            final VdbEntry entry = processEntryAttributes(streamReader);
-            assert (entry != null) : "entry path is null";
+        private void index( final VdbModel model ) {
+            final String path = model.getPathInVdb();
 
-            while (streamReader.hasNext()) {
-                final int eventType = streamReader.next();
+            if (!StringUtil.isBlank(path)) {
+                this.byPath.putIfAbsent(normalize(path), model);
+            }
 
-                if (streamReader.isStartElement()) {
-                    final String elementName = streamReader.getLocalName();
+            if (VdbModel.DDL_FILE_METADATA_TYPE.equals(model.getMetadataType())) {
+                final String ddlFileEntryPath = model.getDdlFileEntryPath();
 
-                    if (VdbLexicon.ManifestIds.DESCRIPTION.equals(elementName)) {
-                        final String description = streamReader.getElementText();
-                        entry.setDescription(description);
-                    } else if (VdbLexicon.ManifestIds.PROPERTY.equals(elementName)) {
-                        final Map.Entry<String, String> property = processPropertyAttributes(streamReader);
-                        assert (property != null) : "entry property is null";
-                        entry.getProperties().put(property.getKey(), property.getValue());
-                    } else {
-                        LOGGER.debug("**** unexpected entry element={0}", elementName);
-                    }
-                } else if (streamReader.isEndElement() && VdbLexicon.ManifestIds.ENTRY.equals(streamReader.getLocalName())) {
-                    break;
-                } else {
-                    if (streamReader.isCharacters()) {
-                        if (!StringUtil.isBlank(streamReader.getText())) {
-                            LOGGER.debug("**** unhandled entry event type CHARACTERS={0}", streamReader.getText());
-                        }
-                    } else if (streamReader.isEndElement()) {
-                        LOGGER.debug("**** unhandled entry event type END_ELEMENT={0}", streamReader.getLocalName());
-                    } else {
-                        LOGGER.debug("**** unhandled entry event type={0}", eventType);
-                    }
+                if (!StringUtil.isBlank(ddlFileEntryPath)) {
+                    this.byDdlFileEntryPath.putIfAbsent(normalize(ddlFileEntryPath), model);
                 }
             }
-            return entry;
         }
 
-        private VdbModel parseModel( final XMLStreamReader streamReader ) throws Exception {
-            assert VdbLexicon.ManifestIds.MODEL.equals(streamReader.getLocalName());
+        private void reindex() {
+            this.byPath.clear();
+            this.byDdlFileEntryPath.clear();
 
-            // collect model attributes
-            final VdbModel model = processModelAttributes(streamReader);
-            assert (model != null) : "model is null";
+            for (final VdbModel model : this.models) {
+                index(model);
+            }
+        }
 
-            while (streamReader.hasNext()) {
-                final int eventType = streamReader.next();
+        @Override
+        public VdbModel remove( final int index ) {
+            final VdbModel removed = this.models.remove(index);
+            ++this.modCount;
+            reindex();
+            return removed;
+        }
 
-                if (streamReader.isStartElement()) {
-                    final String elementName = streamReader.getLocalName();
+        @Override
+        protected void removeRange( final int fromIndex,
+                                    final int toIndex ) {
+            this.models.subList(fromIndex, toIndex).clear();
+            ++this.modCount;
+            reindex();
+        }
 
-                    if (VdbLexicon.ManifestIds.VALIDATION_ERROR.equals(elementName)) {
-                        processValidationErrorAttributes(streamReader, model);
-                    } else if (VdbLexicon.ManifestIds.SOURCE.equals(elementName)) {
-                        processModelSourceAttributes(streamReader, model);
-                    } else if (VdbLexicon.ManifestIds.PROPERTY.equals(elementName)) {
-                        final Map.Entry<String, String> property = processPropertyAttributes(streamReader);
-                        assert (property != null) : "model property is null";
-
-                        if (VdbLexicon.ManifestIds.IMPORTS.equals(property.getKey())) {
-                            model.addImport(property.getValue());
-                        } else if (VdbLexicon.ManifestIds.CHECKSUM.equals(property.getKey())) {
-                            model.setChecksum(Long.parseLong(property.getValue()));
-                        } else if (VdbLexicon.ManifestIds.BUILT_IN.equals(property.getKey())) {
-                            model.setBuiltIn(Boolean.parseBoolean(property.getValue()));
-                        } else {
-                            model.getProperties().put(property.getKey(), property.getValue());
-                        }
-                    } else if (VdbLexicon.ManifestIds.DESCRIPTION.equals(elementName)) {
-                        final String description = streamReader.getElementText();
-                        model.setDescription(description);
-                    } else if ( VdbLexicon.ManifestIds.METADATA.equals( elementName ) ) {
-                        final String metadataType = ( streamReader.getAttributeCount() == 1 ) ? streamReader.getAttributeValue( 0 )
-                                                                                              : VdbModel.DEFAULT_METADATA_TYPE;
-                        model.setMetadataType( metadataType );
-
-                        // if metadata type is DDL the actual DDL is the element text
-                        // if metadata type is DDL-FILE the path of the DDL file in the archive is the text
-                        // - the sequencer uses the archive path of the DDL file to find the appropriate model
-                        // - then the sequencer reads the DDL file and its content (DDL) is used to set the model definition
-                        if ( VdbModel.DDL_FILE_METADATA_TYPE.equals( metadataType ) ) {
-                            final String entryPath = streamReader.getElementText().trim();
-                            model.setDdlFileEntryPath( entryPath );
-                        } else {
-                            final String metadata = streamReader.getElementText().trim();
-                            model.setModelDefinition( metadata.replaceAll( "\\s{2,}", " " ) ); // collapse whitespace
-                        }
-                    } else {
-                        LOGGER.debug("**** unexpected model element={0}", elementName);
-                    }
-                } else if (streamReader.isEndElement()) {
-                    if (VdbLexicon.ManifestIds.SOURCE.equals(streamReader.getLocalName())) {
-                        continue;
-                    } else if (VdbLexicon.ManifestIds.MODEL.equals(streamReader.getLocalName())) {
-                        break;
-                    } else {
-                        LOGGER.debug("**** unhandled model event type END_ELEMENT={0}", streamReader.getLocalName());
-                    }
-                } else {
-                    if (streamReader.isCharacters()) {
-                        if (!StringUtil.isBlank(streamReader.getText())) {
-                            LOGGER.debug("**** unhandled model event type CHARACTERS={0}", streamReader.getText());
-                        }
-                    } else {
-                        LOGGER.debug("**** unhandled model event type={0}", eventType);
-                    }
-                }
-            }
+        @Override
+        public VdbModel set( final int index,
+                             final VdbModel model ) {
+            CheckArg.isNotNull(model, "model");
+            final VdbModel replaced = this.models.set(index, model);
+            reindex();
+            return replaced;
+        }
 
-            return model;
+        @Override
+        public int size() {
+            return this.models.size();
         }
 
-        private Mask parseMask( final XMLStreamReader streamReader,
-                                          final VdbDataRole dataRole) throws Exception {
-            assert VdbLexicon.ManifestIds.MASK.equals(streamReader.getLocalName());
-            assert (dataRole != null) : "data role is null";
+        @Override
+        public void sort( final Comparator<? super VdbModel> comparator ) {
+            this.models.sort(comparator);
+            ++this.modCount;
+            reindex(); // the first model of a shared path may have changed
+        }
 
-            Mask mask = dataRole.new Mask();
+    }
 
-            final Map<String, String> attributes = new HashMap<String, String>();
+    /**
+     * Reads a manifest in a single pass of a StAX cursor. Each element is dispatched on its local name and its attributes are
+     * read in place, so no intermediate attribute maps are created. The names and values repeated throughout large manifests
+     * (property names, resource names, role names, types) are shared within a read.
+     */
+    protected static class Reader {
 
-            for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                final QName name = streamReader.getAttributeName(i);
-                final String value = streamReader.getAttributeValue(i);
-                attributes.put(name.getLocalPart(), value);
-                LOGGER.debug("mask attribute name={0}, value={1}", name.getLocalPart(), value);
-            }
+        // configured once, readers created from it are independent of each other
+        private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
 
-            // Set the constraint
-            final String order = attributes.get(VdbLexicon.ManifestIds.ORDER);
-            if (!StringUtil.isBlank(order))
-                mask.setOrder(Integer.parseInt(order));
+        private final Handler handler;
+        private final Map<String, String> names = new HashMap<String, String>();
 
-            attributes.remove(VdbLexicon.ManifestIds.ORDER);
+        public Reader() {
+            this(null);
+        }
 
-            // look for unhandled attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (final Map.Entry<String, String> entry : attributes.entrySet()) {
-                    LOGGER.debug("**** unexpected data role permission mask attribute:name={0}", entry.getKey());
-                }
-            }
+        /**
+         * @param handler the handler receiving the manifest objects (can be <code>null</code> if the objects should be added to
+         *        the manifest)
+         */
+        public Reader( final Handler handler ) {
+            this.handler = handler;
+        }
 
-            mask.setRule(streamReader.getElementText());
+        private String intern( final String value ) {
+            if (value == null) {
+                return null;
+            }
 
-            return mask;
+            final String existing = this.names.putIfAbsent(value, value);
+            return ((existing == null) ? value : existing);
         }
 
-        private Condition parseCondition( final XMLStreamReader streamReader,
-                                          final VdbDataRole dataRole) throws Exception {
-            assert VdbLexicon.ManifestIds.CONDITION.equals(streamReader.getLocalName());
-            assert (dataRole != null) : "data role is null";
+        private static void logUnhandled( final XMLStreamReader streamReader,
+                                          final int eventType,
+                                          final String parent ) {
+            if (!LOGGER.isDebugEnabled()) {
+                return;
+            }
 
-            Condition condition = dataRole.new Condition();
+            if (eventType == XMLStreamConstants.CHARACTERS) {
+                if (!streamReader.isWhiteSpace()) {
+                    LOGGER.debug("**** unhandled {0} event type CHARACTERS={1}", parent, streamReader.getText());
+                }
+            } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                LOGGER.debug("**** unhandled {0} event type END_ELEMENT={1}", parent, streamReader.getLocalName());
+            } else if (eventType != XMLStreamConstants.COMMENT && eventType != XMLStreamConstants.SPACE) {
+                LOGGER.debug("**** unhandled {0} event type={1}", parent, eventType);
+            }
+        }
 
-            final Map<String, String> attributes = new HashMap<String, String>();
+        private static void logUnexpectedAttribute( final String parent,
+                                                    final String name ) {
+            LOGGER.debug("**** unexpected {0} attribute:name={1}", parent, name);
+        }
 
-            for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                final QName name = streamReader.getAttributeName(i);
-                final String value = streamReader.getAttributeValue(i);
-                attributes.put(name.getLocalPart(), value);
-                LOGGER.debug("condition attribute name={0}, value={1}", name.getLocalPart(), value);
-            }
+        private VdbDataRole parseDataRole( final XMLStreamReader streamReader ) throws Exception {
+            assert VdbLexicon.ManifestIds.DATA_ROLE.equals(streamReader.getLocalName());
 
-            // Set the constraint
-            final String constraint = attributes.get(VdbLexicon.ManifestIds.CONSTRAINT);
-            if (!StringUtil.isBlank(constraint))
-                condition.setConstraint(Boolean.parseBoolean(constraint));
+            String name = null;
+            String anyAuthenticated = null;
+            String allowCreateTempTables = null;
+            String grantAll = null;
 
-            attributes.remove(VdbLexicon.ManifestIds.CONSTRAINT);
+            for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
+                final String attribute = streamReader.getAttributeLocalName(i);
 
-            // look for unhandled attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (final Map.Entry<String, String> entry : attributes.entrySet()) {
-                    LOGGER.debug("**** unexpected data role permission condition attribute:name={0}", entry.getKey());
+                switch (attribute) {
+                    case VdbLexicon.ManifestIds.NAME:
+                        name = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.ANY_AUTHENTICATED:
+                        anyAuthenticated = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.ALLOW_CREATE_TEMP_TABLES:
+                        allowCreateTempTables = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.GRANT_ALL:
+                        grantAll = streamReader.getAttributeValue(i);
+                        break;
+                    default:
+                        logUnexpectedAttribute("data role", attribute);
+                        break;
                 }
             }
 
-            condition.setRule(streamReader.getElementText());
+            if (StringUtil.isBlank(name)) {
+                throw new Exception(TeiidI18n.missingDataRoleName.text());
+            }
 
-            return condition;
-        }
+            final VdbDataRole dataRole = new VdbDataRole(name);
 
-        private Permission parsePermission( final XMLStreamReader streamReader,
-                                            final VdbDataRole dataRole ) throws Exception {
-            assert VdbLexicon.ManifestIds.PERMISSION.equals(streamReader.getLocalName());
-            assert (dataRole != null) : "data role is null";
+            if (!StringUtil.isBlank(anyAuthenticated)) {
+                dataRole.setAnyAuthenticated(Boolean.parseBoolean(anyAuthenticated));
+            }
 
-            // should not have any attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                    final QName name = streamReader.getAttributeName(i);
-                    final String value = streamReader.getAttributeValue(i);
-                    LOGGER.debug("**** unexpected data role permission attribute name={0}, value={1}", name.getLocalPart(), value);
-                }
+            if (!StringUtil.isBlank(allowCreateTempTables)) {
+                dataRole.setAllowCreateTempTables(Boolean.parseBoolean(allowCreateTempTables));
             }
 
-            Permission permission = null;
-            boolean alter = false;
-            boolean create = false;
-            boolean delete = false;
-            boolean execute = false;
-            boolean read = false;
-            String resourceName = null;
-            boolean update = false;
-            boolean language = false;
-            List<Condition> conditions = new ArrayList<Condition>();
-            List<Mask> masks = new ArrayList<Mask>();
+            if (!StringUtil.isBlank(grantAll)) {
+                dataRole.setGrantAll(Boolean.parseBoolean(grantAll));
+            }
 
             while (streamReader.hasNext()) {
                 final int eventType = streamReader.next();
 
-                if (streamReader.isStartElement()) {
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
                     final String elementName = streamReader.getLocalName();
 
-                    if (VdbLexicon.ManifestIds.RESOURCE_NAME.equals(elementName)) {
-                        resourceName = streamReader.getElementText();
-                    } else if (VdbLexicon.ManifestIds.ALLOW_ALTER.equals(elementName)) {
-                        alter = Boolean.parseBoolean(streamReader.getElementText());
-                    } else if (VdbLexicon.ManifestIds.ALLOW_CREATE.equals(elementName)) {
-                        create = Boolean.parseBoolean(streamReader.getElementText());
-                    } else if (VdbLexicon.ManifestIds.ALLOW_DELETE.equals(elementName)) {
-                        delete = Boolean.parseBoolean(streamReader.getElementText());
-                    } else if (VdbLexicon.ManifestIds.ALLOW_EXECUTE.equals(elementName)) {
-                        execute = Boolean.parseBoolean(streamReader.getElementText());
-                    } else if (VdbLexicon.ManifestIds.ALLOW_READ.equals(elementName)) {
-                        read = Boolean.parseBoolean(streamReader.getElementText());
-                    } else if (VdbLexicon.ManifestIds.ALLOW_UPDATE.equals(elementName)) {
-                        update = Boolean.parseBoolean(streamReader.getElementText());
-                    } else if (VdbLexicon.ManifestIds.ALLOW_LANGUAGE.equals(elementName)) {
-                        language = Boolean.parseBoolean(streamReader.getElementText());
-                    } else if (VdbLexicon.ManifestIds.CONDITION.equals(elementName)) {
-                        Condition condition = parseCondition(streamReader, dataRole);
-                        assert (condition != null) : "condition is null";
-                        conditions.add(condition);
-                    } else if (VdbLexicon.ManifestIds.MASK.equals(elementName)) {
-                        Mask mask = parseMask(streamReader, dataRole);
-                        assert (mask != null) : "mask is null";
-                        masks.add(mask);
-                    } else {
-                        LOGGER.debug("**** unexpected data role permission element={0}", elementName);
-                    }
-                } else if (streamReader.isEndElement() && VdbLexicon.ManifestIds.PERMISSION.equals(
-                        streamReader.getLocalName())) {
-                    if (StringUtil.isBlank(resourceName)) {
-                        throw new Exception(TeiidI18n.missingPermissionResourceName.text());
+                    switch (elementName) {
+                        case VdbLexicon.ManifestIds.DESCRIPTION:
+                            dataRole.setDescription(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.PERMISSION:
+                            dataRole.getPermissions().add(parsePermission(streamReader, dataRole));
+                            break;
+                        case VdbLexicon.ManifestIds.MAPPED_ROLE_NAME:
+                            dataRole.getMappedRoleNames().add(intern(streamReader.getElementText()));
+                            break;
+                        default:
+                            LOGGER.debug("**** unexpected data role element={0}", elementName);
+                            break;
                     }
-
-                    permission = dataRole.new Permission(resourceName);
-                    permission.allowAlter(alter);
-                    permission.allowCreate(create);
-                    permission.allowDelete(delete);
-                    permission.allowExecute(execute);
-                    permission.allowRead(read);
-                    permission.allowUpdate(update);
-                    permission.allowLanguage(language);
-                    permission.setConditions(conditions);
-                    permission.setMasks(masks);
-
+                } else if ((eventType == XMLStreamConstants.END_ELEMENT)
+                           && VdbLexicon.ManifestIds.DATA_ROLE.equals(streamReader.getLocalName())) {
                     break;
                 } else {
-                    if (streamReader.isCharacters()) {
-                        if (!StringUtil.isBlank(streamReader.getText())) {
-                            LOGGER.debug("**** unhandled data role permission event type CHARACTERS={0}", streamReader.getText());
-                        }
-                    } else if (streamReader.isEndElement()) {
-                        LOGGER.debug("**** unhandled data role permission event type END_ELEMENT={0}", streamReader.getLocalName());
-                    } else {
-                        LOGGER.debug("**** unhandled data role permission event type={0}", eventType);
-                    }
+                    logUnhandled(streamReader, eventType, "data role");
                 }
             }
 
-            return permission;
+            return dataRole;
         }
 
-        private VdbTranslator parseTranslator( final XMLStreamReader streamReader ) throws Exception {
-            assert VdbLexicon.ManifestIds.TRANSLATOR.equals(streamReader.getLocalName());
-
-            // collect attributes
-            final VdbTranslator translator = processTranslatorAttributes(streamReader);
-            assert (translator != null) : "translator is null";
+        private VdbEntry parseEntry( final XMLStreamReader streamReader ) throws Exception {
+            assert VdbLexicon.ManifestIds.ENTRY.equals(streamReader.getLocalName());
 
-            while (streamReader.hasNext()) {
-                final int eventType = streamReader.next();
+            String path = null;
 
-                if (streamReader.isStartElement()) {
-                    final String elementName = streamReader.getLocalName();
+            for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
+                final String attribute = streamReader.getAttributeLocalName(i);
 
-                    if (VdbLexicon.ManifestIds.PROPERTY.equals(elementName)) {
-                        final Map.Entry<String, String> property = processPropertyAttributes(streamReader);
-                        assert (property != null) : "translator property is null";
-                        translator.getProperties().put(property.getKey(), property.getValue());
-                    } else {
-                        LOGGER.debug("**** unexpected data role element={0}", elementName);
-                    }
-                } else if (streamReader.isEndElement() && VdbLexicon.ManifestIds.TRANSLATOR.equals(
-                        streamReader.getLocalName())) {
-                    break;
+                if (VdbLexicon.ManifestIds.PATH.equals(attribute)) {
+                    path = streamReader.getAttributeValue(i);
                 } else {
-                    if (streamReader.isCharacters()) {
-                        if (!StringUtil.isBlank(streamReader.getText())) {
-                            LOGGER.debug("**** unhandled translator event type CHARACTERS={0}", streamReader.getText());
-                        }
-                    } else if (streamReader.isEndElement()) {
-                        LOGGER.debug("**** unhandled translator event type END_ELEMENT={0}", streamReader.getLocalName());
-                    } else {
-                        LOGGER.debug("**** unhandled translator event type={0}", eventType);
-                    }
+                    logUnexpectedAttribute("entry", attribute);
                 }
             }
-            return translator;
-        }
 
-        private VdbManifest parseVdb( final XMLStreamReader streamReader ) throws Exception {
-            assert VdbLexicon.ManifestIds.VDB.equals(streamReader.getLocalName());
+            if (StringUtil.isBlank(path)) {
+                throw new Exception(TeiidI18n.missingEntryPath.text());
+            }
 
-            // collect VDB attributes
-            final VdbManifest manifest = processVdbAttributes(streamReader);
-            assert (manifest != null) : "manifest is null";
+            final VdbEntry entry = new VdbEntry(path);
 
-            // collect children
             while (streamReader.hasNext()) {
-                streamReader.next(); // point to next element
+                final int eventType = streamReader.next();
 
-                if (streamReader.isStartElement()) {
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
                     final String elementName = streamReader.getLocalName();
 
-                    if (VdbLexicon.ManifestIds.DESCRIPTION.equals(elementName)) {
-                        final String description = streamReader.getElementText();
-                        manifest.setDescription(description);
-                    } else if (VdbLexicon.ManifestIds.CONNECTION_TYPE.equals(elementName)) {
-                        final String connectionType = streamReader.getElementText();
-                        manifest.setConnectionType(connectionType);
-                    } else if (VdbLexicon.ManifestIds.MODEL.equals(elementName)) {
-                        final VdbModel model = parseModel(streamReader);
-                        assert (model != null) : "model is null";
-                        manifest.getModels().add(model);
-                    } else if (VdbLexicon.ManifestIds.PROPERTY.equals(elementName)) {
-                        final Map.Entry<String, String> property = processPropertyAttributes(streamReader);
-                        assert (property != null) : "VDB property is null";
-                        manifest.getProperties().put(property.getKey(), property.getValue());
-                    } else if (VdbLexicon.ManifestIds.TRANSLATOR.equals(elementName)) {
-                        final VdbTranslator translator = parseTranslator(streamReader);
-                        assert (translator != null) : "translator is null";
-                        manifest.getTranslators().add(translator);
-                    } else if (VdbLexicon.ManifestIds.DATA_ROLE.equals(elementName)) {
-                        final VdbDataRole dataRole = parseDataRole(streamReader);
-                        assert (dataRole != null) : "dataRole is null";
-                        manifest.getDataRoles().add(dataRole);
-                    } else if (VdbLexicon.ManifestIds.ENTRY.equals(elementName)) {
-                        final VdbEntry entry = parseEntry(streamReader);
-                        assert (entry != null) : "entry is null";
-                        manifest.getEntries().add(entry);
-                    } else if (VdbLexicon.ManifestIds.IMPORT_VDB.equals(elementName)) {
-                        final ImportVdb importVdb = processImportVdbAttributes(streamReader);
-                        assert (importVdb != null) : "importVdb is null";
-                        manifest.getImportVdbs().add(importVdb);
-                    } else {
-                        LOGGER.debug("**** unexpected VDB element={0}", elementName);
+                    switch (elementName) {
+                        case VdbLexicon.ManifestIds.DESCRIPTION:
+                            entry.setDescription(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.PROPERTY:
+                            parseProperty(streamReader, entry.getProperties());
+                            break;
+                        default:
+                            LOGGER.debug("**** unexpected entry element={0}", elementName);
+                            break;
                     }
-                } else if (streamReader.isEndElement() && VdbLexicon.ManifestIds.VDB.equals(streamReader.getLocalName())) {
+                } else if ((eventType == XMLStreamConstants.END_ELEMENT)
+                           && VdbLexicon.ManifestIds.ENTRY.equals(streamReader.getLocalName())) {
                     break;
+                } else {
+                    logUnhandled(streamReader, eventType, "entry");
                 }
             }
 
-            return manifest;
+            return entry;
         }
 
-        private VdbDataRole processDataRoleAttributes( final XMLStreamReader streamReader ) throws Exception {
-            assert VdbLexicon.ManifestIds.DATA_ROLE.equals(streamReader.getLocalName());
+        private ImportVdb parseImportVdb( final XMLStreamReader streamReader ) throws Exception {
+            assert VdbLexicon.ManifestIds.IMPORT_VDB.equals(streamReader.getLocalName());
 
-            final Map<String, String> attributes = new HashMap<String, String>();
+            String name = null;
+            String version = null;
+            String importDataPolicies = null;
 
             for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                final QName name = streamReader.getAttributeName(i);
-                final String value = streamReader.getAttributeValue(i);
-                attributes.put(name.getLocalPart(), value);
-                LOGGER.debug("data-role attribute name={0}, value={1}", name.getLocalPart(), value);
-            }
-
-            // make sure there is a name
-            final String name = attributes.get(VdbLexicon.ManifestIds.NAME);
+                final String attribute = streamReader.getAttributeLocalName(i);
 
-            if (StringUtil.isBlank(name)) {
-                throw new Exception(TeiidI18n.missingDataRoleName.text());
+                switch (attribute) {
+                    case VdbLexicon.ManifestIds.NAME:
+                        name = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.VERSION:
+                        version = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.IMPORT_DATA_POLICIES:
+                        importDataPolicies = streamReader.getAttributeValue(i);
+                        break;
+                    default:
+                        logUnexpectedAttribute("import VDB", attribute);
+                        break;
+                }
             }
 
-            final VdbDataRole dataRole = new VdbDataRole(name);
-            attributes.remove(VdbLexicon.ManifestIds.NAME);
+            if (StringUtil.isBlank(name) || StringUtil.isBlank(version)) {
+                throw new Exception(TeiidI18n.missingImportVdbNameOrVersion.text());
+            }
 
-            { // set any-authenticated
-                final String anyAuthenticated = attributes.get(VdbLexicon.ManifestIds.ANY_AUTHENTICATED);
+            final ImportVdb importVdb = new ImportVdb(name, Integer.parseInt(version));
 
-                if (!StringUtil.isBlank(anyAuthenticated)) {
-                    dataRole.setAnyAuthenticated(Boolean.parseBoolean(anyAuthenticated));
-                    attributes.remove(VdbLexicon.ManifestIds.ANY_AUTHENTICATED);
-                }
+            if (!StringUtil.isBlank(importDataPolicies)) {
+                importVdb.setImportDataPolicies(Boolean.parseBoolean(importDataPolicies));
             }
 
-            { // set allow-create-temporary-tables
-                final String allowCreateTempTables = attributes.get(VdbLexicon.ManifestIds.ALLOW_CREATE_TEMP_TABLES);
+            return importVdb;
+        }
 
-                if (!StringUtil.isBlank(allowCreateTempTables)) {
-                    dataRole.setAllowCreateTempTables(Boolean.parseBoolean(allowCreateTempTables));
-                    attributes.remove(VdbLexicon.ManifestIds.ALLOW_CREATE_TEMP_TABLES);
-                }
-            }
+        private Mask parseMask( final XMLStreamReader streamReader,
+                                final VdbDataRole dataRole ) throws Exception {
+            assert VdbLexicon.ManifestIds.MASK.equals(streamReader.getLocalName());
 
-            { // set grant-all
-                final String grantAll = attributes.get(VdbLexicon.ManifestIds.GRANT_ALL);
+            final Mask mask = dataRole.new Mask();
 
-                if (!StringUtil.isBlank(grantAll)) {
-                    dataRole.setGrantAll(Boolean.parseBoolean(grantAll));
-                    attributes.remove(VdbLexicon.ManifestIds.GRANT_ALL);
-                }
-            }
+            for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
+                final String attribute = streamReader.getAttributeLocalName(i);
 
-            // look for unhandled attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (final Map.Entry<String, String> entry : attributes.entrySet()) {
-                    LOGGER.debug("**** unexpected data role attribute:name={0}", entry.getKey());
+                if (VdbLexicon.ManifestIds.ORDER.equals(attribute)) {
+                    final String order = streamReader.getAttributeValue(i);
+
+                    if (!StringUtil.isBlank(order)) {
+                        mask.setOrder(Integer.parseInt(order));
+                    }
+                } else {
+                    logUnexpectedAttribute("data role permission mask", attribute);
                 }
             }
 
-            return dataRole;
+            mask.setRule(streamReader.getElementText());
+            return mask;
         }
 
-        private VdbEntry processEntryAttributes( final XMLStreamReader streamReader ) throws Exception {
-            assert VdbLexicon.ManifestIds.ENTRY.equals(streamReader.getLocalName());
+        private Condition parseCondition( final XMLStreamReader streamReader,
+                                          final VdbDataRole dataRole ) throws Exception {
+            assert VdbLexicon.ManifestIds.CONDITION.equals(streamReader.getLocalName());
 
-            final Map<String, String> attributes = new HashMap<String, String>();
+            final Condition condition = dataRole.new Condition();
 
             for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                final QName name = streamReader.getAttributeName(i);
-                final String value = streamReader.getAttributeValue(i);
-                attributes.put(name.getLocalPart(), value);
-                LOGGER.debug("entry attribute name={0}, value={1}", name.getLocalPart(), value);
-            }
-
-            // make sure there is a path
-            final String path = attributes.get(VdbLexicon.ManifestIds.PATH);
-
-            if (StringUtil.isBlank(path)) {
-                throw new Exception(TeiidI18n.missingEntryPath.text());
-            }
+                final String attribute = streamReader.getAttributeLocalName(i);
 
-            final VdbEntry entry = new VdbEntry(path);
-            attributes.remove(VdbLexicon.ManifestIds.PATH);
+                if (VdbLexicon.ManifestIds.CONSTRAINT.equals(attribute)) {
+                    final String constraint = streamReader.getAttributeValue(i);
 
-            // look for unhandled attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (final Map.Entry<String, String> attrib : attributes.entrySet()) {
-                    LOGGER.debug("**** unexpected entry attribute:name={0}", attrib.getKey());
+                    if (!StringUtil.isBlank(constraint)) {
+                        condition.setConstraint(Boolean.parseBoolean(constraint));
+                    }
+                } else {
+                    logUnexpectedAttribute("data role permission condition", attribute);
                 }
             }
 
-            return entry;
+            condition.setRule(streamReader.getElementText());
+            return condition;
         }
 
-        private ImportVdb processImportVdbAttributes( final XMLStreamReader streamReader ) throws Exception {
-            assert VdbLexicon.ManifestIds.IMPORT_VDB.equals(streamReader.getLocalName());
+        private VdbModel parseModel( final XMLStreamReader streamReader ) throws Exception {
+            assert VdbLexicon.ManifestIds.MODEL.equals(streamReader.getLocalName());
 
-            final Map<String, String> attributes = new HashMap<String, String>();
+            String name = null;
+            String type = null;
+            String path = null;
+            String visible = null;
 
             for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                final QName name = streamReader.getAttributeName(i);
-                final String value = streamReader.getAttributeValue(i);
-                attributes.put(name.getLocalPart(), value);
-                LOGGER.debug("import VDB attribute name={0}, value={1}", name.getLocalPart(), value);
+                final String attribute = streamReader.getAttributeLocalName(i);
+
+                switch (attribute) {
+                    case VdbLexicon.ManifestIds.NAME:
+                        name = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.TYPE:
+                        type = intern(streamReader.getAttributeValue(i));
+                        break;
+                    case VdbLexicon.ManifestIds.PATH:
+                        path = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.VISIBLE:
+                        visible = streamReader.getAttributeValue(i);
+                        break;
+                    default:
+                        logUnexpectedAttribute("model", attribute);
+                        break;
+                }
             }
 
-            // make sure there is a name and version
-            final String name = attributes.get(VdbLexicon.ManifestIds.NAME);
-            final String version = attributes.get(VdbLexicon.ManifestIds.VERSION);
+            if (!StringUtil.isBlank(path) && (path.charAt(0) == '/')) {
+                path = path.substring(1);
+            }
 
-            if (StringUtil.isBlank(name) || StringUtil.isBlank(version)) {
-                throw new Exception(TeiidI18n.missingImportVdbNameOrVersion.text());
+            final VdbModel model = new VdbModel(name, type, path);
+
+            if (!StringUtil.isBlank(visible)) {
+                model.setVisible(Boolean.parseBoolean(visible));
             }
 
-            // create ImportVdb
-            final ImportVdb importVdb = new ImportVdb(attributes.get(VdbLexicon.ManifestIds.NAME),
-                                                      Integer.parseInt(attributes.get(VdbLexicon.ManifestIds.VERSION)));
-            attributes.remove(VdbLexicon.ManifestIds.NAME);
-            attributes.remove(VdbLexicon.ManifestIds.VERSION);
+            while (streamReader.hasNext()) {
+                final int eventType = streamReader.next();
 
-            { // set import data policies flag
-                final String importDataPolicies = attributes.get(VdbLexicon.ManifestIds.IMPORT_DATA_POLICIES);
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    final String elementName = streamReader.getLocalName();
 
-                if (!StringUtil.isBlank(importDataPolicies)) {
-                    importVdb.setImportDataPolicies(Boolean.parseBoolean(importDataPolicies));
-                    attributes.remove(VdbLexicon.ManifestIds.IMPORT_DATA_POLICIES);
-                }
-            }
+                    switch (elementName) {
+                        case VdbLexicon.ManifestIds.VALIDATION_ERROR:
+                            parseValidationError(streamReader, model);
+                            break;
+                        case VdbLexicon.ManifestIds.SOURCE:
+                            parseSource(streamReader, model);
+                            break;
+                        case VdbLexicon.ManifestIds.PROPERTY:
+                            parseModelProperty(streamReader, model);
+                            break;
+                        case VdbLexicon.ManifestIds.DESCRIPTION:
+                            model.setDescription(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.METADATA:
+                            parseMetadata(streamReader, model);
+                            break;
+                        default:
+                            LOGGER.debug("**** unexpected model element={0}", elementName);
+                            break;
+                    }
+                } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                    final String elementName = streamReader.getLocalName();
+
+                    if (VdbLexicon.ManifestIds.MODEL.equals(elementName)) {
+                        break;
+                    }
 
-            // look for unhandled attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (final Map.Entry<String, String> entry : attributes.entrySet()) {
-                    LOGGER.debug("**** unexpected import VDB attribute:name={0}", entry.getKey());
+                    if (!VdbLexicon.ManifestIds.SOURCE.equals(elementName)) {
+                        logUnhandled(streamReader, eventType, "model");
+                    }
+                } else {
+                    logUnhandled(streamReader, eventType, "model");
                 }
             }
 
-            return importVdb;
+            return model;
         }
 
-        private VdbModel processModelAttributes( final XMLStreamReader streamReader ) throws Exception {
-            assert VdbLexicon.ManifestIds.MODEL.equals(streamReader.getLocalName());
+        private void parseMetadata( final XMLStreamReader streamReader,
+                                    final VdbModel model ) throws Exception {
+            assert VdbLexicon.ManifestIds.METADATA.equals(streamReader.getLocalName());
+
+            final String metadataType = (streamReader.getAttributeCount() == 1) ? intern(streamReader.getAttributeValue(0))
+                                                                                : VdbModel.DEFAULT_METADATA_TYPE;
+            model.setMetadataType(metadataType);
+
+            // if metadata type is DDL the actual DDL is the element text
+            // if metadata type is DDL-FILE the path of the DDL file in the archive is the text
+            // - the sequencer uses the archive path of the DDL file to find the appropriate model
+            // - then the sequencer reads the DDL file and its content (DDL) is used to set the model definition
+            if (VdbModel.DDL_FILE_METADATA_TYPE.equals(metadataType)) {
+                model.setDdlFileEntryPath(streamReader.getElementText().trim());
+            } else {
+                final String metadata = streamReader.getElementText().trim();
+                model.setModelDefinition(metadata.replaceAll("\\s{2,}", " ")); // collapse whitespace
+            }
+        }
 
-            final Map<String, String> attributes = new HashMap<String, String>();
+        private void parseModelProperty( final XMLStreamReader streamReader,
+                                         final VdbModel model ) throws Exception {
+            final Map<String, String> properties = model.getProperties();
+            final String name = parseProperty(streamReader, properties);
 
-            for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                final QName name = streamReader.getAttributeName(i);
-                final String value = streamReader.getAttributeValue(i);
-                attributes.put(name.getLocalPart(), value);
-                LOGGER.debug("model attribute name={0}, value={1}", name.getLocalPart(), value);
+            // the well-known model properties are not kept as properties
+            switch (name) {
+                case VdbLexicon.ManifestIds.IMPORTS:
+                    model.addImport(properties.remove(name));
+                    break;
+                case VdbLexicon.ManifestIds.CHECKSUM:
+                    model.setChecksum(Long.parseLong(properties.remove(name)));
+                    break;
+                case VdbLexicon.ManifestIds.BUILT_IN:
+                    model.setBuiltIn(Boolean.parseBoolean(properties.remove(name)));
+                    break;
+                default:
+                    break;
             }
+        }
 
-            // make sure there is a model name, type, and path
-            final String name = attributes.get(VdbLexicon.ManifestIds.NAME);
-            final String type = attributes.get(VdbLexicon.ManifestIds.TYPE);
-            String path = attributes.get(VdbLexicon.ManifestIds.PATH);
+        private Permission parsePermission( final XMLStreamReader streamReader,
+                                            final VdbDataRole dataRole ) throws Exception {
+            assert VdbLexicon.ManifestIds.PERMISSION.equals(streamReader.getLocalName());
 
-            if (!StringUtil.isBlank(path)) {
-                path = path.replaceFirst("^/", "");
+            // should not have any attributes
+            for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
+                logUnexpectedAttribute("data role permission", streamReader.getAttributeLocalName(i));
             }
 
-            // create model
-            final VdbModel model = new VdbModel(name, type, path);
-            attributes.remove(VdbLexicon.ManifestIds.NAME);
-            attributes.remove(VdbLexicon.ManifestIds.TYPE);
-            attributes.remove(VdbLexicon.ManifestIds.PATH);
+            boolean alter = false;
+            boolean create = false;
+            boolean delete = false;
+            boolean execute = false;
+            boolean read = false;
+            String resourceName = null;
+            boolean update = false;
+            boolean language = false;
+            List<Condition> conditions = null; // most permissions have neither conditions nor masks
+            List<Mask> masks = null;
 
-            { // set model visibility flag
-                final String visible = attributes.get(VdbLexicon.ManifestIds.VISIBLE);
+            while (streamReader.hasNext()) {
+                final int eventType = streamReader.next();
 
-                if (!StringUtil.isBlank(visible)) {
-                    model.setVisible(Boolean.parseBoolean(visible));
-                    attributes.remove(VdbLexicon.ManifestIds.VISIBLE);
-                }
-            }
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    final String elementName = streamReader.getLocalName();
 
-            // look for unhandled attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (final Map.Entry<String, String> entry : attributes.entrySet()) {
-                    LOGGER.debug("**** unexpected model attribute:name={0}", entry.getKey());
+                    switch (elementName) {
+                        case VdbLexicon.ManifestIds.RESOURCE_NAME:
+                            resourceName = intern(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.ALLOW_ALTER:
+                            alter = Boolean.parseBoolean(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.ALLOW_CREATE:
+                            create = Boolean.parseBoolean(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.ALLOW_DELETE:
+                            delete = Boolean.parseBoolean(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.ALLOW_EXECUTE:
+                            execute = Boolean.parseBoolean(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.ALLOW_READ:
+                            read = Boolean.parseBoolean(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.ALLOW_UPDATE:
+                            update = Boolean.parseBoolean(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.ALLOW_LANGUAGE:
+                            language = Boolean.parseBoolean(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.CONDITION:
+                            if (conditions == null) {
+                                conditions = new ArrayList<Condition>(2);
+                            }
+
+                            conditions.add(parseCondition(streamReader, dataRole));
+                            break;
+                        case VdbLexicon.ManifestIds.MASK:
+                            if (masks == null) {
+                                masks = new ArrayList<Mask>(2);
+                            }
+
+                            masks.add(parseMask(streamReader, dataRole));
+                            break;
+                        default:
+                            LOGGER.debug("**** unexpected data role permission element={0}", elementName);
+                            break;
+                    }
+                } else if ((eventType == XMLStreamConstants.END_ELEMENT)
+                           && VdbLexicon.ManifestIds.PERMISSION.equals(streamReader.getLocalName())) {
+                    break;
+                } else {
+                    logUnhandled(streamReader, eventType, "data role permission");
                 }
             }
 
-            return model;
-        }
-
-        private void processModelSourceAttributes( final XMLStreamReader streamReader,
-                                                   final VdbModel model ) throws Exception {
-            assert VdbLexicon.ManifestIds.SOURCE.equals(streamReader.getLocalName());
-
-            final Map<String, String> attributes = new HashMap<String, String>();
-            String sourceName;
-            String sourceTranslator;
+            if (StringUtil.isBlank(resourceName)) {
+                throw new Exception(TeiidI18n.missingPermissionResourceName.text());
+            }
 
-            for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                final QName name = streamReader.getAttributeName(i);
-                final String value = streamReader.getAttributeValue(i);
-                attributes.put(name.getLocalPart(), value);
-                LOGGER.debug("model source attribute name={0}, value={1}", name.getLocalPart(), value);
+            final Permission permission = dataRole.new Permission(resourceName);
+            permission.allowAlter(alter);
+            permission.allowCreate(create);
+            permission.allowDelete(delete);
+            permission.allowExecute(execute);
+            permission.allowRead(read);
+            permission.allowUpdate(update);
+            permission.allowLanguage(language);
+
+            if (conditions != null) {
+                permission.setConditions(conditions);
             }
 
-            sourceName = attributes.get(VdbLexicon.ManifestIds.NAME);
-            sourceTranslator = attributes.get(VdbLexicon.ManifestIds.TRANSLATOR_NAME);
-            Source source = model.new Source(sourceName, sourceTranslator);
+            if (masks != null) {
+                permission.setMasks(masks);
+            }
 
-            attributes.remove(VdbLexicon.ManifestIds.NAME);
-            attributes.remove(VdbLexicon.ManifestIds.TRANSLATOR_NAME);
+            return permission;
+        }
 
-            { // set model connection JNDI name
-                final String jndiName = attributes.get(VdbLexicon.ManifestIds.JNDI_NAME);
+        /**
+         * Puts the property into the specified properties and moves the cursor to the end of the property element.
+         *
+         * @param streamReader the reader positioned at a property element (cannot be <code>null</code>)
+         * @param properties the properties the property is put into (cannot be <code>null</code>)
+         * @return the property name (never <code>null</code> or empty)
+         * @throws Exception if the property does not have exactly a name and a value
+         */
+        private String parseProperty( final XMLStreamReader streamReader,
+                                      final Map<String, String> properties ) throws Exception {
+            assert VdbLexicon.ManifestIds.PROPERTY.equals(streamReader.getLocalName());
 
-                if (!StringUtil.isBlank(jndiName)) {
-                    source.setJndiName(jndiName);
-                    attributes.remove(VdbLexicon.ManifestIds.JNDI_NAME);
-                }
+            // should only have a name and value
+            if (streamReader.getAttributeCount() != 2) {
+                throw new Exception(TeiidI18n.invalidNumberOfPropertyAttributes.text(streamReader.getAttributeCount()));
             }
 
-            model.addSource(source);
+            String propName = null;
+            String propValue = null;
+
+            for (int i = 0; i < 2; ++i) {
+                final String attribute = streamReader.getAttributeLocalName(i);
 
-            // look for unhandled attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (final Map.Entry<String, String> entry : attributes.entrySet()) {
-                    LOGGER.debug("**** unexpected model source attribute:name={0}", entry.getKey());
+                if (VdbLexicon.ManifestIds.NAME.equals(attribute)) {
+                    propName = streamReader.getAttributeValue(i);
+                } else if (VdbLexicon.ManifestIds.VALUE.equals(attribute)) {
+                    propValue = streamReader.getAttributeValue(i);
                 }
             }
 
-            assert (((streamReader.next() == XMLStreamConstants.END_ELEMENT) && VdbLexicon.ManifestIds.SOURCE.equals(
-                    streamReader.getLocalName())));
-        }
+            // must have both a property name and value
+            if (StringUtil.isBlank(propName) || StringUtil.isBlank(propValue)) {
+                throw new Exception(TeiidI18n.missingPropertyNameOrValue.text());
+            }
 
-        private Map.Entry<String, String> processPropertyAttributes( final XMLStreamReader streamReader ) throws Exception {
-            assert VdbLexicon.ManifestIds.PROPERTY.equals(streamReader.getLocalName());
+            LOGGER.debug("adding property name={0}, value={1}", propName, propValue);
+            propName = intern(propName);
+            properties.put(propName, propValue);
 
-            if (streamReader.getAttributeCount() == 2) {
-                String propName = null;
-                String propValue = null;
+            final int eventType = streamReader.next();
+            assert (eventType == XMLStreamConstants.END_ELEMENT) : "**** unexpected PROPERTY END_ELEMENT of " + eventType;
+            return propName;
+        }
 
-                QName qname = streamReader.getAttributeName(0);
-                String name = qname.getLocalPart();
-                String value = streamReader.getAttributeValue(0);
+        private void parseSource( final XMLStreamReader streamReader,
+                                  final VdbModel model ) throws Exception {
+            assert VdbLexicon.ManifestIds.SOURCE.equals(streamReader.getLocalName());
 
-                if (VdbLexicon.ManifestIds.NAME.equals(name)) {
-                    propName = value;
-                } else if (VdbLexicon.ManifestIds.VALUE.equals(name)) {
-                    propValue = value;
-                }
+            String name = null;
+            String translator = null;
+            String jndiName = null;
 
-                qname = streamReader.getAttributeName(1);
-                name = qname.getLocalPart();
-                value = streamReader.getAttributeValue(1);
+            for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
+                final String attribute = streamReader.getAttributeLocalName(i);
 
-                if (VdbLexicon.ManifestIds.VALUE.equals(name)) {
-                    propValue = value;
-                } else if (VdbLexicon.ManifestIds.NAME.equals(name)) {
-                    propName = value;
+                switch (attribute) {
+                    case VdbLexicon.ManifestIds.NAME:
+                        name = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.TRANSLATOR_NAME:
+                        translator = intern(streamReader.getAttributeValue(i));
+                        break;
+                    case VdbLexicon.ManifestIds.JNDI_NAME:
+                        jndiName = streamReader.getAttributeValue(i);
+                        break;
+                    default:
+                        logUnexpectedAttribute("model source", attribute);
+                        break;
                 }
+            }
 
-                // must have both a property name and value
-                if (StringUtil.isBlank(propName) || StringUtil.isBlank(propValue)) {
-                    throw new Exception(TeiidI18n.missingPropertyNameOrValue.text());
-                }
-                LOGGER.debug("adding property name={0}, value={1}", propName, propValue);
+            final Source source = model.new Source(name, translator);
 
-                final int eventType = streamReader.next();
-                assert (eventType == XMLStreamConstants.END_ELEMENT) : "**** unexpected PROPERTY END_ELEMENT of " + eventType;
-                return new AbstractMap.SimpleEntry<String, String>(propName, propValue);
+            if (!StringUtil.isBlank(jndiName)) {
+                source.setJndiName(jndiName);
             }
 
-            // should only have a name and value
-            throw new Exception(TeiidI18n.invalidNumberOfPropertyAttributes.text(streamReader.getAttributeCount()));
-
+            model.addSource(source);
         }
 
-        private VdbTranslator processTranslatorAttributes( final XMLStreamReader streamReader ) throws Exception {
+        private VdbTranslator parseTranslator( final XMLStreamReader streamReader ) throws Exception {
             assert VdbLexicon.ManifestIds.TRANSLATOR.equals(streamReader.getLocalName());
 
-            final Map<String, String> attributes = new HashMap<String, String>();
+            String name = null;
+            String type = null;
+            String description = null;
 
             for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                final QName name = streamReader.getAttributeName(i);
-                final String value = streamReader.getAttributeValue(i);
-                attributes.put(name.getLocalPart(), value);
-                LOGGER.debug("translator attribute name={0}, value={1}", name.getLocalPart(),  value);
-            }
+                final String attribute = streamReader.getAttributeLocalName(i);
 
-            // make sure there is a name and type
-            final String name = attributes.get(VdbLexicon.ManifestIds.NAME);
-            final String type = attributes.get(VdbLexicon.ManifestIds.TYPE);
+                switch (attribute) {
+                    case VdbLexicon.ManifestIds.NAME:
+                        name = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.TYPE:
+                        type = intern(streamReader.getAttributeValue(i));
+                        break;
+                    case VdbLexicon.ManifestIds.DESCRIPTION:
+                        description = streamReader.getAttributeValue(i);
+                        break;
+                    default:
+                        logUnexpectedAttribute("translator", attribute);
+                        break;
+                }
+            }
 
             if (StringUtil.isBlank(name) || StringUtil.isBlank(type)) {
                 throw new Exception(TeiidI18n.missingTranslatorNameOrType.text());
             }
 
             final VdbTranslator translator = new VdbTranslator(name, type);
-            attributes.remove(VdbLexicon.ManifestIds.NAME);
-            attributes.remove(VdbLexicon.ManifestIds.TYPE);
-
-            { // set description
-                final String description = attributes.get(VdbLexicon.ManifestIds.DESCRIPTION);
 
-                if (!StringUtil.isBlank(description)) {
-                    translator.setDescription(description);
-                    attributes.remove(VdbLexicon.ManifestIds.DESCRIPTION);
-                }
+            if (!StringUtil.isBlank(description)) {
+                translator.setDescription(description);
             }
-            // look for unhandled attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (final Map.Entry<String, String> entry : attributes.entrySet()) {
-                    LOGGER.debug("**** unexpected translator attribute:name={0}", entry.getKey());
+
+            while (streamReader.hasNext()) {
+                final int eventType = streamReader.next();
+
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    final String elementName = streamReader.getLocalName();
+
+                    if (VdbLexicon.ManifestIds.PROPERTY.equals(elementName)) {
+                        parseProperty(streamReader, translator.getProperties());
+                    } else {
+                        LOGGER.debug("**** unexpected translator element={0}", elementName);
+                    }
+                } else if ((eventType == XMLStreamConstants.END_ELEMENT)
+                           && VdbLexicon.ManifestIds.TRANSLATOR.equals(streamReader.getLocalName())) {
+                    break;
+                } else {
+                    logUnhandled(streamReader, eventType, "translator");
                 }
             }
 
             return translator;
         }
 
-        private void processValidationErrorAttributes( final XMLStreamReader streamReader,
-                                                       final VdbModel model ) throws Exception {
+        private void parseValidationError( final XMLStreamReader streamReader,
+                                           final VdbModel model ) throws Exception {
             assert VdbLexicon.ManifestIds.VALIDATION_ERROR.equals(streamReader.getLocalName());
 
-            final Map<String, String> attributes = new HashMap<String, String>();
+            String severity = null;
+            String path = null;
 
             for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                final QName name = streamReader.getAttributeName(i);
-                final String value = streamReader.getAttributeValue(i);
-                attributes.put(name.getLocalPart(), value);
-                LOGGER.debug("model validation error attribute name={0}, value={1}", name.getLocalPart(), value);
-            }
-
-            { // create model problem
-                final String severity = attributes.get(VdbLexicon.ManifestIds.SEVERITY);
-                attributes.remove(VdbLexicon.ManifestIds.SEVERITY);
-
-                final String path = attributes.get(VdbLexicon.ManifestIds.PATH);
-                attributes.remove(VdbLexicon.ManifestIds.PATH);
+                final String attribute = streamReader.getAttributeLocalName(i);
 
-                final String message = streamReader.getElementText();
-
-                model.addProblem(severity, path, message);
-            }
-            // look for unhandled attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (final Map.Entry<String, String> entry : attributes.entrySet()) {
-                    LOGGER.debug("**** unexpected model validation error attribute:name={0}", entry.getKey());
+                switch (attribute) {
+                    case VdbLexicon.ManifestIds.SEVERITY:
+                        severity = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.PATH:
+                        path = streamReader.getAttributeValue(i);
+                        break;
+                    default:
+                        logUnexpectedAttribute("model validation error", attribute);
+                        break;
                 }
             }
+
+            model.addProblem(severity, path, streamReader.getElementText());
         }
 
-        private VdbManifest processVdbAttributes( final XMLStreamReader streamReader ) throws Exception {
+        private VdbManifest parseVdb( final XMLStreamReader streamReader ) throws Exception {
             assert VdbLexicon.ManifestIds.VDB.equals(streamReader.getLocalName());
 
-            final Map<String, String> attributes = new HashMap<String, String>();
+            String name = null;
+            String version = null;
+            String connectionType = null;
 
             for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-                final QName name = streamReader.getAttributeName(i);
-                final String value = streamReader.getAttributeValue(i);
-                attributes.put(name.getLocalPart(), value);
-                LOGGER.debug("VDB attribute name={0}, value={1}", name.getLocalPart(), value);
-            }
+                final String attribute = streamReader.getAttributeLocalName(i);
 
-            // set VDB name
-            final String name = attributes.get(VdbLexicon.ManifestIds.NAME);
+                switch (attribute) {
+                    case VdbLexicon.ManifestIds.NAME:
+                        name = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.VERSION:
+                        version = streamReader.getAttributeValue(i);
+                        break;
+                    case VdbLexicon.ManifestIds.CONNECTION_TYPE:
+                        connectionType = streamReader.getAttributeValue(i);
+                        break;
+                    default:
+                        logUnexpectedAttribute("VDB", attribute);
+                        break;
+                }
+            }
 
             if (StringUtil.isBlank(name)) {
                 throw new Exception(TeiidI18n.missingVdbName.text());
             }
 
             final VdbManifest manifest = new VdbManifest(name);
-            attributes.remove(VdbLexicon.ManifestIds.NAME);
-
-            { // set VDB version
-                final String version = attributes.get(VdbLexicon.ManifestIds.VERSION);
 
-                if (!StringUtil.isBlank(version)) {
-                    try {
-                        manifest.setVersion(Integer.parseInt(version));
-                    } catch (final NumberFormatException e) {
-                        LOGGER.error(e, TeiidI18n.invalidVdbVersion, name, version);
-                    }
-
-                    attributes.remove(VdbLexicon.ManifestIds.VERSION);
+            if (!StringUtil.isBlank(version)) {
+                try {
+                    manifest.setVersion(Integer.parseInt(version));
+                } catch (final NumberFormatException e) {
+                    LOGGER.error(e, TeiidI18n.invalidVdbVersion, name, version);
                 }
             }
 
-            {
-                // set Connection Type
-                final String connectionType = attributes.get(VdbLexicon.ManifestIds.CONNECTION_TYPE);
+            if (!StringUtil.isBlank(connectionType)) {
+                manifest.setConnectionType(connectionType);
+            }
 
-                if (!StringUtil.isBlank(connectionType)) {
-                    manifest.setConnectionType(connectionType);
+            // collect children
+            while (streamReader.hasNext()) {
+                final int eventType = streamReader.next();
 
-                    attributes.remove(VdbLexicon.ManifestIds.CONNECTION_TYPE);
-                }
-            }
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    final String elementName = streamReader.getLocalName();
+
+                    switch (elementName) {
+                        case VdbLexicon.ManifestIds.DESCRIPTION:
+                            manifest.setDescription(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.CONNECTION_TYPE:
+                            manifest.setConnectionType(streamReader.getElementText());
+                            break;
+                        case VdbLexicon.ManifestIds.PROPERTY:
+                            parseProperty(streamReader, manifest.getProperties());
+                            break;
+                        case VdbLexicon.ManifestIds.MODEL: {
+                            final VdbModel model = parseModel(streamReader);
+
+                            if (this.handler == null) {
+                                manifest.getModels().add(model);
+                            } else {
+                                this.handler.model(model);
+                            }
+
+                            break;
+                        }
+                        case VdbLexicon.ManifestIds.TRANSLATOR: {
+                            final VdbTranslator translator = parseTranslator(streamReader);
+
+                            if (this.handler == null) {
+                                manifest.getTranslators().add(translator);
+                            } else {
+                                this.handler.translator(translator);
+                            }
+
+                            break;
+                        }
+                        case VdbLexicon.ManifestIds.DATA_ROLE: {
+                            final VdbDataRole dataRole = parseDataRole(streamReader);
+
+                            if (this.handler == null) {
+                                manifest.getDataRoles().add(dataRole);
+                            } else {
+                                this.handler.dataRole(dataRole);
+                            }
+
+                            break;
+                        }
+                        case VdbLexicon.ManifestIds.ENTRY: {
+                            final VdbEntry entry = parseEntry(streamReader);
+
+                            if (this.handler == null) {
+                                manifest.getEntries().add(entry);
+                            } else {
+                                this.handler.entry(entry);
+                            }
 
-            // look for unexpected attributes
-            if (LOGGER.isDebugEnabled()) {
-                for (final Map.Entry<String, String> entry : attributes.entrySet()) {
-                    LOGGER.debug("**** unexpected VDB attribute:name={0}", entry.getKey());
+                            break;
+                        }
+                        case VdbLexicon.ManifestIds.IMPORT_VDB: {
+                            final ImportVdb importVdb = parseImportVdb(streamReader);
+
+                            if (this.handler == null) {
+                                manifest.getImportVdbs().add(importVdb);
+                            } else {
+                                this.handler.importVdb(importVdb);
+                            }
+
+                            break;
+                        }
+                        default:
+                            LOGGER.debug("**** unexpected VDB element={0}", elementName);
+                            break;
+                    }
+                } else if ((eventType == XMLStreamConstants.END_ELEMENT)
+                           && VdbLexicon.ManifestIds.VDB.equals(streamReader.getLocalName())) {
+                    break;
                 }
             }
 
@@ -1113,27 +1251,29 @@ public class VdbManifest implements Comparable<VdbManifest> {
         public VdbManifest read( final InputStream stream,
                                  final Context context ) throws Exception {
             VdbManifest manifest = null;
-            final XMLInputFactory factory = XMLInputFactory.newInstance();
             XMLStreamReader streamReader = null;
 
             try {
-                streamReader = factory.createXMLStreamReader(stream);
+                streamReader = FACTORY.createXMLStreamReader(stream);
 
-                if (streamReader.hasNext()) {
+                // skip anything before the root element
+                while (streamReader.hasNext()) {
                     if (streamReader.next() == XMLStreamConstants.START_ELEMENT) {
-                        final String elementName = streamReader.getLocalName();
-
-                        if (VdbLexicon.ManifestIds.VDB.equals(elementName)) {
+                        if (VdbLexicon.ManifestIds.VDB.equals(streamReader.getLocalName())) {
                             manifest = parseVdb(streamReader);
-                            assert (manifest != null) : "manifest is null";
                         } else {
                             LOGGER.debug("**** unhandled vdb read element ****");
                         }
+
+                        break;
                     }
                 }
             } finally {
-                if (streamReader != null)
+                if (streamReader != null) {
                     streamReader.close();
+                }
+
+                this.names.clear();
             }
 
             return manifest;
@@ -22,16 +22,18 @@
 package org.teiid.modeshape.sequencer.vdb;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -46,6 +48,7 @@ import javax.jcr.Node;
 import javax.jcr.NodeIterator;
 import javax.jcr.Property;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 import org.modeshape.common.annotation.ThreadSafe;
 import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.CheckArg;
@@ -53,6 +56,11 @@ import org.modeshape.common.util.StringUtil;
 import org.modeshape.jcr.api.JcrConstants;
 import org.modeshape.jcr.api.nodetype.NodeTypeManager;
 import org.modeshape.jcr.api.sequencer.Sequencer;
+import org.teiid.modeshape.metrics.MeteredZipInputStream;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.MetricsRegistry;
+import org.teiid.modeshape.metrics.Timer;
+import org.teiid.modeshape.sequencer.internal.NamespaceRegistryCache;
 import org.teiid.modeshape.sequencer.vdb.VdbDataRole.Condition;
 import org.teiid.modeshape.sequencer.vdb.VdbDataRole.Mask;
 import org.teiid.modeshape.sequencer.vdb.VdbDataRole.Permission;
@@ -61,6 +69,7 @@ import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
 import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon;
 import org.teiid.modeshape.sequencer.vdb.model.ModelSequencer;
 import org.teiid.modeshape.sequencer.vdb.model.ReferenceResolver;
+import org.teiid.modeshape.sequencer.vdb.model.SequencedModelCopier;
 
 /**
  * A sequencer of Teiid Virtual Database (VDB) files.
@@ -95,7 +104,9 @@ public class VdbSequencer extends Sequencer {
         return fileNameWithoutExtension.replaceAll( "[.]*$", "" );
     }
 
-    private ModelSequencer modelSequencer; // constructed during initialize method
+    private boolean incremental; // set from the sequencer configuration
+    private boolean lazy; // set from the sequencer configuration
+    private final ModelSequencer modelSequencer = new ModelSequencer(); // initialized during initialize method
 
     /**
      * @see org.modeshape.jcr.api.sequencer.Sequencer#execute(javax.jcr.Property, javax.jcr.Node,
@@ -105,27 +116,40 @@ public class VdbSequencer extends Sequencer {
     public boolean execute( final Property inputProperty,
                             final Node outputNode,
                             final Context context ) throws Exception {
+        try ( final Timer timer = MetricsRegistry.get().start( MetricNames.VDB_SEQUENCE ) ) {
+            return sequence( inputProperty, outputNode, context );
+        }
+    }
+
+    private boolean sequence( final Property inputProperty,
+                              final Node outputNode,
+                              final Context context ) throws Exception {
         LOGGER.debug( "VdbSequencer.execute called:outputNode name='{0}', path='{1}'",
                       outputNode.getName(),
                       outputNode.getPath() );
 
         final Binary binaryValue = inputProperty.getBinary();
         CheckArg.isNotNull( binaryValue, "binary" );
+        MetricsRegistry.get().record( MetricNames.SEQUENCED_ARCHIVE_SIZE, binaryValue.getSize() );
 
         VdbManifest manifest = null;
         boolean processDdlFiles = false;
         boolean processLibFiles = false;
-        final Collection< String > ddlFileModelsFound = new ArrayList<>();
+        final Collection< String > ddlFileModelsFound = new HashSet<>();
 
-        try ( final ZipInputStream vdbStream = new ZipInputStream( binaryValue.getStream() ) ) {
+        try ( final ZipInputStream vdbStream = new MeteredZipInputStream( binaryValue.getStream() ) ) {
             ZipEntry entry = null;
             ReferenceResolver resolver = new ReferenceResolver();
+            final NamespaceRegistryCache namespaces = new NamespaceRegistryCache( outputNode.getSession()
+                                                                                            .getWorkspace()
+                                                                                            .getNamespaceRegistry() );
+            final SequencedModelCopier copier = ( this.incremental ? new SequencedModelCopier( outputNode, resolver ) : null );
 
             while ( ( entry = vdbStream.getNextEntry() ) != null ) {
                 String entryName = entry.getName();
 
                 if ( entryName.endsWith( MANIFEST_FILE ) ) {
-                    manifest = readManifest( binaryValue, vdbStream, outputNode, context );
+                    manifest = readManifest( binaryValue, vdbStream, outputNode, context, namespaces );
                 } else if ( !entry.isDirectory() && this.modelSequencer.hasModelFileExtension( entryName ) ) {
                     LOGGER.debug( "before reading model '{0}'", entryName );
 
@@ -147,18 +171,18 @@ public class VdbSequencer extends Sequencer {
                         entryName = entryName.substring( index );
                     }
 
-                    final Node modelNode = outputNode.addNode( entryName, VdbLexicon.Vdb.MODEL );
-                    final boolean sequenced = this.modelSequencer.sequenceVdbModel( vdbStream,
-                                                                                    modelNode,
-                                                                                    vdbModel,
-                                                                                    resolver,
-                                                                                    context );
-
-                    if ( !sequenced ) {
-                        modelNode.remove();
-                        LOGGER.debug( ">>>>model NOT sequenced '{0}'\n\n", entryName );
+                    if ( this.lazy ) {
+                        deferModel( vdbStream, entry, outputNode.addNode( entryName, VdbLexicon.Vdb.DEFERRED_MODEL ), vdbModel );
+                        LOGGER.debug( ">>>>deferred sequencing model '{0}'\n\n", entryName );
                     } else {
-                        LOGGER.debug( ">>>>done sequencing model '{0}'\n\n", entryName );
+                        final Node modelNode = outputNode.addNode( entryName, VdbLexicon.Vdb.MODEL );
+
+                        if ( sequenceModel( vdbStream, entry, modelNode, vdbModel, resolver, namespaces, copier, context ) ) {
+                            LOGGER.debug( ">>>>done sequencing model '{0}'\n\n", entryName );
+                        } else {
+                            modelNode.remove();
+                            LOGGER.debug( ">>>>model NOT sequenced '{0}'\n\n", entryName );
+                        }
                     }
                 } else if ( isDdlFile( entryName ) ) {
                     if ( manifest == null ) {
@@ -180,6 +204,15 @@ public class VdbSequencer extends Sequencer {
                     LOGGER.debug( "ignoring resource '{0}'", entryName );
                 }
             }
+
+            if ( copier != null ) {
+                copier.resolveReferences();
+            }
+
+            if ( this.lazy ) {
+                // keep the archive so that the deferred models can be sequenced later
+                outputNode.setProperty( VdbLexicon.Vdb.ARCHIVE, binaryValue );
+            }
         } catch ( final Exception e ) {
             throw new RuntimeException( TeiidI18n.errorReadingVdbFile.text( inputProperty.getPath(), e.getMessage() ), e );
         }
@@ -193,7 +226,7 @@ public class VdbSequencer extends Sequencer {
         if ( processLibFiles || processDdlFiles ) {
             LOGGER.debug( "second pass: /lib resources = {0}, DDL files = {1}", processLibFiles, processDdlFiles );
 
-            try ( final ZipInputStream zis = new ZipInputStream( binaryValue.getStream() ) ) {
+            try ( final ZipInputStream zis = new MeteredZipInputStream( binaryValue.getStream() ) ) {
                 ZipEntry entry = null;
 
                 while ( ( entry = zis.getNextEntry() ) != null ) {
@@ -225,6 +258,109 @@ public class VdbSequencer extends Sequencer {
         return true;
     }
 
+    /**
+     * Writes the deferred model node properties and child nodes that come from the VDB manifest along with the location and the
+     * content hash of the model file entry. The model file is not read.
+     */
+    private void deferModel( final ZipInputStream vdbStream,
+                             final ZipEntry entry,
+                             final Node modelNode,
+                             final VdbModel vdbModel ) throws Exception {
+        this.modelSequencer.writeVdbModelStub( modelNode, vdbModel );
+        modelNode.setProperty( VdbLexicon.Model.ENTRY_PATH, entry.getName() );
+
+        if ( contentHash( entry ) == null ) {
+            skipEntry( vdbStream );
+        }
+
+        modelNode.setProperty( VdbLexicon.Model.CONTENT_HASH, contentHash( entry ) );
+    }
+
+    /**
+     * @return <code>true</code> if the model was sequenced or copied
+     */
+    private boolean sequenceModel( final ZipInputStream vdbStream,
+                                   final ZipEntry entry,
+                                   final Node modelNode,
+                                   final VdbModel vdbModel,
+                                   final ReferenceResolver resolver,
+                                   final NamespaceRegistryCache namespaces,
+                                   final SequencedModelCopier copier,
+                                   final Context context ) throws Exception {
+        InputStream modelStream = vdbStream;
+        String contentHash = contentHash( entry );
+        Node previousModelNode = null;
+
+        if ( copier != null ) {
+            if ( contentHash == null ) {
+                // the CRC of an entry followed by a data descriptor is only known once the entry has been read
+                modelStream = new ByteArrayInputStream( readEntry( vdbStream ) );
+                contentHash = contentHash( entry );
+            }
+
+            previousModelNode = copier.findPrevious( vdbModel.getPathInVdb(), contentHash );
+        }
+
+        if ( previousModelNode == null ) {
+            if ( !this.modelSequencer.sequenceVdbModel( modelStream, modelNode, vdbModel, resolver, namespaces, context ) ) {
+                return false;
+            }
+        } else {
+            copier.copy( previousModelNode, modelNode, vdbModel );
+
+            // the models sequenced before may reference the copied nodes
+            this.modelSequencer.writeUnresolvedReferences( modelNode, resolver, namespaces, context );
+        }
+
+        if ( contentHash == null ) {
+            skipEntry( vdbStream );
+            contentHash = contentHash( entry );
+        }
+
+        modelNode.setProperty( VdbLexicon.Model.CONTENT_HASH, contentHash );
+        return true;
+    }
+
+    /**
+     * @param entry the zip entry whose content hash is being requested (cannot be <code>null</code>)
+     * @return the CRC-32 and the uncompressed size of the entry or <code>null</code> if the entry has not been read yet and is
+     *         followed by a data descriptor
+     */
+    private static String contentHash( final ZipEntry entry ) {
+        if ( ( entry.getCrc() == -1 ) || ( entry.getSize() == -1 ) ) {
+            return null;
+        }
+
+        return String.format( "%08x-%d", entry.getCrc(), entry.getSize() );
+    }
+
+    /**
+     * @param zipStream the zip stream positioned in an entry (cannot be <code>null</code>)
+     * @return the remaining bytes of the current entry (never <code>null</code>)
+     * @throws IOException if there is a problem reading the entry
+     */
+    private static byte[] readEntry( final ZipInputStream zipStream ) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[ 8192 ];
+        int numRead = 0;
+
+        while ( ( numRead = zipStream.read( buffer ) ) != -1 ) {
+            bytes.write( buffer, 0, numRead );
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param zipStream the zip stream positioned in an entry (cannot be <code>null</code>)
+     * @throws IOException if there is a problem reading the entry
+     */
+    private static void skipEntry( final ZipInputStream zipStream ) throws IOException {
+        while ( zipStream.skip( Long.MAX_VALUE ) != 0 ) {
+            // the CRC and the size of the entry are known once the end of the entry is reached
+        }
+    }
+
     private boolean isDdlFile( final String fileName ) {
         return fileName.endsWith( DDL_FILE_EXT );
     }
@@ -233,15 +369,64 @@ public class VdbSequencer extends Sequencer {
                                         InputStream inputStream,
                                         Node outputNode,
                                         Context context ) throws Exception {
+        return readManifest( binaryValue,
+                             inputStream,
+                             outputNode,
+                             context,
+                             new NamespaceRegistryCache( outputNode.getSession().getWorkspace().getNamespaceRegistry() ) );
+    }
+
+    /**
+     * @param binaryValue the binary value of the VDB being sequenced (can be <code>null</code>)
+     * @param inputStream the stream positioned at the manifest (cannot be <code>null</code>)
+     * @param outputNode the VDB output node (cannot be <code>null</code>)
+     * @param context the sequencer context (can be <code>null</code>)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
+     * @return the manifest or <code>null</code> if the stream does not contain a VDB manifest
+     * @throws Exception if an error occurs reading the manifest or writing the VDB nodes
+     */
+    protected VdbManifest readManifest( final Binary binaryValue,
+                                        final InputStream inputStream,
+                                        final Node outputNode,
+                                        final Context context,
+                                        final NamespaceRegistryCache namespaces ) throws Exception {
+        return readManifest( binaryValue, inputStream, outputNode, context, namespaces, false );
+    }
+
+    /**
+     * @param binaryValue the binary value of the VDB being sequenced (can be <code>null</code>)
+     * @param inputStream the stream positioned at the manifest (cannot be <code>null</code>)
+     * @param outputNode the VDB output node (cannot be <code>null</code>)
+     * @param context the sequencer context (can be <code>null</code>)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
+     * @param streamed <code>true</code> if the models, translators, data roles, entries and imported VDBs are written as soon as
+     *        each one is read, in which case they are not kept in the returned manifest
+     * @return the manifest or <code>null</code> if the stream does not contain a VDB manifest
+     * @throws Exception if an error occurs reading the manifest or writing the VDB nodes
+     */
+    protected VdbManifest readManifest( final Binary binaryValue,
+                                        final InputStream inputStream,
+                                        final Node outputNode,
+                                        final Context context,
+                                        final NamespaceRegistryCache namespaces,
+                                        final boolean streamed ) throws Exception {
         VdbManifest manifest;
         LOGGER.debug( "----before reading vdb.xml" );
 
-        manifest = VdbManifest.read( inputStream, context );
-        assert ( manifest != null ) : "manifest is null";
-
         // Create the output node for the VDB ...
         outputNode.setPrimaryType( VdbLexicon.Vdb.VIRTUAL_DATABASE );
         outputNode.addMixin( JcrConstants.MIX_REFERENCEABLE );
+
+        try ( final Timer timer = MetricsRegistry.get().start( MetricNames.VDB_MANIFEST_READ ) ) {
+            manifest = VdbManifest.read( inputStream,
+                                         context,
+                                         ( streamed ? new ManifestNodeWriter( outputNode, namespaces ) : null ) );
+        }
+
+        if ( manifest == null ) {
+            return null;
+        }
+
         outputNode.setProperty( VdbLexicon.Vdb.VERSION, manifest.getVersion() );
         outputNode.setProperty( VdbLexicon.Vdb.ORIGINAL_FILE, outputNode.getPath() );
 
@@ -253,28 +438,158 @@ public class VdbSequencer extends Sequencer {
         setProperty( outputNode, VdbLexicon.Vdb.DESCRIPTION, manifest.getDescription() );
         setProperty( outputNode, VdbLexicon.Vdb.CONNECTION_TYPE, manifest.getConnectionType() );
 
-        // create imported VDBs child nodes
-        sequenceImportVdbs( manifest, outputNode );
+        // the streamed child nodes have already been written
+        if ( !streamed ) {
+            // create imported VDBs child nodes
+            sequenceImportVdbs( manifest, outputNode );
 
-        // create translator child nodes
-        sequenceTranslators( manifest, outputNode );
+            // create translator child nodes
+            sequenceTranslators( manifest, outputNode, namespaces );
 
-        // create data role child nodes
-        sequenceDataRoles( manifest, outputNode );
+            // create data role child nodes
+            sequenceDataRoles( manifest, outputNode );
 
-        // create entry child nodes
-        sequenceEntries( manifest, outputNode );
+            // create entry child nodes
+            sequenceEntries( manifest, outputNode, namespaces );
+        }
 
         // create properties child nodes
-        sequenceProperties( manifest, outputNode );
+        sequenceProperties( manifest, outputNode, namespaces );
 
-        // create child nodes for declarative models
-        sequenceDeclarativeModels( manifest, outputNode );
+        if ( !streamed ) {
+            // create child nodes for declarative models
+            sequenceDeclarativeModels( manifest, outputNode, namespaces );
+        }
 
         LOGGER.debug( ">>>>done reading vdb.xml\n\n" );
         return manifest;
     }
 
+    /**
+     * @return <code>true</code> if the models of a VDB whose model file is byte-identical to a previously sequenced model file
+     *         are copied from the previously sequenced model instead of being read
+     */
+    public boolean isIncremental() {
+        return this.incremental;
+    }
+
+    /**
+     * Incremental sequencing is turned off by default. It is typically turned on in the sequencer configuration by setting the
+     * <code>incremental</code> field to <code>true</code>.
+     *
+     * @param newIncremental <code>true</code> if unchanged models should be copied from a previous sequencing of the same model
+     *        file
+     */
+    public void setIncremental( final boolean newIncremental ) {
+        this.incremental = newIncremental;
+    }
+
+    /**
+     * @return <code>true</code> if only the VDB manifest and the model stubs are sequenced and the models are sequenced when
+     *         {@link #sequenceDeferredModels(Node)} is called
+     */
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+    /**
+     * Lazy sequencing is turned off by default. It is typically turned on in the sequencer configuration by setting the
+     * <code>lazy</code> field to <code>true</code>.
+     *
+     * @param newLazy <code>true</code> if the sequencing of the models should be deferred
+     */
+    public void setLazy( final boolean newLazy ) {
+        this.lazy = newLazy;
+    }
+
+    /**
+     * Sequences the models of a VDB that was sequenced {@link #isLazy() lazily}. The model stubs are replaced by the sequenced
+     * models, and the stubs of the models that are not sequenced are removed. All the deferred models are sequenced together so
+     * that the references between them are resolved. The session is not saved.
+     *
+     * @param vdbOutputNode the VDB output node (cannot be <code>null</code>)
+     * @return the number of models sequenced or copied
+     * @throws Exception if an error occurs reading the VDB archive or writing the model nodes
+     */
+    public int sequenceDeferredModels( final Node vdbOutputNode ) throws Exception {
+        CheckArg.isNotNull( vdbOutputNode, "vdbOutputNode" );
+
+        if ( !vdbOutputNode.hasProperty( VdbLexicon.Vdb.ARCHIVE ) ) {
+            return 0;
+        }
+
+        // key = archive entry path, value = model stub
+        final Map< String, Node > stubs = new HashMap<>();
+
+        for ( final NodeIterator itr = vdbOutputNode.getNodes(); itr.hasNext(); ) {
+            final Node node = itr.nextNode();
+
+            if ( node.isNodeType( VdbLexicon.Vdb.DEFERRED_MODEL ) ) {
+                stubs.put( node.getProperty( VdbLexicon.Model.ENTRY_PATH ).getString(), node );
+            }
+        }
+
+        LOGGER.debug( "sequencing {0} deferred models of VDB '{1}'", stubs.size(), vdbOutputNode.getPath() );
+
+        final Context context = new SessionContext( vdbOutputNode.getSession() );
+        final Binary archive = vdbOutputNode.getProperty( VdbLexicon.Vdb.ARCHIVE ).getBinary();
+        int count = 0;
+
+        try ( final ZipInputStream vdbStream = new MeteredZipInputStream( archive.getStream() ) ) {
+            final ReferenceResolver resolver = new ReferenceResolver();
+            final NamespaceRegistryCache namespaces = new NamespaceRegistryCache( vdbOutputNode.getSession()
+                                                                                               .getWorkspace()
+                                                                                               .getNamespaceRegistry() );
+            final SequencedModelCopier copier = ( this.incremental ? new SequencedModelCopier( vdbOutputNode, resolver ) : null );
+            VdbManifest manifest = null;
+            ZipEntry entry = null;
+
+            while ( !stubs.isEmpty() && ( ( entry = vdbStream.getNextEntry() ) != null ) ) {
+                final String entryName = entry.getName();
+
+                if ( entryName.endsWith( MANIFEST_FILE ) ) {
+                    try ( final Timer timer = MetricsRegistry.get().start( MetricNames.VDB_MANIFEST_READ ) ) {
+                        manifest = VdbManifest.read( vdbStream, context );
+                    }
+                } else if ( stubs.containsKey( entryName ) ) {
+                    if ( manifest == null ) {
+                        throw new Exception( TeiidI18n.missingVdbManifest.text( vdbOutputNode.getPath() ) );
+                    }
+
+                    final VdbModel vdbModel = manifest.getModel( entryName );
+
+                    if ( vdbModel == null ) {
+                        throw new Exception( TeiidI18n.missingVdbModel.text( entryName, vdbOutputNode.getPath() ) );
+                    }
+
+                    final Node stub = stubs.remove( entryName );
+                    final String name = stub.getName();
+                    stub.remove();
+
+                    final Node modelNode = vdbOutputNode.addNode( name, VdbLexicon.Vdb.MODEL );
+
+                    if ( sequenceModel( vdbStream, entry, modelNode, vdbModel, resolver, namespaces, copier, context ) ) {
+                        ++count;
+                    } else {
+                        modelNode.remove();
+                        LOGGER.debug( ">>>>model NOT sequenced '{0}'\n\n", entryName );
+                    }
+                }
+            }
+
+            if ( copier != null ) {
+                copier.resolveReferences();
+            }
+        }
+
+        // the archive is only needed while there are deferred models
+        if ( stubs.isEmpty() ) {
+            vdbOutputNode.getProperty( VdbLexicon.Vdb.ARCHIVE ).remove();
+        }
+
+        return count;
+    }
+
     /**
      * @throws IOException
      * @see org.modeshape.jcr.api.sequencer.Sequencer#initialize(javax.jcr.NamespaceRegistry,
@@ -285,7 +600,6 @@ public class VdbSequencer extends Sequencer {
                             final NodeTypeManager nodeTypeManager ) throws RepositoryException, IOException {
         LOGGER.debug( "enter initialize" );
 
-        this.modelSequencer = new ModelSequencer();
         this.modelSequencer.initialize( registry, nodeTypeManager );
 
         final URL vdbCndUrl = getClass().getResource( "/org/teiid/modeshape/sequencer/vdb/vdb.cnd" );
@@ -311,67 +625,77 @@ public class VdbSequencer extends Sequencer {
             final Node dataRolesGroupNode = outputNode.addNode( VdbLexicon.Vdb.DATA_ROLES, VdbLexicon.Vdb.DATA_ROLES );
 
             for ( final VdbDataRole dataRole : dataRolesGroup ) {
-                final Node dataRoleNode = dataRolesGroupNode.addNode( dataRole.getName(), VdbLexicon.DataRole.DATA_ROLE );
-                setProperty( dataRoleNode, VdbLexicon.DataRole.DESCRIPTION, dataRole.getDescription() );
-                dataRoleNode.setProperty( VdbLexicon.DataRole.ANY_AUTHENTICATED, dataRole.isAnyAuthenticated() );
-                dataRoleNode.setProperty( VdbLexicon.DataRole.ALLOW_CREATE_TEMP_TABLES, dataRole.isAllowCreateTempTables() );
-                dataRoleNode.setProperty( VdbLexicon.DataRole.GRANT_ALL, dataRole.isGrantAll() );
-
-                // set role names
-                final List< String > roleNames = dataRole.getMappedRoleNames();
-
-                if ( !roleNames.isEmpty() ) {
-                    dataRoleNode.setProperty( VdbLexicon.DataRole.MAPPED_ROLE_NAMES,
-                                              roleNames.toArray( new String[ roleNames.size() ] ) );
-                }
+                writeDataRole( dataRolesGroupNode, dataRole );
+            }
+        }
+    }
 
-                // add permissions
-                final List< Permission > permissionsGroup = dataRole.getPermissions();
-
-                if ( !permissionsGroup.isEmpty() ) {
-                    final Node permissionsGroupNode = dataRoleNode.addNode( VdbLexicon.DataRole.PERMISSIONS,
-                                                                            VdbLexicon.DataRole.PERMISSIONS );
-
-                    for ( final Permission permission : permissionsGroup ) {
-                        final Node permissionNode = permissionsGroupNode.addNode( permission.getResourceName(),
-                                                                                  VdbLexicon.DataRole.Permission.PERMISSION );
-                        permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_ALTER, permission.canAlter() );
-                        permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_CREATE, permission.canCreate() );
-                        permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_DELETE, permission.canDelete() );
-                        permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_EXECUTE, permission.canExecute() );
-                        permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_READ, permission.canRead() );
-                        permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_UPDATE, permission.canUpdate() );
-                        permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_LANGUAGE, permission.useLanguage() );
-
-                        // add permission's conditions
-                        List< Condition > conditions = permission.getConditions();
-                        if ( !conditions.isEmpty() ) {
-                            final Node conditionsGroupNode = permissionNode.addNode( VdbLexicon.DataRole.Permission.CONDITIONS,
-                                                                                     VdbLexicon.DataRole.Permission.CONDITIONS );
-
-                            for ( final Condition condition : conditions ) {
-                                Node conditionNode = conditionsGroupNode.addNode( condition.getRule(),
-                                                                                  VdbLexicon.DataRole.Permission.Condition.CONDITION );
-                                conditionNode.setProperty( VdbLexicon.DataRole.Permission.Condition.CONSTRAINT,
-                                                           condition.isConstraint() );
-                            }
-                        }
+    /**
+     * @param dataRolesGroupNode the VDB data roles node (cannot be <code>null</code>)
+     * @param dataRole the data role being written (cannot be <code>null</code>)
+     * @throws Exception if an error occurs writing the data role
+     */
+    private void writeDataRole( final Node dataRolesGroupNode,
+                                final VdbDataRole dataRole ) throws Exception {
+        final Node dataRoleNode = dataRolesGroupNode.addNode( dataRole.getName(), VdbLexicon.DataRole.DATA_ROLE );
+        setProperty( dataRoleNode, VdbLexicon.DataRole.DESCRIPTION, dataRole.getDescription() );
+        dataRoleNode.setProperty( VdbLexicon.DataRole.ANY_AUTHENTICATED, dataRole.isAnyAuthenticated() );
+        dataRoleNode.setProperty( VdbLexicon.DataRole.ALLOW_CREATE_TEMP_TABLES, dataRole.isAllowCreateTempTables() );
+        dataRoleNode.setProperty( VdbLexicon.DataRole.GRANT_ALL, dataRole.isGrantAll() );
+
+        // set role names
+        final List< String > roleNames = dataRole.getMappedRoleNames();
+
+        if ( !roleNames.isEmpty() ) {
+            dataRoleNode.setProperty( VdbLexicon.DataRole.MAPPED_ROLE_NAMES,
+                                      roleNames.toArray( new String[ roleNames.size() ] ) );
+        }
 
-                        // add permission's masks
-                        List< Mask > masks = permission.getMasks();
-                        if ( !masks.isEmpty() ) {
-                            final Node masksGroupNode = permissionNode.addNode( VdbLexicon.DataRole.Permission.MASKS,
-                                                                                VdbLexicon.DataRole.Permission.MASKS );
+        // add permissions
+        final List< Permission > permissionsGroup = dataRole.getPermissions();
+
+        if ( !permissionsGroup.isEmpty() ) {
+            final Node permissionsGroupNode = dataRoleNode.addNode( VdbLexicon.DataRole.PERMISSIONS,
+                                                                    VdbLexicon.DataRole.PERMISSIONS );
+
+            for ( final Permission permission : permissionsGroup ) {
+                final Node permissionNode = permissionsGroupNode.addNode( permission.getResourceName(),
+                                                                          VdbLexicon.DataRole.Permission.PERMISSION );
+                permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_ALTER, permission.canAlter() );
+                permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_CREATE, permission.canCreate() );
+                permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_DELETE, permission.canDelete() );
+                permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_EXECUTE, permission.canExecute() );
+                permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_READ, permission.canRead() );
+                permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_UPDATE, permission.canUpdate() );
+                permissionNode.setProperty( VdbLexicon.DataRole.Permission.ALLOW_LANGUAGE, permission.useLanguage() );
+
+                // add permission's conditions
+                List< Condition > conditions = permission.getConditions();
+                if ( !conditions.isEmpty() ) {
+                    final Node conditionsGroupNode = permissionNode.addNode( VdbLexicon.DataRole.Permission.CONDITIONS,
+                                                                             VdbLexicon.DataRole.Permission.CONDITIONS );
+
+                    for ( final Condition condition : conditions ) {
+                        Node conditionNode = conditionsGroupNode.addNode( condition.getRule(),
+                                                                          VdbLexicon.DataRole.Permission.Condition.CONDITION );
+                        conditionNode.setProperty( VdbLexicon.DataRole.Permission.Condition.CONSTRAINT,
+                                                   condition.isConstraint() );
+                    }
+                }
 
-                            for ( final Mask mask : masks ) {
-                                Node maskNode = masksGroupNode.addNode( mask.getRule(),
-                                                                        VdbLexicon.DataRole.Permission.Mask.MASK );
-                                maskNode.setProperty( VdbLexicon.DataRole.Permission.Mask.ORDER, mask.getOrder() );
-                            }
-                        }
+                // add permission's masks
+                List< Mask > masks = permission.getMasks();
+                if ( !masks.isEmpty() ) {
+                    final Node masksGroupNode = permissionNode.addNode( VdbLexicon.DataRole.Permission.MASKS,
+                                                                        VdbLexicon.DataRole.Permission.MASKS );
 
+                    for ( final Mask mask : masks ) {
+                        Node maskNode = masksGroupNode.addNode( mask.getRule(),
+                                                                VdbLexicon.DataRole.Permission.Mask.MASK );
+                        maskNode.setProperty( VdbLexicon.DataRole.Permission.Mask.ORDER, mask.getOrder() );
                     }
                 }
+
             }
         }
     }
@@ -382,109 +706,106 @@ public class VdbSequencer extends Sequencer {
                                     final VdbManifest manifest,
                                     final Node outputNode ) throws Exception {
         LOGGER.debug( "processing DDL file '{0}'", entryName );
-        boolean modelFound = false;
-
-        // look for models with DDL-FILE metadata type
-        for ( final VdbModel model : manifest.getModels() ) {
-            final String metadataType = model.getMetadataType();
-
-            if ( VdbModel.DDL_FILE_METADATA_TYPE.equals( metadataType ) ) {
-                String ddlFileEntryPath = model.getDdlFileEntryPath();
-                LOGGER.debug( "metadataType='{0}', entryName='{1}', ddlFileEntryPath='{2}'",
-                              metadataType,
-                              ddlFileEntryPath,
-                              entryName );
-
-                if ( !StringUtil.isBlank( ddlFileEntryPath ) && ddlFileEntryPath.startsWith( "/" ) ) {
-                    ddlFileEntryPath = ddlFileEntryPath.substring( 1 );
-                }
 
-                // if the model DDL entry path property equals the specified entry path set the model definition with the contents
-                // of the DDL file
-                if ( ddlFileEntryPath.equals( entryName ) ) {
-                    final String modelName = model.getName();
-                    final NodeIterator itr = outputNode.getNodes( modelName );
-
-                    if ( itr.getSize() != 0 ) {
-                        modelFound = true;
-                        final Node modelNode = itr.nextNode();
-                        final Scanner scanner = new Scanner( vdbStream, "UTF-8" ).useDelimiter( "\\A" );
-                        final String ddl = scanner.next().replaceAll( "\\s{2,}", " " ); // collapse whitespace
-                        modelNode.setProperty( VdbLexicon.Model.MODEL_DEFINITION, ddl );
-                        LOGGER.debug( "Using DDL file content to set model '{0}' metadata to: '{1}'", modelName, ddl );
-                        return modelName;
-                    }
-
-                    // should not happen
-                    throw new Exception( TeiidI18n.missingModelNodeThatReferencesDdlFile.text( modelName, ddlFileEntryPath ) );
-                }
+        // look for the model with DDL-FILE metadata type that uses this DDL file
+        final VdbModel model = manifest.getDdlFileModel( entryName );
+
+        // if the model DDL entry path property equals the specified entry path set the model definition with the contents
+        // of the DDL file
+        if ( model != null ) {
+            final String modelName = model.getName();
+            final NodeIterator itr = outputNode.getNodes( modelName );
+
+            if ( itr.getSize() != 0 ) {
+                final Node modelNode = itr.nextNode();
+                final Scanner scanner = new Scanner( vdbStream, "UTF-8" ).useDelimiter( "\\A" );
+                final String ddl = scanner.next().replaceAll( "\\s{2,}", " " ); // collapse whitespace
+                modelNode.setProperty( VdbLexicon.Model.MODEL_DEFINITION, ddl );
+                LOGGER.debug( "Using DDL file content to set model '{0}' metadata to: '{1}'", modelName, ddl );
+                return modelName;
             }
-        }
 
-        if ( !modelFound ) {
-            LOGGER.debug( "DDL file '{0}' was not used in a DDL-FILE model", entryName );
+            // should not happen
+            throw new Exception( TeiidI18n.missingModelNodeThatReferencesDdlFile.text( modelName, model.getDdlFileEntryPath() ) );
         }
 
+        LOGGER.debug( "DDL file '{0}' was not used in a DDL-FILE model", entryName );
         return null;
     }
 
     /**
      * @param manifest the VDB manifest whose declarative models are being sequenced (cannot be <code>null</code>)
      * @param outputNode the VDB node (cannot be <code>null</code>)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
      * @throws Exception if an error occurs writing the VDB declarative models
      */
     private void sequenceDeclarativeModels( final VdbManifest manifest,
-                                            final Node outputNode ) throws Exception {
+                                            final Node outputNode,
+                                            final NamespaceRegistryCache namespaces ) throws Exception {
         assert ( manifest != null ) : "manifest is null";
         assert ( outputNode != null ) : "outputNode is null";
 
         for ( final VdbModel model : manifest.getModels() ) {
             // if there is metadata then there is no xmi file
             if ( model.isDeclarative() ) {
-                LOGGER.debug( ">>>>writing declarative model '{0}'", model.getName() );
+                writeDeclarativeModel( outputNode, model, namespaces );
+            }
+        }
+    }
 
-                final Node modelNode = outputNode.addNode( model.getName(), VdbLexicon.Vdb.DECLARATIVE_MODEL );
+    /**
+     * @param outputNode the VDB node (cannot be <code>null</code>)
+     * @param model the declarative model being written (cannot be <code>null</code>)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
+     * @throws Exception if an error occurs writing the declarative model
+     */
+    private void writeDeclarativeModel( final Node outputNode,
+                                        final VdbModel model,
+                                        final NamespaceRegistryCache namespaces ) throws Exception {
+        LOGGER.debug( ">>>>writing declarative model '{0}'", model.getName() );
 
-                // set vdb:abstractModel properties
-                setProperty( modelNode, VdbLexicon.Model.DESCRIPTION, model.getDescription() );
-                modelNode.setProperty( VdbLexicon.Model.VISIBLE, model.isVisible() );
-                setProperty( modelNode, VdbLexicon.Model.PATH_IN_VDB, model.getPathInVdb() );
+        final Node modelNode = outputNode.addNode( model.getName(), VdbLexicon.Vdb.DECLARATIVE_MODEL );
 
-                // set vdb:declarativeModel properties
-                setProperty( modelNode, CoreLexicon.JcrId.MODEL_TYPE, model.getType() );
-                setProperty( modelNode, VdbLexicon.Model.METADATA_TYPE, model.getMetadataType() );
-                setProperty( modelNode, VdbLexicon.Model.MODEL_DEFINITION, model.getModelDefinition() );
+        // set vdb:abstractModel properties
+        setProperty( modelNode, VdbLexicon.Model.DESCRIPTION, model.getDescription() );
+        modelNode.setProperty( VdbLexicon.Model.VISIBLE, model.isVisible() );
+        setProperty( modelNode, VdbLexicon.Model.PATH_IN_VDB, model.getPathInVdb() );
 
-                if ( VdbModel.DDL_FILE_METADATA_TYPE.equals( model.getMetadataType() ) ) {
-                    setProperty( modelNode, VdbLexicon.Model.DDL_FILE_ENTRY_PATH, model.getDdlFileEntryPath() );
-                }
+        // set vdb:declarativeModel properties
+        setProperty( modelNode, CoreLexicon.JcrId.MODEL_TYPE, model.getType() );
+        setProperty( modelNode, VdbLexicon.Model.METADATA_TYPE, model.getMetadataType() );
+        setProperty( modelNode, VdbLexicon.Model.MODEL_DEFINITION, model.getModelDefinition() );
 
-                // set model sources
-                List< Source > sources = model.getSources();
-                if ( !sources.isEmpty() ) {
-                    Node modelSourcesGroupNode = modelNode.addNode( VdbLexicon.Vdb.SOURCES, VdbLexicon.Vdb.SOURCES );
+        if ( VdbModel.DDL_FILE_METADATA_TYPE.equals( model.getMetadataType() ) ) {
+            setProperty( modelNode, VdbLexicon.Model.DDL_FILE_ENTRY_PATH, model.getDdlFileEntryPath() );
+        }
 
-                    for ( final VdbModel.Source source : sources ) {
-                        Node sourceNode = modelSourcesGroupNode.addNode( source.getName(), VdbLexicon.Source.SOURCE );
-                        sourceNode.setProperty( VdbLexicon.Source.TRANSLATOR, source.getTranslator() );
-                        sourceNode.setProperty( VdbLexicon.Source.JNDI_NAME, source.getJndiName() );
-                    }
-                }
+        // set model sources
+        List< Source > sources = model.getSources();
+        if ( !sources.isEmpty() ) {
+            Node modelSourcesGroupNode = modelNode.addNode( VdbLexicon.Vdb.SOURCES, VdbLexicon.Vdb.SOURCES );
 
-                for ( Map.Entry< String, String > entry : model.getProperties().entrySet() ) {
-                    setProperty( modelNode, entry.getKey(), entry.getValue() );
-                }
+            for ( final VdbModel.Source source : sources ) {
+                Node sourceNode = modelSourcesGroupNode.addNode( source.getName(), VdbLexicon.Source.SOURCE );
+                sourceNode.setProperty( VdbLexicon.Source.TRANSLATOR, source.getTranslator() );
+                sourceNode.setProperty( VdbLexicon.Source.JNDI_NAME, source.getJndiName() );
             }
         }
+
+        for ( Map.Entry< String, String > entry : model.getProperties().entrySet() ) {
+            setProperty( modelNode, entry.getKey(), entry.getValue(), namespaces );
+        }
     }
 
     /**
      * @param manifest the VDB manifest whose entries are being sequenced (cannot be <code>null</code>)
      * @param outputNode the VDB node (cannot be <code>null</code>)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
      * @throws Exception if an error occurs writing the VDB entries
      */
     private void sequenceEntries( final VdbManifest manifest,
-                                  final Node outputNode ) throws Exception {
+                                  final Node outputNode,
+                                  final NamespaceRegistryCache namespaces ) throws Exception {
         assert ( manifest != null ) : "manifest is null";
         assert ( outputNode != null ) : "outputNode is null";
 
@@ -494,18 +815,30 @@ public class VdbSequencer extends Sequencer {
             final Node entriesGroupNode = outputNode.addNode( VdbLexicon.Vdb.ENTRIES, VdbLexicon.Vdb.ENTRIES );
 
             for ( final VdbEntry entry : entriesGroup ) {
-                final Node entryNode = entriesGroupNode.addNode( VdbLexicon.Entry.ENTRY, VdbLexicon.Entry.ENTRY );
-                setProperty( entryNode, VdbLexicon.Entry.PATH, entry.getPath() );
-                setProperty( entryNode, VdbLexicon.Entry.DESCRIPTION, entry.getDescription() );
+                writeEntry( entriesGroupNode, entry, namespaces );
+            }
+        }
+    }
 
-                // add properties
-                final Map< String, String > props = entry.getProperties();
+    /**
+     * @param entriesGroupNode the VDB entries node (cannot be <code>null</code>)
+     * @param entry the entry being written (cannot be <code>null</code>)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
+     * @throws Exception if an error occurs writing the entry
+     */
+    private void writeEntry( final Node entriesGroupNode,
+                             final VdbEntry entry,
+                             final NamespaceRegistryCache namespaces ) throws Exception {
+        final Node entryNode = entriesGroupNode.addNode( VdbLexicon.Entry.ENTRY, VdbLexicon.Entry.ENTRY );
+        setProperty( entryNode, VdbLexicon.Entry.PATH, entry.getPath() );
+        setProperty( entryNode, VdbLexicon.Entry.DESCRIPTION, entry.getDescription() );
 
-                if ( !props.isEmpty() ) {
-                    for ( final Map.Entry< String, String > prop : props.entrySet() ) {
-                        setProperty( entryNode, prop.getKey(), prop.getValue() );
-                    }
-                }
+        // add properties
+        final Map< String, String > props = entry.getProperties();
+
+        if ( !props.isEmpty() ) {
+            for ( final Map.Entry< String, String > prop : props.entrySet() ) {
+                setProperty( entryNode, prop.getKey(), prop.getValue(), namespaces );
             }
         }
     }
@@ -526,13 +859,23 @@ public class VdbSequencer extends Sequencer {
             final Node importVdbsGroupNode = outputNode.addNode( VdbLexicon.Vdb.IMPORT_VDBS, VdbLexicon.Vdb.IMPORT_VDBS );
 
             for ( final ImportVdb importVdb : importVdbsGroup ) {
-                final Node importVdbNode = importVdbsGroupNode.addNode( importVdb.getName(), VdbLexicon.ImportVdb.IMPORT_VDB );
-                importVdbNode.setProperty( VdbLexicon.ImportVdb.VERSION, importVdb.getVersion() );
-                importVdbNode.setProperty( VdbLexicon.ImportVdb.IMPORT_DATA_POLICIES, importVdb.isImportDataPolicies() );
+                writeImportVdb( importVdbsGroupNode, importVdb );
             }
         }
     }
 
+    /**
+     * @param importVdbsGroupNode the VDB imported VDBs node (cannot be <code>null</code>)
+     * @param importVdb the imported VDB being written (cannot be <code>null</code>)
+     * @throws Exception if an error occurs writing the imported VDB
+     */
+    private void writeImportVdb( final Node importVdbsGroupNode,
+                                 final ImportVdb importVdb ) throws Exception {
+        final Node importVdbNode = importVdbsGroupNode.addNode( importVdb.getName(), VdbLexicon.ImportVdb.IMPORT_VDB );
+        importVdbNode.setProperty( VdbLexicon.ImportVdb.VERSION, importVdb.getVersion() );
+        importVdbNode.setProperty( VdbLexicon.ImportVdb.IMPORT_DATA_POLICIES, importVdb.isImportDataPolicies() );
+    }
+
     private void sequenceLibResource( final ZipInputStream zis,
                                       final String entryPath,
                                       final Node outputNode ) throws Exception {
@@ -579,10 +922,12 @@ public class VdbSequencer extends Sequencer {
     /**
      * @param manifest the VDB manifest whose properties are being sequenced (cannot be <code>null</code>)
      * @param outputNode the VDB node where the properties will be added (cannot be <code>null</code>)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
      * @throws Exception if an error occurs writing the properties
      */
     private void sequenceProperties( final VdbManifest manifest,
-                                     final Node outputNode ) throws Exception {
+                                     final Node outputNode,
+                                     final NamespaceRegistryCache namespaces ) throws Exception {
         assert ( manifest != null ) : "manifest is null";
         assert ( outputNode != null ) : "outputNode is null";
 
@@ -593,7 +938,7 @@ public class VdbSequencer extends Sequencer {
                 if ( VdbLexicon.ManifestIds.PREVIEW.equals( prop.getKey() ) ) {
                     outputNode.setProperty( VdbLexicon.Vdb.PREVIEW, Boolean.parseBoolean( prop.getValue() ) );
                 } else {
-                    setProperty( outputNode, prop.getKey(), prop.getValue() );
+                    setProperty( outputNode, prop.getKey(), prop.getValue(), namespaces );
                 }
             }
         }
@@ -602,10 +947,12 @@ public class VdbSequencer extends Sequencer {
     /**
      * @param manifest the VDB manifest whose translators are being sequenced (cannot be <code>null</code>)
      * @param outputNode the VDB output node where translators child nodes will be created (cannot be <code>null</code>)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
      * @throws Exception if an error occurs creating nodes or setting properties
      */
     private void sequenceTranslators( final VdbManifest manifest,
-                                      final Node outputNode ) throws Exception {
+                                      final Node outputNode,
+                                      final NamespaceRegistryCache namespaces ) throws Exception {
         assert ( manifest != null ) : "manifest is null";
         assert ( outputNode != null ) : "outputNode is null";
 
@@ -615,19 +962,30 @@ public class VdbSequencer extends Sequencer {
             final Node translatorsGroupNode = outputNode.addNode( VdbLexicon.Vdb.TRANSLATORS, VdbLexicon.Vdb.TRANSLATORS );
 
             for ( final VdbTranslator translator : translatorsGroup ) {
-                final Node translatorNode = translatorsGroupNode.addNode( translator.getName(),
-                                                                          VdbLexicon.Translator.TRANSLATOR );
-                setProperty( translatorNode, VdbLexicon.Translator.TYPE, translator.getType() );
-                setProperty( translatorNode, VdbLexicon.Translator.DESCRIPTION, translator.getDescription() );
+                writeTranslator( translatorsGroupNode, translator, namespaces );
+            }
+        }
+    }
 
-                // add properties
-                final Map< String, String > props = translator.getProperties();
+    /**
+     * @param translatorsGroupNode the VDB translators node (cannot be <code>null</code>)
+     * @param translator the translator being written (cannot be <code>null</code>)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
+     * @throws Exception if an error occurs writing the translator
+     */
+    private void writeTranslator( final Node translatorsGroupNode,
+                                  final VdbTranslator translator,
+                                  final NamespaceRegistryCache namespaces ) throws Exception {
+        final Node translatorNode = translatorsGroupNode.addNode( translator.getName(), VdbLexicon.Translator.TRANSLATOR );
+        setProperty( translatorNode, VdbLexicon.Translator.TYPE, translator.getType() );
+        setProperty( translatorNode, VdbLexicon.Translator.DESCRIPTION, translator.getDescription() );
 
-                if ( !props.isEmpty() ) {
-                    for ( final Map.Entry< String, String > prop : props.entrySet() ) {
-                        setProperty( translatorNode, prop.getKey(), prop.getValue() );
-                    }
-                }
+        // add properties
+        final Map< String, String > props = translator.getProperties();
+
+        if ( !props.isEmpty() ) {
+            for ( final Map.Entry< String, String > prop : props.entrySet() ) {
+                setProperty( translatorNode, prop.getKey(), prop.getValue(), namespaces );
             }
         }
     }
@@ -647,46 +1005,158 @@ public class VdbSequencer extends Sequencer {
         assert ( !StringUtil.isBlank( name ) );
 
         if ( !StringUtil.isBlank( value ) ) {
-            String propName = name;
+            node.setProperty( name, value );
+        }
+    }
 
+    /**
+     * Sets a property value only if the value is not <code>null</code> and not empty. If the name is prefixed with a namespace
+     * URI that is not registered, the URI is registered using its last segment as the prefix.
+     *
+     * @param node the node whose property is being set (cannot be <code>null</code>)
+     * @param name the property name (cannot be <code>null</code>)
+     * @param value the property value (can be <code>null</code> or empty)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
+     * @throws Exception if an error occurs setting the node property
+     */
+    private void setProperty( final Node node,
+                              final String name,
+                              final String value,
+                              final NamespaceRegistryCache namespaces ) throws Exception {
+        assert ( node != null );
+        assert ( !StringUtil.isBlank( name ) );
+        assert ( namespaces != null );
+
+        if ( !StringUtil.isBlank( value ) ) {
             // see if property is prefixed with URI
-            if ( propName.startsWith( "{" ) ) {
-                final int index = propName.indexOf( "}" );
+            if ( name.startsWith( "{" ) ) {
+                final int index = name.indexOf( "}" );
 
                 if ( index == -1 ) {
                     // TODO
                 } else {
-                    boolean registered = false;
-                    final String uri = propName.substring( 1, index );
-
-                    // if URI is registered then leave name as is
-                    for ( final String registeredUri : node.getSession().getWorkspace().getNamespaceRegistry().getURIs() ) {
-                        if ( registeredUri.equals( uri ) ) {
-                            registered = true;
-                            break;
-                        }
-                    }
+                    final String uri = name.substring( 1, index );
 
-                    // if namespace is not registered then register it
-                    if ( !registered ) {
-                        final NamespaceRegistry registry = node.getSession().getWorkspace().getNamespaceRegistry();
-                        final List< String > prefixes = Arrays.asList( registry.getPrefixes() );
-                        
-                        // need a prefix so use last segment of URI
+                    // if namespace is not registered then register it using last segment of URI as the prefix
+                    if ( !namespaces.isRegisteredUri( uri ) ) {
                         final String[] segments = uri.split( "/" );
-                        String prefix = segments[ segments.length - 1 ];
-                        int i = 1;
-                        
-                        while ( prefixes.contains( prefix ) ) {
-                            prefix += i;
-                        }
-                        
-                        registry.registerNamespace( prefix, uri );
+                        namespaces.register( segments[ segments.length - 1 ], uri, 1 );
                     }
                 }
             }
 
-            node.setProperty( propName, value );
+            node.setProperty( name, value );
+        }
+    }
+
+    /**
+     * Writes the manifest objects under the VDB node while the manifest is being read. The group nodes are created when their
+     * first child is written.
+     */
+    private final class ManifestNodeWriter implements VdbManifest.Handler {
+
+        private final NamespaceRegistryCache namespaces;
+        private final Node outputNode;
+        private Node dataRolesGroupNode;
+        private Node entriesGroupNode;
+        private Node importVdbsGroupNode;
+        private Node translatorsGroupNode;
+
+        ManifestNodeWriter( final Node outputNode,
+                            final NamespaceRegistryCache namespaces ) {
+            this.outputNode = outputNode;
+            this.namespaces = namespaces;
+        }
+
+        /**
+         * @see org.teiid.modeshape.sequencer.vdb.VdbManifest.Handler#dataRole(org.teiid.modeshape.sequencer.vdb.VdbDataRole)
+         */
+        @Override
+        public void dataRole( final VdbDataRole dataRole ) throws Exception {
+            if ( this.dataRolesGroupNode == null ) {
+                this.dataRolesGroupNode = this.outputNode.addNode( VdbLexicon.Vdb.DATA_ROLES, VdbLexicon.Vdb.DATA_ROLES );
+            }
+
+            writeDataRole( this.dataRolesGroupNode, dataRole );
         }
+
+        /**
+         * @see org.teiid.modeshape.sequencer.vdb.VdbManifest.Handler#entry(org.teiid.modeshape.sequencer.vdb.VdbEntry)
+         */
+        @Override
+        public void entry( final VdbEntry entry ) throws Exception {
+            if ( this.entriesGroupNode == null ) {
+                this.entriesGroupNode = this.outputNode.addNode( VdbLexicon.Vdb.ENTRIES, VdbLexicon.Vdb.ENTRIES );
+            }
+
+            writeEntry( this.entriesGroupNode, entry, this.namespaces );
+        }
+
+        /**
+         * @see org.teiid.modeshape.sequencer.vdb.VdbManifest.Handler#importVdb(org.teiid.modeshape.sequencer.vdb.ImportVdb)
+         */
+        @Override
+        public void importVdb( final ImportVdb importVdb ) throws Exception {
+            if ( this.importVdbsGroupNode == null ) {
+                this.importVdbsGroupNode = this.outputNode.addNode( VdbLexicon.Vdb.IMPORT_VDBS, VdbLexicon.Vdb.IMPORT_VDBS );
+            }
+
+            writeImportVdb( this.importVdbsGroupNode, importVdb );
+        }
+
+        /**
+         * @see org.teiid.modeshape.sequencer.vdb.VdbManifest.Handler#model(org.teiid.modeshape.sequencer.vdb.VdbModel)
+         */
+        @Override
+        public void model( final VdbModel model ) throws Exception {
+            // if there is metadata then there is no xmi file
+            if ( model.isDeclarative() ) {
+                writeDeclarativeModel( this.outputNode, model, this.namespaces );
+            }
+        }
+
+        /**
+         * @see org.teiid.modeshape.sequencer.vdb.VdbManifest.Handler#translator(org.teiid.modeshape.sequencer.vdb.VdbTranslator)
+         */
+        @Override
+        public void translator( final VdbTranslator translator ) throws Exception {
+            if ( this.translatorsGroupNode == null ) {
+                this.translatorsGroupNode = this.outputNode.addNode( VdbLexicon.Vdb.TRANSLATORS, VdbLexicon.Vdb.TRANSLATORS );
+            }
+
+            writeTranslator( this.translatorsGroupNode, translator, this.namespaces );
+        }
+
     }
+
+    /**
+     * The sequencer context used when the deferred models are sequenced outside of a sequencing session.
+     */
+    private static final class SessionContext implements Context {
+
+        private final Calendar timestamp = Calendar.getInstance();
+        private final org.modeshape.jcr.api.ValueFactory valueFactory;
+
+        SessionContext( final Session session ) throws RepositoryException {
+            this.valueFactory = ( org.modeshape.jcr.api.ValueFactory )session.getValueFactory();
+        }
+
+        /**
+         * @see org.modeshape.jcr.api.sequencer.Sequencer.Context#getTimestamp()
+         */
+        @Override
+        public Calendar getTimestamp() {
+            return this.timestamp;
+        }
+
+        /**
+         * @see org.modeshape.jcr.api.sequencer.Sequencer.Context#valueFactory()
+         */
+        @Override
+        public org.modeshape.jcr.api.ValueFactory valueFactory() {
+            return this.valueFactory;
+        }
+
+    }
+
 }
@@ -165,8 +165,10 @@ public interface VdbLexicon {
     public interface Model {
         String BUILT_IN = PREFIX + ":builtIn";
         String CHECKSUM = PREFIX + ":checksum";
+        String CONTENT_HASH = PREFIX + ":contentHash";
         String DDL_FILE_ENTRY_PATH = PREFIX + ":ddlFileEntryPath";
         String DESCRIPTION = PREFIX + ":description";
+        String ENTRY_PATH = PREFIX + ":entryPath";
         String INDEX_NAME = PREFIX + ":indexName";
         String MARKERS = PREFIX + ":markers";
         String METADATA_TYPE = PREFIX + ":metadataType";
@@ -202,9 +204,11 @@ public interface VdbLexicon {
      * JCR identifiers relating to the VDB manifest.
      */
     public interface Vdb {
+        String ARCHIVE = PREFIX + ":archive";
         String CONNECTION_TYPE = PREFIX + ":connectionType";
         String DATA_ROLES = PREFIX + ":dataRoles";
         String DECLARATIVE_MODEL = PREFIX + ":declarativeModel";
+        String DEFERRED_MODEL = PREFIX + ":deferredModel";
         String DESCRIPTION = PREFIX + ":description";
         String ENTRIES = PREFIX + ":entries";
         String IMPORT_VDBS = PREFIX + ":importVdbs";
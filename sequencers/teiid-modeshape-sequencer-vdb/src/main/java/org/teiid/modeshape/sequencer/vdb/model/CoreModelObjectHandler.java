@@ -27,6 +27,8 @@ import java.util.Map.Entry;
 import javax.jcr.Node;
 import org.modeshape.common.util.CheckArg;
 import org.modeshape.common.util.StringUtil;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.MetricsRegistry;
 import org.teiid.modeshape.sequencer.vdb.VdbModel;
 import org.teiid.modeshape.sequencer.vdb.VdbModel.ValidationMarker;
 import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
@@ -46,6 +48,94 @@ public final class CoreModelObjectHandler extends ModelObjectHandler {
      */
     private static final String[] IGNORED_MODEL_ANNOTATION_TAG_PREFIXES = {"connection", "connectionProfile", "translator"};
 
+    /**
+     * Sets the path of a model import from the imports of the VDB model declared in the VDB manifest.
+     * 
+     * @param importNode the model import node (cannot be <code>null</code>)
+     * @param modelLocation the location of the imported model (can be <code>null</code> or empty)
+     * @param vdbModel the VDB model from the VDB manifest (cannot be <code>null</code>)
+     * @throws Exception if there is a problem setting the property
+     */
+    static void writeImportPath( final Node importNode,
+                                 final String modelLocation,
+                                 final VdbModel vdbModel ) throws Exception {
+        if (StringUtil.isBlank(modelLocation)) {
+            return;
+        }
+
+        for (final String importPath : vdbModel.getImports()) {
+            if (importPath.endsWith(modelLocation)) {
+                setIfNotBlank(importNode, JcrId.PATH, importPath);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Writes the properties and child nodes of a VDB model node that come from the VDB manifest and not from the model file.
+     * 
+     * @param modelNode the VDB model node (cannot be <code>null</code>)
+     * @param vdbModel the VDB model from the VDB manifest (cannot be <code>null</code>)
+     * @throws Exception if there is a problem writing the properties or the nodes
+     */
+    static void writeVdbModel( final Node modelNode,
+                               final VdbModel vdbModel ) throws Exception {
+        modelNode.setProperty(VdbLexicon.Model.VISIBLE, vdbModel.isVisible());
+        modelNode.setProperty(VdbLexicon.Model.CHECKSUM, vdbModel.getChecksum());
+        modelNode.setProperty(VdbLexicon.Model.BUILT_IN, vdbModel.isBuiltIn());
+        setIfNotBlank(modelNode, VdbLexicon.Model.DESCRIPTION, vdbModel.getDescription());
+        setIfNotBlank(modelNode, VdbLexicon.Model.PATH_IN_VDB, vdbModel.getPathInVdb());
+
+        // write out any model properties from vdb.xml file
+        for (final Entry<String, String> entry : vdbModel.getProperties().entrySet()) {
+            setIfNotBlank(modelNode, entry.getKey(), entry.getValue());
+        }
+
+        // write out the model sources
+        if (! vdbModel.getSources().isEmpty()) {
+            final Node modelSourcesGroupNode = modelNode.addNode(VdbLexicon.Vdb.SOURCES, VdbLexicon.Vdb.SOURCES);
+
+            for (final VdbModel.Source source : vdbModel.getSources()) {
+                Node sourceNode = modelSourcesGroupNode.addNode(source.getName(), VdbLexicon.Source.SOURCE);
+                sourceNode.setProperty(VdbLexicon.Source.TRANSLATOR, source.getTranslator());
+                sourceNode.setProperty(VdbLexicon.Source.JNDI_NAME, source.getJndiName());
+
+                LOGGER.debug("added source to model {0} with values [name=>{1}, translator=>{2}, jndiname=>{3}",
+                             vdbModel.getName(),
+                             source.getName(),
+                             source.getTranslator(),
+                             source.getJndiName());
+            }
+        }
+
+        // write out and validation markers
+        if (!vdbModel.getProblems().isEmpty()) {
+            // add group node
+            final Node markersGroupNode = modelNode.addNode(VdbLexicon.Model.MARKERS, VdbLexicon.Model.MARKERS);
+
+            for (final ValidationMarker marker : vdbModel.getProblems()) {
+                final Node markerNode = markersGroupNode.addNode(VdbLexicon.Model.Marker.MARKER,
+                                                                 VdbLexicon.Model.Marker.MARKER);
+                setIfNotBlank(markerNode, VdbLexicon.Model.Marker.PATH, marker.getPath());
+                setIfNotBlank(markerNode, VdbLexicon.Model.Marker.MESSAGE, marker.getMessage());
+                setIfNotBlank(markerNode, VdbLexicon.Model.Marker.SEVERITY, marker.getSeverity().toString());
+
+                LOGGER.debug("added validation marker at path {0} and with severity of {1}",
+                             marker.getPath(),
+                             marker.getSeverity());
+            }
+        }
+    }
+
+    private static void setIfNotBlank( final Node node,
+                                       final String propertyName,
+                                       final String propertyValue ) throws Exception {
+        if (!StringUtil.isBlank(propertyValue)) {
+            node.setProperty(propertyName, propertyValue);
+            MetricsRegistry.get().increment(MetricNames.PROPERTIES_SET, 1);
+        }
+    }
+
     /**
      * @param nsPrefix the prefix being checked (cannot be <code>null</code> or empty)
      * @return <code>true</code> if the node is a VDB model or a Core model and the specified prefix is being ignored
@@ -65,11 +155,12 @@ public final class CoreModelObjectHandler extends ModelObjectHandler {
 
     /**
      * @see org.teiid.modeshape.sequencer.vdb.model.ModelObjectHandler#process(org.teiid.modeshape.sequencer.vdb.xmi.XmiElement,
-     *      javax.jcr.Node)
+     *      javax.jcr.Node, org.teiid.modeshape.sequencer.vdb.model.ModelContext)
      */
     @Override
     protected void process( final XmiElement element,
-                            final Node modelNode ) throws Exception {
+                            final Node modelNode,
+                            final ModelContext context ) throws Exception {
         CheckArg.isNotNull(element, "element");
         CheckArg.isNotNull(modelNode, "node");
         CheckArg.isEquals(element.getNamespaceUri(), "namespace URI", URI, "relational URI");
@@ -78,14 +169,14 @@ public final class CoreModelObjectHandler extends ModelObjectHandler {
         LOGGER.debug("==== CoreModelObjectHandler:process:element type={0}", type);
 
         if (CoreLexicon.ModelId.MODEL_ANNOTATION.equals(type)) {
-            setProperty(modelNode, XmiLexicon.JcrId.UUID, element.getUuid());
-            getResolver().record(element.getUuid(), modelNode);
-
-            final ModelReader reader = getReader();
-            setProperty(modelNode, JcrId.MODEL_TYPE, reader.getModelType());
-            setProperty(modelNode, JcrId.PRIMARY_METAMODEL_URI, reader.getPrimaryMetamodelUri());
-            setProperty(modelNode, JcrId.DESCRIPTION, reader.getDescription());
-            setProperty(modelNode, JcrId.NAME_IN_SOURCE, reader.getNameInSource());
+            setProperty(modelNode, XmiLexicon.JcrId.UUID, element.getUuid(), context);
+            context.getResolver().record(element.getUuid(), modelNode);
+
+            final ModelInfo reader = context.getModelInfo();
+            setProperty(modelNode, JcrId.MODEL_TYPE, reader.getModelType(), context);
+            setProperty(modelNode, JcrId.PRIMARY_METAMODEL_URI, reader.getPrimaryMetamodelUri(), context);
+            setProperty(modelNode, JcrId.DESCRIPTION, reader.getDescription(), context);
+            setProperty(modelNode, JcrId.NAME_IN_SOURCE, reader.getNameInSource(), context);
             modelNode.setProperty(JcrId.MAX_SET_SIZE, reader.getMaxSetSize());
             modelNode.setProperty(JcrId.VISIBLE, reader.isVisible());
             modelNode.setProperty(JcrId.SUPPORTS_DISTINCT, reader.supportsDistinct());
@@ -93,83 +184,42 @@ public final class CoreModelObjectHandler extends ModelObjectHandler {
             modelNode.setProperty(JcrId.SUPPORTS_ORDER_BY, reader.supportsOrderBy());
             modelNode.setProperty(JcrId.SUPPORTS_OUTER_JOIN, reader.supportsOuterJoin());
             modelNode.setProperty(JcrId.SUPPORTS_WHERE_ALL, reader.supportsWhereAll());
-            setProperty(modelNode, JcrId.PRODUCER_NAME, reader.getProducerName());
-            setProperty(modelNode, JcrId.PRODUCER_VERSION, reader.getProducerVersion());
-            setProperty(modelNode, JcrId.ORIGINAL_FILE, reader.getPath());
-
-            if (getVdbModel() != null) {
-                final VdbModel vdbModel = getVdbModel();
-                modelNode.setProperty(VdbLexicon.Model.VISIBLE, vdbModel.isVisible());
-                modelNode.setProperty(VdbLexicon.Model.CHECKSUM, vdbModel.getChecksum());
-                modelNode.setProperty(VdbLexicon.Model.BUILT_IN, vdbModel.isBuiltIn());
-                setProperty(modelNode, VdbLexicon.Model.DESCRIPTION, vdbModel.getDescription());
-                setProperty(modelNode, VdbLexicon.Model.PATH_IN_VDB, vdbModel.getPathInVdb());
-
-                // write out any model properties from vdb.xml file
-                for (final Entry<String, String> entry : vdbModel.getProperties().entrySet()) {
-                    setProperty(modelNode, entry.getKey(), entry.getValue());
-                }
-
-                // write out the model sources
-                if (! vdbModel.getSources().isEmpty()) {
-                    final Node modelSourcesGroupNode = modelNode.addNode(VdbLexicon.Vdb.SOURCES, VdbLexicon.Vdb.SOURCES);
-
-                    for (final VdbModel.Source source : vdbModel.getSources()) {
-                        Node sourceNode = modelSourcesGroupNode.addNode(source.getName(), VdbLexicon.Source.SOURCE);
-                        sourceNode.setProperty(VdbLexicon.Source.TRANSLATOR, source.getTranslator());
-                        sourceNode.setProperty(VdbLexicon.Source.JNDI_NAME, source.getJndiName());
-
-                        LOGGER.debug("added source to model {0} with values [name=>{1}, translator=>{2}, jndiname=>{3}",
-                                     vdbModel.getName(),
-                                     source.getName(),
-                                     source.getTranslator(),
-                                     source.getJndiName());
-                    }
-                }
+            setProperty(modelNode, JcrId.PRODUCER_NAME, reader.getProducerName(), context);
+            setProperty(modelNode, JcrId.PRODUCER_VERSION, reader.getProducerVersion(), context);
+            setProperty(modelNode, JcrId.ORIGINAL_FILE, reader.getPath(), context);
 
-                // write out and validation markers
-                if (!vdbModel.getProblems().isEmpty()) {
-                    // add group node
-                    final Node markersGroupNode = modelNode.addNode(VdbLexicon.Model.MARKERS, VdbLexicon.Model.MARKERS);
-
-                    for (final ValidationMarker marker : vdbModel.getProblems()) {
-                        final Node markerNode = markersGroupNode.addNode(VdbLexicon.Model.Marker.MARKER,
-                                                                         VdbLexicon.Model.Marker.MARKER);
-                        setProperty(markerNode, VdbLexicon.Model.Marker.PATH, marker.getPath());
-                        setProperty(markerNode, VdbLexicon.Model.Marker.MESSAGE, marker.getMessage());
-                        setProperty(markerNode, VdbLexicon.Model.Marker.SEVERITY, marker.getSeverity().toString());
-
-                        LOGGER.debug("added validation marker at path {0} and with severity of {1}",
-                                     marker.getPath(),
-                                     marker.getSeverity());
-                    }
-                }
+            if (context.getVdbModel() != null) {
+                writeVdbModel(modelNode, context.getVdbModel());
             }
 
             // process model imports
             for (final XmiElement modelImport : reader.getModelImports()) {
-                final Node importNode = addNode(modelNode, modelImport, URI, JcrId.IMPORT);
+                final Node importNode = addNode(modelNode, modelImport, URI, JcrId.IMPORT, context);
 
-                setProperty(importNode, JcrId.MODEL_TYPE, modelImport.getAttributeValue(CoreLexicon.ModelId.MODEL_TYPE, URI));
+                setProperty(importNode,
+                            JcrId.MODEL_TYPE,
+                            modelImport.getAttributeValue(CoreLexicon.ModelId.MODEL_TYPE, URI),
+                            context);
                 setProperty(importNode,
                             JcrId.PRIMARY_METAMODEL_URI,
-                            modelImport.getAttributeValue(CoreLexicon.ModelId.PRIMARY_METAMODEL_URI, URI));
+                            modelImport.getAttributeValue(CoreLexicon.ModelId.PRIMARY_METAMODEL_URI, URI),
+                            context);
                 setProperty(importNode,
                             JcrId.MODEL_LOCATION,
-                            modelImport.getAttributeValue(CoreLexicon.ModelId.MODEL_LOCATION, URI));
+                            modelImport.getAttributeValue(CoreLexicon.ModelId.MODEL_LOCATION, URI),
+                            context);
 
-                if (getVdbModel() != null) {
-                    for (final String importPath : getVdbModel().getImports()) {
-                        if (importPath.endsWith(modelImport.getAttributeValue(CoreLexicon.ModelId.MODEL_LOCATION, URI))) {
-                            setProperty(importNode, JcrId.PATH, importPath);
-                            break;
-                        }
-                    }
+                if (context.getVdbModel() != null) {
+                    writeImportPath(importNode,
+                                    modelImport.getAttributeValue(CoreLexicon.ModelId.MODEL_LOCATION, URI),
+                                    context.getVdbModel());
                 }
             }
 
             LOGGER.debug("[end writing model annotation]");
         } else if (CoreLexicon.ModelId.ANNOTATION_CONTAINER.equals(type)) {
+            final ReferenceResolver resolver = context.getResolver();
+
             for (final XmiElement annotation : element.getChildren()) {
                 if (CoreLexicon.ModelId.ANNOTATION.equals(annotation.getName())) {
                     String uuid = annotation.getAttributeValue(CoreLexicon.ModelId.ANNOTATED_OBJECT, URI);
@@ -185,15 +235,15 @@ public final class CoreModelObjectHandler extends ModelObjectHandler {
                     }
 
                     // remove any UUID prefix
-                    uuid = getResolver().resolveInternalReference(uuid);
+                    uuid = resolver.resolveInternalReference(uuid);
 
                     if (StringUtil.isBlank(uuid)) {
                         LOGGER.debug("annotated object UUID is blank");
                         continue;
                     }
 
-                    final Node node = getResolver().getNode(uuid);
-                    final UnresolvedReference unresolved = ((node == null) ? getResolver().addUnresolvedReference(uuid) : null);
+                    final Node node = resolver.getNode(uuid);
+                    final UnresolvedReference unresolved = ((node == null) ? resolver.addUnresolvedReference(uuid) : null);
 
                     // description
                     final String description = annotation.getAttributeValue(CoreLexicon.ModelId.DESCRIPTION, URI);
@@ -201,7 +251,7 @@ public final class CoreModelObjectHandler extends ModelObjectHandler {
                     if (!StringUtil.isBlank(description)) {
                         if (node != null) {
                             node.addMixin(JcrId.ANNOTATED);
-                            setProperty(node, JcrId.DESCRIPTION, description);
+                            setProperty(node, JcrId.DESCRIPTION, description, context);
                         } else if (unresolved != null) {
                             unresolved.addMixin(JcrId.ANNOTATED);
                             unresolved.addProperty(JcrId.DESCRIPTION, description, false);
@@ -220,7 +270,7 @@ public final class CoreModelObjectHandler extends ModelObjectHandler {
 
                         for (final String keyword : keywordsValue.split("\\s")) {
                             if (node != null) {
-                                addPropertyValue(node, JcrId.KEYWORDS, keyword);
+                                addPropertyValue(node, JcrId.KEYWORDS, keyword, context);
                             } else if (unresolved != null) {
                                 unresolved.addProperty(JcrId.KEYWORDS, keyword, true);
                             }
@@ -243,7 +293,9 @@ public final class CoreModelObjectHandler extends ModelObjectHandler {
                             // don't process if namespace is being ignored
                             if (isIgnoredTag(parts[0])) {
                                 if (node != null) {
-                                    LOGGER.debug("tag '{0}' not added as property of node '{1}'", key, node.getName());
+                                    if (LOGGER.isDebugEnabled()) {
+                                        LOGGER.debug("tag '{0}' not added as property of node '{1}'", key, node.getName());
+                                    }
                                 } else if (unresolved != null) {
                                     LOGGER.debug("tag '{0}' not added as property of node '{1}'", key, unresolved.getUuid());
                                 }
@@ -259,7 +311,7 @@ public final class CoreModelObjectHandler extends ModelObjectHandler {
                             }
 
                             // only process when MED helper doesn't 
-                            if (!getMedHelper().process(modelNode, node, unresolved, child)) {
+                            if (!context.getMedHelper().process(modelNode, node, unresolved, child)) {
                                 if (!hasTags) {
                                     hasTags = true;
 
@@ -271,7 +323,7 @@ public final class CoreModelObjectHandler extends ModelObjectHandler {
                                 }
 
                                 if (node != null) {
-                                    setProperty(node, key, value);
+                                    setProperty(node, key, value, context);
                                 } else if (unresolved != null) {
                                     unresolved.addProperty(key, value, false);
                                 }
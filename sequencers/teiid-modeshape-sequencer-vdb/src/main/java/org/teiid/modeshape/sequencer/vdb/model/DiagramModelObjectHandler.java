@@ -36,7 +36,8 @@ public final class DiagramModelObjectHandler extends ModelObjectHandler {
      */
     @Override
     protected void process( final XmiElement element,
-                            final Node node ) throws Exception {
+                            final Node node,
+                            final ModelContext context ) throws Exception {
         // diagram objects are not being sequenced
     }
 }
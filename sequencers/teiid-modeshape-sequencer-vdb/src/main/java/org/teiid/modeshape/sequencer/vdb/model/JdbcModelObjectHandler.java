@@ -46,11 +46,12 @@ public final class JdbcModelObjectHandler extends ModelObjectHandler {
 
     /**
      * @see org.teiid.modeshape.sequencer.vdb.model.ModelObjectHandler#process(org.teiid.modeshape.sequencer.vdb.xmi.XmiElement,
-     *      javax.jcr.Node)
+     *      javax.jcr.Node, org.teiid.modeshape.sequencer.vdb.model.ModelContext)
      */
     @Override
     protected void process( final XmiElement element,
-                            final Node parentNode ) throws Exception {
+                            final Node parentNode,
+                            final ModelContext context ) throws Exception {
         CheckArg.isNotNull(element, "element");
         CheckArg.isNotNull(parentNode, "outputNode");
         CheckArg.isEquals(element.getNamespaceUri(), "namespace URI", URI, "JDBC URI");
@@ -60,21 +61,21 @@ public final class JdbcModelObjectHandler extends ModelObjectHandler {
 
         if (ModelId.SOURCE.equals(type)) {
             // - jdbcs:name (string)
-            final Node sourceNode = addNode(parentNode, element, URI, JcrId.SOURCE);
-            processSource(element, sourceNode);
+            final Node sourceNode = addNode(parentNode, element, URI, JcrId.SOURCE, context);
+            processSource(element, sourceNode, context);
 
             // process import settings
             for (final XmiElement childElement : element.getChildren()) {
                 if (ModelId.IMPORT_SETTINGS.equals(childElement.getName())) {
-                    process(childElement, parentNode);
+                    process(childElement, parentNode, context);
                     break; // only one
                 }
 
                 LOGGER.debug("**** JDBC Source child element type of '{0}' was not processed", childElement.getName());
             }
         } else if (ModelId.IMPORT_SETTINGS.equals(type)) {
-            final Node importSettingNode = addNode(parentNode, element, URI, JcrId.IMPORTED);
-            processImportSetting(element, importSettingNode);
+            final Node importSettingNode = addNode(parentNode, element, URI, JcrId.IMPORTED, context);
+            processImportSetting(element, importSettingNode, context);
 
             // process children
             for (final XmiElement childElement : element.getChildren()) {
@@ -82,16 +83,16 @@ public final class JdbcModelObjectHandler extends ModelObjectHandler {
 
                 if (ModelId.EXCLUDED_OBJECT_PATHS.equals(childType)) {
                     // - jdbcs:excludedObjectPaths (string) multiple
-                    addPropertyValue(importSettingNode, JcrId.EXCLUDED_OBJECT_PATHS, childElement.getValue());
+                    addPropertyValue(importSettingNode, JcrId.EXCLUDED_OBJECT_PATHS, childElement.getValue(), context);
                 } else if (ModelId.INCLUDED_CATALOG_PATHS.equals(childType)) {
                     // - jdbcs:includedCatalogPaths (string) multiple
-                    addPropertyValue(importSettingNode, JcrId.INCLUDED_CATALOG_PATHS, childElement.getValue());
+                    addPropertyValue(importSettingNode, JcrId.INCLUDED_CATALOG_PATHS, childElement.getValue(), context);
                 } else if (ModelId.INCLUDED_SCHEMA_PATHS.equals(childType)) {
                     // - jdbcs:includedSchemaPaths (string) multiple
-                    addPropertyValue(importSettingNode, JcrId.INCLUDED_SCHEMA_PATHS, childElement.getValue());
+                    addPropertyValue(importSettingNode, JcrId.INCLUDED_SCHEMA_PATHS, childElement.getValue(), context);
                 } else if (ModelId.INCLUDED_TABLE_TYPES.equals(childType)) {
                     // - jdbcs:includedTableTypes (string) multiple
-                    addPropertyValue(importSettingNode, JcrId.INCLUDED_TABLE_TYPES, childElement.getValue());
+                    addPropertyValue(importSettingNode, JcrId.INCLUDED_TABLE_TYPES, childElement.getValue(), context);
                 } else {
                     LOGGER.debug("**** JDBC Import Settings child element type of '{0}' was not processed", childElement.getName());
                 }
@@ -102,7 +103,8 @@ public final class JdbcModelObjectHandler extends ModelObjectHandler {
     }
 
     private void processImportSetting( final XmiElement importSettingElement,
-                                       final Node importSettingNode ) throws Exception {
+                                       final Node importSettingNode,
+                                       final ModelContext context ) throws Exception {
         // - jdbcs:createCatalogsInModel (boolean) = 'true'
         setBooleanProperty(importSettingNode,
                            JcrId.CREATE_CATALOGS_IN_MODEL,
@@ -116,12 +118,14 @@ public final class JdbcModelObjectHandler extends ModelObjectHandler {
         // - jdbcs:convertCaseInModel (string) < 'NONE', 'TO_UPPERCASE', 'TO_LOWERCASE'
         setProperty(importSettingNode,
                     JcrId.CONVERT_CASE_IN_MODEL,
-                    importSettingElement.getAttributeValue(ModelId.CONVERT_CASE_IN_MODEL, URI));
+                    importSettingElement.getAttributeValue(ModelId.CONVERT_CASE_IN_MODEL, URI),
+                    context);
 
         // - jdbcs:generateSourceNamesInModel (string) = 'UNQUALIFIED' < 'NONE', 'UNQUALIFIED', 'FULLY_QUALIFIED'
         setProperty(importSettingNode,
                     JcrId.GENERATE_SOURCE_NAMES_IN_MODEL,
-                    importSettingElement.getAttributeValue(ModelId.GENERATE_SOURCE_NAMES_IN_MODEL, URI));
+                    importSettingElement.getAttributeValue(ModelId.GENERATE_SOURCE_NAMES_IN_MODEL, URI),
+                    context);
 
         // - jdbcs:includeForeignKeys (boolean) = 'true'
         setBooleanProperty(importSettingNode,
@@ -150,17 +154,18 @@ public final class JdbcModelObjectHandler extends ModelObjectHandler {
     }
 
     private void processSource( final XmiElement sourceElement,
-                                final Node sourceNode ) throws Exception {
+                                final Node sourceNode,
+                                final ModelContext context ) throws Exception {
         // - jdbcs:driverName (string)
-        setProperty(sourceNode, JcrId.DRIVER_NAME, sourceElement.getAttributeValue(ModelId.DRIVER_NAME, URI));
+        setProperty(sourceNode, JcrId.DRIVER_NAME, sourceElement.getAttributeValue(ModelId.DRIVER_NAME, URI), context);
 
         // - jdbcs:driverClass (string)
-        setProperty(sourceNode, JcrId.DRIVER_CLASS, sourceElement.getAttributeValue(ModelId.DRIVER_CLASS, URI));
+        setProperty(sourceNode, JcrId.DRIVER_CLASS, sourceElement.getAttributeValue(ModelId.DRIVER_CLASS, URI), context);
 
         // - jdbcs:username (string)
-        setProperty(sourceNode, JcrId.USER_NAME, sourceElement.getAttributeValue(ModelId.USER_NAME, URI));
+        setProperty(sourceNode, JcrId.USER_NAME, sourceElement.getAttributeValue(ModelId.USER_NAME, URI), context);
 
         // - jdbcs:url (string)
-        setProperty(sourceNode, JcrId.URL, sourceElement.getAttributeValue(ModelId.URL, URI));
+        setProperty(sourceNode, JcrId.URL, sourceElement.getAttributeValue(ModelId.URL, URI), context);
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.vdb.model;
+
+import org.modeshape.jcr.api.sequencer.Sequencer.Context;
+import org.teiid.modeshape.sequencer.vdb.VdbModel;
+
+/**
+ * The state of the model being written that is passed to the shared {@link ModelObjectHandler model object handlers}. One
+ * instance is created for each model.
+ */
+public final class ModelContext {
+
+    private final Context sequencerContext;
+    private final ModelReader reader;
+    private final ReferenceResolver resolver;
+    private final VdbModel vdbModel;
+    private final ModelExtensionDefinitionHelper medHelper;
+
+    ModelContext( final Context sequencerContext,
+                  final ModelReader reader,
+                  final ReferenceResolver resolver,
+                  final VdbModel vdbModel,
+                  final ModelExtensionDefinitionHelper medHelper ) {
+        this.sequencerContext = sequencerContext;
+        this.reader = reader;
+        this.resolver = resolver;
+        this.vdbModel = vdbModel;
+        this.medHelper = medHelper;
+    }
+
+    /**
+     * @return the MED helper (never <code>null</code>)
+     */
+    public ModelExtensionDefinitionHelper getMedHelper() {
+        return this.medHelper;
+    }
+
+    /**
+     * @return a read-only view of the model being written (never <code>null</code>)
+     */
+    public ModelInfo getModelInfo() {
+        return this.reader;
+    }
+
+    /**
+     * @return the reference resolver (never <code>null</code>)
+     */
+    public ReferenceResolver getResolver() {
+        return this.resolver;
+    }
+
+    /**
+     * @return the sequencer context (never <code>null</code>)
+     */
+    public Context getSequencerContext() {
+        return this.sequencerContext;
+    }
+
+    /**
+     * @return the VDB model (can be <code>null</code> if model did not come from a VDB)
+     */
+    public VdbModel getVdbModel() {
+        return this.vdbModel;
+    }
+
+}
@@ -45,7 +45,6 @@ import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.CheckArg;
 import org.modeshape.common.util.StringUtil;
 import org.modeshape.jcr.api.JcrConstants;
-import org.modeshape.jcr.api.NamespaceRegistry;
 import org.teiid.modeshape.sequencer.vdb.TeiidI18n;
 import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
 import org.teiid.modeshape.sequencer.vdb.lexicon.ModelExtensionDefinitionLexicon.JcrId;
@@ -220,7 +219,9 @@ public class ModelExtensionDefinitionHelper {
         }
 
         node.addMixin(mixinName);
-        LOGGER.debug("added mixin '{0}' to node '{1}'", mixinName, node.getName());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("added mixin '{0}' to node '{1}'", mixinName, node.getName());
+        }
     }
 
     private boolean hasMetaclassMapping( final String jcrType,
@@ -280,30 +281,6 @@ public class ModelExtensionDefinitionHelper {
         }
     }
 
-    /**
-     * @param registry the registry being used to check for existing prefixes (cannot be <code>null</code>)
-     * @param nsPrefix the prefix that the suffix is added to (cannot be <code>null</code> or empty)
-     * @param suffix the number appended to the prefix
-     * @return the new unregistered, unique prefix (never <code>null</code> or empty)
-     * @throws Exception if there is a problem accessing the registry
-     */
-    private String createMedPrefix( final NamespaceRegistry registry,
-                                    final String nsPrefix,
-                                    long suffix ) throws Exception {
-        assert (registry != null);
-        assert (!StringUtil.isBlank(nsPrefix));
-
-        final String newPrefix = nsPrefix + suffix;
-
-        // if new prefix is already registered create another prefix
-        if (registry.isRegisteredPrefix(newPrefix)) {
-            return createMedPrefix(registry, nsPrefix, ++suffix);
-        }
-
-        LOGGER.debug("created new namespace prefix '{0}'", newPrefix);
-        return newPrefix;
-    }
-
     /**
      * @return the core model object handler (never <code>null</code>)
      * @throws Exception if there is problem obtaining the handler
@@ -452,7 +429,8 @@ public class ModelExtensionDefinitionHelper {
                     final Node descriptionNode = getHandler().addNode(propDefNode,
                                                                       JcrId.DESCRIPTION,
                                                                       tagElement.getUuid(),
-                                                                      JcrId.LOCALIZED_DESCRIPTION);
+                                                                      JcrId.LOCALIZED_DESCRIPTION,
+                                                                      this.writer.getModelContext());
                     descriptionNode.setProperty(JcrId.LOCALE, tagElement.getAttributeValue(CoreLexicon.ModelId.KEY, URI));
                     descriptionNode.setProperty(JcrId.TRANSLATION, tagElement.getAttributeValue(CoreLexicon.ModelId.VALUE, URI));
 
@@ -499,7 +477,8 @@ public class ModelExtensionDefinitionHelper {
                     final Node displayNameNode = getHandler().addNode(propDefNode,
                                                                       JcrId.Property.DISPLAY_NAME,
                                                                       tagElement.getUuid(),
-                                                                      JcrId.LOCALIZED_NAME);
+                                                                      JcrId.LOCALIZED_NAME,
+                                                                      this.writer.getModelContext());
                     displayNameNode.setProperty(JcrId.LOCALE, tagElement.getAttributeValue(CoreLexicon.ModelId.KEY, URI));
                     displayNameNode.setProperty(JcrId.TRANSLATION, tagElement.getAttributeValue(CoreLexicon.ModelId.VALUE, URI));
 
@@ -540,14 +519,16 @@ public class ModelExtensionDefinitionHelper {
                 medGroupNode = getHandler().addNode(modelNode,
                                                     CoreLexicon.JcrId.MODEL_EXTENSION_DEFINITIONS_GROUP_NODE,
                                                     null,
-                                                    CoreLexicon.JcrId.MODEL_EXTENSION_DEFINITIONS_GROUP_NODE);
+                                                    CoreLexicon.JcrId.MODEL_EXTENSION_DEFINITIONS_GROUP_NODE,
+                                                    this.writer.getModelContext());
             }
 
             // add MED node
             assert (medGroupNode != null) : "MED group node is null";
             getHandler().addNode(medGroupNode, parts[1], // namespace prefix
                                  annotationTagElement.getUuid(),
-                                 JcrId.MODEL_EXTENSION_DEFINITION);
+                                 JcrId.MODEL_EXTENSION_DEFINITION,
+                                 this.writer.getModelContext());
             return true;
         }
 
@@ -557,7 +538,11 @@ public class ModelExtensionDefinitionHelper {
             if (Utils.isModelMedMetaclassTagKey(key)) {
                 final String medPrefix = annotatedObjectNode.getName();
                 final String metaclass = parts[1];
-                getHandler().addNode(annotatedObjectNode, metaclass, annotationTagElement.getUuid(), JcrId.EXTENDED_METACLASS);
+                getHandler().addNode(annotatedObjectNode,
+                                     metaclass,
+                                     annotationTagElement.getUuid(),
+                                     JcrId.EXTENDED_METACLASS,
+                                     this.writer.getModelContext());
 
                 // keep track of the MED metaclasses
                 Set<String> extendedMetaclasses = this.medMetaclassMap.get(medPrefix);
@@ -574,10 +559,12 @@ public class ModelExtensionDefinitionHelper {
                 // are found in the model
             } else {
                 annotatedObjectNode.setProperty(Utils.constructJcrName(key), value);
-                LOGGER.debug("set MED property '{0}' to value '{1}' for MED '{2}'",
-                             Utils.constructJcrName(key),
-                             value,
-                             annotatedObjectNode.getName());
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("set MED property '{0}' to value '{1}' for MED '{2}'",
+                                 Utils.constructJcrName(key),
+                                 value,
+                                 annotatedObjectNode.getName());
+                }
 
                 // if the namespace prefix, namespace URI, and version have been found go ahead and register the MED namespace
                 if (annotatedObjectNode.hasProperty(JcrId.NAMESPACE_PREFIX)
@@ -586,9 +573,7 @@ public class ModelExtensionDefinitionHelper {
 
                     // don't register if MED is already registered
                     if (!this.medPrefixMap.containsKey(nsPrefix)) {
-                        registerNamespace(annotatedObjectNode.getSession(),
-                                          (NamespaceRegistry)annotatedObjectNode.getSession().getWorkspace().getNamespaceRegistry(),
-                                          nsPrefix,
+                        registerNamespace(nsPrefix,
                                           annotatedObjectNode.getProperty(JcrId.NAMESPACE_URI).getString(),
                                           annotatedObjectNode.getProperty(JcrId.VERSION).getLong());
                     }
@@ -607,17 +592,22 @@ public class ModelExtensionDefinitionHelper {
                 getHandler().addNode(annotatedObjectNode,
                                      mappedPrefix + ':' + parts[1],
                                      annotationTagElement.getUuid(),
-                                     JcrId.PROPERTY_DEFINITION);
-                LOGGER.debug("added MED property definition node '{0}' to metaclass '{1}' in MED '{2}'",
-                             mappedPrefix + ':' + parts[1],
-                             annotatedObjectNode.getName(),
-                             medPrefix);
+                                     JcrId.PROPERTY_DEFINITION,
+                                     this.writer.getModelContext());
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("added MED property definition node '{0}' to metaclass '{1}' in MED '{2}'",
+                                 mappedPrefix + ':' + parts[1],
+                                 annotatedObjectNode.getName(),
+                                 medPrefix);
+                }
             } else {
                 annotatedObjectNode.setProperty(Utils.constructJcrName(key), value);
-                LOGGER.debug("set MED metaclass property '{0}' to value '{1}' for metaclass '{2}'",
-                             Utils.constructJcrName(key),
-                             value,
-                             annotatedObjectNode.getName());
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("set MED metaclass property '{0}' to value '{1}' for metaclass '{2}'",
+                                 Utils.constructJcrName(key),
+                                 value,
+                                 annotatedObjectNode.getName());
+                }
             }
 
             return true;
@@ -633,10 +623,12 @@ public class ModelExtensionDefinitionHelper {
             } else {
                 final String propName = Utils.constructJcrName(key);
                 annotatedObjectNode.setProperty(propName, value);
-                LOGGER.debug("set MED property definition property '{0}' to value '{1}' for property '{2}'",
-                             propName,
-                             value,
-                             annotatedObjectNode.getName());
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("set MED property definition property '{0}' to value '{1}' for property '{2}'",
+                                 propName,
+                                 value,
+                                 annotatedObjectNode.getName());
+                }
             }
 
             return true;
@@ -662,7 +654,10 @@ public class ModelExtensionDefinitionHelper {
             final String mappedPrefix = this.medPrefixMap.get(parts[0]);
 
             if (annotatedObjectNode != null) {
-                getHandler().setProperty(annotatedObjectNode, mappedPrefix + ':' + parts[1], value);
+                getHandler().setProperty(annotatedObjectNode,
+                                         mappedPrefix + ':' + parts[1],
+                                         value,
+                                         this.writer.getModelContext());
             } else {
                 unresolved.addProperty(mappedPrefix + ':' + parts[1], value, false);
             }
@@ -673,12 +668,10 @@ public class ModelExtensionDefinitionHelper {
         return false;
     }
 
-    private void registerNamespace( final Session session,
-                                    final NamespaceRegistry registry,
-                                    final String medPrefix,
+    private void registerNamespace( final String medPrefix,
                                     String medUri,
                                     final long medVersion ) throws Exception {
-        assert ((session != null) && (registry != null) && !StringUtil.isBlank(medPrefix) && !StringUtil.isBlank(medUri));
+        assert (!StringUtil.isBlank(medPrefix) && !StringUtil.isBlank(medUri));
 
         // exit if MED already registered
         if (this.medPrefixMap.containsKey(medPrefix)) {
@@ -697,34 +690,12 @@ public class ModelExtensionDefinitionHelper {
             }
         }
 
-        String registeredPrefix = null;
-        String registeredUri = null;
-
-        // see if there is a registered prefix for the MED URI
-        if (registry.isRegisteredUri(medUri)) {
-            registeredPrefix = registry.getPrefix(medUri);
-        }
-
-        // see if there is a registered URI for the MED prefix
-        if (registry.isRegisteredPrefix(medPrefix)) {
-            registeredUri = registry.getURI(medPrefix);
-        }
+        // uses the registered prefix if the URI is registered, the MED prefix if it is free, or else the MED prefix with a suffix
+        final String registeredPrefix = this.writer.getNamespaces().register(medPrefix, medUri, medVersion);
+        this.medPrefixMap.put(medPrefix, registeredPrefix);
 
-        if (StringUtil.isBlank(registeredUri) && StringUtil.isBlank(registeredPrefix)) {
-            // neither MED prefix or MED URI is registered so just register
-            registry.registerNamespace(medPrefix, medUri);
-            this.medPrefixMap.put(medPrefix, medPrefix);
-            LOGGER.debug("registering MED namespace '{0}':'{1}'", medPrefix, medUri);
-        } else if (!StringUtil.isBlank(registeredPrefix)) {
-            // uri is registered, use registered prefix
-            this.medPrefixMap.put(medPrefix, registeredPrefix);
-            LOGGER.debug("using registered prefix '{0}' for MED prefix '{1}'", registeredPrefix, medPrefix);
-        } else {
-            // prefix exists but uri different so register with new prefix
-            final String newPrefix = createMedPrefix(registry, medPrefix, medVersion);
-            registry.registerNamespace(newPrefix, medUri);
-            this.medPrefixMap.put(medPrefix, newPrefix);
-            LOGGER.debug("registered MED namespace '{0}':'{1}' for MED prefix '{2}'", newPrefix, medUri, medPrefix);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("using namespace '{0}':'{1}' for MED prefix '{2}'", registeredPrefix, medUri, medPrefix);
         }
     }
 }
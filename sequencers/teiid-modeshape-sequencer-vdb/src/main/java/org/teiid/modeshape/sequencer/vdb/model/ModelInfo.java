@@ -0,0 +1,108 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.vdb.model;
+
+import java.util.List;
+import org.teiid.modeshape.sequencer.vdb.xmi.XmiElement;
+
+/**
+ * A read-only view of the XMI model being written, mostly the values of its model annotation. Model object handlers get it from
+ * the {@link ModelContext#getModelInfo() model context}.
+ */
+public interface ModelInfo {
+
+    /**
+     * @return the model description or <code>null</code> if not found
+     */
+    String getDescription();
+
+    /**
+     * @return the max set size or <code>100</code> if not found
+     */
+    long getMaxSetSize();
+
+    /**
+     * @return the model imports XMI elements or <code>null</code> if none found
+     */
+    List<XmiElement> getModelImports();
+
+    /**
+     * @return the model type or <code>null</code> if not found
+     */
+    String getModelType();
+
+    /**
+     * @return the model name in source or <code>null</code> if not found
+     */
+    String getNameInSource();
+
+    /**
+     * @return the path of the model resource (can be <code>null</code> or empty)
+     */
+    String getPath();
+
+    /**
+     * @return the primary metamodel URI or <code>null</code> if not found
+     */
+    String getPrimaryMetamodelUri();
+
+    /**
+     * @return the producer name or <code>null</code> if not found
+     */
+    String getProducerName();
+
+    /**
+     * @return the producer version or <code>null</code> if not found
+     */
+    String getProducerVersion();
+
+    /**
+     * @return <code>true</code> if model is visible (defaults to <code>true</code>)
+     */
+    boolean isVisible();
+
+    /**
+     * @return <code>true</code> if model supports distinct (defaults to <code>true</code>)
+     */
+    boolean supportsDistinct();
+
+    /**
+     * @return <code>true</code> if model supports joins (defaults to <code>true</code>)
+     */
+    boolean supportsJoin();
+
+    /**
+     * @return <code>true</code> if model supports order by (defaults to <code>true</code>)
+     */
+    boolean supportsOrderBy();
+
+    /**
+     * @return <code>true</code> if model supports outer joins (defaults to <code>true</code>)
+     */
+    boolean supportsOuterJoin();
+
+    /**
+     * @return <code>true</code> if model supports where all (defaults to <code>true</code>)
+     */
+    boolean supportsWhereAll();
+
+}
@@ -23,9 +23,7 @@ package org.teiid.modeshape.sequencer.vdb.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import javax.jcr.Node;
 import javax.jcr.Property;
@@ -36,13 +34,14 @@ import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.CheckArg;
 import org.modeshape.jcr.api.JcrConstants;
 import org.modeshape.jcr.api.sequencer.Sequencer.Context;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.MetricsRegistry;
+import org.teiid.modeshape.metrics.Timer;
+import org.teiid.modeshape.sequencer.internal.NamespaceRegistryCache;
 import org.teiid.modeshape.sequencer.vdb.TeiidI18n;
 import org.teiid.modeshape.sequencer.vdb.VdbModel;
 import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
-import org.teiid.modeshape.sequencer.vdb.lexicon.DiagramLexicon;
-import org.teiid.modeshape.sequencer.vdb.lexicon.JdbcLexicon;
 import org.teiid.modeshape.sequencer.vdb.lexicon.RelationalLexicon;
-import org.teiid.modeshape.sequencer.vdb.lexicon.TransformLexicon;
 import org.teiid.modeshape.sequencer.vdb.model.ReferenceResolver.UnresolvedProperty;
 import org.teiid.modeshape.sequencer.vdb.model.ReferenceResolver.UnresolvedReference;
 import org.teiid.modeshape.sequencer.vdb.xmi.XmiElement;
@@ -55,19 +54,19 @@ public final class ModelNodeWriter {
     private static final Logger LOGGER = Logger.getLogger(ModelNodeWriter.class);
 
     private final Context context;
-    private final Map<String, ModelObjectHandler> handlers = new HashMap<String, ModelObjectHandler>();
     private final Node outputNode;
     private final ModelReader reader;
-    private final Map<String, Class<? extends ModelObjectHandler>> registry = new HashMap<String, Class<? extends ModelObjectHandler>>();
     private final ReferenceResolver resolver;
-    private final VdbModel vdbModel;
     private final ModelExtensionDefinitionHelper medHelper;
+    private final NamespaceRegistryCache namespaces;
+    private final ModelContext modelContext;
 
     /**
      * @param modelNode the model node where the output should be written to (cannot be <code>null</code>)
      * @param reader the model reader (cannot be <code>null</code>)
      * @param resolver the reference resolver (cannot be <code>null</code>)
      * @param vdbModel the VDB model (can be <code>null</code> if model did not come from a VDB)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
      * @param context the sequencer context (cannot be <code>null</code>)
      * @throws Exception if the model node does not have a model primary node type
      */
@@ -75,10 +74,12 @@ public final class ModelNodeWriter {
                      final ModelReader reader,
                      final ReferenceResolver resolver,
                      final VdbModel vdbModel,
+                     final NamespaceRegistryCache namespaces,
                      final Context context ) throws Exception {
         CheckArg.isNotNull(modelNode, "modelNode");
         CheckArg.isNotNull(reader, "reader");
         CheckArg.isNotNull(resolver, "resolver");
+        CheckArg.isNotNull(namespaces, "namespaces");
         CheckArg.isNotNull(context, "context");
 
         if (!modelNode.isNodeType(CoreLexicon.JcrId.MODEL)) {
@@ -88,15 +89,24 @@ public final class ModelNodeWriter {
         this.outputNode = modelNode;
         this.resolver = resolver;
         this.reader = reader;
-        this.vdbModel = vdbModel;
         this.context = context;
+        this.namespaces = namespaces;
         this.medHelper = new ModelExtensionDefinitionHelper(this);
+        this.modelContext = new ModelContext(context, reader, resolver, vdbModel, this.medHelper);
     }
 
     Context getContext() {
         return this.context;
     }
 
+    NamespaceRegistryCache getNamespaces() {
+        return this.namespaces;
+    }
+
+    ModelContext getModelContext() {
+        return this.modelContext;
+    }
+
     Node getModelNode() {
         return this.outputNode;
     }
@@ -105,43 +115,24 @@ public final class ModelNodeWriter {
         return this.resolver;
     }
 
-    ModelObjectHandler getHandler( final String namespaceUri ) throws Exception {
+    ModelObjectHandler getHandler( final String namespaceUri ) {
         CheckArg.isNotEmpty(namespaceUri, "namespaceUri");
-
-        // see if handler has already been constructed
-        ModelObjectHandler handler = this.handlers.get(namespaceUri);
-
-        // construct if necessary
-        if ((handler == null) && this.registry.containsKey(namespaceUri)) {
-            final Class<? extends ModelObjectHandler> handlerClass = this.registry.get(namespaceUri);
-            handler = handlerClass.newInstance();
-            this.handlers.put(namespaceUri, handler);
-
-            // set handler properties
-            handler.setContext(this.context);
-            handler.setReader(this.reader);
-            handler.setResolver(this.resolver);
-            handler.setVdbModel(this.vdbModel);
-            handler.setModelExtensionDefinitionHelper(this.medHelper);
-        }
-
-        return handler;
+        return ModelObjectHandlerRegistry.get(namespaceUri);
     }
 
     public boolean isAcceptedPrimaryMetamodel( final String uri ) {
         return RelationalLexicon.Namespace.URI.equals(uri);
     }
 
-    private void loadRegistry() {
-        this.registry.put(CoreLexicon.Namespace.URI, CoreModelObjectHandler.class);
-        this.registry.put(DiagramLexicon.Namespace.URI, DiagramModelObjectHandler.class);
-        this.registry.put(JdbcLexicon.Namespace.URI, JdbcModelObjectHandler.class);
-        this.registry.put(RelationalLexicon.Namespace.URI, RelationalModelObjectHandler.class);
-        this.registry.put(TransformLexicon.Namespace.URI, TransformationModelObjectHandler.class);
+    public boolean write() throws Exception {
+        try (final Timer timer = MetricsRegistry.get().start(MetricNames.VDB_MODEL_WRITE)) {
+            final boolean result = writeModel();
+            LOGGER.debug("model write time={0}\n\n", timer.getElapsedMillis());
+            return result;
+        }
     }
 
-    public boolean write() throws Exception {
-        long startTime = System.currentTimeMillis();
+    private boolean writeModel() throws Exception {
         boolean result = true;
 
         // use primary metamodel URI to determine if we should continue sequencing
@@ -150,21 +141,18 @@ public final class ModelNodeWriter {
         if ((primaryMetamodelUri == null) || !isAcceptedPrimaryMetamodel(primaryMetamodelUri)) {
             result = false;
         } else {
-            // load model object handler registry
-            loadRegistry();
-
             if (!writeModelObjects()) {
                 result = false;
             } else {
-                result = writeUnresolvedReferences();
+                try (final Timer timer = MetricsRegistry.get().start(MetricNames.VDB_REFERENCES)) {
+                    result = writeUnresolvedReferences();
+                }
 
                 // add MED mixins to node
                 this.medHelper.assignModelNodeChildrenMedMixins(this.outputNode);
             }
         }
 
-        LOGGER.debug("model write time={0}\n\n", (System.currentTimeMillis() - startTime));
-
         return result;
     }
 
@@ -180,7 +168,7 @@ public final class ModelNodeWriter {
                 continue;
             }
 
-            handler.process(element, this.outputNode);
+            handler.process(element, this.outputNode, this.modelContext);
         }
 
         LOGGER.debug("[end writeModelObjects()]\n\n");
@@ -207,7 +195,9 @@ public final class ModelNodeWriter {
             // add mixins
             for (final String mixin : unresolved.getMixins()) {
                 resolved.addMixin(mixin);
-                LOGGER.debug("adding mixin {0} to resolved node {1}", mixin, resolved.getName());
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("adding mixin {0} to resolved node {1}", mixin, resolved.getName());
+                }
             }
 
             { // add properties
@@ -228,10 +218,12 @@ public final class ModelNodeWriter {
                         // single valued
                         final String mappedName = this.medHelper.getMappedPropertyName(propName);
                         resolved.setProperty(mappedName, property.getValue());
-                        LOGGER.debug("setting property '{0}' with value '{1}' to resolved node {2}",
-                                     propName,
-                                     property.getValue(),
-                                     resolved.getName());
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug("setting property '{0}' with value '{1}' to resolved node {2}",
+                                         propName,
+                                         property.getValue(),
+                                         resolved.getName());
+                        }
                     }
                 }
             }
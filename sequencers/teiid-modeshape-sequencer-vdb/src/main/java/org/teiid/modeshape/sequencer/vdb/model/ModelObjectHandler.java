@@ -28,8 +28,8 @@ import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.CheckArg;
 import org.modeshape.common.util.StringUtil;
 import org.modeshape.jcr.api.JcrConstants;
-import org.modeshape.jcr.api.sequencer.Sequencer.Context;
-import org.teiid.modeshape.sequencer.vdb.VdbModel;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.MetricsRegistry;
 import org.teiid.modeshape.sequencer.vdb.lexicon.XmiLexicon;
 import org.teiid.modeshape.sequencer.vdb.model.ReferenceResolver.UnresolvedReference;
 import org.teiid.modeshape.sequencer.vdb.xmi.XmiAttribute;
@@ -37,19 +37,14 @@ import org.teiid.modeshape.sequencer.vdb.xmi.XmiElement;
 import org.teiid.modeshape.sequencer.vdb.xmi.XmiPart;
 
 /**
- * Base implementation of a model object handler.
+ * Base implementation of a model object handler. One instance of each handler is {@link ModelObjectHandlerRegistry registered}
+ * and shared by all the models being written, so handlers must be stateless and thread-safe. The state of the model being written
+ * is passed to the handler in a {@link ModelContext}.
  */
 public abstract class ModelObjectHandler {
 
     protected static final Logger LOGGER = Logger.getLogger(ModelObjectHandler.class);
 
-    private Context context; // set by handler framework and is never null
-    private ModelReader reader; // set by handler framework and is never null
-    private ReferenceResolver resolver; // set by handler framework and is never null
-    private VdbModel vdbModel; // set by handler framework but can be null if model did not come from a VDB
-
-    private ModelExtensionDefinitionHelper medHelper;
-
     /**
      * If the element or name attribute URI is empty, the primary node type is used as the name.
      * 
@@ -57,25 +52,31 @@ public abstract class ModelObjectHandler {
      * @param nodeName the name to use to create the child node (can be <code>null</code>)
      * @param xmiUuid the value of the XMI UUID property (can be <code>null</code> or empty)
      * @param primaryNodeType the primary node type to use when creating the new node (cannot be <code>null</code> or empty)
+     * @param context the context of the model being written (cannot be <code>null</code>)
      * @return the new node (never <code>null</code>)
      * @throws Exception if there is a problem creating the node
      */
     protected Node addNode( final Node parentNode,
                             final String nodeName,
                             final String xmiUuid,
-                            final String primaryNodeType ) throws Exception {
+                            final String primaryNodeType,
+                            final ModelContext context ) throws Exception {
         CheckArg.isNotNull(parentNode, "parentNode");
         CheckArg.isNotEmpty(nodeName, "nodeName");
         CheckArg.isNotEmpty(primaryNodeType, "primaryNodeType");
 
         final Node newNode = parentNode.addNode(nodeName, primaryNodeType);
+        MetricsRegistry.get().increment(MetricNames.NODES_CREATED, 1);
 
         if (!StringUtil.isBlank(xmiUuid)) {
-            setProperty(newNode, XmiLexicon.JcrId.UUID, xmiUuid);
-            this.resolver.record(xmiUuid, newNode);
+            setProperty(newNode, XmiLexicon.JcrId.UUID, xmiUuid, context);
+            context.getResolver().record(xmiUuid, newNode);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("adding node {0} to parent {1}", newNode.getName(), parentNode.getName());
         }
 
-        LOGGER.debug("adding node {0} to parent {1}", newNode.getName(), parentNode.getName());
         return newNode;
     }
 
@@ -86,13 +87,15 @@ public abstract class ModelObjectHandler {
      * @param element the XMI element to use to create the child node (can be <code>null</code>)
      * @param nameAttributeUri the URI of the name property (can be <code>null</code> or empty)
      * @param primaryNodeType the primary node type to use when creating the new node (cannot be <code>null</code> or empty)
+     * @param context the context of the model being written (cannot be <code>null</code>)
      * @return the new node (never <code>null</code>)
      * @throws Exception if there is a problem creating the node
      */
     protected Node addNode( final Node parentNode,
                             final XmiElement element,
                             final String nameAttributeUri,
-                            final String primaryNodeType ) throws Exception {
+                            final String primaryNodeType,
+                            final ModelContext context ) throws Exception {
         CheckArg.isNotNull(parentNode, "parentNode");
         CheckArg.isNotEmpty(primaryNodeType, "primaryNodeType");
 
@@ -111,20 +114,22 @@ public abstract class ModelObjectHandler {
         }
 
         final String uuid = ((element == null) ? null : element.getUuid());
-        return addNode(parentNode, name, uuid, primaryNodeType);
+        return addNode(parentNode, name, uuid, primaryNodeType, context);
     }
 
     /**
      * @param node the node whose multi-valued property a value is being added to (cannot be <code>null</code>)
      * @param propertyName the multi-valued property name (cannot be <code>null</code> or empty)
      * @param newValue the value being added (cannot be <code>null</code> or empty)
+     * @param context the context of the model being written (cannot be <code>null</code>)
      * @throws Exception if there is a problem adding the property value
      */
     protected void addPropertyValue( final Node node,
                                      final String propertyName,
-                                     final String newValue ) throws Exception {
+                                     final String newValue,
+                                     final ModelContext context ) throws Exception {
         CheckArg.isNotEmpty(newValue, "newValue");
-        addPropertyValue(node, propertyName, this.context.valueFactory().createValue(newValue));
+        addPropertyValue(node, propertyName, context.getSequencerContext().valueFactory().createValue(newValue));
     }
 
     /**
@@ -151,24 +156,14 @@ public abstract class ModelObjectHandler {
             node.setProperty(propertyName, new Value[] {newValue});
         }
 
-        LOGGER.debug("added a value of '{0}' to multi-valued property '{1}' in node '{2}'",
-                     newValue,
-                     propertyName,
-                     node.getName());
-    }
-
-    /**
-     * @return context the sequencer context (never <code>null</code>)
-     */
-    protected Context getContext() {
-        return this.context;
-    }
+        MetricsRegistry.get().increment(MetricNames.PROPERTIES_SET, 1);
 
-    /**
-     * @return the MED helper (never <code>null</code>)
-     */
-    protected ModelExtensionDefinitionHelper getMedHelper() {
-        return this.medHelper;
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("added a value of '{0}' to multi-valued property '{1}' in node '{2}'",
+                         newValue,
+                         propertyName,
+                         node.getName());
+        }
     }
 
     /**
@@ -180,34 +175,15 @@ public abstract class ModelObjectHandler {
         return xmiPart.getQName();
     }
 
-    /**
-     * @return reader the model reader (never <code>null</code>)
-     */
-    protected ModelReader getReader() {
-        return this.reader;
-    }
-
-    /**
-     * @return the reference resolver (never <code>null</code>)
-     */
-    protected ReferenceResolver getResolver() {
-        return this.resolver;
-    }
-
-    /**
-     * @return vdbModel the VDB model (can be <code>null</code> if model did not come from a VDB)
-     */
-    protected VdbModel getVdbModel() {
-        return this.vdbModel;
-    }
-
     /**
      * @param element the element being processed (cannot be <code>null</code>)
      * @param parentNode the parent node to use if a node is created for the element (cannot be <code>null</code>)
+     * @param context the context of the model being written (cannot be <code>null</code>)
      * @throws Exception if there is a problem processing the XMI element
      */
     protected abstract void process( final XmiElement element,
-                                     final Node parentNode ) throws Exception;
+                                     final Node parentNode,
+                                     final ModelContext context ) throws Exception;
 
     /**
      * If the value is <code>null</code> or empty the property is not set.
@@ -225,45 +201,36 @@ public abstract class ModelObjectHandler {
 
         if (!StringUtil.isBlank(value)) {
             node.setProperty(jcrPropertyName, Boolean.parseBoolean(value));
+            MetricsRegistry.get().increment(MetricNames.PROPERTIES_SET, 1);
         }
     }
 
-    /**
-     * <strong>This method should only be called by the framework loading model object handlers.</strong>
-     * 
-     * @param context the sequencer context being set (never <code>null</code>)
-     */
-    protected void setContext( final Context context ) {
-        CheckArg.isNotNull(context, "context");
-        this.context = context;
-    }
-
-    void setModelExtensionDefinitionHelper( final ModelExtensionDefinitionHelper medHelper ) {
-        this.medHelper = medHelper;
-    }
-
     /**
      * Sets the specified, <strong>single-valued</strong>, property only if the value is not <code>null</code> and not empty.
      * 
      * @param node the node whose property is being set (cannot be <code>null</code>)
      * @param propertyName the name of the property being set (cannot be <code>null</code>)
      * @param propertyValue the proposed property value (can be <code>null</code> or empty)
+     * @param context the context of the model being written (cannot be <code>null</code>)
      * @throws Exception if there is a problem setting the property
      */
     protected void setProperty( final Node node,
                                 final String propertyName,
-                                final String propertyValue ) throws Exception {
+                                final String propertyValue,
+                                final ModelContext context ) throws Exception {
         CheckArg.isNotNull(node, "node");
         CheckArg.isNotEmpty(propertyName, "propertyName");
 
         if (!StringUtil.isBlank(propertyValue)) {
-            if (this.resolver.isReference(propertyValue)) {
-                String refUuid = this.resolver.resolveInternalReference(propertyValue);
-                Node refNode = this.resolver.getNode(refUuid);
+            final ReferenceResolver resolver = context.getResolver();
+
+            if (resolver.isReference(propertyValue)) {
+                String refUuid = resolver.resolveInternalReference(propertyValue);
+                Node refNode = resolver.getNode(refUuid);
 
                 if (refNode == null) {
                     // unresolved reference
-                    UnresolvedReference unresolved = this.resolver.addUnresolvedReference(refUuid);
+                    UnresolvedReference unresolved = resolver.addUnresolvedReference(refUuid);
                     unresolved.addReferencerReference(node.getProperty(XmiLexicon.JcrId.UUID).getString(), propertyName);
                 } else {
                     // add weakreference
@@ -273,40 +240,16 @@ public abstract class ModelObjectHandler {
 
                     Value weakReference = node.getSession().getValueFactory().createValue(refNode, true);
                     node.setProperty(propertyName, weakReference);
+                    MetricsRegistry.get().increment(MetricNames.PROPERTIES_SET, 1);
+                    MetricsRegistry.get().increment(MetricNames.REFERENCES_RESOLVED, 1);
                 }
             } else {
                 node.setProperty(propertyName, propertyValue);
-                LOGGER.debug("{0}:setting {1} = {2}", node.getName(), propertyName, propertyValue);
+                MetricsRegistry.get().increment(MetricNames.PROPERTIES_SET, 1);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("{0}:setting {1} = {2}", node.getName(), propertyName, propertyValue);
+                }
             }
         }
     }
-
-    /**
-     * <strong>This method should only be called by the framework loading model object handlers.</strong>
-     * 
-     * @param reader the model reader being set (never <code>null</code>)
-     */
-    protected void setReader( final ModelReader reader ) {
-        CheckArg.isNotNull(reader, "reader");
-        this.reader = reader;
-    }
-
-    /**
-     * <strong>This method should only be called by the framework loading model object handlers.</strong>
-     * 
-     * @param resolver the reference resolver used during sequencing (cannot be <code>null</code>)
-     */
-    protected void setResolver( final ReferenceResolver resolver ) {
-        CheckArg.isNotNull(resolver, "resolver");
-        this.resolver = resolver;
-    }
-
-    /**
-     * <strong>This method should only be called by the framework loading model object handlers.</strong>
-     * 
-     * @param vdbModel the VDB model being sequenced (can be <code>null</code> if model is not from a VDB)
-     */
-    protected void setVdbModel( final VdbModel vdbModel ) {
-        this.vdbModel = vdbModel;
-    }
 }
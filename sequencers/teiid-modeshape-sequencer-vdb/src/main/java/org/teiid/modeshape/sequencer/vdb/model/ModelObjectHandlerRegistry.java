@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.vdb.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.modeshape.common.util.CheckArg;
+import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.DiagramLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.JdbcLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.RelationalLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.TransformLexicon;
+
+/**
+ * The {@link ModelObjectHandler model object handlers} used to write model objects, keyed by the namespace URI of the metamodel
+ * they handle. The handlers of the built-in metamodels are registered by default. Handlers of other metamodels can be registered
+ * before sequencing. Sequencers are constructed by the repository, so handlers are registered here instead of being passed to
+ * them.
+ */
+public final class ModelObjectHandlerRegistry {
+
+    /**
+     * Replaced, never modified, when a handler is registered so lookups do not need to lock.
+     */
+    private static volatile Map<String, ModelObjectHandler> handlers = defaultHandlers();
+
+    private static Map<String, ModelObjectHandler> defaultHandlers() {
+        final Map<String, ModelObjectHandler> result = new HashMap<String, ModelObjectHandler>();
+        result.put(CoreLexicon.Namespace.URI, new CoreModelObjectHandler());
+        result.put(DiagramLexicon.Namespace.URI, new DiagramModelObjectHandler());
+        result.put(JdbcLexicon.Namespace.URI, new JdbcModelObjectHandler());
+        result.put(RelationalLexicon.Namespace.URI, new RelationalModelObjectHandler());
+        result.put(TransformLexicon.Namespace.URI, new TransformationModelObjectHandler());
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @param namespaceUri the namespace URI of the metamodel (cannot be <code>null</code>)
+     * @return the handler or <code>null</code> if no handler is registered for the namespace
+     */
+    public static ModelObjectHandler get( final String namespaceUri ) {
+        return handlers.get(namespaceUri);
+    }
+
+    /**
+     * @param namespaceUri the namespace URI of the metamodel (cannot be <code>null</code> or empty)
+     * @param handler the stateless, thread-safe handler of the metamodel's objects (can be <code>null</code> if the metamodel's
+     *        objects should not be written)
+     * @return the previously registered handler or <code>null</code> if there was none
+     */
+    public static synchronized ModelObjectHandler register( final String namespaceUri,
+                                                            final ModelObjectHandler handler ) {
+        CheckArg.isNotEmpty(namespaceUri, "namespaceUri");
+
+        final Map<String, ModelObjectHandler> copy = new HashMap<String, ModelObjectHandler>(handlers);
+        final ModelObjectHandler previous = ((handler == null) ? copy.remove(namespaceUri) : copy.put(namespaceUri, handler));
+        handlers = Collections.unmodifiableMap(copy);
+        return previous;
+    }
+
+    /**
+     * Restores the handlers of the built-in metamodels and removes all other handlers.
+     */
+    public static synchronized void reset() {
+        handlers = defaultHandlers();
+    }
+
+    private ModelObjectHandlerRegistry() {
+        // static access only
+    }
+
+}
@@ -30,10 +30,13 @@ import javax.xml.stream.XMLStreamReader;
 import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.CheckArg;
 import org.modeshape.common.util.StringUtil;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.MetricsRegistry;
+import org.teiid.modeshape.metrics.Timer;
+import org.teiid.modeshape.sequencer.internal.NamespaceRegistryCache;
 import org.teiid.modeshape.sequencer.vdb.TeiidI18n;
 import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
 import org.teiid.modeshape.sequencer.vdb.lexicon.XmiLexicon;
-import org.teiid.modeshape.sequencer.vdb.xmi.XmiAttribute;
 import org.teiid.modeshape.sequencer.vdb.xmi.XmiBasePart;
 import org.teiid.modeshape.sequencer.vdb.xmi.XmiElement;
 import org.teiid.modeshape.sequencer.vdb.xmi.XmiReader;
@@ -41,7 +44,7 @@ import org.teiid.modeshape.sequencer.vdb.xmi.XmiReader;
 /**
  * Reader of XMI relational models to support the CND definitions.
  */
-class ModelReader extends XmiReader implements Comparable<ModelReader> {
+class ModelReader extends XmiReader implements Comparable<ModelReader>, ModelInfo {
 
     private static final long DEFAULT_MAX_SET_SIZE = 100;
     private static final boolean DEFAULT_SUPPORTS_DISTINCT = true;
@@ -53,7 +56,7 @@ class ModelReader extends XmiReader implements Comparable<ModelReader> {
 
     private static final Logger LOGGER = Logger.getLogger(ModelReader.class);
 
-    private final NamespaceRegistry registry; // never null
+    private final NamespaceRegistryCache namespaces; // never null
     private final ReferenceResolver resolver;
 
     /**
@@ -64,44 +67,63 @@ class ModelReader extends XmiReader implements Comparable<ModelReader> {
     public ModelReader( final String path,
                         final ReferenceResolver resolver,
                         final NamespaceRegistry registry ) {
+        this(path, resolver, new NamespaceRegistryCache(registry));
+    }
+
+    /**
+     * @param path the resource path including the name (cannot be <code>null</code> or empty)
+     * @param resolver the reference resolver (cannot be <code>null</code>)
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
+     */
+    public ModelReader( final String path,
+                        final ReferenceResolver resolver,
+                        final NamespaceRegistryCache namespaces ) {
         super(path);
         CheckArg.isNotNull(resolver, "resolver");
-        this.registry = registry;
+        CheckArg.isNotNull(namespaces, "namespaces");
+        this.namespaces = namespaces;
         this.resolver = resolver;
     }
 
     /**
      * @see org.teiid.modeshape.sequencer.vdb.xmi.XmiReader#addAttribute(org.teiid.modeshape.sequencer.vdb.xmi.XmiElement,
-     *      org.teiid.modeshape.sequencer.vdb.xmi.XmiAttribute)
+     *      java.lang.String, java.lang.String, java.lang.String, java.lang.String)
      */
     @Override
     protected void addAttribute( final XmiElement element,
-                                 final XmiAttribute newAttribute ) {
+                                 final String name,
+                                 final String namespacePrefix,
+                                 final String namespaceUri,
+                                 final String value ) {
         // make sure attribute prefix is valid before adding to element
-        ensureNamespacePrefixIsValid(newAttribute);
-        super.addAttribute(element, newAttribute); // set the parent
+        final String prefix = getValidNamespacePrefix(namespaceUri, namespacePrefix);
+        String attributeValue = value;
+        String uuid = null;
+
+        // strip off UUID prefix
+        if (XmiLexicon.ModelId.UUID.equals(name) && !StringUtil.isBlank(value)
+            && value.startsWith(CoreLexicon.ModelId.MM_UUID_PREFIX)) {
+            uuid = value.substring(CoreLexicon.ModelId.MM_UUID_PREFIX.length());
+            attributeValue = uuid;
+        }
+
+        super.addAttribute(element, name, prefix, namespaceUri, attributeValue);
 
         // record the UUID
-        if (XmiLexicon.ModelId.UUID.equals(newAttribute.getName())) {
-            final String value = newAttribute.getValue();
-            
-            // strip off prefix
-            if (!StringUtil.isBlank(value) && value.startsWith(CoreLexicon.ModelId.MM_UUID_PREFIX)) {
-                final String uuid = value.substring(CoreLexicon.ModelId.MM_UUID_PREFIX.length());
-                newAttribute.setValue(uuid);
-
-                if (!XmiLexicon.Namespace.URI.equals(newAttribute.getNamespaceUri())) {
-                    if (this.resolver.getNode(uuid) == null) {
-                        try {
-                            this.resolver.addUnresolvedReference(uuid);
-                        } catch (Exception e) {
-                            // should not happen since already made sure node does not exist
-                        }
+        if (uuid != null) {
+            final String uri = (StringUtil.isBlank(namespaceUri) ? element.getNamespaceUri() : namespaceUri);
+
+            if (!XmiLexicon.Namespace.URI.equals(uri)) {
+                if (this.resolver.getNode(uuid) == null) {
+                    try {
+                        this.resolver.addUnresolvedReference(uuid);
+                    } catch (Exception e) {
+                        // should not happen since already made sure node does not exist
                     }
                 }
-
-                this.resolver.record(newAttribute.getValue(), element);
             }
+
+            this.resolver.record(uuid, element);
         }
     }
 
@@ -149,22 +171,43 @@ class ModelReader extends XmiReader implements Comparable<ModelReader> {
 
     private void ensureNamespacePrefixIsValid( final XmiBasePart xmiPart ) {
         assert (xmiPart != null);
+        final String prefix = xmiPart.getNamespacePrefix();
+        final String validPrefix = getValidNamespacePrefix(xmiPart.getNamespaceUri(), prefix);
 
-        // models may have a namespace prefix that does not match the one registered in the NamespaceRegistry.
-        // so make sure the XMI part prefix is the same as the registered prefix for the namespace URI.
-        final String nsUri = xmiPart.getNamespaceUri();
+        if (validPrefix != prefix) {
+            xmiPart.setNamespacePrefix(validPrefix);
+        }
+    }
 
-        if (!StringUtil.isBlank(nsUri)) {
-            try {
-                final String registeredPrefix = this.registry.getPrefix(nsUri);
+    /**
+     * Models may have a namespace prefix that does not match the one registered in the NamespaceRegistry, so the prefix used is
+     * the registered prefix for the namespace URI. Registered prefixes are cached for the duration of the sequencing session.
+     *
+     * @param nsUri the namespace URI (can be <code>null</code> or empty)
+     * @param prefix the prefix found in the model (can be <code>null</code> or empty)
+     * @return the registered prefix or the specified prefix if there is no namespace URI or it is not registered
+     */
+    private String getValidNamespacePrefix( final String nsUri,
+                                            final String prefix ) {
+        if (StringUtil.isBlank(nsUri)) {
+            return prefix;
+        }
 
-                if (!registeredPrefix.equals(xmiPart.getNamespacePrefix())) {
-                    xmiPart.setNamespacePrefix(registeredPrefix);
-                }
-            } catch (final Exception e) {
-                LOGGER.error(e, TeiidI18n.namespaceUriNotFoundInRegistry, nsUri, getPath());
-            }
+        final String registeredPrefix;
+
+        try {
+            registeredPrefix = this.namespaces.getPrefix(nsUri);
+        } catch (final Exception e) {
+            LOGGER.error(e, TeiidI18n.namespaceUriNotFoundInRegistry, nsUri, getPath());
+            return prefix;
+        }
+
+        if (registeredPrefix == null) {
+            LOGGER.error(TeiidI18n.namespaceUriNotFoundInRegistry, nsUri, getPath());
+            return prefix;
         }
+
+        return (registeredPrefix.equals(prefix) ? prefix : registeredPrefix);
     }
 
     /**
@@ -372,8 +415,13 @@ class ModelReader extends XmiReader implements Comparable<ModelReader> {
     public void readModel( final InputStream stream ) throws Exception {
         CheckArg.isNotNull(stream, "stream");
 
-        final long startTime = System.currentTimeMillis();
-        final List<XmiElement> elements = super.read(stream);
+        final List<XmiElement> elements;
+        final long readTime;
+
+        try (final Timer timer = MetricsRegistry.get().start(MetricNames.VDB_MODEL_READ)) {
+            elements = super.read(stream);
+            readTime = timer.getElapsedMillis();
+        }
 
         if (LOGGER.isDebugEnabled()) {
             for (final XmiElement element : elements) {
@@ -393,7 +441,7 @@ class ModelReader extends XmiReader implements Comparable<ModelReader> {
             }
     
             LOGGER.debug("\n\n");
-            LOGGER.debug("model read time={0}", (System.currentTimeMillis() - startTime));
+            LOGGER.debug("model read time={0}", readTime);
         }
     }
 
@@ -34,6 +34,10 @@ import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.CheckArg;
 import org.modeshape.jcr.api.nodetype.NodeTypeManager;
 import org.modeshape.jcr.api.sequencer.Sequencer;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.MetricsRegistry;
+import org.teiid.modeshape.metrics.Timer;
+import org.teiid.modeshape.sequencer.internal.NamespaceRegistryCache;
 import org.teiid.modeshape.sequencer.vdb.TeiidI18n;
 import org.teiid.modeshape.sequencer.vdb.VdbModel;
 import org.teiid.modeshape.sequencer.vdb.VdbSequencer;
@@ -77,7 +81,10 @@ public class ModelSequencer extends Sequencer {
         outputNode.addMixin(CoreLexicon.JcrId.MODEL);
 
         try (InputStream modelStream = binaryValue.getStream()) {
-            return sequenceModel(modelStream, outputNode, outputNode.getPath(), null, new ReferenceResolver(), context);
+            final NamespaceRegistryCache namespaces = new NamespaceRegistryCache(outputNode.getSession()
+                                                                                          .getWorkspace()
+                                                                                          .getNamespaceRegistry());
+            return sequenceModel(modelStream, outputNode, outputNode.getPath(), null, new ReferenceResolver(), namespaces, context);
         }
     }
 
@@ -135,7 +142,8 @@ public class ModelSequencer extends Sequencer {
      * @param modelPath the model path including the model name (cannot be <code>null</code> or empty)
      * @param vdbModel the VDB model associated with the input stream (cannot be <code>null</code>)
      * @param resolver a {@link ReferenceResolver} instance; may not be {@code null}
-     * @param context the sequencer context (cannot be <code>null</code>)  @return <code>true</code> if the model file input stream was successfully sequenced
+     * @param namespaces the namespace cache of the sequencing session (cannot be <code>null</code>)
+     * @param context the sequencer context (cannot be <code>null</code>)
      * @return <code>true</code> if the model was sequenced successfully
      * @throws Exception if there is a problem during sequencing
      */
@@ -143,7 +151,8 @@ public class ModelSequencer extends Sequencer {
                                    final Node modelOutputNode,
                                    final String modelPath,
                                    final VdbModel vdbModel,
-                                   final ReferenceResolver resolver, 
+                                   final ReferenceResolver resolver,
+                                   final NamespaceRegistryCache namespaces,
                                    final Context context ) throws Exception {
         assert (modelStream != null);
         assert (modelOutputNode != null);
@@ -155,13 +164,12 @@ public class ModelSequencer extends Sequencer {
                      modelPath,
                      vdbModel);
 
-        final NamespaceRegistry registry = modelOutputNode.getSession().getWorkspace().getNamespaceRegistry();
-        final ModelReader modelReader = new ModelReader(modelPath, resolver, registry);
+        final ModelReader modelReader = new ModelReader(modelPath, resolver, namespaces);
         modelReader.readModel(modelStream);
 
         if (shouldSequence(modelReader)) {
             final ModelNodeWriter nodeWriter = new ModelNodeWriter(modelOutputNode, modelReader, resolver, vdbModel,
-                                                                   context);
+                                                                   namespaces, context);
             return nodeWriter.write();
         }
 
@@ -186,14 +194,85 @@ public class ModelSequencer extends Sequencer {
                                      final VdbModel vdbModel,
                                      final ReferenceResolver resolver,
                                      final Context context ) throws Exception {
+        CheckArg.isNotNull(modelOutputNode, "modelOutputNode");
+        final NamespaceRegistryCache namespaces = new NamespaceRegistryCache(modelOutputNode.getSession()
+                                                                                           .getWorkspace()
+                                                                                           .getNamespaceRegistry());
+        return sequenceVdbModel(modelStream, modelOutputNode, vdbModel, resolver, namespaces, context);
+    }
+
+    /**
+     * Used only by the VDB sequencer to sequence a model file contained in a VDB.
+     *
+     * @param modelStream the input stream of the model file (cannot be <code>null</code>)
+     * @param modelOutputNode the root node of the model being sequenced (cannot be <code>null</code>)
+     * @param vdbModel the VDB model associated with the input stream (cannot be <code>null</code>)
+     * @param resolver a {@link ReferenceResolver} instance; may not be {@code null}
+     * @param namespaces the namespace cache shared by all the models of the VDB (cannot be <code>null</code>)
+     * @param context the sequencer context (cannot be <code>null</code>)
+     * @return <code>true</code> if the model file input stream was successfully sequenced
+     * @throws Exception if there is a problem during sequencing or node does not have a VDB model primary type
+     */
+    public boolean sequenceVdbModel( final InputStream modelStream,
+                                     final Node modelOutputNode,
+                                     final VdbModel vdbModel,
+                                     final ReferenceResolver resolver,
+                                     final NamespaceRegistryCache namespaces,
+                                     final Context context ) throws Exception {
         CheckArg.isNotNull(modelStream, "modelStream");
         CheckArg.isNotNull(modelOutputNode, "modelOutputNode");
         CheckArg.isNotNull(vdbModel, "vdbModel");
+        CheckArg.isNotNull(namespaces, "namespaces");
 
         if (!modelOutputNode.isNodeType(VdbLexicon.Model.MODEL)) {
             throw new RuntimeException(TeiidI18n.invalidVdbModelNodeType.text(modelOutputNode.getPath()));
         }
 
-        return sequenceModel(modelStream, modelOutputNode, vdbModel.getPathInVdb(), vdbModel, resolver, context);
+        return sequenceModel(modelStream, modelOutputNode, vdbModel.getPathInVdb(), vdbModel, resolver, namespaces, context);
+    }
+
+    /**
+     * Used only by the VDB sequencer after a previously sequenced model has been copied. Writes the references of the models
+     * sequenced so far that resolve to the copied nodes, as is done after a model is sequenced.
+     *
+     * @param modelOutputNode the root node of the copied model (cannot be <code>null</code>)
+     * @param resolver the reference resolver shared by the models of the VDB (cannot be <code>null</code>)
+     * @param namespaces the namespace cache shared by all the models of the VDB (cannot be <code>null</code>)
+     * @param context the sequencer context (cannot be <code>null</code>)
+     * @throws Exception if there is a problem writing the references
+     */
+    public void writeUnresolvedReferences( final Node modelOutputNode,
+                                           final ReferenceResolver resolver,
+                                           final NamespaceRegistryCache namespaces,
+                                           final Context context ) throws Exception {
+        CheckArg.isNotNull(modelOutputNode, "modelOutputNode");
+
+        // the copied model file is not read
+        final ModelReader modelReader = new ModelReader(modelOutputNode.getPath(), resolver, namespaces);
+        final ModelNodeWriter nodeWriter = new ModelNodeWriter(modelOutputNode, modelReader, resolver, null, namespaces, context);
+
+        try (final Timer timer = MetricsRegistry.get().start(MetricNames.VDB_REFERENCES)) {
+            nodeWriter.writeUnresolvedReferences();
+        }
+    }
+
+    /**
+     * Used only by the VDB sequencer to write the properties and child nodes of a model file contained in a VDB that come from
+     * the VDB manifest without reading the model file.
+     *
+     * @param modelOutputNode the root node of the model whose sequencing is deferred (cannot be <code>null</code>)
+     * @param vdbModel the VDB model associated with the model file (cannot be <code>null</code>)
+     * @throws Exception if there is a problem writing the nodes or node does not have a deferred VDB model primary type
+     */
+    public void writeVdbModelStub( final Node modelOutputNode,
+                                   final VdbModel vdbModel ) throws Exception {
+        CheckArg.isNotNull(modelOutputNode, "modelOutputNode");
+        CheckArg.isNotNull(vdbModel, "vdbModel");
+
+        if (!modelOutputNode.isNodeType(VdbLexicon.Vdb.DEFERRED_MODEL)) {
+            throw new RuntimeException(TeiidI18n.invalidVdbModelNodeType.text(modelOutputNode.getPath()));
+        }
+
+        CoreModelObjectHandler.writeVdbModel(modelOutputNode, vdbModel);
     }
 }
@@ -36,6 +36,8 @@ import org.modeshape.common.collection.Multimap;
 import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.CheckArg;
 import org.modeshape.common.util.StringUtil;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.MetricsRegistry;
 import org.teiid.modeshape.sequencer.vdb.TeiidI18n;
 import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
 import org.teiid.modeshape.sequencer.vdb.xmi.XmiElement;
@@ -48,6 +50,8 @@ public class ReferenceResolver {
 
     static final Logger LOGGER = Logger.getLogger(ReferenceResolver.class);
 
+    private static final int CANONICAL_UUID_LENGTH = 36;
+
     public static final Map<String, String> STANDARD_DATA_TYPE_URLS_BY_UUID;
     public static final Map<String, String> STANDARD_DATA_TYPE_URLS_TO_NAMES;
     public static final Map<String, String> STANDARD_DATA_TYPE_UUIDS_BY_NAMES;
@@ -141,13 +145,16 @@ public class ReferenceResolver {
     }
 
     // key = uuid, value = UnresolvedReference
-    private final Map<String, UnresolvedReference> unresolved = new HashMap<String, UnresolvedReference>();
+    private final Map<String, UnresolvedReference> unresolved = new UuidMap<UnresolvedReference>();
 
     // key = uuid, value = Node
-    private final Map<String, Node> uuidToNode = new HashMap<String, Node>();
+    private final Map<String, Node> uuidToNode = new UuidMap<Node>();
 
     // key = uuid, value = XmiElement
-    private final Map<String, XmiElement> uuidToXmiElement = new HashMap<String, XmiElement>();
+    private final Map<String, XmiElement> uuidToXmiElement = new UuidMap<XmiElement>();
+
+    // scratch space used when parsing UUIDs
+    private final long[] parsed = new long[2];
 
     /**
      * @param xmiUuid the UUID of the model object whose node has not been created (cannot be <code>null</code>)
@@ -276,6 +283,7 @@ public class ReferenceResolver {
         CheckArg.isNotNull(unresolved, "unresolved");
         final UnresolvedReference resolved = this.unresolved.remove(unresolved.getUuid());
         assert (unresolved == resolved);
+        MetricsRegistry.get().increment(MetricNames.REFERENCES_RESOLVED, 1);
         LOGGER.debug("UUID '{0}' has been resolved", unresolved.getUuid());
     }
 
@@ -285,25 +293,20 @@ public class ReferenceResolver {
      */
     public String resolveInternalReference( final String proposedUuid ) {
         CheckArg.isNotNull(proposedUuid, "proposedUuid");
-        String mmuuid = null;
         final int index = proposedUuid.indexOf(CoreLexicon.ModelId.MM_HREF_PREFIX);
+        final int start = ((index == -1) ? 0 : (index + CoreLexicon.ModelId.MM_HREF_PREFIX.length()));
+        final int length = (proposedUuid.length() - start);
 
-        if (index != -1) {
-            // It's a local reference ...
-            try {
-                mmuuid = UUID.fromString(proposedUuid.substring(index + CoreLexicon.ModelId.MM_HREF_PREFIX.length())).toString();
-            } catch (final IllegalArgumentException e) {
-                // ignore
-            }
-        } else {
-            try {
-                mmuuid = UUID.fromString(proposedUuid).toString();
-            } catch (final IllegalArgumentException e) {
-                // ignore
-            }
+        if (!UuidMap.parse(proposedUuid, start, proposedUuid.length(), this.parsed)) {
+            return null;
+        }
+
+        // canonical form only needs the case normalized, which does not copy when already lower case
+        if (length == CANONICAL_UUID_LENGTH) {
+            return ((start == 0) ? proposedUuid : proposedUuid.substring(start)).toLowerCase();
         }
 
-        return mmuuid;
+        return UuidMap.toString(this.parsed[0], this.parsed[1]);
     }
 
     final class UnresolvedProperty {
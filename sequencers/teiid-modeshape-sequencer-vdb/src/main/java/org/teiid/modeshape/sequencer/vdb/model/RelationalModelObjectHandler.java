@@ -46,11 +46,12 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
 
     /**
      * @see org.teiid.modeshape.sequencer.vdb.model.ModelObjectHandler#process(org.teiid.modeshape.sequencer.vdb.xmi.XmiElement,
-     *      javax.jcr.Node)
+     *      javax.jcr.Node, org.teiid.modeshape.sequencer.vdb.model.ModelContext)
      */
     @Override
     protected void process( final XmiElement element,
-                            final Node parentNode ) throws Exception {
+                            final Node parentNode,
+                            final ModelContext context ) throws Exception {
         // Note: As of Sep 2011 Schema and Catalog no long can be created using Designer
 
         CheckArg.isNotNull(element, "element");
@@ -61,80 +62,82 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
         final String type = element.getName();
 
         if (ModelId.BASE_TABLE.equals(type)) {
-            final Node tableNode = addNode(parentNode, element, URI, JcrId.BASE_TABLE);
-            processTable(element, tableNode);
+            final Node tableNode = addNode(parentNode, element, URI, JcrId.BASE_TABLE, context);
+            processTable(element, tableNode, context);
         } else if (ModelId.ACCESS_PATTERNS.equals(type) || ModelId.ACCESS_PATTERN.equals(type)) {
-            final Node accessPatternNode = addNode(parentNode, element, URI, JcrId.ACCESS_PATTERN);
-            processAccessPattern(element, accessPatternNode);
+            final Node accessPatternNode = addNode(parentNode, element, URI, JcrId.ACCESS_PATTERN, context);
+            processAccessPattern(element, accessPatternNode, context);
         } else if (ModelId.CATALOG.equals(type)) {
-            final Node catalogNode = addNode(parentNode, element, URI, JcrId.CATALOG);
-            processCatalog(element, catalogNode);
+            final Node catalogNode = addNode(parentNode, element, URI, JcrId.CATALOG, context);
+            processCatalog(element, catalogNode, context);
         } else if (ModelId.INDEXES.equals(type) || ModelId.INDEX.equals(type)) {
-            final Node indexNode = addNode(parentNode, element, URI, JcrId.INDEX);
-            processIndex(element, indexNode);
+            final Node indexNode = addNode(parentNode, element, URI, JcrId.INDEX, context);
+            processIndex(element, indexNode, context);
         } else if (ModelId.COLUMNS.equals(type)) {
-            final Node columnNode = addNode(parentNode, element, URI, JcrId.COLUMN);
-            processColumn(element, columnNode);
+            final Node columnNode = addNode(parentNode, element, URI, JcrId.COLUMN, context);
+            processColumn(element, columnNode, context);
         } else if (ModelId.FOREIGN_KEYS.equals(type)) {
-            final Node foreignKeyNode = addNode(parentNode, element, URI, JcrId.FOREIGN_KEY);
-            processForeignKey(element, foreignKeyNode);
+            final Node foreignKeyNode = addNode(parentNode, element, URI, JcrId.FOREIGN_KEY, context);
+            processForeignKey(element, foreignKeyNode, context);
         } else if (ModelId.PRIMARY_KEY.equals(type)) {
-            final Node primaryKeyNode = addNode(parentNode, element, URI, JcrId.PRIMARY_KEY);
-            processUniqueKey(element, primaryKeyNode);
+            final Node primaryKeyNode = addNode(parentNode, element, URI, JcrId.PRIMARY_KEY, context);
+            processUniqueKey(element, primaryKeyNode, context);
         } else if (ModelId.PROCEDURE_PARAMETER.equals(type)) {
-            final Node procedureParameterNode = addNode(parentNode, element, URI, JcrId.PROCEDURE_PARAMETER);
-            processProcedureParameter(element, procedureParameterNode);
+            final Node procedureParameterNode = addNode(parentNode, element, URI, JcrId.PROCEDURE_PARAMETER, context);
+            processProcedureParameter(element, procedureParameterNode, context);
         } else if (ModelId.PROCEDURE_RESULT.equals(type)) {
-            final Node procedureResultNode = addNode(parentNode, element, URI, JcrId.PROCEDURE_RESULT);
-            processColumnSet(element, procedureResultNode);
+            final Node procedureResultNode = addNode(parentNode, element, URI, JcrId.PROCEDURE_RESULT, context);
+            processColumnSet(element, procedureResultNode, context);
         } else if (ModelId.PROCEDURES.equals(type) || ModelId.PROCEDURE.equals(type)) {
-            final Node procedureNode = addNode(parentNode, element, URI, JcrId.PROCEDURE);
-            processProcedure(element, procedureNode);
+            final Node procedureNode = addNode(parentNode, element, URI, JcrId.PROCEDURE, context);
+            processProcedure(element, procedureNode, context);
         } else if (ModelId.SCHEMAS.equals(type) || ModelId.SCHEMA.equals(type)) {
-            final Node schemaNode = addNode(parentNode, element, URI, JcrId.SCHEMA);
-            processSchema(element, schemaNode);
+            final Node schemaNode = addNode(parentNode, element, URI, JcrId.SCHEMA, context);
+            processSchema(element, schemaNode, context);
         } else if (ModelId.TABLES.equals(type)) {
             Node tableNode = null;
             final String xsiType = element.getAttributeValue(XsiLexicon.ModelId.TYPE, XsiLexicon.Namespace.URI);
             final String[] parts = xsiType.split(":");
 
             if ((parts.length == 2) && ModelId.BASE_TABLE.equals(parts[1])) {
-                tableNode = addNode(parentNode, element, URI, JcrId.BASE_TABLE);
-                processTable(element, tableNode);
+                tableNode = addNode(parentNode, element, URI, JcrId.BASE_TABLE, context);
+                processTable(element, tableNode, context);
             } else if ((parts.length == 2) && ModelId.TABLES_VIEW.equals(parts[1])) {
-                tableNode = addNode(parentNode, element, URI, JcrId.VIEW);
-                processTable(element, tableNode);
+                tableNode = addNode(parentNode, element, URI, JcrId.VIEW, context);
+                processTable(element, tableNode, context);
             } else {
                 LOGGER.debug("**** relational '{0}' type + of '{1}' was not processed", ModelId.TABLES, xsiType);
             }
         } else if (ModelId.TYPE.equals(type)) {
-            processType(element, parentNode);
+            processType(element, parentNode, context);
         } else if (ModelId.UNIQUE_CONSTRAINT.equals(type)) {
-            final Node uniqueConstraintNode = addNode(parentNode, element, URI, JcrId.UNIQUE_CONSTRAINT);
-            processUniqueKey(element, uniqueConstraintNode);
+            final Node uniqueConstraintNode = addNode(parentNode, element, URI, JcrId.UNIQUE_CONSTRAINT, context);
+            processUniqueKey(element, uniqueConstraintNode, context);
         } else if (ModelId.VIEW.equals(type)) {
-            final Node viewNode = addNode(parentNode, element, URI, JcrId.VIEW);
-            processTable(element, viewNode);
+            final Node viewNode = addNode(parentNode, element, URI, JcrId.VIEW, context);
+            processTable(element, viewNode, context);
         } else {
             LOGGER.debug("**** relational type of '{0}' was not processed", type);
         }
     }
 
     private void processAccessPattern( final XmiElement accessPatternElement,
-                                       final Node accessPatternNode ) throws Exception {
+                                       final Node accessPatternNode,
+                                       final ModelContext context ) throws Exception {
         // set inherited properties
-        processRelationalEntity(accessPatternElement, accessPatternNode);
+        processRelationalEntity(accessPatternElement, accessPatternNode, context);
 
         // - relational:columns (UNDEFINED) multiple
-        processColumnsAttribute(accessPatternElement, accessPatternNode);
+        processColumnsAttribute(accessPatternElement, accessPatternNode, context);
     }
 
     private void processAccessPatternsAttribute( final XmiElement columnElement,
-                                                 final Node columnNode ) throws Exception {
+                                                 final Node columnNode,
+                                                 final ModelContext context ) throws Exception {
         final String accessPatterns = columnElement.getAttributeValue(ModelId.COLUMNS, URI);
 
         if (!StringUtil.isBlank(accessPatterns)) {
-            final ReferenceResolver resolver = getResolver();
+            final ReferenceResolver resolver = context.getResolver();
             final ValueFactory valueFactory = columnNode.getSession().getValueFactory();
 
             for (final String accessPatternRef : accessPatterns.split("\\s")) {
@@ -156,14 +159,14 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
                 }
 
                 // - relational:accessPatternHrefs (string) multiple
-                addPropertyValue(columnNode, JcrId.ACCESS_PATTERN_HREFS, accessPatternRef);
+                addPropertyValue(columnNode, JcrId.ACCESS_PATTERN_HREFS, accessPatternRef, context);
 
                 // - relational:accessPatternXmiUuids (string) multiple
-                addPropertyValue(columnNode, JcrId.ACCESS_PATTERN_XMI_UUIDS, accessPatternUuid);
+                addPropertyValue(columnNode, JcrId.ACCESS_PATTERN_XMI_UUIDS, accessPatternUuid, context);
 
                 // - relational:accessPatternNames (string) multiple
                 if (accessPatternNode != null) {
-                    addPropertyValue(columnNode, JcrId.ACCESS_PATTERN_NAMES, accessPatternNode.getName());
+                    addPropertyValue(columnNode, JcrId.ACCESS_PATTERN_NAMES, accessPatternNode.getName(), context);
                 } else if (unresolved != null) {
                     unresolved.addResolvedName(columnElement.getUuid(), JcrId.ACCESS_PATTERN_NAMES);
                 } else {
@@ -174,16 +177,18 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
     }
 
     private void processCatalog( final XmiElement catalogElement,
-                                 final Node catalogNode ) throws Exception {
+                                 final Node catalogNode,
+                                 final ModelContext context ) throws Exception {
         // set inherited properties
-        processRelationalEntity(catalogElement, catalogNode);
+        processRelationalEntity(catalogElement, catalogNode, context);
 
         // no properties to process so just process children
-        processChildren(catalogElement, catalogNode);
+        processChildren(catalogElement, catalogNode, context);
     }
 
     private void processChildren( final XmiElement element,
                                   final Node parentNode,
+                                  final ModelContext context,
                                   final String... childTypes ) throws Exception {
         Collection<String> types = null;
 
@@ -193,120 +198,128 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
 
         for (final XmiElement kid : element.getChildren()) {
             if ((types == null) || types.isEmpty()) {
-                process(kid, parentNode);
+                process(kid, parentNode, context);
             } else if (types.contains(kid.getName())) {
-                process(kid, parentNode);
+                process(kid, parentNode, context);
             }
         }
     }
 
     private void processColumn( final XmiElement columnElement,
-                                final Node columnNode ) throws Exception {
+                                final Node columnNode,
+                                final ModelContext context ) throws Exception {
         // set inherited properties
-        processRelationalEntity(columnElement, columnNode);
+        processRelationalEntity(columnElement, columnNode, context);
 
         // - relational:nativeType (string)
-        setProperty(columnNode, JcrId.NATIVE_TYPE, columnElement.getAttributeValue(ModelId.NATIVE_TYPE, URI));
+        setProperty(columnNode, JcrId.NATIVE_TYPE, columnElement.getAttributeValue(ModelId.NATIVE_TYPE, URI), context);
 
         // - relational:length (long)
-        setProperty(columnNode, JcrId.LENGTH, columnElement.getAttributeValue(ModelId.LENGTH, URI));
+        setProperty(columnNode, JcrId.LENGTH, columnElement.getAttributeValue(ModelId.LENGTH, URI), context);
 
         // - relational:fixedLength (boolean)
-        setProperty(columnNode, JcrId.FIXED_LENGTH, columnElement.getAttributeValue(ModelId.FIXED_LENGTH, URI));
+        setProperty(columnNode, JcrId.FIXED_LENGTH, columnElement.getAttributeValue(ModelId.FIXED_LENGTH, URI), context);
 
         // - relational:precision (long)
-        setProperty(columnNode, JcrId.PRECISION, columnElement.getAttributeValue(ModelId.PRECISION, URI));
+        setProperty(columnNode, JcrId.PRECISION, columnElement.getAttributeValue(ModelId.PRECISION, URI), context);
 
         // - relational:scale (long)
-        setProperty(columnNode, JcrId.SCALE, columnElement.getAttributeValue(ModelId.SCALE, URI));
+        setProperty(columnNode, JcrId.SCALE, columnElement.getAttributeValue(ModelId.SCALE, URI), context);
 
         // - relational:nullable (string) = 'NULLABLE' < 'NO_NULLS', 'NULLABLE', 'NULLABLE_UNKNOWN'
-        setProperty(columnNode, JcrId.NULLABLE, columnElement.getAttributeValue(ModelId.NULLABLE, URI));
+        setProperty(columnNode, JcrId.NULLABLE, columnElement.getAttributeValue(ModelId.NULLABLE, URI), context);
 
         // - relational:autoIncremented (boolean) = 'false'
-        setProperty(columnNode, JcrId.AUTO_INCREMENTED, columnElement.getAttributeValue(ModelId.AUTO_INCREMENTED, URI));
+        setProperty(columnNode, JcrId.AUTO_INCREMENTED, columnElement.getAttributeValue(ModelId.AUTO_INCREMENTED, URI), context);
 
         // - relational:defaultValue (string)
-        setProperty(columnNode, JcrId.DEFAULT_VALUE, columnElement.getAttributeValue(ModelId.DEFAULT_VALUE, URI));
+        setProperty(columnNode, JcrId.DEFAULT_VALUE, columnElement.getAttributeValue(ModelId.DEFAULT_VALUE, URI), context);
 
         // - relational:minimumValue (string)
-        setProperty(columnNode, JcrId.MIN_VALUE, columnElement.getAttributeValue(ModelId.MIN_VALUE, URI));
+        setProperty(columnNode, JcrId.MIN_VALUE, columnElement.getAttributeValue(ModelId.MIN_VALUE, URI), context);
 
         // - relational:maximumValue (string)
-        setProperty(columnNode, JcrId.MAX_VALUE, columnElement.getAttributeValue(ModelId.MAX_VALUE, URI));
+        setProperty(columnNode, JcrId.MAX_VALUE, columnElement.getAttributeValue(ModelId.MAX_VALUE, URI), context);
 
         // - relational:format (string)
-        setProperty(columnNode, JcrId.FORMAT, columnElement.getAttributeValue(ModelId.FORMAT, URI));
+        setProperty(columnNode, JcrId.FORMAT, columnElement.getAttributeValue(ModelId.FORMAT, URI), context);
 
         // - relational:characterSetName (string)
-        setProperty(columnNode, JcrId.CHARACTER_SET_NAME, columnElement.getAttributeValue(ModelId.CHARACTER_SET_NAME, URI));
+        setProperty(columnNode,
+                    JcrId.CHARACTER_SET_NAME,
+                    columnElement.getAttributeValue(ModelId.CHARACTER_SET_NAME, URI),
+                    context);
 
         // - relational:collationName (string)
-        setProperty(columnNode, JcrId.COLLATION_NAME, columnElement.getAttributeValue(ModelId.COLLATION_NAME, URI));
+        setProperty(columnNode, JcrId.COLLATION_NAME, columnElement.getAttributeValue(ModelId.COLLATION_NAME, URI), context);
 
         // - relational:selectable (boolean) = 'true'
-        setProperty(columnNode, JcrId.SELECTABLE, columnElement.getAttributeValue(ModelId.SELECTABLE, URI));
+        setProperty(columnNode, JcrId.SELECTABLE, columnElement.getAttributeValue(ModelId.SELECTABLE, URI), context);
 
         // - relational:updateable (boolean) = 'true'
-        setProperty(columnNode, JcrId.UPDATEABLE, columnElement.getAttributeValue(ModelId.UPDATEABLE, URI));
+        setProperty(columnNode, JcrId.UPDATEABLE, columnElement.getAttributeValue(ModelId.UPDATEABLE, URI), context);
 
         // - relational:caseSensitive (boolean) = 'true'
-        setProperty(columnNode, JcrId.CASE_SENSITIVE, columnElement.getAttributeValue(ModelId.CASE_SENSITIVE, URI));
+        setProperty(columnNode, JcrId.CASE_SENSITIVE, columnElement.getAttributeValue(ModelId.CASE_SENSITIVE, URI), context);
 
         // - relational:searchability (string) = 'SEARCHABLE' < 'SEARCHABLE', 'ALL_EXCEPT_LIKE', 'LIKE_ONLY', 'UNSEARCHABLE'
-        setProperty(columnNode, JcrId.SEARCHABILITY, columnElement.getAttributeValue(ModelId.SEARCHABILITY, URI));
+        setProperty(columnNode, JcrId.SEARCHABILITY, columnElement.getAttributeValue(ModelId.SEARCHABILITY, URI), context);
 
         // - relational:currency (boolean) = 'false'
-        setProperty(columnNode, JcrId.CURRENCY, columnElement.getAttributeValue(ModelId.CURRENCY, URI));
+        setProperty(columnNode, JcrId.CURRENCY, columnElement.getAttributeValue(ModelId.CURRENCY, URI), context);
 
         // - relational:radix (long) = '10'
-        setProperty(columnNode, JcrId.RADIX, columnElement.getAttributeValue(ModelId.RADIX, URI));
+        setProperty(columnNode, JcrId.RADIX, columnElement.getAttributeValue(ModelId.RADIX, URI), context);
 
         // - relational:signed (boolean) = 'true'
-        setProperty(columnNode, JcrId.SIGNED, columnElement.getAttributeValue(ModelId.SIGNED, URI));
+        setProperty(columnNode, JcrId.SIGNED, columnElement.getAttributeValue(ModelId.SIGNED, URI), context);
 
         // - relational:distinctValueCount (long) = '-1'
-        setProperty(columnNode, JcrId.DISTINCT_VALUE_COUNT, columnElement.getAttributeValue(ModelId.DISTINCT_VALUE_COUNT, URI));
+        setProperty(columnNode,
+                    JcrId.DISTINCT_VALUE_COUNT,
+                    columnElement.getAttributeValue(ModelId.DISTINCT_VALUE_COUNT, URI),
+                    context);
 
         // - relational:nullValueCount (long) = '-1'
-        setProperty(columnNode, JcrId.NULL_VALUE_COUNT, columnElement.getAttributeValue(ModelId.NULL_VALUE_COUNT, URI));
+        setProperty(columnNode, JcrId.NULL_VALUE_COUNT, columnElement.getAttributeValue(ModelId.NULL_VALUE_COUNT, URI), context);
 
         // - relational:uniqueKeys (weakreference) multiple
         // - relational:uniqueKeyHrefs (string) multiple
         // - relational:uniqueKeyXmiUuids (string) multiple
         // - relational:uniqueKeyNames (string) multiple
-        processUniqueKeysAttribute(columnElement, columnNode);
+        processUniqueKeysAttribute(columnElement, columnNode, context);
 
         // - relational:indexes (weakreference) multiple
         // - relational:indexHrefs (string) multiple
         // - relational:indexXmiUuids (string) multiple
         // - relational:indexNames (string) multiple
-        processIndexesAttribute(columnElement, columnNode);
+        processIndexesAttribute(columnElement, columnNode, context);
 
         // - relational:foreignKeys (weakreference) multiple
         // - relational:foreignKeyHrefs (string) multiple
         // - relational:foreignKeyXmiUuids (string) multiple
         // - relational:foreignKeyNames (string) multiple
-        processForeignKeysAttribute(columnElement, columnNode);
+        processForeignKeysAttribute(columnElement, columnNode, context);
 
         // - relational:accessPatterns (weakreference) multiple
         // - relational:accessPatternHrefs (string) multiple
         // - relational:accessPatternXmiUuids (string) multiple
         // - relational:accessPatternNames (string) multiple
-        processAccessPatternsAttribute(columnElement, columnNode);
+        processAccessPatternsAttribute(columnElement, columnNode, context);
 
         // - relational:type (weakreference)
         // - relational:typeXmiUuid (string)
         // - relational:typeName (string)
-        processChildren(columnElement, columnNode, ModelId.TYPE);
+        processChildren(columnElement, columnNode, context, ModelId.TYPE);
     }
 
     private void processColumnsAttribute( final XmiElement element,
-                                          final Node node ) throws Exception {
+                                          final Node node,
+                                          final ModelContext context ) throws Exception {
         final String columns = element.getAttributeValue(ModelId.COLUMNS, URI);
 
         if (!StringUtil.isBlank(columns)) {
-            final ReferenceResolver resolver = getResolver();
+            final ReferenceResolver resolver = context.getResolver();
             final ValueFactory valueFactory = node.getSession().getValueFactory();
 
             for (final String columnRef : columns.split("\\s")) {
@@ -328,11 +341,11 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
                 }
 
                 // - relational:columnXmiUuids (string) multiple
-                addPropertyValue(node, JcrId.COLUMN_XMI_UUIDS, columnUuid);
+                addPropertyValue(node, JcrId.COLUMN_XMI_UUIDS, columnUuid, context);
 
                 // - relational:columnNames (string) multiple
                 if (columnNode != null) {
-                    addPropertyValue(node, JcrId.COLUMN_NAMES, columnNode.getName());
+                    addPropertyValue(node, JcrId.COLUMN_NAMES, columnNode.getName(), context);
                 } else if (unresolved != null) {
                     unresolved.addResolvedName(element.getUuid(), JcrId.COLUMN_NAMES);
                 } else {
@@ -343,49 +356,54 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
     }
 
     private void processColumnSet( final XmiElement columnSetElement,
-                                   final Node columnSetNode ) throws Exception {
+                                   final Node columnSetNode,
+                                   final ModelContext context ) throws Exception {
         // set inherited properties
-        processRelationalEntity(columnSetElement, columnSetNode);
+        processRelationalEntity(columnSetElement, columnSetNode, context);
 
         // no properties
 
         // + * (relational:column) = relational:column copy
-        processChildren(columnSetElement, columnSetNode, ModelId.COLUMNS);
+        processChildren(columnSetElement, columnSetNode, context, ModelId.COLUMNS);
     }
 
     private void processForeignKey( final XmiElement foreignKeyElement,
-                                    final Node foreignKeyNode ) throws Exception {
+                                    final Node foreignKeyNode,
+                                    final ModelContext context ) throws Exception {
         // set inherited properties
-        processRelationalEntity(foreignKeyElement, foreignKeyNode);
+        processRelationalEntity(foreignKeyElement, foreignKeyNode, context);
 
         // - relational:foreignKeyMultiplicity (string)
         setProperty(foreignKeyNode,
                     JcrId.FOREIGN_KEY_MULTIPLICITY,
-                    foreignKeyElement.getAttributeValue(ModelId.FOREIGN_KEY_MULTIPLICITY, URI));
+                    foreignKeyElement.getAttributeValue(ModelId.FOREIGN_KEY_MULTIPLICITY, URI),
+                    context);
 
         // - relational:primaryKeyMultiplicity (string)
         setProperty(foreignKeyNode,
                     JcrId.PRIMARY_KEY_MULTIPLICITY,
-                    foreignKeyElement.getAttributeValue(ModelId.PRIMARY_KEY_MULTIPLICITY, URI));
+                    foreignKeyElement.getAttributeValue(ModelId.PRIMARY_KEY_MULTIPLICITY, URI),
+                    context);
 
         // - relational:columns (weakreference) multiple
         // - relational:columnXmiUuids (string) multiple
         // - relational:columnNames (string) multiple
-        processColumnsAttribute(foreignKeyElement, foreignKeyNode);
+        processColumnsAttribute(foreignKeyElement, foreignKeyNode, context);
 
         // - relational:uniqueKeys (weakreference) multiple
         // - relational:uniqueKeyHrefs (string) multiple
         // - relational:uniqueKeyXmiUuids (string) multiple
         // - relational:uniqueKeyNames (string) multiple
-        processUniqueKeysAttribute(foreignKeyElement, foreignKeyNode);
+        processUniqueKeysAttribute(foreignKeyElement, foreignKeyNode, context);
     }
 
     private void processForeignKeysAttribute( final XmiElement element,
-                                              final Node node ) throws Exception {
+                                              final Node node,
+                                              final ModelContext context ) throws Exception {
         final String foreignKeys = element.getAttributeValue(ModelId.FOREIGN_KEYS, URI);
 
         if (!StringUtil.isBlank(foreignKeys)) {
-            final ReferenceResolver resolver = getResolver();
+            final ReferenceResolver resolver = context.getResolver();
             final ValueFactory valueFactory = node.getSession().getValueFactory();
 
             for (final String foreignKeyRef : foreignKeys.split("\\s")) {
@@ -407,14 +425,14 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
                 }
 
                 // - relational:foreignKeyXmiUuids (string) multiple
-                addPropertyValue(node, JcrId.FOREIGN_KEY_XMI_UUIDS, foreignKeyUuid);
+                addPropertyValue(node, JcrId.FOREIGN_KEY_XMI_UUIDS, foreignKeyUuid, context);
 
                 // - relational:foreignKeyHrefs (string) multiple
-                addPropertyValue(node, JcrId.FOREIGN_KEY_HREFS, foreignKeyRef);
+                addPropertyValue(node, JcrId.FOREIGN_KEY_HREFS, foreignKeyRef, context);
 
                 // - relational:foreignKeyNames (string) multiple
                 if (foreignKeyNode != null) {
-                    addPropertyValue(node, JcrId.UNIQUE_KEY_NAMES, foreignKeyNode.getName());
+                    addPropertyValue(node, JcrId.UNIQUE_KEY_NAMES, foreignKeyNode.getName(), context);
                 } else if (unresolved != null) {
                     unresolved.addResolvedName(element.getUuid(), JcrId.FOREIGN_KEY_NAMES);
                 } else {
@@ -425,34 +443,36 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
     }
 
     private void processIndex( final XmiElement indexElement,
-                               final Node indexNode ) throws Exception {
+                               final Node indexNode,
+                               final ModelContext context ) throws Exception {
         // set inherited properties
-        processRelationalEntity(indexElement, indexNode);
+        processRelationalEntity(indexElement, indexNode, context);
 
         // - relational:filterCondition (string)
-        setProperty(indexNode, JcrId.FILTER_CONDITION, indexElement.getAttributeValue(ModelId.FILTER_CONDITION, URI));
+        setProperty(indexNode, JcrId.FILTER_CONDITION, indexElement.getAttributeValue(ModelId.FILTER_CONDITION, URI), context);
 
         // - relational:nullable (boolean) = 'true'
-        setProperty(indexNode, JcrId.NULLABLE, indexElement.getAttributeValue(ModelId.NULLABLE, URI));
+        setProperty(indexNode, JcrId.NULLABLE, indexElement.getAttributeValue(ModelId.NULLABLE, URI), context);
 
         // - relational:autoUpdate (boolean)
-        setProperty(indexNode, JcrId.AUTO_UPDATE, indexElement.getAttributeValue(ModelId.AUTO_UPDATE, URI));
+        setProperty(indexNode, JcrId.AUTO_UPDATE, indexElement.getAttributeValue(ModelId.AUTO_UPDATE, URI), context);
 
         // - relational:unique (boolean)
-        setProperty(indexNode, JcrId.UNIQUE, indexElement.getAttributeValue(ModelId.UNIQUE, URI));
+        setProperty(indexNode, JcrId.UNIQUE, indexElement.getAttributeValue(ModelId.UNIQUE, URI), context);
 
         // - relational:columns (weakreference) multiple
         // - relational:columnXmiUuids (string) multiple
         // - relational:columnNames (string) multiple
-        processColumnsAttribute(indexElement, indexNode);
+        processColumnsAttribute(indexElement, indexNode, context);
     }
 
     private void processIndexesAttribute( final XmiElement columnElement,
-                                          final Node columnNode ) throws Exception {
+                                          final Node columnNode,
+                                          final ModelContext context ) throws Exception {
         final String indexes = columnElement.getAttributeValue(ModelId.INDEXES, URI);
 
         if (!StringUtil.isBlank(indexes)) {
-            final ReferenceResolver resolver = getResolver();
+            final ReferenceResolver resolver = context.getResolver();
             final ValueFactory valueFactory = columnNode.getSession().getValueFactory();
 
             for (final String indexRef : indexes.split("\\s")) {
@@ -474,14 +494,14 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
                 }
 
                 // - relational:indexXmiUuids (string) multiple
-                addPropertyValue(columnNode, JcrId.INDEX_XMI_UUIDS, indexUuid);
+                addPropertyValue(columnNode, JcrId.INDEX_XMI_UUIDS, indexUuid, context);
 
                 // - relational:indexHrefs (string) multiple
-                addPropertyValue(columnNode, JcrId.INDEX_HREFS, indexRef);
+                addPropertyValue(columnNode, JcrId.INDEX_HREFS, indexRef, context);
 
                 // - relational:indexNames (string) multiple
                 if (indexNode != null) {
-                    addPropertyValue(columnNode, JcrId.INDEX_NAMES, indexNode.getName());
+                    addPropertyValue(columnNode, JcrId.INDEX_NAMES, indexNode.getName(), context);
                 } else if (unresolved != null) {
                     unresolved.addResolvedName(columnElement.getUuid(), JcrId.INDEX_NAMES);
                 } else {
@@ -492,100 +512,126 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
     }
 
     private void processProcedure( final XmiElement procedureElement,
-                                   final Node procedureNode ) throws Exception {
+                                   final Node procedureNode,
+                                   final ModelContext context ) throws Exception {
         // set inherited properties
-        processRelationalEntity(procedureElement, procedureNode);
+        processRelationalEntity(procedureElement, procedureNode, context);
 
         // - relational:function (boolean)
-        setProperty(procedureNode, JcrId.FUNCTION, procedureElement.getAttributeValue(ModelId.FUNCTION, URI));
+        setProperty(procedureNode, JcrId.FUNCTION, procedureElement.getAttributeValue(ModelId.FUNCTION, URI), context);
 
         // - relational:updateCount (string) < 'AUTO', 'ZERO', 'ONE', 'MULTIPLE'
-        setProperty(procedureNode, JcrId.UPDATE_COUNT, procedureElement.getAttributeValue(ModelId.UPDATE_COUNT, URI));
+        setProperty(procedureNode, JcrId.UPDATE_COUNT, procedureElement.getAttributeValue(ModelId.UPDATE_COUNT, URI), context);
 
         // + * (relational:procedureParameter) = relational:procedureParameter copy sns
         // + * (relational:procedureResult) = relational:procedureResult copy
-        processChildren(procedureElement, procedureNode, ModelId.PROCEDURE_PARAMETER, ModelId.PROCEDURE_RESULT);
+        processChildren(procedureElement, procedureNode, context, ModelId.PROCEDURE_PARAMETER, ModelId.PROCEDURE_RESULT);
     }
 
     private void processProcedureParameter( final XmiElement procedureParameterElement,
-                                            final Node procedureParameterNode ) throws Exception {
+                                            final Node procedureParameterNode,
+                                            final ModelContext context ) throws Exception {
         // set inherited properties
-        processRelationalEntity(procedureParameterElement, procedureParameterNode);
+        processRelationalEntity(procedureParameterElement, procedureParameterNode, context);
 
         // - relational:direction (string) < 'IN', 'OUT', 'INOUT', 'RETURN', 'UNKNOWN'
-        setProperty(procedureParameterNode, JcrId.DIRECTION, procedureParameterElement.getAttributeValue(ModelId.DIRECTION, URI));
+        setProperty(procedureParameterNode,
+                    JcrId.DIRECTION,
+                    procedureParameterElement.getAttributeValue(ModelId.DIRECTION, URI),
+                    context);
 
         // - relational:defaultValue (string)
         setProperty(procedureParameterNode,
                     JcrId.DEFAULT_VALUE,
-                    procedureParameterElement.getAttributeValue(ModelId.DEFAULT_VALUE, URI));
+                    procedureParameterElement.getAttributeValue(ModelId.DEFAULT_VALUE, URI),
+                    context);
 
         // - relational:nativeType (string)
         setProperty(procedureParameterNode,
                     JcrId.NATIVE_TYPE,
-                    procedureParameterElement.getAttributeValue(ModelId.NATIVE_TYPE, URI));
+                    procedureParameterElement.getAttributeValue(ModelId.NATIVE_TYPE, URI),
+                    context);
 
         // - relational:length (long)
-        setProperty(procedureParameterNode, JcrId.LENGTH, procedureParameterElement.getAttributeValue(ModelId.LENGTH, URI));
+        setProperty(procedureParameterNode,
+                    JcrId.LENGTH,
+                    procedureParameterElement.getAttributeValue(ModelId.LENGTH, URI),
+                    context);
 
         // - relational:precision (long)
-        setProperty(procedureParameterNode, JcrId.PRECISION, procedureParameterElement.getAttributeValue(ModelId.PRECISION, URI));
+        setProperty(procedureParameterNode,
+                    JcrId.PRECISION,
+                    procedureParameterElement.getAttributeValue(ModelId.PRECISION, URI),
+                    context);
 
         // - relational:scale (long)
-        setProperty(procedureParameterNode, JcrId.SCALE, procedureParameterElement.getAttributeValue(ModelId.SCALE, URI));
+        setProperty(procedureParameterNode,
+                    JcrId.SCALE,
+                    procedureParameterElement.getAttributeValue(ModelId.SCALE, URI),
+                    context);
 
         // - relational:nullable (string) = 'NULLABLE' < 'NO_NULLS', 'NULLABLE', 'NULLABLE_UNKNOWN'
-        setProperty(procedureParameterNode, JcrId.NULLABLE, procedureParameterElement.getAttributeValue(ModelId.NULLABLE, URI));
+        setProperty(procedureParameterNode,
+                    JcrId.NULLABLE,
+                    procedureParameterElement.getAttributeValue(ModelId.NULLABLE, URI),
+                    context);
 
         // - relational:radix (long) = '10'
-        setProperty(procedureParameterNode, JcrId.RADIX, procedureParameterElement.getAttributeValue(ModelId.RADIX, URI));
+        setProperty(procedureParameterNode,
+                    JcrId.RADIX,
+                    procedureParameterElement.getAttributeValue(ModelId.RADIX, URI),
+                    context);
 
         // - relational:type (weakreference)
         // - relational:typeXmiUuid (string)
         // - relational:typeName (string)
-        processChildren(procedureParameterElement, procedureParameterNode, ModelId.TYPE);
+        processChildren(procedureParameterElement, procedureParameterNode, context, ModelId.TYPE);
     }
 
     private void processRelationalEntity( final XmiElement element,
-                                          final Node node ) throws Exception {
+                                          final Node node,
+                                          final ModelContext context ) throws Exception {
         // set inherited properties
-        processXmiReferenceable(element, node);
+        processXmiReferenceable(element, node, context);
 
         // - relational:nameInSource (string)
-        setProperty(node, JcrId.NAME_IN_SOURCE, element.getAttributeValue(ModelId.NAME_IN_SOURCE, URI));
+        setProperty(node, JcrId.NAME_IN_SOURCE, element.getAttributeValue(ModelId.NAME_IN_SOURCE, URI), context);
     }
 
     private void processSchema( final XmiElement schemaElement,
-                                final Node schemaNode ) throws Exception {
+                                final Node schemaNode,
+                                final ModelContext context ) throws Exception {
         // set inherited properties
-        processRelationalEntity(schemaElement, schemaNode);
+        processRelationalEntity(schemaElement, schemaNode, context);
 
         // no properties to process so just process children
-        processChildren(schemaElement, schemaNode);
+        processChildren(schemaElement, schemaNode, context);
     }
 
     private void processTable( final XmiElement tableElement,
-                               final Node tableNode ) throws Exception {
+                               final Node tableNode,
+                               final ModelContext context ) throws Exception {
         // set inherited properties
-        processColumnSet(tableElement, tableNode);
+        processColumnSet(tableElement, tableNode, context);
 
         // - relational:system (boolean) = 'false'
-        setProperty(tableNode, JcrId.SYSTEM, tableElement.getAttributeValue(ModelId.SYSTEM, URI));
+        setProperty(tableNode, JcrId.SYSTEM, tableElement.getAttributeValue(ModelId.SYSTEM, URI), context);
 
         // - relational:cardinality (long)
-        setProperty(tableNode, JcrId.CARDINALITY, tableElement.getAttributeValue(ModelId.CARDINALITY, URI));
+        setProperty(tableNode, JcrId.CARDINALITY, tableElement.getAttributeValue(ModelId.CARDINALITY, URI), context);
 
         // - relational:supportsUpdate (boolean) = 'true'
-        setProperty(tableNode, JcrId.SUPPORTS_UPDATE, tableElement.getAttributeValue(ModelId.SUPPORTS_UPDATE, URI));
+        setProperty(tableNode, JcrId.SUPPORTS_UPDATE, tableElement.getAttributeValue(ModelId.SUPPORTS_UPDATE, URI), context);
 
         // - relational:materialized (boolean) = 'false'
-        setProperty(tableNode, JcrId.MATERIALIZED, tableElement.getAttributeValue(ModelId.MATERIALIZED, URI));
+        setProperty(tableNode, JcrId.MATERIALIZED, tableElement.getAttributeValue(ModelId.MATERIALIZED, URI), context);
 
         // + * (relational:primaryKey) = relational:primaryKey copy
         // + * (relational:foreignKey) = relational:foreignKey copy
         // + * (relational:accessPattern) = relational:accessPattern copy sns
         processChildren(tableElement,
                         tableNode,
+                        context,
                         ModelId.PRIMARY_KEY,
                         ModelId.FOREIGN_KEYS,
                         ModelId.ACCESS_PATTERN,
@@ -593,27 +639,28 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
     }
 
     private void processType( final XmiElement typeElement,
-                              final Node parentNode ) throws Exception {
+                              final Node parentNode,
+                              final ModelContext context ) throws Exception {
         final String href = typeElement.getAttributeValue(ModelId.HREF, URI);
 
         if (!StringUtil.isBlank(href)) {
             // - relational:typeHref (string)
-            setProperty(parentNode, JcrId.TYPE_HREF, href);
+            setProperty(parentNode, JcrId.TYPE_HREF, href, context);
 
             final String typeName = ReferenceResolver.STANDARD_DATA_TYPE_URLS_TO_NAMES.get(href);
 
             if (!StringUtil.isBlank(typeName)) {
                 // - relational:typeName (string)
-                setProperty(parentNode, JcrId.TYPE_NAME, typeName);
+                setProperty(parentNode, JcrId.TYPE_NAME, typeName, context);
 
                 // - relational:type (weakreference)
                 final String uuid = ReferenceResolver.STANDARD_DATA_TYPE_UUIDS_BY_NAMES.get(typeName);
-                final Node typeNode = getResolver().getNode(uuid);
+                final Node typeNode = context.getResolver().getNode(uuid);
 
                 if (typeNode == null) {
                     // type element may not have a UUID and then it is impossible to set weak reference
                     if (typeElement.getUuid() != null) {
-                        UnresolvedReference unresolved = getResolver().addUnresolvedReference(uuid);
+                        UnresolvedReference unresolved = context.getResolver().addUnresolvedReference(uuid);
                         unresolved.addReferencerReference(typeElement.getUuid(), JcrId.TYPE);
                     }
                 } else {
@@ -621,40 +668,42 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
                 }
 
                 // - relational:typeXmiUuid (string)
-                setProperty(parentNode, JcrId.TYPE_XMI_UUID, uuid);
+                setProperty(parentNode, JcrId.TYPE_XMI_UUID, uuid, context);
             }
         }
     }
 
     private void processUniqueKey( final XmiElement uniqueKeyElement,
-                                   final Node uniqueKeyNode ) throws Exception {
+                                   final Node uniqueKeyNode,
+                                   final ModelContext context ) throws Exception {
         assert (uniqueKeyElement != null);
         assert (uniqueKeyNode != null);
 
-        getResolver();
+        context.getResolver();
         uniqueKeyNode.getSession().getValueFactory();
 
         // set inherited properties
-        processRelationalEntity(uniqueKeyElement, uniqueKeyNode);
+        processRelationalEntity(uniqueKeyElement, uniqueKeyNode, context);
 
         // - relational:columns (weakreference) multiple
         // - relational:columnXmiUuids (string) multiple
         // - relational:columnNames (string) multiple
-        processColumnsAttribute(uniqueKeyElement, uniqueKeyNode);
+        processColumnsAttribute(uniqueKeyElement, uniqueKeyNode, context);
 
         // - relational:foreignKeys (weakreference) multiple
         // - relational:foreignKeyHrefs (string) multiple
         // - relational:foreignKeyXmiUuids (string) multiple
         // - relational:foreignKeyNames (string) multiple
-        processForeignKeysAttribute(uniqueKeyElement, uniqueKeyNode);
+        processForeignKeysAttribute(uniqueKeyElement, uniqueKeyNode, context);
     }
 
     private void processUniqueKeysAttribute( final XmiElement element,
-                                             final Node node ) throws Exception {
+                                             final Node node,
+                                             final ModelContext context ) throws Exception {
         final String uniqueKeys = element.getAttributeValue(ModelId.UNIQUE_KEYS, URI);
 
         if (!StringUtil.isBlank(uniqueKeys)) {
-            final ReferenceResolver resolver = getResolver();
+            final ReferenceResolver resolver = context.getResolver();
             final ValueFactory valueFactory = node.getSession().getValueFactory();
 
             for (final String uniqueKeyRef : uniqueKeys.split("\\s")) {
@@ -676,14 +725,14 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
                 }
 
                 // - relational:uniqueKeyXmiUuids (string) multiple
-                addPropertyValue(node, JcrId.UNIQUE_KEY_XMI_UUIDS, uniqueKeyUuid);
+                addPropertyValue(node, JcrId.UNIQUE_KEY_XMI_UUIDS, uniqueKeyUuid, context);
 
                 // - relational:uniqueKeyHrefs (string) multiple
-                addPropertyValue(node, JcrId.UNIQUE_KEY_HREFS, uniqueKeyRef);
+                addPropertyValue(node, JcrId.UNIQUE_KEY_HREFS, uniqueKeyRef, context);
 
                 // - relational:uniqueKeyNames (string) multiple
                 if (uniqueKeyNode != null) {
-                    addPropertyValue(node, JcrId.UNIQUE_KEY_NAMES, uniqueKeyNode.getName());
+                    addPropertyValue(node, JcrId.UNIQUE_KEY_NAMES, uniqueKeyNode.getName(), context);
                 } else if (unresolved != null) {
                     unresolved.addResolvedName(element.getUuid(), JcrId.UNIQUE_KEY_NAMES);
                 } else {
@@ -694,8 +743,9 @@ public final class RelationalModelObjectHandler extends ModelObjectHandler {
     }
 
     private void processXmiReferenceable( final XmiElement element,
-                                          final Node node ) throws Exception {
+                                          final Node node,
+                                          final ModelContext context ) throws Exception {
         // - xmi:uuid (string) mandatory
-        setProperty(node, XmiLexicon.JcrId.UUID, element.getUuid());
+        setProperty(node, XmiLexicon.JcrId.UUID, element.getUuid(), context);
     }
 }
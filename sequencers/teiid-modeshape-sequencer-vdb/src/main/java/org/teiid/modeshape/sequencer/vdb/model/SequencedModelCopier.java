@@ -0,0 +1,308 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.vdb.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.query.Query;
+import org.modeshape.common.annotation.NotThreadSafe;
+import org.modeshape.common.logging.Logger;
+import org.modeshape.common.util.CheckArg;
+import org.modeshape.jcr.api.JcrConstants;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.MetricsRegistry;
+import org.teiid.modeshape.sequencer.vdb.VdbModel;
+import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.XmiLexicon;
+
+/**
+ * Copies the nodes of a VDB model that was sequenced from a byte-identical model file, found by the content hash of the model
+ * file, instead of reading the model file again. The properties and child nodes that come from the VDB manifest are written from
+ * the new manifest. References are remapped to the copied nodes or, when they target another model, to the node of the current
+ * VDB having the same XMI UUID once all the models of the VDB have been written. One instance is used for each VDB.
+ */
+@NotThreadSafe
+public final class SequencedModelCopier {
+
+    private static final Logger LOGGER = Logger.getLogger(SequencedModelCopier.class);
+
+    private static final String HASH_VARIABLE = "hash";
+    private static final String PATH_VARIABLE = "path";
+
+    /**
+     * Finds the VDB models by content hash and path in the VDB. An index on the content hash property makes this query cheap.
+     */
+    private static final String PREVIOUS_MODELS_QUERY = "SELECT [jcr:path] FROM [" + VdbLexicon.Model.MODEL + "] WHERE ["
+                                                        + VdbLexicon.Model.CONTENT_HASH + "] = $" + HASH_VARIABLE + " AND ["
+                                                        + VdbLexicon.Model.PATH_IN_VDB + "] = $" + PATH_VARIABLE;
+
+    /**
+     * The model node properties written from the VDB manifest.
+     */
+    private static final Set<String> MANIFEST_PROPERTIES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            VdbLexicon.Model.BUILT_IN,
+            VdbLexicon.Model.CHECKSUM,
+            VdbLexicon.Model.CONTENT_HASH,
+            VdbLexicon.Model.DESCRIPTION,
+            VdbLexicon.Model.PATH_IN_VDB,
+            VdbLexicon.Model.VISIBLE)));
+
+    /**
+     * The model child nodes written from the VDB manifest.
+     */
+    private static final Set<String> MANIFEST_NODES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            VdbLexicon.Model.MARKERS,
+            VdbLexicon.Vdb.SOURCES)));
+
+    private final Node vdbOutputNode;
+    private final ReferenceResolver resolver;
+
+    // key = identifier of the previous node, value = copy
+    private final Map<String, Node> copies = new HashMap<>();
+
+    // the reference properties of the copies set once all the models of the VDB are written
+    private final List<PendingReference> pending = new ArrayList<>();
+
+    /**
+     * @param vdbOutputNode the output node of the VDB being sequenced (cannot be <code>null</code>)
+     * @param resolver the reference resolver of the VDB being sequenced (cannot be <code>null</code>)
+     */
+    public SequencedModelCopier( final Node vdbOutputNode,
+                                 final ReferenceResolver resolver ) {
+        CheckArg.isNotNull(vdbOutputNode, "vdbOutputNode");
+        CheckArg.isNotNull(resolver, "resolver");
+        this.vdbOutputNode = vdbOutputNode;
+        this.resolver = resolver;
+    }
+
+    /**
+     * @param previousModelNode the previously sequenced VDB model node whose content hash matches the model file (cannot be
+     *        <code>null</code>)
+     * @param modelOutputNode the VDB model node being written (cannot be <code>null</code>)
+     * @param vdbModel the VDB model from the manifest of the VDB being sequenced (cannot be <code>null</code>)
+     * @throws Exception if there is a problem copying the nodes or writing the VDB manifest properties
+     */
+    public void copy( final Node previousModelNode,
+                      final Node modelOutputNode,
+                      final VdbModel vdbModel ) throws Exception {
+        CheckArg.isNotNull(previousModelNode, "previousModelNode");
+        CheckArg.isNotNull(modelOutputNode, "modelOutputNode");
+        CheckArg.isNotNull(vdbModel, "vdbModel");
+
+        LOGGER.debug("copying model '{0}' from '{1}'", modelOutputNode.getPath(), previousModelNode.getPath());
+
+        copyContent(previousModelNode, modelOutputNode, true, vdbModel);
+        CoreModelObjectHandler.writeVdbModel(modelOutputNode, vdbModel);
+        MetricsRegistry.get().increment(MetricNames.VDB_MODELS_COPIED, 1);
+    }
+
+    private void copyContent( final Node source,
+                              final Node copy,
+                              final boolean modelNode,
+                              final VdbModel vdbModel ) throws Exception {
+        this.copies.put(source.getIdentifier(), copy);
+
+        for (final NodeType mixin : source.getMixinNodeTypes()) {
+            copy.addMixin(mixin.getName());
+        }
+
+        final boolean modelImport = source.isNodeType(CoreLexicon.JcrId.IMPORT);
+
+        for (final PropertyIterator itr = source.getProperties(); itr.hasNext();) {
+            final Property property = itr.nextProperty();
+            final String name = property.getName();
+
+            if (property.getDefinition().isProtected() || (modelNode && MANIFEST_PROPERTIES.contains(name))
+                || (modelImport && CoreLexicon.JcrId.PATH.equals(name))) {
+                continue;
+            }
+
+            final int type = property.getType();
+
+            if ((type == PropertyType.REFERENCE) || (type == PropertyType.WEAKREFERENCE)) {
+                this.pending.add(new PendingReference(copy, property));
+            } else if (property.isMultiple()) {
+                copy.setProperty(name, property.getValues());
+            } else {
+                copy.setProperty(name, property.getValue());
+            }
+
+            MetricsRegistry.get().increment(MetricNames.PROPERTIES_SET, 1);
+        }
+
+        if (copy.hasProperty(XmiLexicon.JcrId.UUID)) {
+            this.resolver.record(copy.getProperty(XmiLexicon.JcrId.UUID).getString(), copy);
+        }
+
+        if (modelImport && copy.hasProperty(CoreLexicon.JcrId.MODEL_LOCATION)) {
+            CoreModelObjectHandler.writeImportPath(copy,
+                                                   copy.getProperty(CoreLexicon.JcrId.MODEL_LOCATION).getString(),
+                                                   vdbModel);
+        }
+
+        for (final NodeIterator itr = source.getNodes(); itr.hasNext();) {
+            final Node child = itr.nextNode();
+
+            // the VDB manifest nodes are written from the new manifest
+            if (modelNode && MANIFEST_NODES.contains(child.getName())) {
+                continue;
+            }
+
+            final Node childCopy = copy.addNode(child.getName(), child.getPrimaryNodeType().getName());
+            MetricsRegistry.get().increment(MetricNames.NODES_CREATED, 1);
+            copyContent(child, childCopy, false, vdbModel);
+        }
+    }
+
+    /**
+     * Only models sequenced with a content hash, and that are not part of the VDB being sequenced, are found.
+     *
+     * @param pathInVdb the path in the VDB of the model file (cannot be <code>null</code> or empty)
+     * @param contentHash the content hash of the model file (cannot be <code>null</code> or empty)
+     * @return a previously sequenced VDB model node of the same model file or <code>null</code> if not found
+     * @throws RepositoryException if there is a problem querying the repository
+     */
+    public Node findPrevious( final String pathInVdb,
+                              final String contentHash ) throws RepositoryException {
+        CheckArg.isNotEmpty(pathInVdb, "pathInVdb");
+        CheckArg.isNotEmpty(contentHash, "contentHash");
+
+        final Session session = this.vdbOutputNode.getSession();
+        final ValueFactory valueFactory = session.getValueFactory();
+        final Query query = session.getWorkspace().getQueryManager().createQuery(PREVIOUS_MODELS_QUERY, Query.JCR_SQL2);
+        query.bindValue(HASH_VARIABLE, valueFactory.createValue(contentHash));
+        query.bindValue(PATH_VARIABLE, valueFactory.createValue(pathInVdb));
+
+        final String outputPath = this.vdbOutputNode.getPath() + '/';
+
+        for (final NodeIterator itr = query.execute().getNodes(); itr.hasNext();) {
+            final Node node = itr.nextNode();
+
+            if (!node.getPath().startsWith(outputPath)) {
+                return node;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Sets the reference properties of the copied nodes. Must be called once all the models of the VDB have been written.
+     *
+     * @throws RepositoryException if there is a problem setting the references
+     */
+    public void resolveReferences() throws RepositoryException {
+        final ValueFactory valueFactory = this.vdbOutputNode.getSession().getValueFactory();
+
+        for (final PendingReference reference : this.pending) {
+            final List<Value> values = new ArrayList<>(reference.identifiers.length);
+
+            for (final String identifier : reference.identifiers) {
+                final Node target = resolveTarget(identifier);
+
+                if (target == null) {
+                    LOGGER.debug("**** reference '{0}' of copied property '{1}' cannot be resolved", identifier, reference.name);
+                    continue;
+                }
+
+                if (!target.isNodeType(JcrConstants.MIX_REFERENCEABLE)) {
+                    target.addMixin(JcrConstants.MIX_REFERENCEABLE);
+                }
+
+                values.add(valueFactory.createValue(target, reference.weak));
+            }
+
+            if (reference.multiple) {
+                reference.node.setProperty(reference.name, values.toArray(new Value[values.size()]));
+            } else if (!values.isEmpty()) {
+                reference.node.setProperty(reference.name, values.get(0));
+            }
+        }
+
+        this.pending.clear();
+    }
+
+    private Node resolveTarget( final String identifier ) throws RepositoryException {
+        final Node copy = this.copies.get(identifier);
+
+        if (copy != null) {
+            return copy;
+        }
+
+        // the target is in another model so find the node with the same XMI UUID in the VDB being sequenced
+        try {
+            final Node previousTarget = this.vdbOutputNode.getSession().getNodeByIdentifier(identifier);
+
+            if (previousTarget.hasProperty(XmiLexicon.JcrId.UUID)) {
+                return this.resolver.getNode(previousTarget.getProperty(XmiLexicon.JcrId.UUID).getString());
+            }
+        } catch (final ItemNotFoundException e) {
+            LOGGER.debug("previous reference target '{0}' no longer exists", identifier);
+        }
+
+        return null;
+    }
+
+    private static final class PendingReference {
+
+        private final String[] identifiers;
+        private final boolean multiple;
+        private final String name;
+        private final Node node;
+        private final boolean weak;
+
+        PendingReference( final Node node,
+                          final Property property ) throws RepositoryException {
+            this.node = node;
+            this.name = property.getName();
+            this.multiple = property.isMultiple();
+            this.weak = (property.getType() == PropertyType.WEAKREFERENCE);
+
+            final Value[] values = (this.multiple ? property.getValues() : new Value[] {property.getValue()});
+            this.identifiers = new String[values.length];
+
+            for (int i = 0; i < values.length; ++i) {
+                this.identifiers[i] = values[i].getString();
+            }
+        }
+
+    }
+
+}
@@ -43,11 +43,12 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
 
     /**
      * @see org.teiid.modeshape.sequencer.vdb.model.ModelObjectHandler#process(org.teiid.modeshape.sequencer.vdb.xmi.XmiElement,
-     *      javax.jcr.Node)
+     *      javax.jcr.Node, org.teiid.modeshape.sequencer.vdb.model.ModelContext)
      */
     @Override
     protected void process( final XmiElement element,
-                            final Node parentNode ) throws Exception {
+                            final Node parentNode,
+                            final ModelContext context ) throws Exception {
         CheckArg.isNotNull(element, "element");
         CheckArg.isNotNull(parentNode, "node");
         CheckArg.isEquals(element.getNamespaceUri(), "namespace URI", URI, "relational URI");
@@ -58,7 +59,7 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
             // just process children
             for (final XmiElement kid : element.getChildren()) {
                 if (ModelId.TRANSFORMATION_MAPPINGS.equals(kid.getName())) {
-                    processMappings(kid);
+                    processMappings(kid, context);
                 } else {
                     LOGGER.debug("**** transformation container child of '{0}' was not processed", kid.getName());
                 }
@@ -70,22 +71,23 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
 
     private void processInputs( final XmiElement inputs,
                                 final Node transformed,
-                                final UnresolvedReference unresolved ) throws Exception {
+                                final UnresolvedReference unresolved,
+                                final ModelContext context ) throws Exception {
         assert (inputs != null);
         assert (ModelId.INPUTS.equals(inputs.getName()));
 
         // inputs is a referenced source table or a referenced column
 
-        final ReferenceResolver resolver = getResolver();
+        final ReferenceResolver resolver = context.getResolver();
         final String inputHref = inputs.getAttributeValue(ModelId.HREF, URI);
         final String inputUuid = resolver.resolveInternalReference(inputHref);
 
         // - transform:transformedFrom (weakreference)
-        setReference(transformed, unresolved, JcrId.TRANSFORMED_FROM, inputUuid, true);
+        setReference(transformed, unresolved, JcrId.TRANSFORMED_FROM, inputUuid, true, context);
 
         // - transform:transformedFromHrefs (string)
         if (transformed != null) {
-            addPropertyValue(transformed, JcrId.TRANSFORMED_FROM_HREFS, inputHref);
+            addPropertyValue(transformed, JcrId.TRANSFORMED_FROM_HREFS, inputHref, context);
         } else if (unresolved != null) {
             unresolved.addProperty(JcrId.TRANSFORMED_FROM_HREFS, inputHref, true);
         } else {
@@ -94,7 +96,7 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
 
         // - transform:transformedFromXmiUuids (string)
         if (transformed != null) {
-            addPropertyValue(transformed, JcrId.TRANSFORMED_FROM_XMI_UUIDS, inputUuid);
+            addPropertyValue(transformed, JcrId.TRANSFORMED_FROM_XMI_UUIDS, inputUuid, context);
         } else if (unresolved != null) {
             unresolved.addProperty(JcrId.TRANSFORMED_FROM_XMI_UUIDS, inputUuid, true);
         } else {
@@ -106,7 +108,7 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
 
         // - transform:transformedFromNames (string)
         if ((transformed != null) && (source != null)) {
-            addPropertyValue(transformed, JcrId.TRANSFORMED_FROM_NAMES, source.getName());
+            addPropertyValue(transformed, JcrId.TRANSFORMED_FROM_NAMES, source.getName(), context);
         } else {
             String referencerUuid = null;
 
@@ -131,12 +133,13 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
         }
     }
 
-    private void processMappings( final XmiElement mappings ) throws Exception {
+    private void processMappings( final XmiElement mappings,
+                                  final ModelContext context ) throws Exception {
         assert (mappings != null);
         assert (ModelId.TRANSFORMATION_MAPPINGS.equals(mappings.getName()));
 
         LOGGER.debug("=========mappings='{0}'", mappings.getName());
-        final ReferenceResolver resolver = getResolver();
+        final ReferenceResolver resolver = context.getResolver();
         final String targetUuid = mappings.getAttributeValue(ModelId.TARGET, URI);
         final String uuid = resolver.resolveInternalReference(targetUuid);
         final Node targetNode = resolver.getNode(uuid);
@@ -161,28 +164,44 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
                     continue;
                 }
 
-                setNestedProperty(targetNode, unresolved, helperNested, JcrId.SELECT_SQL, ModelId.SELECT_SQL);
-                setNestedProperty(targetNode, unresolved, helperNested, JcrId.INSERT_SQL, ModelId.INSERT_SQL);
-                setNestedProperty(targetNode, unresolved, helperNested, JcrId.UPDATE_SQL, ModelId.UPDATE_SQL);
-                setNestedProperty(targetNode, unresolved, helperNested, JcrId.DELETE_SQL, ModelId.DELETE_SQL);
-                setNestedProperty(targetNode, unresolved, helperNested, JcrId.INSERT_ALLOWED, ModelId.INSERT_ALLOWED);
-                setNestedProperty(targetNode, unresolved, helperNested, JcrId.UPDATE_ALLOWED, ModelId.UPDATE_ALLOWED);
-                setNestedProperty(targetNode, unresolved, helperNested, JcrId.DELETE_ALLOWED, ModelId.DELETE_ALLOWED);
-                setNestedProperty(targetNode, unresolved, helperNested, JcrId.INSERT_SQL_DEFAULT, ModelId.INSERT_SQL_DEFAULT);
-                setNestedProperty(targetNode, unresolved, helperNested, JcrId.UPDATE_SQL_DEFAULT, ModelId.UPDATE_SQL_DEFAULT);
-                setNestedProperty(targetNode, unresolved, helperNested, JcrId.DELETE_SQL_DEFAULT, ModelId.DELETE_SQL_DEFAULT);
+                setNestedProperty(targetNode, unresolved, helperNested, JcrId.SELECT_SQL, ModelId.SELECT_SQL, context);
+                setNestedProperty(targetNode, unresolved, helperNested, JcrId.INSERT_SQL, ModelId.INSERT_SQL, context);
+                setNestedProperty(targetNode, unresolved, helperNested, JcrId.UPDATE_SQL, ModelId.UPDATE_SQL, context);
+                setNestedProperty(targetNode, unresolved, helperNested, JcrId.DELETE_SQL, ModelId.DELETE_SQL, context);
+                setNestedProperty(targetNode, unresolved, helperNested, JcrId.INSERT_ALLOWED, ModelId.INSERT_ALLOWED, context);
+                setNestedProperty(targetNode, unresolved, helperNested, JcrId.UPDATE_ALLOWED, ModelId.UPDATE_ALLOWED, context);
+                setNestedProperty(targetNode, unresolved, helperNested, JcrId.DELETE_ALLOWED, ModelId.DELETE_ALLOWED, context);
+                setNestedProperty(targetNode,
+                                  unresolved,
+                                  helperNested,
+                                  JcrId.INSERT_SQL_DEFAULT,
+                                  ModelId.INSERT_SQL_DEFAULT,
+                                  context);
+                setNestedProperty(targetNode,
+                                  unresolved,
+                                  helperNested,
+                                  JcrId.UPDATE_SQL_DEFAULT,
+                                  ModelId.UPDATE_SQL_DEFAULT,
+                                  context);
+                setNestedProperty(targetNode,
+                                  unresolved,
+                                  helperNested,
+                                  JcrId.DELETE_SQL_DEFAULT,
+                                  ModelId.DELETE_SQL_DEFAULT,
+                                  context);
             } else if (ModelId.INPUTS.equals(kid.getName())) {
                 // input is the source tables
-                processInputs(kid, targetNode, unresolved);
+                processInputs(kid, targetNode, unresolved, context);
             } else if (ModelId.NESTED.equals(kid.getName())) {
-                processNested(kid);
+                processNested(kid, context);
             } else {
                 LOGGER.debug("**** transformation mapping child type of '{0}' was not processed", kid);
             }
         }
     }
 
-    private void processNested( final XmiElement nested ) throws Exception {
+    private void processNested( final XmiElement nested,
+                                final ModelContext context ) throws Exception {
         assert (nested != null);
         assert (ModelId.NESTED.equals(nested.getName()));
 
@@ -190,7 +209,7 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
         // nested/outputs attribute is the virtual column
         // nested/inputs child element href attribute is the source column
 
-        final ReferenceResolver resolver = getResolver();
+        final ReferenceResolver resolver = context.getResolver();
         final String columnHref = nested.getAttributeValue(ModelId.OUTPUTS, URI);
         final String columnUuid = resolver.resolveInternalReference(columnHref);
 
@@ -208,7 +227,7 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
         // nested children are inputs which are the referenced source columns
         for (final XmiElement inputs : nested.getChildren()) {
             if (ModelId.INPUTS.equals(inputs.getName())) {
-                processInputs(inputs, columnNode, unresolvedColumn);
+                processInputs(inputs, columnNode, unresolvedColumn, context);
             }
         }
     }
@@ -217,7 +236,8 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
                                     final UnresolvedReference unresolved,
                                     final XmiElement nested,
                                     final String propertyName,
-                                    final String attributeName ) throws Exception {
+                                    final String attributeName,
+                                    final ModelContext context ) throws Exception {
         assert (nested != null);
         assert ((propertyName != null) && !propertyName.isEmpty());
         assert ((attributeName != null) && !attributeName.isEmpty());
@@ -228,7 +248,7 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
             if (targetNode == null) {
                 unresolved.addProperty(propertyName, value, false);
             } else {
-                setProperty(targetNode, propertyName, value);
+                setProperty(targetNode, propertyName, value, context);
             }
         }
     }
@@ -237,14 +257,15 @@ public final class TransformationModelObjectHandler extends ModelObjectHandler {
                                final UnresolvedReference unresolvedReferencer,
                                final String propertyName,
                                final String referencedUuid,
-                               final boolean multiValuedProperty ) throws Exception {
+                               final boolean multiValuedProperty,
+                               final ModelContext context ) throws Exception {
         assert ((referencerNode != null) || (unresolvedReferencer != null));
         assert ((propertyName != null) && !propertyName.isEmpty());
         assert ((referencedUuid != null) && !referencedUuid.isEmpty());
 
         // sets a weak reference
 
-        final ReferenceResolver resolver = getResolver();
+        final ReferenceResolver resolver = context.getResolver();
         final Node referencedNode = resolver.getNode(referencedUuid);
         UnresolvedReference unresolvedReference = null;
 
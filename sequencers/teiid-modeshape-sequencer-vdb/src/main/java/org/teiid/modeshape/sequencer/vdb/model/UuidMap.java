@@ -0,0 +1,479 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.vdb.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import org.modeshape.common.annotation.NotThreadSafe;
+import org.modeshape.common.util.CheckArg;
+
+/**
+ * A map keyed by UUID strings that stores each UUID key as its two <code>long</code>s in an open-addressing (linear probing)
+ * table instead of as a 36 character string. Keys that are not UUIDs are kept in a regular map so any key can be used. UUID keys
+ * are compared by value, so the case of the hex digits does not matter, and the keys returned when iterating are in the canonical
+ * (lower case) form. Values cannot be <code>null</code>. Iterators do not support removal.
+ *
+ * @param <V> the type of the values
+ */
+@NotThreadSafe
+final class UuidMap<V> extends AbstractMap<String, V> {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The maximum number of hex digits of each group of the canonical form (8-4-4-4-12).
+     */
+    private static final int[] GROUP_LENGTHS = { 8, 4, 4, 4, 12 };
+
+    /**
+     * The value returned by {@link #hexValue(char)} when the character is not a hex digit.
+     */
+    private static final int NOT_HEX = -1;
+
+    private static final int UUID_LENGTH = 36;
+
+    private static int hexValue( final char c ) {
+        if ((c >= '0') && (c <= '9')) {
+            return (c - '0');
+        }
+
+        if ((c >= 'a') && (c <= 'f')) {
+            return (c - 'a' + 10);
+        }
+
+        if ((c >= 'A') && (c <= 'F')) {
+            return (c - 'A' + 10);
+        }
+
+        return NOT_HEX;
+    }
+
+    /**
+     * Parses a UUID without allocating and without throwing. The canonical form (8-4-4-4-12 hex digits) is accepted as well as
+     * the shorter groups {@link UUID#fromString(String)} accepts.
+     *
+     * @param value the text containing the UUID (cannot be <code>null</code>)
+     * @param from the index of the first character of the UUID
+     * @param to the index after the last character of the UUID
+     * @param result the array the most and least significant bits are written to (cannot be <code>null</code> and must have a
+     *        length of at least 2)
+     * @return <code>false</code> if the text is not a UUID (the result is then left unchanged)
+     */
+    static boolean parse( final CharSequence value,
+                          final int from,
+                          final int to,
+                          final long[] result ) {
+        if (((to - from) > UUID_LENGTH) || ((to - from) < 9)) {
+            return false;
+        }
+
+        long msb = 0;
+        long lsb = 0;
+        int group = 0;
+        int digits = 0;
+        long current = 0;
+
+        for (int i = from; i <= to; ++i) {
+            final char c = ((i == to) ? '-' : value.charAt(i));
+
+            if (c == '-') {
+                if ((digits == 0) || (group == GROUP_LENGTHS.length)) {
+                    return false;
+                }
+
+                switch (group) {
+                    case 0:
+                        msb = (current << 32);
+                        break;
+                    case 1:
+                        msb |= (current << 16);
+                        break;
+                    case 2:
+                        msb |= current;
+                        break;
+                    case 3:
+                        lsb = (current << 48);
+                        break;
+                    default:
+                        lsb |= current;
+                        break;
+                }
+
+                ++group;
+                digits = 0;
+                current = 0;
+            } else {
+                final int digit = hexValue(c);
+
+                if ((digit == NOT_HEX) || (++digits > GROUP_LENGTHS[group])) {
+                    return false;
+                }
+
+                current = ((current << 4) | digit);
+            }
+        }
+
+        if (group != GROUP_LENGTHS.length) {
+            return false;
+        }
+
+        result[0] = msb;
+        result[1] = lsb;
+        return true;
+    }
+
+    /**
+     * @param msb the most significant bits
+     * @param lsb the least significant bits
+     * @return the canonical form of the UUID (never <code>null</code>)
+     */
+    static String toString( final long msb,
+                            final long lsb ) {
+        return new UUID(msb, lsb).toString();
+    }
+
+    private static int hash( final long msb,
+                             final long lsb ) {
+        // murmur3 finalizer
+        long hash = (msb * 31) ^ lsb;
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= (hash >>> 33);
+        return (int)hash;
+    }
+
+    private long[] keys; // msb and lsb of each slot
+    private Object[] values; // null if slot is empty
+    private int uuidCount;
+    private Map<String, V> others; // keys that are not UUIDs, created when needed
+    private int modCount;
+    private final long[] parsed = new long[2];
+    private Set<Entry<String, V>> entrySet;
+
+    UuidMap() {
+        this.keys = new long[DEFAULT_CAPACITY * 2];
+        this.values = new Object[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.AbstractMap#clear()
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.uuidCount = 0;
+        this.others = null;
+        ++this.modCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.AbstractMap#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey( final Object key ) {
+        return (get(key) != null);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.AbstractMap#entrySet()
+     */
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new EntrySet();
+        }
+
+        return this.entrySet;
+    }
+
+    private int find( final long msb,
+                      final long lsb ) {
+        final int mask = (this.values.length - 1);
+        int slot = (hash(msb, lsb) & mask);
+
+        while (this.values[slot] != null) {
+            if ((this.keys[slot * 2] == msb) && (this.keys[(slot * 2) + 1] == lsb)) {
+                return slot;
+            }
+
+            slot = ((slot + 1) & mask);
+        }
+
+        return -(slot + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.AbstractMap#get(java.lang.Object)
+     */
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public V get( final Object key ) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+
+        final String uuid = (String)key;
+
+        if (parse(uuid, 0, uuid.length(), this.parsed)) {
+            final int slot = find(this.parsed[0], this.parsed[1]);
+            return ((slot < 0) ? null : (V)this.values[slot]);
+        }
+
+        return ((this.others == null) ? null : this.others.get(uuid));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public V put( final String key,
+                  final V value ) {
+        CheckArg.isNotNull(key, "key");
+        CheckArg.isNotNull(value, "value");
+
+        if (!parse(key, 0, key.length(), this.parsed)) {
+            if (this.others == null) {
+                this.others = new HashMap<String, V>();
+            }
+
+            if (!this.others.containsKey(key)) {
+                ++this.modCount;
+            }
+
+            return this.others.put(key, value);
+        }
+
+        final long msb = this.parsed[0];
+        final long lsb = this.parsed[1];
+        int slot = find(msb, lsb);
+
+        if (slot >= 0) {
+            final V old = (V)this.values[slot];
+            this.values[slot] = value;
+            return old;
+        }
+
+        // keep the load factor at or below 1/2
+        if (((this.uuidCount + 1) * 2) > this.values.length) {
+            resize(this.values.length * 2);
+            slot = find(msb, lsb);
+        }
+
+        slot = -(slot + 1);
+        this.keys[slot * 2] = msb;
+        this.keys[(slot * 2) + 1] = lsb;
+        this.values[slot] = value;
+        ++this.uuidCount;
+        ++this.modCount;
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.AbstractMap#remove(java.lang.Object)
+     */
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public V remove( final Object key ) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+
+        final String uuid = (String)key;
+
+        if (!parse(uuid, 0, uuid.length(), this.parsed)) {
+            if ((this.others == null) || !this.others.containsKey(uuid)) {
+                return null;
+            }
+
+            ++this.modCount;
+            return this.others.remove(uuid);
+        }
+
+        int slot = find(this.parsed[0], this.parsed[1]);
+
+        if (slot < 0) {
+            return null;
+        }
+
+        final V old = (V)this.values[slot];
+
+        // backward shift deletion so that no tombstones are needed
+        final int mask = (this.values.length - 1);
+        int next = ((slot + 1) & mask);
+
+        while (this.values[next] != null) {
+            final int home = (hash(this.keys[next * 2], this.keys[(next * 2) + 1]) & mask);
+
+            // move the entry if its home slot is not cyclically between the hole and the entry
+            if (((next > slot) && ((home <= slot) || (home > next))) || ((next < slot) && (home <= slot) && (home > next))) {
+                this.keys[slot * 2] = this.keys[next * 2];
+                this.keys[(slot * 2) + 1] = this.keys[(next * 2) + 1];
+                this.values[slot] = this.values[next];
+                slot = next;
+            }
+
+            next = ((next + 1) & mask);
+        }
+
+        this.values[slot] = null;
+        --this.uuidCount;
+        ++this.modCount;
+        return old;
+    }
+
+    private void resize( final int capacity ) {
+        final long[] oldKeys = this.keys;
+        final Object[] oldValues = this.values;
+        this.keys = new long[capacity * 2];
+        this.values = new Object[capacity];
+
+        for (int i = 0; i < oldValues.length; ++i) {
+            if (oldValues[i] != null) {
+                final int slot = -(find(oldKeys[i * 2], oldKeys[(i * 2) + 1]) + 1);
+                this.keys[slot * 2] = oldKeys[i * 2];
+                this.keys[(slot * 2) + 1] = oldKeys[(i * 2) + 1];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.AbstractMap#size()
+     */
+    @Override
+    public int size() {
+        return (this.uuidCount + ((this.others == null) ? 0 : this.others.size()));
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, V>> {
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.util.AbstractCollection#iterator()
+         */
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.util.AbstractCollection#size()
+         */
+        @Override
+        public int size() {
+            return UuidMap.this.size();
+        }
+
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, V>> {
+
+        private final int expectedModCount = UuidMap.this.modCount;
+        private int slot = -1;
+        private final Iterator<Entry<String, V>> othersItr = ((UuidMap.this.others == null) ? null
+                                                                                           : UuidMap.this.others.entrySet()
+                                                                                                                 .iterator());
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            final Object[] vals = UuidMap.this.values;
+
+            do {
+                ++this.slot;
+            } while ((this.slot < vals.length) && (vals[this.slot] == null));
+        }
+
+        private void checkForComodification() {
+            if (UuidMap.this.modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.util.Iterator#hasNext()
+         */
+        @Override
+        public boolean hasNext() {
+            return ((this.slot < UuidMap.this.values.length) || ((this.othersItr != null) && this.othersItr.hasNext()));
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.util.Iterator#next()
+         */
+        @Override
+        @SuppressWarnings( "unchecked" )
+        public Entry<String, V> next() {
+            checkForComodification();
+
+            if (this.slot < UuidMap.this.values.length) {
+                final int current = this.slot;
+                advance();
+                return new SimpleImmutableEntry<String, V>(UuidMap.toString(UuidMap.this.keys[current * 2],
+                                                                             UuidMap.this.keys[(current * 2) + 1]),
+                                                           (V)UuidMap.this.values[current]);
+            }
+
+            if ((this.othersItr == null) || !this.othersItr.hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return this.othersItr.next();
+        }
+
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.vdb.xmi;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.modeshape.common.annotation.NotThreadSafe;
+
+/**
+ * Interns the names, namespace prefixes and namespace URIs found while reading one XMI file. A model uses a few hundred distinct
+ * names but has them on every element and attribute, and stream readers usually return a new string each time.
+ */
+@NotThreadSafe
+final class SymbolTable {
+
+    private final Map<String, String> symbols = new HashMap<String, String>();
+
+    /**
+     * @param symbol the symbol being interned (can be <code>null</code>)
+     * @return the instance shared by all equal symbols (<code>null</code> only if the symbol is <code>null</code>)
+     */
+    String intern( final String symbol ) {
+        if (symbol == null) {
+            return null;
+        }
+
+        final String existing = this.symbols.putIfAbsent(symbol, symbol);
+        return ((existing == null) ? symbol : existing);
+    }
+
+    /**
+     * @return the number of distinct symbols
+     */
+    int size() {
+        return this.symbols.size();
+    }
+
+}
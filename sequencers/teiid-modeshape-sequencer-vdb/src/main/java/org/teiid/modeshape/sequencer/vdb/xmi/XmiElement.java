@@ -21,7 +21,9 @@
  */
 package org.teiid.modeshape.sequencer.vdb.xmi;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.modeshape.common.util.CheckArg;
 import org.modeshape.common.util.HashCode;
@@ -30,6 +32,10 @@ import org.teiid.modeshape.sequencer.vdb.lexicon.XmiLexicon;
 
 /**
  * An element from an XMI file.
+ * <p>
+ * Attributes are stored in a single array (name, namespace prefix, namespace URI and value of each attribute) instead of as one
+ * {@link XmiAttribute} per attribute. The {@link XmiAttribute attributes} returned by this element are views created when
+ * requested and their setters update this element.
  */
 public class XmiElement extends XmiBasePart implements XmiDescendent {
 
@@ -38,7 +44,17 @@ public class XmiElement extends XmiBasePart implements XmiDescendent {
      */
     public static final String NAME_ATTR_NAME = "name";
 
-    private final List<XmiAttribute> attributes = new ArrayList<XmiAttribute>();
+    private static final String[] NO_ATTRIBUTES = new String[0];
+
+    // offsets of the attribute parts
+    private static final int NAME = 0;
+    private static final int PREFIX = 1;
+    private static final int URI = 2;
+    private static final int VALUE = 3;
+    private static final int PARTS_PER_ATTRIBUTE = 4;
+
+    private String[] attributes = NO_ATTRIBUTES;
+    private int attributeCount;
     private final List<XmiElement> children = new ArrayList<XmiElement>();
     private XmiElement parent;
 
@@ -54,10 +70,39 @@ public class XmiElement extends XmiBasePart implements XmiDescendent {
      */
     public void addAttribute( final XmiAttribute newAttribute ) {
         CheckArg.isNotNull(newAttribute, "newAttribute");
-        this.attributes.add(newAttribute);
+        addAttribute(newAttribute.getName(),
+                     newAttribute.getNamespacePrefix(),
+                     newAttribute.getNamespaceUri(),
+                     newAttribute.getValue());
         newAttribute.setParent(this);
     }
 
+    /**
+     * Adds an attribute without creating an {@link XmiAttribute}.
+     *
+     * @param name the attribute name (cannot be <code>null</code> or empty)
+     * @param namespacePrefix the attribute namespace prefix (can be <code>null</code> or empty)
+     * @param namespaceUri the attribute namespace URI (can be <code>null</code> or empty)
+     * @param value the attribute value (can be <code>null</code> or empty)
+     */
+    public void addAttribute( final String name,
+                              final String namespacePrefix,
+                              final String namespaceUri,
+                              final String value ) {
+        CheckArg.isNotEmpty(name, "name");
+        final int offset = (this.attributeCount * PARTS_PER_ATTRIBUTE);
+
+        if (offset == this.attributes.length) {
+            this.attributes = Arrays.copyOf(this.attributes, Math.max(2 * PARTS_PER_ATTRIBUTE, offset * 2));
+        }
+
+        this.attributes[offset + NAME] = name;
+        this.attributes[offset + PREFIX] = namespacePrefix;
+        this.attributes[offset + URI] = namespaceUri;
+        this.attributes[offset + VALUE] = value;
+        ++this.attributeCount;
+    }
+
     /**
      * @param newChild the child element being added (cannot be <code>null</code>)
      */
@@ -83,7 +128,10 @@ public class XmiElement extends XmiBasePart implements XmiDescendent {
         final XmiElement that = (XmiElement)obj;
 
         // compare attributes
-        if (!this.attributes.containsAll(that.attributes) || !that.attributes.containsAll(this.attributes)) {
+        final List<XmiAttribute> thisAttributes = getAttributes();
+        final List<XmiAttribute> thatAttributes = that.getAttributes();
+
+        if (!thisAttributes.containsAll(thatAttributes) || !thatAttributes.containsAll(thisAttributes)) {
             return false;
         }
 
@@ -135,35 +183,41 @@ public class XmiElement extends XmiBasePart implements XmiDescendent {
     public XmiAttribute getAttribute( final String name,
                                       final String namespaceUri ) {
         CheckArg.isNotEmpty(name, "attributeName");
-
-        for (final XmiAttribute attribute : getAttributes()) {
-            // check names
-            if (attribute.getName().equals(name)) {
-                // requested attribute should not have a namespace URI
-                if (StringUtil.isBlank(namespaceUri)) {
-                    if (StringUtil.isBlank(attribute.getNamespaceUri())) {
-                        return attribute;
-                    }
-
-                    continue;
-                }
-
-                // requested attribute should have a matching namespace URI
-                if (namespaceUri.equals(attribute.getNamespaceUri())) {
-                    return attribute;
-                }
-            }
-        }
-
-        // not found
-        return null;
+        final int index = indexOfAttribute(name, namespaceUri);
+        return ((index == -1) ? null : new ElementAttribute(index));
     }
 
     /**
      * @return the attributes (never <code>null</code> but can be empty)
      */
     public List<XmiAttribute> getAttributes() {
-        return this.attributes;
+        return new AbstractList<XmiAttribute>() {
+
+            /**
+             * {@inheritDoc}
+             *
+             * @see java.util.AbstractList#get(int)
+             */
+            @Override
+            public XmiAttribute get( final int index ) {
+                if ((index < 0) || (index >= XmiElement.this.attributeCount)) {
+                    throw new IndexOutOfBoundsException(Integer.toString(index));
+                }
+
+                return new ElementAttribute(index);
+            }
+
+            /**
+             * {@inheritDoc}
+             *
+             * @see java.util.AbstractCollection#size()
+             */
+            @Override
+            public int size() {
+                return XmiElement.this.attributeCount;
+            }
+
+        };
     }
 
     /**
@@ -174,19 +228,21 @@ public class XmiElement extends XmiBasePart implements XmiDescendent {
         CheckArg.isNotNull(namespaceUri, "namespaceUri");
         final List<XmiAttribute> matches = new ArrayList<XmiAttribute>();
 
-        for (final XmiAttribute attribute : getAttributes()) {
+        for (int i = 0; i < this.attributeCount; ++i) {
+            final String attributeUri = getAttributePart(i, URI);
+
             // requested attributes should not have a namespace URI
             if (StringUtil.isBlank(namespaceUri)) {
-                if (StringUtil.isBlank(attribute.getNamespaceUri())) {
-                    matches.add(attribute);
+                if (StringUtil.isBlank(attributeUri)) {
+                    matches.add(new ElementAttribute(i));
                 }
 
                 continue;
             }
 
             // requested attributes should have a matching namespace URI
-            if (namespaceUri.equals(attribute.getNamespaceUri())) {
-                matches.add(attribute);
+            if (namespaceUri.equals(attributeUri)) {
+                matches.add(new ElementAttribute(i));
             }
         }
 
@@ -201,15 +257,39 @@ public class XmiElement extends XmiBasePart implements XmiDescendent {
     public String getAttributeValue( final String name,
                                      final String namespaceUri ) {
         CheckArg.isNotNull(name, "name");
-        final XmiAttribute attribute = getAttribute(name, namespaceUri);
+        final int index = indexOfAttribute(name, namespaceUri);
 
-        if (attribute != null) {
-            return attribute.getValue();
+        if (index != -1) {
+            return this.attributes[(index * PARTS_PER_ATTRIBUTE) + VALUE];
         }
 
         return null;
     }
 
+    /**
+     * An attribute without a namespace prefix or URI has the one of its element.
+     *
+     * @param index the index of the attribute
+     * @param part the offset of the attribute part being requested
+     * @return the attribute part (can be <code>null</code> or empty)
+     */
+    private String getAttributePart( final int index,
+                                     final int part ) {
+        final String value = this.attributes[(index * PARTS_PER_ATTRIBUTE) + part];
+
+        if (StringUtil.isBlank(value)) {
+            if (part == PREFIX) {
+                return getNamespacePrefix();
+            }
+
+            if (part == URI) {
+                return getNamespaceUri();
+            }
+        }
+
+        return value;
+    }
+
     /**
      * @return the child elements (never <code>null</code> but can be empty)
      */
@@ -281,7 +361,48 @@ public class XmiElement extends XmiBasePart implements XmiDescendent {
      */
     @Override
     public int hashCode() {
-        return HashCode.compute(super.hashCode(), this.parent, this.attributes, this.children);
+        return HashCode.compute(super.hashCode(),
+                                this.parent,
+                                Arrays.hashCode(Arrays.copyOf(this.attributes, this.attributeCount * PARTS_PER_ATTRIBUTE)),
+                                this.children);
+    }
+
+    /**
+     * @param name the name of the attribute being requested (cannot be <code>null</code> or empty)
+     * @param namespaceUri the URI of the attribute being requested (can be <code>null</code> or empty)
+     * @return the index of the attribute or <code>-1</code> if not found
+     */
+    private int indexOfAttribute( final String name,
+                                  final String namespaceUri ) {
+        for (int i = 0; i < this.attributeCount; ++i) {
+            // check names
+            if (this.attributes[(i * PARTS_PER_ATTRIBUTE) + NAME].equals(name)) {
+                final String attributeUri = getAttributePart(i, URI);
+
+                // requested attribute should not have a namespace URI
+                if (StringUtil.isBlank(namespaceUri)) {
+                    if (StringUtil.isBlank(attributeUri)) {
+                        return i;
+                    }
+
+                    continue;
+                }
+
+                // requested attribute should have a matching namespace URI
+                if (namespaceUri.equals(attributeUri)) {
+                    return i;
+                }
+            }
+        }
+
+        // not found
+        return -1;
+    }
+
+    private void setAttributePart( final int index,
+                                   final int part,
+                                   final String value ) {
+        this.attributes[(index * PARTS_PER_ATTRIBUTE) + part] = value;
     }
 
     /**
@@ -307,4 +428,62 @@ public class XmiElement extends XmiBasePart implements XmiDescendent {
 
         return '{' + getNamespaceUri() + '}' + getName();
     }
+
+    /**
+     * A view of an attribute stored in the element.
+     */
+    private final class ElementAttribute extends XmiAttribute {
+
+        private final int index;
+
+        ElementAttribute( final int index ) {
+            super(XmiElement.this.attributes[(index * PARTS_PER_ATTRIBUTE) + NAME]);
+            this.index = index;
+            super.setNamespacePrefix(XmiElement.this.attributes[(index * PARTS_PER_ATTRIBUTE) + PREFIX]);
+            super.setNamespaceUri(XmiElement.this.attributes[(index * PARTS_PER_ATTRIBUTE) + URI]);
+            super.setValue(XmiElement.this.attributes[(index * PARTS_PER_ATTRIBUTE) + VALUE]);
+            super.setParent(XmiElement.this);
+        }
+
+        /**
+         * @see org.teiid.modeshape.sequencer.vdb.xmi.XmiBasePart#setNamespacePrefix(java.lang.String)
+         */
+        @Override
+        public void setNamespacePrefix( final String newNamespacePrefix ) {
+            super.setNamespacePrefix(newNamespacePrefix);
+            setAttributePart(this.index, PREFIX, newNamespacePrefix);
+        }
+
+        /**
+         * @see org.teiid.modeshape.sequencer.vdb.xmi.XmiBasePart#setNamespaceUri(java.lang.String)
+         */
+        @Override
+        public void setNamespaceUri( final String newNamespaceUri ) {
+            super.setNamespaceUri(newNamespaceUri);
+            setAttributePart(this.index, URI, newNamespaceUri);
+        }
+
+        /**
+         * The attribute is stored in its element so it cannot be moved to another element.
+         *
+         * @see org.teiid.modeshape.sequencer.vdb.xmi.XmiAttribute#setParent(org.teiid.modeshape.sequencer.vdb.xmi.XmiElement)
+         */
+        @Override
+        public void setParent( final XmiElement parent ) {
+            if (parent != XmiElement.this) {
+                throw new UnsupportedOperationException();
+            }
+        }
+
+        /**
+         * @see org.teiid.modeshape.sequencer.vdb.xmi.XmiBasePart#setValue(java.lang.String)
+         */
+        @Override
+        public void setValue( final String newValue ) {
+            super.setValue(newValue);
+            setAttributePart(this.index, VALUE, newValue);
+        }
+
+    }
+
 }
@@ -61,6 +61,7 @@ public class XmiReader {
     private final Map<String, String> namespaces = new HashMap<String, String>(); // namespaces declared in file
     private final String path; // never empty
     private final Stack<XmiElement> stack = new Stack<XmiElement>();
+    private final SymbolTable symbols = new SymbolTable(); // names, prefixes and URIs
 
     /**
      * @param path the path to the XMI file being read (cannot be <code>null</code> or empty)
@@ -72,13 +73,18 @@ public class XmiReader {
 
     /**
      * @param element the element the attribute is being added to (cannot be <code>null</code>)
-     * @param attribute the attribute being added (cannot be <code>null</code>)
+     * @param name the attribute name (cannot be <code>null</code> or empty)
+     * @param namespacePrefix the attribute namespace prefix (can be <code>null</code> or empty)
+     * @param namespaceUri the attribute namespace URI (can be <code>null</code> or empty)
+     * @param value the attribute value (can be <code>null</code> or empty)
      */
     protected void addAttribute( final XmiElement element,
-                                 final XmiAttribute attribute ) {
+                                 final String name,
+                                 final String namespacePrefix,
+                                 final String namespaceUri,
+                                 final String value ) {
         CheckArg.isNotNull(element, "element");
-        CheckArg.isNotNull(attribute, "attribute");
-        element.addAttribute(attribute);
+        element.addAttribute(name, namespacePrefix, namespaceUri, value);
     }
 
     /**
@@ -110,13 +116,17 @@ public class XmiReader {
         CheckArg.isNotNull(element, "element");
 
         for (int i = 0, size = streamReader.getAttributeCount(); i < size; ++i) {
-            final XmiAttribute newAttribute = new XmiAttribute(streamReader.getAttributeName(i).getLocalPart());
-            newAttribute.setNamespacePrefix(streamReader.getAttributePrefix(i));
-            newAttribute.setNamespaceUri(streamReader.getAttributeNamespace(i));
-            newAttribute.setValue(streamReader.getAttributeValue(i));
-            addAttribute(element, newAttribute);
-
-            LOGGER.debug("{0}  added attribute: '{1}'", getIndent(this.stack.size()), newAttribute);
+            final String name = this.symbols.intern(streamReader.getAttributeLocalName(i));
+            final String value = streamReader.getAttributeValue(i);
+            addAttribute(element,
+                         name,
+                         this.symbols.intern(streamReader.getAttributePrefix(i)),
+                         this.symbols.intern(streamReader.getAttributeNamespace(i)),
+                         value);
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("{0}  added attribute: '{1}={2}'", getIndent(this.stack.size()), name, value);
+            }
         }
     }
 
@@ -206,7 +216,10 @@ public class XmiReader {
         CheckArg.isNotNull(streamReader, "streamReader");
         final XmiElement popped = pop(streamReader);
 
-        LOGGER.debug("{0}end:elementName={1}, popped={2}", getIndent(this.stack.size() + 1), streamReader.getLocalName(), popped);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("{0}end:elementName={1}, popped={2}", getIndent(this.stack.size() + 1), streamReader.getLocalName(), popped);
+        }
+
         return popped;
     }
 
@@ -230,9 +243,9 @@ public class XmiReader {
     protected XmiElement handleStartElement( final XMLStreamReader streamReader ) throws Exception {
         CheckArg.isNotNull(streamReader, "streamReader");
 
-        final XmiElement element = new XmiElement(streamReader.getLocalName());
-        element.setNamespaceUri(streamReader.getNamespaceURI());
-        element.setNamespacePrefix(streamReader.getPrefix());
+        final XmiElement element = new XmiElement(this.symbols.intern(streamReader.getLocalName()));
+        element.setNamespaceUri(this.symbols.intern(streamReader.getNamespaceURI()));
+        element.setNamespacePrefix(this.symbols.intern(streamReader.getPrefix()));
 
         if (streamReader.hasText()) {
             element.setValue(streamReader.getElementText());
@@ -240,15 +253,17 @@ public class XmiReader {
 
         push(element);
 
-        LOGGER.debug("{0}startElement: {1}", getIndent(this.stack.size()), element);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("{0}startElement: {1}", getIndent(this.stack.size()), element);
+        }
 
         // create attributes
         createAttributes(streamReader, element);
 
-        if (XmiLexicon.ModelId.XMI_TAG.equals(streamReader.getLocalName())) {
+        if (XmiLexicon.ModelId.XMI_TAG.equals(element.getName())) {
             for (int i = 0, size = streamReader.getNamespaceCount(); i < size; ++i) {
-                final String nsPrefix = streamReader.getNamespacePrefix(i);
-                final String nsUri = streamReader.getNamespaceURI(i);
+                final String nsPrefix = this.symbols.intern(streamReader.getNamespacePrefix(i));
+                final String nsUri = this.symbols.intern(streamReader.getNamespaceURI(i));
                 this.namespaces.put(nsPrefix, nsUri);
 
                 LOGGER.debug("registered namespace {0}={1} to model", nsPrefix, nsUri);
@@ -24,20 +24,38 @@ package org.teiid.modeshape.sequencer.vdb;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNot.not;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import javax.jcr.Node;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
 import org.junit.Test;
 import org.teiid.modeshape.sequencer.AbstractSequencerTest;
+import org.teiid.modeshape.sequencer.ExportCache;
+import org.teiid.modeshape.sequencer.Options;
+import org.teiid.modeshape.sequencer.Options.PropertyFilter;
+import org.teiid.modeshape.sequencer.PropertyFilterBuilder;
 import org.teiid.modeshape.sequencer.Result;
 import org.teiid.modeshape.sequencer.vdb.VdbModel.Source;
 import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 
 public final class VdbExporterTest extends AbstractSequencerTest {
 
@@ -53,6 +71,22 @@ public final class VdbExporterTest extends AbstractSequencerTest {
         return null;
     }
 
+    private String transform( final String xml,
+                              final int indentAmount ) throws Exception {
+        final Document document = DocumentBuilderFactory.newInstance()
+                                                        .newDocumentBuilder()
+                                                        .parse( new InputSource( new StringReader( xml ) ) );
+        final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty( OutputKeys.ENCODING, "UTF-8" );
+        transformer.setOutputProperty( OutputKeys.OMIT_XML_DECLARATION, "yes" );
+        transformer.setOutputProperty( OutputKeys.INDENT, "yes" );
+        transformer.setOutputProperty( "{http://xml.apache.org/xslt}indent-amount", Integer.toString( indentAmount ) );
+
+        final StringWriter output = new StringWriter();
+        transformer.transform( new DOMSource( document ), new StreamResult( output ) );
+        return output.toString();
+    }
+
     @Override
     protected InputStream getRepositoryConfigStream() {
         return resourceStream( "config/repo-config.json" );
@@ -227,4 +261,186 @@ public final class VdbExporterTest extends AbstractSequencerTest {
         assertThat( translator.getProperties().get( "DefaultServiceMode" ), is( "MESSAGE" ) );
     }
 
+    @Test
+    public void shouldStreamSameVdbAsExport() throws Exception {
+        createNodeWithContentFromFile( "vdb/AzureService-vdb.xml", "vdb/AzureService-vdb.xml" );
+        final Node vdbNode = getOutputNode( this.rootNode, "vdbs/AzureService-vdb.xml" );
+        assertNotNull( vdbNode );
+
+        for ( final boolean prettyPrint : new boolean[] { true, false } ) {
+            final Options options = new Options();
+            options.set( Options.PRETTY_PRINT_PROPERTY, prettyPrint );
+
+            final VdbExporter exporter = new VdbExporter();
+            final String xml = ( String )exporter.execute( vdbNode, options ).getOutcome();
+
+            final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            final Result result = exporter.execute( vdbNode, options, stream );
+            assertThat( result.getError(), is( nullValue() ) );
+            assertThat( result.getErrorMessage(), is( nullValue() ) );
+            assertThat( result.getType(), is( ( Object )Long.class ) );
+            assertThat( result.getOutcome(), is( ( Object )( long )stream.size() ) );
+            assertThat( new String( stream.toByteArray(), StandardCharsets.UTF_8 ), is( xml ) );
+        }
+    }
+
+    @Test
+    public void shouldPrettyPrintSameAsTransformer() throws Exception {
+        final String[] vdbs = new String[] { "AzureService-vdb.xml", "product-view-vdb.xml", "declarativeModels-vdb.xml" };
+
+        for ( final String vdb : vdbs ) {
+            createNodeWithContentFromFile( "vdb/" + vdb, "vdb/" + vdb );
+            final Node vdbNode = getOutputNode( this.rootNode, "vdbs/" + vdb );
+            assertNotNull( vdbNode );
+
+            final Options options = new Options();
+            options.set( Options.PRETTY_PRINT_PROPERTY, false );
+            final String xml = ( String )new VdbExporter().execute( vdbNode, options ).getOutcome();
+
+            for ( final int indentAmount : new int[] { 0, 2, 4 } ) {
+                options.set( Options.PRETTY_PRINT_PROPERTY, true );
+                options.set( Options.INDENT_AMOUNT_PROPERTY, indentAmount );
+                final Result result = new VdbExporter().execute( vdbNode, options );
+                assertThat( result.getError(), is( nullValue() ) );
+                assertThat( vdb, result.getOutcome(), is( ( Object )transform( xml, indentAmount ) ) );
+            }
+        }
+    }
+
+    @Test
+    public void shouldExportSameVdbWhenQueryingChildNodes() throws Exception {
+        createNodeWithContentFromFile( "vdb/declarativeModels-vdb.xml", "vdb/declarativeModels-vdb.xml" );
+        final Node vdbNode = getOutputNode( this.rootNode, "vdbs/declarativeModels-vdb.xml" );
+        assertNotNull( vdbNode );
+
+        final String xml = ( String )new VdbExporter().execute( vdbNode, null ).getOutcome();
+
+        final Options options = new Options();
+        options.set( Options.QUERY_CHILD_NODES_PROPERTY, true );
+        final Result result = new VdbExporter().execute( vdbNode, options );
+        assertThat( result.getError(), is( nullValue() ) );
+        assertThat( result.getOutcome(), is( ( Object )xml ) );
+    }
+
+    @Test
+    public void shouldFilterPropertiesUsingBuiltFilter() throws Exception {
+        final PropertyFilter filter = new PropertyFilterBuilder().rejectNamespaceUri( "http://www.jcp.org/jcr/1.0",
+                                                                                      "http://unregistered/namespace" )
+                                                                 .rejectPrefix( "vdb:" )
+                                                                 .rejectName( "foo" )
+                                                                 .and( propertyName -> !propertyName.endsWith( "Bar" ) )
+                                                                 .build()
+                                                                 .forSession( this.session );
+        assertThat( filter.accept( "jcr:primaryType" ), is( false ) );
+        assertThat( filter.accept( "vdb:version" ), is( false ) );
+        assertThat( filter.accept( "vdb:" ), is( false ) );
+        assertThat( filter.accept( "foo" ), is( false ) );
+        assertThat( filter.accept( "fooBar" ), is( false ) );
+        assertThat( filter.accept( "foobar" ), is( true ) );
+        assertThat( filter.accept( "fo" ), is( true ) );
+        assertThat( filter.accept( "jcrx:name" ), is( true ) );
+        assertThat( filter.accept( "vd" ), is( true ) );
+        assertThat( filter.accept( "mode:sha1" ), is( true ) );
+    }
+
+    @Test
+    public void shouldExportVdbWithBuiltPropertyFilter() throws Exception {
+        createNodeWithContentFromFile( "vdb/declarativeModels-vdb.xml", "vdb/declarativeModels-vdb.xml" );
+        final Node vdbNode = getOutputNode( this.rootNode, "vdbs/declarativeModels-vdb.xml" );
+        assertNotNull( vdbNode );
+
+        final String xml = ( String )new VdbExporter().execute( vdbNode, null ).getOutcome();
+        assertThat( xml.contains( "UseConnectorMetadata" ), is( true ) );
+
+        final Options options = new Options();
+        options.set( Options.PROPERTY_FILTER_PROPERTY,
+                     new PropertyFilterBuilder().and( Options.DEFAULT_PROPERTY_FILTER )
+                                                .rejectName( "UseConnectorMetadata" )
+                                                .build() );
+        final Result result = new VdbExporter().execute( vdbNode, options );
+        assertThat( result.getError(), is( nullValue() ) );
+
+        final String filtered = ( String )result.getOutcome();
+        assertThat( filtered.contains( "UseConnectorMetadata" ), is( false ) );
+        assertThat( filtered.contains( "DefaultBinding" ), is( true ) );
+    }
+
+    @Test
+    public void shouldServeCachedExportUntilVdbChanges() throws Exception {
+        createNodeWithContentFromFile( "vdb/declarativeModels-vdb.xml", "vdb/declarativeModels-vdb.xml" );
+        final Node vdbNode = getOutputNode( this.rootNode, "vdbs/declarativeModels-vdb.xml" );
+        assertNotNull( vdbNode );
+
+        final ExportCache cache = new ExportCache( 1 );
+        cache.register( this.session.getWorkspace() );
+
+        try {
+            final VdbExporter exporter = new VdbExporter();
+            final Options options = new Options();
+            options.set( Options.EXPORT_CACHE_PROPERTY, cache );
+
+            final Result result = exporter.execute( vdbNode, options );
+            assertThat( result.getError(), is( nullValue() ) );
+            assertThat( cache.size(), is( 1 ) );
+
+            // same options set on another object find the cached export
+            final Options sameOptions = new Options();
+            sameOptions.set( Options.EXPORT_CACHE_PROPERTY, cache );
+            final Result cached = exporter.execute( vdbNode, sameOptions );
+            assertThat( cached.wasSuccessful(), is( true ) );
+            assertThat( cached.getOutcome(), is( result.getOutcome() ) );
+            assertThat( cached.getOptions(), is( sameOptions ) );
+
+            // different options are a different export
+            sameOptions.set( Options.PRETTY_PRINT_PROPERTY, false );
+            assertThat( exporter.execute( vdbNode, sameOptions ).getOutcome(), is( not( result.getOutcome() ) ) );
+            assertThat( cache.size(), is( 1 ) ); // least recently used export removed
+
+            vdbNode.setProperty( VdbLexicon.Vdb.DESCRIPTION, "changed description" );
+            this.session.save();
+
+            final long timeout = ( System.currentTimeMillis() + ( DEFAULT_WAIT_TIME_SECONDS * 1000 ) );
+
+            while ( ( cache.size() != 0 ) && ( System.currentTimeMillis() < timeout ) ) {
+                Thread.sleep( 50 );
+            }
+
+            assertThat( cache.size(), is( 0 ) );
+            final String xml = ( String )exporter.execute( vdbNode, options ).getOutcome();
+            assertThat( xml.contains( "changed description" ), is( true ) );
+        } finally {
+            cache.unregister( this.session.getWorkspace() );
+        }
+    }
+
+    @Test
+    public void shouldNotCacheExportsOfUnsavedChanges() throws Exception {
+        createNodeWithContentFromFile( "vdb/declarativeModels-vdb.xml", "vdb/declarativeModels-vdb.xml" );
+        final Node vdbNode = getOutputNode( this.rootNode, "vdbs/declarativeModels-vdb.xml" );
+        assertNotNull( vdbNode );
+
+        final ExportCache cache = new ExportCache();
+        final VdbExporter exporter = new VdbExporter();
+        final Options options = new Options();
+        options.set( Options.EXPORT_CACHE_PROPERTY, cache );
+
+        final String saved = ( String )exporter.execute( vdbNode, options ).getOutcome();
+        assertThat( cache.size(), is( 1 ) );
+
+        vdbNode.setProperty( VdbLexicon.Vdb.DESCRIPTION, "unsaved description" );
+
+        try {
+            // the cached export of the saved node is not served
+            final String unsaved = ( String )exporter.execute( vdbNode, options ).getOutcome();
+            assertThat( unsaved.contains( "unsaved description" ), is( true ) );
+            assertThat( cache.size(), is( 1 ) );
+
+            assertThat( cache.get( exporter, vdbNode, options ), is( nullValue() ) );
+        } finally {
+            this.session.refresh( false );
+        }
+
+        assertThat( cache.get( exporter, vdbNode, options ).getOutcome(), is( ( Object )saved ) );
+    }
+
 }
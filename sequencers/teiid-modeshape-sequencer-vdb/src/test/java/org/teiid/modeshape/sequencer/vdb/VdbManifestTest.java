@@ -22,14 +22,18 @@
 package org.teiid.modeshape.sequencer.vdb;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -338,6 +342,142 @@ public class VdbManifestTest {
         }
     }
     
+    @Test
+    public void shouldFindModelsByPathAndDdlFileEntryPath() throws Exception {
+        final String xml = "<vdb name=\"indexed\" version=\"1\">"
+                           + "<model name=\"books\" type=\"PHYSICAL\" path=\"/folder/Books.xmi\"/>"
+                           + "<model name=\"first\" type=\"VIRTUAL\"><metadata type=\"DDL-FILE\">/ddl/shared.ddl</metadata></model>"
+                           + "<model name=\"second\" type=\"VIRTUAL\"><metadata type=\"DDL-FILE\">ddl/shared.ddl</metadata></model>"
+                           + "</vdb>";
+        final VdbManifest manifest = VdbManifest.read(new ByteArrayInputStream(xml.getBytes("UTF-8")), null);
+
+        assertThat(manifest.getModel("folder/Books.xmi").getName(), is("books"));
+        assertThat(manifest.getModel("/folder/Books.xmi").getName(), is("books"));
+        assertNull(manifest.getModel("Books.xmi"));
+
+        // first model wins when DDL files are shared
+        assertThat(manifest.getDdlFileModel("ddl/shared.ddl").getName(), is("first"));
+        assertNull(manifest.getDdlFileModel("shared.ddl"));
+    }
+
+    @Test
+    public void shouldFindModelAddedAfterManifestWasRead() throws Exception {
+        final VdbManifest manifest = VdbManifest.read(streamFor("/vdb/declarativeModels-vdb.xml"), null);
+        final VdbModel model = new VdbModel("added", CoreLexicon.ModelType.VIRTUAL, "added.xmi");
+        manifest.getModels().add(model);
+        assertThat(manifest.getModel("added.xmi"), is(model));
+        assertThat(manifest.getModel("/added.xmi"), is(model));
+
+        final VdbModel ddlModel = new VdbModel("ddl", CoreLexicon.ModelType.VIRTUAL, null);
+        ddlModel.setMetadataType(VdbModel.DDL_FILE_METADATA_TYPE);
+        ddlModel.setDdlFileEntryPath("/ddl/added.ddl");
+        manifest.getModels().add(0, ddlModel);
+        assertThat(manifest.getDdlFileModel("ddl/added.ddl"), is(ddlModel));
+
+        manifest.getModels().remove(model);
+        assertNull(manifest.getModel("added.xmi"));
+
+        manifest.getModels().clear();
+        assertNull(manifest.getDdlFileModel("ddl/added.ddl"));
+    }
+
+    @Test
+    public void shouldReadDataRoleConditionsAndMasks() throws Exception {
+        final VdbManifest manifest = VdbManifest.read(streamFor("/vdb/dataRoles-vdb.xml"), null);
+        assertThat(manifest.getName(), is("Portfolio"));
+        assertThat(manifest.getVersion(), is(2));
+        assertThat(manifest.getConnectionType(), is("BY_VERSION"));
+        assertThat(manifest.getImportVdbs().size(), is(1));
+        assertThat(manifest.getImportVdbs().get(0).getVersion(), is(3));
+        assertThat(manifest.getModels().size(), is(2));
+        assertThat(manifest.getModels().get(0).getProperties().get("importer.useFullSchemaName"), is("false"));
+        assertThat(manifest.getModels().get(1).isVisible(), is(false));
+        assertThat(manifest.getTranslators().get(0).getDescription(), is("Price files"));
+        assertThat(manifest.getEntries().get(0).getProperties().get("owner"), is("portfolio team"));
+
+        final List<VdbDataRole> dataRoles = manifest.getDataRoles();
+        assertThat(dataRoles.size(), is(2));
+
+        final VdbDataRole analysts = dataRoles.get(0);
+        assertThat(analysts.isAllowCreateTempTables(), is(true));
+        assertThat(analysts.isAnyAuthenticated(), is(false));
+        assertThat(analysts.getMappedRoleNames().size(), is(2));
+        assertThat(analysts.getPermissions().size(), is(3));
+
+        final Permission rows = analysts.getPermissions().get(0);
+        assertThat(rows.canRead(), is(true));
+        assertThat(rows.canUpdate(), is(false));
+        assertThat(rows.getConditions().size(), is(2));
+        assertThat(rows.getConditions().get(0).getRule(), is("account = user()"));
+        assertThat(rows.getConditions().get(0).isConstraint(), is(false));
+        assertThat(rows.getConditions().get(1).getRule(), is("price > 0"));
+        assertThat(rows.getConditions().get(1).isConstraint(), is(true));
+        assertTrue(rows.getMasks().isEmpty());
+
+        final Permission column = analysts.getPermissions().get(1);
+        assertTrue(column.getConditions().isEmpty());
+        assertThat(column.getMasks().size(), is(1));
+        assertThat(column.getMasks().get(0).getOrder(), is(2));
+        assertThat(column.getMasks().get(0).getRule(), is("CASE WHEN hasRole('Auditors') THEN account END"));
+
+        assertThat(analysts.getPermissions().get(2).useLanguage(), is(true));
+
+        // repeated names are shared
+        assertThat(dataRoles.get(1).getPermissions().get(0).getResourceName(), is(sameInstance(rows.getResourceName())));
+    }
+
+    @Test
+    public void shouldGiveManifestObjectsToHandlerInsteadOfManifest() throws Exception {
+        final List<Object> handled = new ArrayList<Object>();
+        final VdbManifest.Handler handler = new VdbManifest.Handler() {
+
+            @Override
+            public void translator( final VdbTranslator translator ) {
+                handled.add(translator);
+            }
+
+            @Override
+            public void model( final VdbModel model ) {
+                handled.add(model);
+            }
+
+            @Override
+            public void importVdb( final ImportVdb importVdb ) {
+                handled.add(importVdb);
+            }
+
+            @Override
+            public void entry( final VdbEntry entry ) {
+                handled.add(entry);
+            }
+
+            @Override
+            public void dataRole( final VdbDataRole dataRole ) {
+                handled.add(dataRole);
+            }
+        };
+
+        final VdbManifest manifest = VdbManifest.read(streamFor("/vdb/dataRoles-vdb.xml"), null, handler);
+        assertThat(manifest.getName(), is("Portfolio"));
+        assertThat(manifest.getDescription(), is("Portfolio data with row and column security"));
+        assertThat(manifest.getProperties().get("UseConnectorMetadata"), is("cached"));
+        assertTrue(manifest.getModels().isEmpty());
+        assertTrue(manifest.getTranslators().isEmpty());
+        assertTrue(manifest.getDataRoles().isEmpty());
+        assertTrue(manifest.getEntries().isEmpty());
+        assertTrue(manifest.getImportVdbs().isEmpty());
+
+        // document order
+        assertThat(handled.size(), is(7));
+        assertTrue(handled.get(0) instanceof ImportVdb);
+        assertThat(((VdbModel)handled.get(1)).getName(), is("MarketData"));
+        assertThat(((VdbModel)handled.get(2)).getName(), is("Stocks"));
+        assertTrue(handled.get(3) instanceof VdbTranslator);
+        assertThat(((VdbDataRole)handled.get(4)).getName(), is("Analysts"));
+        assertThat(((VdbDataRole)handled.get(5)).getName(), is("Auditors"));
+        assertTrue(handled.get(6) instanceof VdbEntry);
+    }
+
     private InputStream streamFor( String resourcePath ) throws Exception {
         InputStream istream = getClass().getResourceAsStream(resourcePath);
         assertThat(istream, is(notNullValue()));
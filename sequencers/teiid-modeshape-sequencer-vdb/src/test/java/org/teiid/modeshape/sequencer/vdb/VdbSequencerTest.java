@@ -26,15 +26,37 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import javax.jcr.NamespaceRegistry;
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.PropertyType;
 import javax.jcr.Value;
 import org.apache.log4j.Logger;
 import org.junit.Test;
 import org.modeshape.jcr.api.JcrConstants;
+import org.modeshape.jcr.api.ValueFactory;
 import org.modeshape.jcr.api.observation.Event;
+import org.modeshape.jcr.api.sequencer.Sequencer.Context;
+import org.teiid.modeshape.metrics.DefaultMetrics;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.Metrics;
+import org.teiid.modeshape.metrics.MetricsRegistry;
 import org.teiid.modeshape.sequencer.AbstractSequencerTest;
 import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
 import org.teiid.modeshape.sequencer.vdb.lexicon.RelationalLexicon;
@@ -696,6 +718,31 @@ public final class VdbSequencerTest extends AbstractSequencerTest {
         }
     }
 
+    @Test
+    public void shouldRegisterUniquePrefixesForPropertyNamespaces() throws Exception {
+        createNodeWithContentFromFile( "vdb/namespacedProperties-vdb.xml", "vdb/namespacedProperties-vdb.xml" );
+        final Node outputNode = getOutputNode( this.rootNode, "vdbs/namespacedProperties-vdb.xml" );
+        assertNotNull( outputNode );
+
+        final NamespaceRegistry registry = ( ( javax.jcr.Session )this.session ).getWorkspace().getNamespaceRegistry();
+        final String firstPrefix = registry.getPrefix( "http://example.org/first/jcr" );
+        final String secondPrefix = registry.getPrefix( "http://example.org/second/jcr" );
+
+        // "jcr" is already taken so a suffix is appended
+        assertThat( firstPrefix.startsWith( "jcr" ), is( true ) );
+        assertThat( secondPrefix.startsWith( "jcr" ), is( true ) );
+        assertThat( firstPrefix.equals( secondPrefix ), is( false ) );
+        assertThat( registry.getURI( "jcr" ), is( "http://www.jcp.org/jcr/1.0" ) );
+
+        assertThat( outputNode.getProperty( firstPrefix + ":first" ).getString(), is( "one" ) );
+        assertThat( outputNode.getProperty( secondPrefix + ":second" ).getString(), is( "two" ) );
+        assertThat( outputNode.getProperty( secondPrefix + ":third" ).getString(), is( "three" ) );
+        assertThat( outputNode.getNode( VdbLexicon.Vdb.TRANSLATORS + "/custom" )
+                              .getProperty( firstPrefix + ":translatorProperty" )
+                              .getString(),
+                    is( "four" ) );
+    }
+
     @Test
     public void shouldSequenceDynamicTwitterVdb() throws Exception {
         createNodeWithContentFromFile("vdb/declarativeModels-vdb.xml", "vdb/declarativeModels-vdb.xml");
@@ -823,6 +870,345 @@ public final class VdbSequencerTest extends AbstractSequencerTest {
         assertNotNull(getOutputNode(this.rootNode, "vdbs/QT_Vanilla_Hive_Push.vdb"));
     }
 
+    @Test
+    public void shouldRecordMetricsWhenSequencingVDB() throws Exception {
+        final DefaultMetrics metrics = new DefaultMetrics();
+        final Metrics previous = MetricsRegistry.set( metrics );
+
+        try {
+            createNodeWithContentFromFile( "metered.vdb", "vdb/BooksVdb.vdb" );
+            assertNotNull( getOutputNode( this.rootNode, "vdbs/metered.vdb" ) );
+
+            assertThat( metrics.getTimerCount( MetricNames.VDB_SEQUENCE ) > 0, is( true ) );
+            assertThat( metrics.getTimerCount( MetricNames.VDB_MANIFEST_READ ) > 0, is( true ) );
+            assertThat( metrics.getTimerCount( MetricNames.VDB_MODEL_READ ) > 0, is( true ) );
+            assertThat( metrics.getCount( MetricNames.BYTES_INFLATED ) > 0, is( true ) );
+            assertThat( metrics.getCount( MetricNames.NODES_CREATED ) > 0, is( true ) );
+        } finally {
+            MetricsRegistry.set( previous );
+        }
+    }
+
+    @Test
+    public void shouldCopyUnchangedModelsWhenSequencingIncrementally() throws Exception {
+        final DefaultMetrics metrics = new DefaultMetrics();
+        final Metrics previous = MetricsRegistry.set( metrics );
+
+        try {
+            createNodeWithContentFromFile( "BooksVdb.1.incremental.vdb", "vdb/BooksVdb.vdb" );
+            final Node firstNode = getOutputNode( this.rootNode, "incrementalVdbs/BooksVdb.1.incremental.vdb" );
+            assertNotNull( firstNode );
+
+            createNodeWithContentFromFile( "BooksVdb.2.incremental.vdb", "vdb/BooksVdb.vdb" );
+            final Node secondNode = getOutputNode( this.rootNode, "incrementalVdbs/BooksVdb.2.incremental.vdb" );
+            assertNotNull( secondNode );
+            assertThat( metrics.getCount( MetricNames.VDB_MODELS_COPIED ) > 0, is( true ) );
+
+            int models = 0;
+
+            for ( final NodeIterator itr = firstNode.getNodes(); itr.hasNext(); ) {
+                final Node firstModel = itr.nextNode();
+
+                if ( !firstModel.isNodeType( VdbLexicon.Vdb.MODEL ) ) {
+                    continue;
+                }
+
+                ++models;
+                final Node secondModel = secondNode.getNode( firstModel.getName() );
+                assertThat( secondModel.getProperty( VdbLexicon.Model.CONTENT_HASH ).getString(),
+                            is( firstModel.getProperty( VdbLexicon.Model.CONTENT_HASH ).getString() ) );
+                assertThat( secondModel.getProperty( VdbLexicon.Model.PATH_IN_VDB ).getString(),
+                            is( firstModel.getProperty( VdbLexicon.Model.PATH_IN_VDB ).getString() ) );
+                assertThat( countNodes( secondModel ), is( countNodes( firstModel ) ) );
+                assertReferencesInside( secondModel, secondNode.getPath() + '/' );
+            }
+
+            assertThat( models > 0, is( true ) );
+        } finally {
+            MetricsRegistry.set( previous );
+        }
+    }
+
+    @Test
+    public void shouldResolveReferencesToCopiedModelsWhenSequencingIncrementally() throws Exception {
+        createNodeWithContentFromFile( "BooksVdb.previous.incremental.vdb", "vdb/BooksVdb.vdb" );
+        assertNotNull( getOutputNode( this.rootNode, "incrementalVdbs/BooksVdb.previous.incremental.vdb" ) );
+
+        // the changed view model is sequenced first and references the unchanged source model copied last
+        final String changedModel = "BooksProject/BooksView.xmi";
+        final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+
+        try ( final ZipOutputStream zos = new ZipOutputStream( archive ) ) {
+            final Map< String, byte[] > entries = readEntries( "vdb/BooksVdb.vdb" );
+            final List< String > order = new ArrayList<>( entries.keySet() );
+            order.remove( changedModel );
+            order.add( order.indexOf( "META-INF/vdb.xml" ) + 1, changedModel );
+
+            for ( final String name : order ) {
+                zos.putNextEntry( new ZipEntry( name ) );
+                zos.write( entries.get( name ) );
+
+                if ( name.equals( changedModel ) ) {
+                    zos.write( '\n' );
+                }
+
+                zos.closeEntry();
+            }
+        }
+
+        final ValueFactory valueFactory = ( ValueFactory )this.session.getValueFactory();
+        final Node file = this.rootNode.addNode( "BooksVdb.mixed" );
+        file.addNode( JcrConstants.JCR_CONTENT )
+            .setProperty( JcrConstants.JCR_DATA,
+                          valueFactory.createBinary( new ByteArrayInputStream( archive.toByteArray() ) ) );
+        this.session.save();
+
+        final Property data = file.getNode( JcrConstants.JCR_CONTENT ).getProperty( JcrConstants.JCR_DATA );
+        final Context context = new Context() {
+
+            private final Calendar timestamp = Calendar.getInstance();
+
+            @Override
+            public Calendar getTimestamp() {
+                return this.timestamp;
+            }
+
+            @Override
+            public ValueFactory valueFactory() {
+                return valueFactory;
+            }
+
+        };
+
+        final DefaultMetrics metrics = new DefaultMetrics();
+        final Metrics previous = MetricsRegistry.set( metrics );
+        final Node incrementalNode = this.rootNode.addNode( "mixedIncremental" );
+        final Node eagerNode = this.rootNode.addNode( "mixedEager" );
+
+        try {
+            final VdbSequencer incremental = new VdbSequencer();
+            incremental.setIncremental( true );
+            assertThat( incremental.execute( data, incrementalNode, context ), is( true ) );
+            assertThat( metrics.getCount( MetricNames.VDB_MODELS_COPIED ), is( 1L ) );
+        } finally {
+            MetricsRegistry.set( previous );
+        }
+
+        assertThat( new VdbSequencer().execute( data, eagerNode, context ), is( true ) );
+
+        // the sequenced model is written the same as by an eager sequencing
+        final String modelName = "BooksView.xmi";
+        final Map< String, List< String > > expected = new TreeMap<>();
+        collectProperties( eagerNode.getNode( modelName ), eagerNode.getPath(), expected );
+
+        final Map< String, List< String > > actual = new TreeMap<>();
+        collectProperties( incrementalNode.getNode( modelName ), incrementalNode.getPath(), actual );
+        assertThat( actual, is( expected ) );
+    }
+
+    @Test
+    public void shouldDeferSequencingOfModelsWhenSequencingLazily() throws Exception {
+        createNodeWithContentFromFile( "BooksVdb.lazy.vdb", "vdb/BooksVdb.vdb" );
+        final Node eagerNode = getOutputNode( this.rootNode, "vdbs/BooksVdb.lazy.vdb" );
+        final Node lazyNode = getOutputNode( this.rootNode, "lazyVdbs/BooksVdb.lazy.vdb" );
+        assertNotNull( eagerNode );
+        assertNotNull( lazyNode );
+        assertThat( lazyNode.hasProperty( VdbLexicon.Vdb.ARCHIVE ), is( true ) );
+
+        int stubs = 0;
+
+        for ( final NodeIterator itr = lazyNode.getNodes(); itr.hasNext(); ) {
+            final Node stub = itr.nextNode();
+
+            if ( stub.isNodeType( VdbLexicon.Vdb.DEFERRED_MODEL ) ) {
+                ++stubs;
+                assertThat( stub.getProperty( VdbLexicon.Model.ENTRY_PATH ).getString().endsWith( stub.getName() ), is( true ) );
+                assertNotNull( stub.getProperty( VdbLexicon.Model.CONTENT_HASH ).getString() );
+                assertNotNull( stub.getProperty( VdbLexicon.Model.PATH_IN_VDB ).getString() );
+                assertThat( stub.hasNode( VdbLexicon.Vdb.SOURCES ) || !stub.getNodes().hasNext(), is( true ) );
+            }
+        }
+
+        assertThat( stubs > 0, is( true ) );
+
+        final VdbSequencer sequencer = new VdbSequencer();
+        assertThat( sequencer.sequenceDeferredModels( lazyNode ) > 0, is( true ) );
+        this.session.save();
+        assertThat( lazyNode.hasProperty( VdbLexicon.Vdb.ARCHIVE ), is( false ) );
+
+        int models = 0;
+
+        for ( final NodeIterator itr = eagerNode.getNodes(); itr.hasNext(); ) {
+            final Node eagerModel = itr.nextNode();
+
+            if ( !eagerModel.isNodeType( VdbLexicon.Vdb.MODEL ) ) {
+                continue;
+            }
+
+            ++models;
+            final Node lazyModel = lazyNode.getNode( eagerModel.getName() );
+            assertThat( lazyModel.isNodeType( VdbLexicon.Vdb.MODEL ), is( true ) );
+            assertThat( lazyModel.getProperty( VdbLexicon.Model.CONTENT_HASH ).getString(),
+                        is( eagerModel.getProperty( VdbLexicon.Model.CONTENT_HASH ).getString() ) );
+            assertThat( countNodes( lazyModel ), is( countNodes( eagerModel ) ) );
+            assertReferencesInside( lazyModel, lazyNode.getPath() + '/' );
+        }
+
+        assertThat( models > 0, is( true ) );
+    }
+
+    @Test
+    public void shouldWriteSameNodesWhenStreamingDynamicVdbManifest() throws Exception {
+        createNodeWithContentFromFile( "Portfolio.streamed-vdb.xml", "vdb/dataRoles-vdb.xml" );
+        final Node node = getOutputNode( this.rootNode, "vdbs/Portfolio.streamed-vdb.xml" );
+        final Node streamedNode = getOutputNode( this.rootNode, "streamedVdbs/Portfolio.streamed-vdb.xml" );
+        assertNotNull( node );
+        assertNotNull( streamedNode );
+
+        final Node permission = streamedNode.getNode( VdbLexicon.Vdb.DATA_ROLES
+                                                      + "/Analysts/"
+                                                      + VdbLexicon.DataRole.PERMISSIONS
+                                                      + "/Stocks.StockPrices" );
+        assertThat( permission.getNode( VdbLexicon.DataRole.Permission.CONDITIONS ).getNodes().getSize(), is( 2L ) );
+        assertThat( streamedNode.getNode( "Stocks" ).isNodeType( VdbLexicon.Vdb.DECLARATIVE_MODEL ), is( true ) );
+        assertSameContent( node, streamedNode );
+    }
+
+    private void assertSameContent( final Node expected,
+                                    final Node actual ) throws Exception {
+        int properties = 0;
+
+        for ( final PropertyIterator itr = expected.getProperties(); itr.hasNext(); ) {
+            final Property property = itr.nextProperty();
+
+            if ( property.getName().startsWith( "jcr:" ) || VdbLexicon.Vdb.ORIGINAL_FILE.equals( property.getName() ) ) {
+                continue;
+            }
+
+            ++properties;
+            final Property other = actual.getProperty( property.getName() );
+
+            if ( property.isMultiple() ) {
+                assertThat( property.getPath(), other.getValues().length, is( property.getValues().length ) );
+
+                for ( int i = 0; i < property.getValues().length; ++i ) {
+                    assertThat( property.getPath(),
+                                other.getValues()[ i ].getString(),
+                                is( property.getValues()[ i ].getString() ) );
+                }
+            } else {
+                assertThat( property.getPath(), other.getString(), is( property.getString() ) );
+            }
+        }
+
+        int actualProperties = 0;
+
+        for ( final PropertyIterator itr = actual.getProperties(); itr.hasNext(); ) {
+            final String name = itr.nextProperty().getName();
+
+            if ( !name.startsWith( "jcr:" ) && !VdbLexicon.Vdb.ORIGINAL_FILE.equals( name ) ) {
+                ++actualProperties;
+            }
+        }
+
+        assertThat( actual.getPath(), actualProperties, is( properties ) );
+        assertThat( actual.getPath(), actual.getNodes().getSize(), is( expected.getNodes().getSize() ) );
+
+        for ( final NodeIterator itr = expected.getNodes(); itr.hasNext(); ) {
+            final Node child = itr.nextNode();
+            assertSameContent( child, actual.getNode( child.getName() + '[' + child.getIndex() + ']' ) );
+        }
+    }
+
+    private void assertReferencesInside( final Node node,
+                                         final String vdbPath ) throws Exception {
+        for ( final PropertyIterator itr = node.getProperties(); itr.hasNext(); ) {
+            final Property property = itr.nextProperty();
+
+            if ( property.getType() == PropertyType.WEAKREFERENCE ) {
+                final Value[] values = ( property.isMultiple() ? property.getValues() : new Value[] { property.getValue() } );
+
+                for ( final Value value : values ) {
+                    final Node target = this.session.getNodeByIdentifier( value.getString() );
+                    assertThat( property.getPath(), target.getPath().startsWith( vdbPath ), is( true ) );
+                }
+            }
+        }
+
+        for ( final NodeIterator itr = node.getNodes(); itr.hasNext(); ) {
+            assertReferencesInside( itr.nextNode(), vdbPath );
+        }
+    }
+
+    /**
+     * Collects the property values of the node and its descendants. Reference values are the paths of their targets, and all
+     * paths are relative to the VDB node.
+     */
+    private void collectProperties( final Node node,
+                                    final String vdbPath,
+                                    final Map< String, List< String > > properties ) throws Exception {
+        for ( final PropertyIterator itr = node.getProperties(); itr.hasNext(); ) {
+            final Property property = itr.nextProperty();
+
+            if ( property.getName().startsWith( "jcr:" ) ) {
+                continue;
+            }
+
+            final boolean reference = ( ( property.getType() == PropertyType.WEAKREFERENCE )
+                                        || ( property.getType() == PropertyType.REFERENCE ) );
+            final Value[] values = ( property.isMultiple() ? property.getValues() : new Value[] { property.getValue() } );
+            final List< String > strings = new ArrayList<>();
+
+            for ( final Value value : values ) {
+                if ( reference ) {
+                    final Node target = this.session.getNodeByIdentifier( value.getString() );
+                    strings.add( target.getPath().substring( vdbPath.length() ) );
+                } else {
+                    strings.add( value.getString() );
+                }
+            }
+
+            Collections.sort( strings );
+            properties.put( property.getPath().substring( vdbPath.length() ), strings );
+        }
+
+        for ( final NodeIterator itr = node.getNodes(); itr.hasNext(); ) {
+            collectProperties( itr.nextNode(), vdbPath, properties );
+        }
+    }
+
+    private Map< String, byte[] > readEntries( final String archive ) throws Exception {
+        final Map< String, byte[] > entries = new LinkedHashMap<>();
+
+        try ( final ZipInputStream zis = new ZipInputStream( resourceStream( archive ) ) ) {
+            ZipEntry entry = null;
+
+            while ( ( entry = zis.getNextEntry() ) != null ) {
+                final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[ 8192 ];
+                int read = 0;
+
+                while ( ( read = zis.read( buffer ) ) != -1 ) {
+                    content.write( buffer, 0, read );
+                }
+
+                entries.put( entry.getName(), content.toByteArray() );
+            }
+        }
+
+        return entries;
+    }
+
+    private long countNodes( final Node node ) throws Exception {
+        long count = 1;
+
+        for ( final NodeIterator itr = node.getNodes(); itr.hasNext(); ) {
+            count += countNodes( itr.nextNode() );
+        }
+
+        return count;
+    }
+
     protected void assertVersionInfo( String fileNameWithoutExtension,
                                       String expectedName,
                                       int expectedVersion ) {
@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.vdb.model;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import javax.jcr.Node;
+import org.junit.After;
+import org.junit.Test;
+import org.teiid.modeshape.sequencer.vdb.lexicon.CoreLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.DiagramLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.JdbcLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.RelationalLexicon;
+import org.teiid.modeshape.sequencer.vdb.lexicon.TransformLexicon;
+import org.teiid.modeshape.sequencer.vdb.xmi.XmiElement;
+
+public final class ModelObjectHandlerRegistryTest {
+
+    private static final String CUSTOM_URI = "http://www.example.org/metamodels/Custom";
+
+    private static final class CustomHandler extends ModelObjectHandler {
+
+        @Override
+        protected void process( final XmiElement element,
+                                final Node parentNode,
+                                final ModelContext context ) {
+            // nothing to do
+        }
+    }
+
+    @After
+    public void afterEach() {
+        ModelObjectHandlerRegistry.reset();
+    }
+
+    @Test
+    public void shouldRegisterBuiltInHandlers() {
+        assertThat(ModelObjectHandlerRegistry.get(CoreLexicon.Namespace.URI), is(instanceOf(CoreModelObjectHandler.class)));
+        assertThat(ModelObjectHandlerRegistry.get(DiagramLexicon.Namespace.URI), is(instanceOf(DiagramModelObjectHandler.class)));
+        assertThat(ModelObjectHandlerRegistry.get(JdbcLexicon.Namespace.URI), is(instanceOf(JdbcModelObjectHandler.class)));
+        assertThat(ModelObjectHandlerRegistry.get(RelationalLexicon.Namespace.URI),
+                   is(instanceOf(RelationalModelObjectHandler.class)));
+        assertThat(ModelObjectHandlerRegistry.get(TransformLexicon.Namespace.URI),
+                   is(instanceOf(TransformationModelObjectHandler.class)));
+    }
+
+    @Test
+    public void shouldShareHandlerInstances() {
+        final ModelObjectHandler handler = ModelObjectHandlerRegistry.get(RelationalLexicon.Namespace.URI);
+        assertThat(ModelObjectHandlerRegistry.get(RelationalLexicon.Namespace.URI), is(sameInstance(handler)));
+    }
+
+    @Test
+    public void shouldNotFindUnregisteredHandler() {
+        assertThat(ModelObjectHandlerRegistry.get(CUSTOM_URI), is(nullValue()));
+    }
+
+    @Test
+    public void shouldRegisterCustomHandler() {
+        final ModelObjectHandler handler = new CustomHandler();
+        assertThat(ModelObjectHandlerRegistry.register(CUSTOM_URI, handler), is(nullValue()));
+        assertThat(ModelObjectHandlerRegistry.get(CUSTOM_URI), is(sameInstance(handler)));
+    }
+
+    @Test
+    public void shouldReplaceBuiltInHandler() {
+        final ModelObjectHandler builtIn = ModelObjectHandlerRegistry.get(JdbcLexicon.Namespace.URI);
+        final ModelObjectHandler handler = new CustomHandler();
+        assertThat(ModelObjectHandlerRegistry.register(JdbcLexicon.Namespace.URI, handler), is(sameInstance(builtIn)));
+        assertThat(ModelObjectHandlerRegistry.get(JdbcLexicon.Namespace.URI), is(sameInstance(handler)));
+    }
+
+    @Test
+    public void shouldUnregisterHandler() {
+        ModelObjectHandlerRegistry.register(CUSTOM_URI, new CustomHandler());
+        ModelObjectHandlerRegistry.register(CUSTOM_URI, null);
+        assertThat(ModelObjectHandlerRegistry.get(CUSTOM_URI), is(nullValue()));
+    }
+
+    @Test
+    public void shouldRestoreBuiltInHandlersOnReset() {
+        ModelObjectHandlerRegistry.register(CUSTOM_URI, new CustomHandler());
+        ModelObjectHandlerRegistry.register(JdbcLexicon.Namespace.URI, null);
+        ModelObjectHandlerRegistry.reset();
+
+        assertThat(ModelObjectHandlerRegistry.get(CUSTOM_URI), is(nullValue()));
+        assertThat(ModelObjectHandlerRegistry.get(JdbcLexicon.Namespace.URI), is(instanceOf(JdbcModelObjectHandler.class)));
+    }
+
+}
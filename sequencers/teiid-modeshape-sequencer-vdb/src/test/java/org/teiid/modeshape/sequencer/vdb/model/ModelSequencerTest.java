@@ -29,6 +29,8 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
 import javax.jcr.Property;
@@ -49,6 +51,7 @@ import org.teiid.modeshape.sequencer.vdb.lexicon.RelationalLexicon;
 import org.teiid.modeshape.sequencer.vdb.lexicon.RelationalLexicon.JcrId;
 import org.teiid.modeshape.sequencer.vdb.lexicon.TransformLexicon;
 import org.teiid.modeshape.sequencer.vdb.lexicon.XmiLexicon;
+import org.teiid.modeshape.sequencer.vdb.xmi.XmiElement;
 
 public class ModelSequencerTest extends AbstractSequencerTest {
 
@@ -1039,4 +1042,33 @@ public class ModelSequencerTest extends AbstractSequencerTest {
         createNodeWithContentFromFile("third.xmi", "model/BQT1.xmi");
         assertNotNull(getOutputNode(this.rootNode, "models/third.xmi"));
     }
+
+    @Test
+    public void shouldUseRegisteredModelObjectHandler() throws Exception {
+        final List<String> processed = new ArrayList<String>();
+        final ModelObjectHandler handler = new ModelObjectHandler() {
+
+            @Override
+            protected void process( final XmiElement element,
+                                    final Node parentNode,
+                                    final ModelContext context ) throws Exception {
+                assertThat(context.getModelInfo().getPath(), is("/models/Books_Oracle.xmi"));
+                processed.add(element.getName());
+            }
+        };
+
+        final ModelObjectHandler previous = ModelObjectHandlerRegistry.register(JdbcLexicon.Namespace.URI, handler);
+
+        try {
+            createNodeWithContentFromFile("Books_Oracle.xmi", "model/books/Books_Oracle.xmi");
+            final Node outputNode = getOutputNode(this.rootNode, "models/Books_Oracle.xmi");
+            assertNotNull(outputNode);
+
+            // custom handler was used instead of the built-in JDBC handler
+            assertThat(processed.isEmpty(), is(false));
+            assertThat(outputNode.hasNode("Books Oracle"), is(false));
+        } finally {
+            ModelObjectHandlerRegistry.register(JdbcLexicon.Namespace.URI, previous);
+        }
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.vdb.model;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test class for {@link UuidMap}.
+ */
+public class UuidMapTest {
+
+    private static final String UUID_1 = "1e40dcf2-8113-4c0b-81de-5a9dbf8bede0";
+
+    private UuidMap<String> map;
+
+    @Before
+    public void beforeEach() {
+        this.map = new UuidMap<String>();
+    }
+
+    @Test
+    public void shouldParseCanonicalUuid() {
+        final long[] result = new long[2];
+        assertThat(UuidMap.parse(UUID_1, 0, UUID_1.length(), result), is(true));
+
+        final UUID expected = UUID.fromString(UUID_1);
+        assertThat(result[0], is(expected.getMostSignificantBits()));
+        assertThat(result[1], is(expected.getLeastSignificantBits()));
+    }
+
+    @Test
+    public void shouldParseUuidWithShortGroupsLikeJavaUuid() {
+        final String value = "1-2-3-4-5";
+        final long[] result = new long[2];
+        assertThat(UuidMap.parse(value, 0, value.length(), result), is(true));
+
+        final UUID expected = UUID.fromString(value);
+        assertThat(result[0], is(expected.getMostSignificantBits()));
+        assertThat(result[1], is(expected.getLeastSignificantBits()));
+    }
+
+    @Test
+    public void shouldNotParseValuesThatAreNotUuids() {
+        final long[] result = new long[2];
+
+        for (final String value : new String[] { "", "abc", "1e40dcf2-8113-4c0b-81de", "1e40dcf2-8113-4c0b-81de-5a9dbf8bede0-1",
+            "1e40dcf2-8113-4c0b-81de-5a9dbf8bedeg", "1e40dcf2-8113-4c0b--5a9dbf8bede0", "11e40dcf2-113-4c0b-81de-5a9dbf8bede0",
+            "1e40dcf2-8113-4c0b-81de-5a9dbf8bede0 " }) {
+            assertThat(value, UuidMap.parse(value, 0, value.length(), result), is(false));
+        }
+    }
+
+    @Test
+    public void shouldParseUuidInsideOfText() {
+        final String value = "mmuuid:" + UUID_1 + "#";
+        final long[] result = new long[2];
+        assertThat(UuidMap.parse(value, 7, value.length() - 1, result), is(true));
+        assertThat(UuidMap.toString(result[0], result[1]), is(UUID_1));
+    }
+
+    @Test
+    public void shouldIgnoreCaseOfUuidKeys() {
+        this.map.put(UUID_1.toUpperCase(), "value");
+        assertThat(this.map.get(UUID_1), is("value"));
+        assertThat(this.map.keySet().iterator().next(), is(UUID_1));
+    }
+
+    @Test
+    public void shouldSupportKeysThatAreNotUuids() {
+        this.map.put("notAUuid", "value");
+        this.map.put(UUID_1, "uuidValue");
+        assertThat(this.map.size(), is(2));
+        assertThat(this.map.get("notAUuid"), is("value"));
+        assertThat(this.map.remove("notAUuid"), is("value"));
+        assertThat(this.map.size(), is(1));
+        assertNull(this.map.get("notAUuid"));
+    }
+
+    @Test
+    public void shouldBehaveLikeHashMap() {
+        final Map<String, String> expected = new HashMap<String, String>();
+        final String[] keys = new String[2000];
+        final Random random = new Random(7);
+
+        for (int i = 0; i < keys.length; ++i) {
+            // only a few high bits vary so that many keys collide
+            keys[i] = new UUID(random.nextInt(64), random.nextInt(16)).toString();
+        }
+
+        for (int i = 0; i < 20000; ++i) {
+            final String key = keys[random.nextInt(keys.length)];
+
+            if (random.nextInt(3) == 0) {
+                assertThat(this.map.remove(key), is(expected.remove(key)));
+            } else {
+                final String value = Integer.toString(i);
+                assertThat(this.map.put(key, value), is(expected.put(key, value)));
+            }
+
+            assertThat(this.map.size(), is(expected.size()));
+        }
+
+        for (final String key : keys) {
+            assertThat(this.map.get(key), is(expected.get(key)));
+            assertThat(this.map.containsKey(key), is(expected.containsKey(key)));
+        }
+
+        int count = 0;
+
+        for (final Entry<String, String> entry : this.map.entrySet()) {
+            assertThat(entry.getValue(), is(expected.get(entry.getKey())));
+            ++count;
+        }
+
+        assertThat(count, is(expected.size()));
+    }
+
+    @Test( expected = java.util.ConcurrentModificationException.class )
+    public void shouldFailWhenAddingWhileIterating() {
+        this.map.put(UUID_1, "value");
+        this.map.put(UUID.randomUUID().toString(), "value");
+
+        for (final String key : this.map.keySet()) {
+            this.map.put(UUID.randomUUID().toString(), key);
+        }
+    }
+
+}
@@ -117,6 +117,29 @@ public class XmiElementTest {
         assertNull(this.element.getAttribute(XmiLexicon.ModelId.UUID, RelationalLexicon.Namespace.URI));
     }
 
+    @Test
+    public void shouldAddAttributeWithoutAttributeObject() {
+        this.element.addAttribute(UUID_ATTR_NAME, UUID_ATTR_NAMESPACE_PREFIX, UUID_ATTR_NAMESPACE_URI, UUID);
+        assertThat(this.element.getAttributes().size(), is(1));
+        assertThat(this.element.getUuid(), is(UUID));
+        assertThat(this.element.getAttribute(UUID_ATTR_NAME, UUID_ATTR_NAMESPACE_URI).getParent(), is(this.element));
+    }
+
+    @Test
+    public void shouldUpdateElementWhenAttributeValueIsSet() {
+        this.element.addAttribute(UUID_ATTR_NAME, UUID_ATTR_NAMESPACE_PREFIX, UUID_ATTR_NAMESPACE_URI, "oldValue");
+        this.element.getAttribute(UUID_ATTR_NAME, UUID_ATTR_NAMESPACE_URI).setValue(UUID);
+        assertThat(this.element.getUuid(), is(UUID));
+    }
+
+    @Test
+    public void shouldUseElementNamespaceForAttributeWithoutNamespace() {
+        this.element.setNamespaceUri(CHILD_NAMESPACE_URI);
+        this.element.addAttribute(XmiElement.NAME_ATTR_NAME, null, null, "value");
+        assertThat(this.element.getAttributeValue(XmiElement.NAME_ATTR_NAME, CHILD_NAMESPACE_URI), is("value"));
+        assertThat(this.element.getNameAttribute(CHILD_NAMESPACE_URI).getNamespaceUri(), is(CHILD_NAMESPACE_URI));
+    }
+
     @Test
     public void shouldAddChild() {
         XmiElement child = createChild();
@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Calendar;
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.Session;
+import org.modeshape.common.util.CheckArg;
+import org.modeshape.jcr.ModeShapeEngine;
+import org.modeshape.jcr.RepositoryConfiguration;
+import org.modeshape.jcr.api.JcrConstants;
+import org.modeshape.jcr.api.ValueFactory;
+import org.modeshape.jcr.api.nodetype.NodeTypeManager;
+import org.modeshape.jcr.api.sequencer.Sequencer;
+import org.modeshape.jcr.api.sequencer.Sequencer.Context;
+
+/**
+ * An in-memory repository that the benchmarks sequence into. No sequencers are configured. Instead the benchmarks register the
+ * node types of their sequencers and call them directly so that only the sequencing is measured.
+ */
+public final class InMemoryRepository implements AutoCloseable {
+
+    private static final String CONFIG = "config/benchmark-repository.json";
+
+    private final Context context;
+    private final ModeShapeEngine engine;
+    private final Session session;
+
+    /**
+     * Starts a repository and logs into its default workspace.
+     *
+     * @throws Exception if the repository cannot be started
+     */
+    public InMemoryRepository() throws Exception {
+        this.engine = new ModeShapeEngine();
+        this.engine.start();
+
+        try ( final InputStream config = getClass().getClassLoader().getResourceAsStream( CONFIG ) ) {
+            this.session = this.engine.deploy( RepositoryConfiguration.read( config, "benchmark" ) ).login();
+        }
+
+        this.context = new SessionContext( this.session );
+    }
+
+    /**
+     * Logs out and shuts down the repository.
+     *
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() throws Exception {
+        try {
+            this.session.logout();
+        } finally {
+            this.engine.shutdown().get();
+        }
+    }
+
+    /**
+     * Creates a file node like the ones the sequencers are configured to sequence and saves the session.
+     *
+     * @param name the name of the file node under the root node (cannot be <code>null</code> or empty)
+     * @param content the file content (cannot be <code>null</code>)
+     * @return the binary property holding the content (never <code>null</code>)
+     * @throws Exception if the node cannot be created
+     */
+    public Property createFile( final String name,
+                                final byte[] content ) throws Exception {
+        CheckArg.isNotEmpty( name, "name" );
+        CheckArg.isNotNull( content, "content" );
+
+        final Node contentNode = this.session.getRootNode().addNode( name ).addNode( JcrConstants.JCR_CONTENT );
+        final Property data = contentNode.setProperty( JcrConstants.JCR_DATA,
+                                                       this.session.getValueFactory()
+                                                                   .createBinary( new ByteArrayInputStream( content ) ) );
+        this.session.save();
+        return data;
+    }
+
+    /**
+     * @return the sequencer context of the session (never <code>null</code>)
+     */
+    public Context getContext() {
+        return this.context;
+    }
+
+    /**
+     * @return the session logged into the default workspace (never <code>null</code>)
+     */
+    public Session getSession() {
+        return this.session;
+    }
+
+    /**
+     * Registers the namespaces and node types of the sequencer.
+     *
+     * @param sequencer the sequencer being initialized (cannot be <code>null</code>)
+     * @return the sequencer (never <code>null</code>)
+     * @throws Exception if the sequencer cannot be initialized
+     */
+    public < T extends Sequencer > T initialize( final T sequencer ) throws Exception {
+        CheckArg.isNotNull( sequencer, "sequencer" );
+        sequencer.initialize( this.session.getWorkspace().getNamespaceRegistry(),
+                              ( NodeTypeManager )this.session.getWorkspace().getNodeTypeManager() );
+        return sequencer;
+    }
+
+    private static final class SessionContext implements Context {
+
+        private final Calendar timestamp = Calendar.getInstance();
+        private final ValueFactory valueFactory;
+
+        SessionContext( final Session session ) throws Exception {
+            this.valueFactory = ( ValueFactory )session.getValueFactory();
+        }
+
+        /**
+         * @see org.modeshape.jcr.api.sequencer.Sequencer.Context#getTimestamp()
+         */
+        @Override
+        public Calendar getTimestamp() {
+            return this.timestamp;
+        }
+
+        /**
+         * @see org.modeshape.jcr.api.sequencer.Sequencer.Context#valueFactory()
+         */
+        @Override
+        public ValueFactory valueFactory() {
+            return this.valueFactory;
+        }
+
+    }
+
+}
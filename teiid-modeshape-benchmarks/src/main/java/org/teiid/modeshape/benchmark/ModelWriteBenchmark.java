@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import javax.jcr.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teiid.modeshape.sequencer.internal.NamespaceRegistryCache;
+import org.teiid.modeshape.sequencer.vdb.VdbManifest;
+import org.teiid.modeshape.sequencer.vdb.VdbModel;
+import org.teiid.modeshape.sequencer.vdb.VdbSequencer;
+import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon;
+import org.teiid.modeshape.sequencer.vdb.model.ModelSequencer;
+import org.teiid.modeshape.sequencer.vdb.model.ReferenceResolver;
+
+/**
+ * Measures sequencing a generated model file of a VDB into nodes. Each model is written with its own reference resolver so the
+ * references of a view model into its source model stay unresolved (see {@link ReferenceResolutionBenchmark}). The nodes are
+ * discarded without being saved after each operation.
+ */
+@BenchmarkMode( Mode.Throughput )
+@Fork( 1 )
+@Measurement( iterations = 5 )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@State( Scope.Benchmark )
+@Warmup( iterations = 5 )
+public class ModelWriteBenchmark {
+
+    @Param( { "10", "100" } )
+    public int tables;
+
+    @Param( { "10" } )
+    public int columns;
+
+    @Param( { "source", "view" } )
+    public String model;
+
+    private byte[] content;
+    private String name;
+    private NamespaceRegistryCache namespaces;
+    private InMemoryRepository repository;
+    private final ModelSequencer sequencer = new ModelSequencer();
+    private Node vdbNode;
+    private VdbModel vdbModel;
+
+    @Setup
+    public void setUp() throws Exception {
+        final VdbGenerator generator = new VdbGenerator( 2, this.tables, this.columns );
+        final int index = ( "view".equals( this.model ) ? 1 : 0 );
+        this.content = generator.generateModel( index );
+        this.name = generator.getModelName( index ) + ".xmi";
+        this.vdbModel = VdbManifest.read( new ByteArrayInputStream( generator.generateManifest() ), null )
+                                   .getModel( generator.getModelEntryPath( index ) );
+
+        this.repository = new InMemoryRepository();
+        this.repository.initialize( new VdbSequencer() );
+        this.namespaces = new NamespaceRegistryCache( this.repository.getSession().getWorkspace().getNamespaceRegistry() );
+        this.vdbNode = this.repository.getSession()
+                                      .getRootNode()
+                                      .addNode( VdbGenerator.VDB_NAME, VdbLexicon.Vdb.VIRTUAL_DATABASE );
+        this.repository.getSession().save();
+    }
+
+    @TearDown( Level.Invocation )
+    public void discardNodes() throws Exception {
+        this.repository.getSession().refresh( false );
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.repository.close();
+    }
+
+    @Benchmark
+    public boolean writeModel() throws Exception {
+        final Node modelNode = this.vdbNode.addNode( this.name, VdbLexicon.Vdb.MODEL );
+        return this.sequencer.sequenceVdbModel( new ByteArrayInputStream( this.content ),
+                                                modelNode,
+                                                this.vdbModel,
+                                                new ReferenceResolver(),
+                                                this.namespaces,
+                                                this.repository.getContext() );
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import javax.jcr.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teiid.modeshape.sequencer.internal.NamespaceRegistryCache;
+import org.teiid.modeshape.sequencer.vdb.VdbManifest;
+import org.teiid.modeshape.sequencer.vdb.VdbModel;
+import org.teiid.modeshape.sequencer.vdb.VdbSequencer;
+import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon;
+import org.teiid.modeshape.sequencer.vdb.model.ModelSequencer;
+import org.teiid.modeshape.sequencer.vdb.model.ReferenceResolver;
+
+/**
+ * Measures sequencing a generated view model after its source model with the same reference resolver, the way the VDB
+ * sequencer does, so that the transformation inputs and aliases of every view table resolve to nodes of the source model. The
+ * source model is written before each operation and is not measured. Compare with the <code>view</code> model of
+ * {@link ModelWriteBenchmark}, whose references into the source model stay unresolved.
+ */
+@BenchmarkMode( Mode.Throughput )
+@Fork( 1 )
+@Measurement( iterations = 5 )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@State( Scope.Benchmark )
+@Warmup( iterations = 5 )
+public class ReferenceResolutionBenchmark {
+
+    @Param( { "10", "100" } )
+    public int tables;
+
+    @Param( { "10" } )
+    public int columns;
+
+    private NamespaceRegistryCache namespaces;
+    private InMemoryRepository repository;
+    private ReferenceResolver resolver;
+    private final ModelSequencer sequencer = new ModelSequencer();
+    private byte[] sourceContent;
+    private VdbModel sourceModel;
+    private String sourceName;
+    private Node vdbNode;
+    private byte[] viewContent;
+    private VdbModel viewModel;
+    private String viewName;
+
+    @Setup
+    public void setUp() throws Exception {
+        final VdbGenerator generator = new VdbGenerator( 2, this.tables, this.columns );
+        final VdbManifest manifest = VdbManifest.read( new ByteArrayInputStream( generator.generateManifest() ), null );
+        this.sourceContent = generator.generateModel( 0 );
+        this.sourceModel = manifest.getModel( generator.getModelEntryPath( 0 ) );
+        this.sourceName = generator.getModelName( 0 ) + ".xmi";
+        this.viewContent = generator.generateModel( 1 );
+        this.viewModel = manifest.getModel( generator.getModelEntryPath( 1 ) );
+        this.viewName = generator.getModelName( 1 ) + ".xmi";
+
+        this.repository = new InMemoryRepository();
+        this.repository.initialize( new VdbSequencer() );
+        this.namespaces = new NamespaceRegistryCache( this.repository.getSession().getWorkspace().getNamespaceRegistry() );
+        this.vdbNode = this.repository.getSession()
+                                      .getRootNode()
+                                      .addNode( VdbGenerator.VDB_NAME, VdbLexicon.Vdb.VIRTUAL_DATABASE );
+        this.repository.getSession().save();
+    }
+
+    @Setup( Level.Invocation )
+    public void writeSourceModel() throws Exception {
+        this.resolver = new ReferenceResolver();
+        this.sequencer.sequenceVdbModel( new ByteArrayInputStream( this.sourceContent ),
+                                         this.vdbNode.addNode( this.sourceName, VdbLexicon.Vdb.MODEL ),
+                                         this.sourceModel,
+                                         this.resolver,
+                                         this.namespaces,
+                                         this.repository.getContext() );
+    }
+
+    @TearDown( Level.Invocation )
+    public void discardNodes() throws Exception {
+        this.repository.getSession().refresh( false );
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.repository.close();
+    }
+
+    @Benchmark
+    public boolean writeViewModel() throws Exception {
+        final Node modelNode = this.vdbNode.addNode( this.viewName, VdbLexicon.Vdb.MODEL );
+        return this.sequencer.sequenceVdbModel( new ByteArrayInputStream( this.viewContent ),
+                                                modelNode,
+                                                this.viewModel,
+                                                this.resolver,
+                                                this.namespaces,
+                                                this.repository.getContext() );
+    }
+
+}
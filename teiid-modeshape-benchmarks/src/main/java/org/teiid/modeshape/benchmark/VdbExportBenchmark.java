@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.jcr.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teiid.modeshape.sequencer.Result;
+import org.teiid.modeshape.sequencer.vdb.VdbExporter;
+import org.teiid.modeshape.sequencer.vdb.VdbManifest;
+import org.teiid.modeshape.sequencer.vdb.VdbSequencer;
+
+/**
+ * Measures a round trip of a sequenced VDB: exporting its manifest from the VDB node and reading the exported manifest back.
+ * The exporter writes the declarative models, which are the DDL-FILE models of the generated VDB.
+ */
+@BenchmarkMode( Mode.Throughput )
+@Fork( 1 )
+@Measurement( iterations = 5 )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@State( Scope.Benchmark )
+@Warmup( iterations = 5 )
+public class VdbExportBenchmark {
+
+    @Param( { "2", "20" } )
+    public int models;
+
+    @Param( { "10" } )
+    public int tables;
+
+    @Param( { "10" } )
+    public int columns;
+
+    private final VdbExporter exporter = new VdbExporter();
+    private InMemoryRepository repository;
+    private Node vdbNode;
+
+    @Setup
+    public void setUp() throws Exception {
+        final VdbGenerator generator = new VdbGenerator( this.models, this.tables, this.columns );
+        generator.setDdlFileModels( this.models );
+
+        this.repository = new InMemoryRepository();
+        final VdbSequencer sequencer = this.repository.initialize( new VdbSequencer() );
+        this.vdbNode = this.repository.getSession().getRootNode().addNode( VdbGenerator.VDB_NAME );
+        sequencer.execute( this.repository.createFile( VdbGenerator.VDB_NAME + ".vdb", generator.generateArchive() ),
+                           this.vdbNode,
+                           this.repository.getContext() );
+        this.repository.getSession().save();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.repository.close();
+    }
+
+    @Benchmark
+    public VdbManifest exportAndRead() throws Exception {
+        final Result result = this.exporter.execute( this.vdbNode, null );
+
+        if ( !result.wasSuccessful() ) {
+            throw new IllegalStateException( result.getErrorMessage(), result.getError() );
+        }
+
+        final byte[] manifest = ( ( String )result.getOutcome() ).getBytes( StandardCharsets.UTF_8 );
+        return VdbManifest.read( new ByteArrayInputStream( manifest ), null );
+    }
+
+}
@@ -0,0 +1,836 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.modeshape.common.annotation.NotThreadSafe;
+import org.modeshape.common.util.CheckArg;
+
+/**
+ * Generates VDB archives of a requested size for the benchmarks. The relational models alternate between source (physical)
+ * models and view (virtual) models. Each view model selects from the source model before it, so its transformations reference
+ * the tables and columns of another model of the VDB. Source model tables have primary and foreign keys and are extended by a
+ * model extension definition (MED). The archive also contains DDL-FILE models and <code>lib/</code> resources.
+ * <p>
+ * The output only depends on the sizes so the same generator settings always produce the same bytes, including the
+ * <code>xmi:uuid</code> values.
+ */
+@NotThreadSafe
+public final class VdbGenerator {
+
+    /**
+     * The name of the generated VDB. Value is {@value}.
+     */
+    public static final String VDB_NAME = "BenchmarkVdb";
+
+    /**
+     * The folder of the generated model files. Value is {@value}.
+     */
+    public static final String PROJECT = "BenchmarkProject";
+
+    /**
+     * The namespace prefix of the generated model extension definition. Value is {@value}.
+     */
+    public static final String MED_PREFIX = "bench";
+
+    /**
+     * The namespace URI of the generated model extension definition. Value is {@value}.
+     */
+    public static final String MED_URI = "http://www.teiid.org/ext/benchmark/2017";
+
+    private static final String BASE_TABLE_METACLASS = "org.teiid.designer.metamodels.relational.impl.BaseTableImpl";
+    private static final String BIGDECIMAL_TYPE = "http://www.metamatrix.com/metamodels/SimpleDatatypes-instance#bigdecimal";
+    private static final String CORE_URI = "http://www.metamatrix.com/metamodels/Core";
+    private static final String RELATIONAL_URI = "http://www.metamatrix.com/metamodels/Relational";
+    private static final String STRING_TYPE = "http://www.w3.org/2001/XMLSchema#string";
+    private static final String TRANSFORMATION_URI = "http://www.metamatrix.com/metamodels/Transformation";
+    private static final String XSD_URI = "http://www.eclipse.org/xsd/2002/XSD";
+
+    // archive entries get a fixed time so that the archive bytes do not depend on when they were generated
+    private static final long ENTRY_TIME = 1483228800000L;
+
+    // the xmi:uuid values are built from the kind of model object and its position in the VDB
+    private static final long UUID_SEED = 0x7e11000000000000L;
+    private static final long UUID_VARIANT = 0x8000000000000000L;
+    private static final int KIND_MODEL = 1;
+    private static final int KIND_IMPORT = 2;
+    private static final int KIND_TABLE = 3;
+    private static final int KIND_COLUMN = 4;
+    private static final int KIND_PRIMARY_KEY = 5;
+    private static final int KIND_FOREIGN_KEY = 6;
+    private static final int KIND_CONTAINER = 7;
+    private static final int KIND_MAPPING = 8;
+    private static final int KIND_COLUMN_MAPPING = 9;
+    private static final int KIND_ANNOTATION = 10;
+    private static final int KIND_TAG = 11;
+    private static final int KIND_MED = 12;
+
+    private static final int MAX_MODELS = ( 1 << 20 );
+    private static final int MAX_TABLES = ( 1 << 20 );
+
+    private final int columns;
+    private int ddlFileModels = 1;
+    private int libResources = 1;
+    private final int models;
+    private final int tables;
+
+    /**
+     * @param models the number of relational models (must be positive)
+     * @param tables the number of tables of each relational model (must be positive)
+     * @param columns the number of columns of each table (must be positive)
+     */
+    public VdbGenerator( final int models,
+                         final int tables,
+                         final int columns ) {
+        CheckArg.isPositive( models, "models" );
+        CheckArg.isPositive( tables, "tables" );
+        CheckArg.isPositive( columns, "columns" );
+        CheckArg.isLessThan( models, MAX_MODELS, "models" );
+        CheckArg.isLessThan( tables, MAX_TABLES, "tables" );
+        this.models = models;
+        this.tables = tables;
+        this.columns = columns;
+    }
+
+    /**
+     * @return the bytes of the VDB archive (never <code>null</code>)
+     */
+    public byte[] generateArchive() {
+        final byte[][] modelFiles = new byte[ this.models ][];
+
+        for ( int i = 0; i < this.models; ++i ) {
+            modelFiles[ i ] = generateModel( i );
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try ( final ZipOutputStream archive = new ZipOutputStream( bytes ) ) {
+            // the VDB sequencer expects the manifest to be the first entry
+            addEntry( archive, "META-INF/vdb.xml", generateManifest( modelFiles ) );
+
+            for ( int i = 0; i < this.models; ++i ) {
+                addEntry( archive, getModelEntryPath( i ), modelFiles[ i ] );
+            }
+
+            for ( int i = 0; i < this.ddlFileModels; ++i ) {
+                addEntry( archive, getDdlFileEntryPath( i ), generateDdlFile( i ) );
+            }
+
+            for ( int i = 0; i < this.libResources; ++i ) {
+                addEntry( archive, getLibResourceEntryPath( i ), generateLibResource( i ) );
+            }
+        } catch ( final IOException e ) {
+            throw new IllegalStateException( e ); // should not happen writing to memory
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param index the index of the DDL-FILE model
+     * @return the DDL of the model (never <code>null</code>)
+     */
+    public byte[] generateDdlFile( final int index ) {
+        final String selectedModel = getModelName( ( index * 2 + 1 ) % this.models );
+        final StringBuilder ddl = new StringBuilder();
+
+        for ( int table = 0; table < this.tables; ++table ) {
+            ddl.append( "CREATE VIEW " ).append( getDdlFileModelName( index ) ).append( "_Table_" ).append( table );
+            ddl.append( " (\n" );
+
+            for ( int column = 0; column < this.columns; ++column ) {
+                ddl.append( "    Column_" ).append( column ).append( ( ( column % 2 ) == 0 ) ? " string" : " bigdecimal" );
+                ddl.append( ( column < ( this.columns - 1 ) ) ? ",\n" : "\n" );
+            }
+
+            ddl.append( ") AS SELECT * FROM " ).append( selectedModel ).append( ".Table_" ).append( table ).append( ";\n\n" );
+        }
+
+        return ddl.toString().getBytes( StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * @param index the index of the <code>lib/</code> resource
+     * @return the bytes of a small jar (never <code>null</code>)
+     */
+    public byte[] generateLibResource( final int index ) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try ( final ZipOutputStream jar = new ZipOutputStream( bytes ) ) {
+            final String manifest = "Manifest-Version: 1.0\nImplementation-Title: udf" + index + "\n";
+            addEntry( jar, "META-INF/MANIFEST.MF", manifest.getBytes( StandardCharsets.UTF_8 ) );
+        } catch ( final IOException e ) {
+            throw new IllegalStateException( e ); // should not happen writing to memory
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the VDB manifest (never <code>null</code>)
+     */
+    public byte[] generateManifest() {
+        final byte[][] modelFiles = new byte[ this.models ][];
+
+        for ( int i = 0; i < this.models; ++i ) {
+            modelFiles[ i ] = generateModel( i );
+        }
+
+        return generateManifest( modelFiles );
+    }
+
+    private byte[] generateManifest( final byte[][] modelFiles ) {
+        final Xml xml = new Xml( "UTF-8" );
+        xml.start( "vdb", "version", "1", "name", VDB_NAME );
+        xml.leaf( "description", "Generated VDB of " + this.models + " models of " + this.tables + " tables of " + this.columns
+                                 + " columns" );
+        xml.empty( "property", "value", "false", "name", "preview" );
+        xml.empty( "property", "value", "1000000", "name", "query-timeout" );
+
+        for ( int i = 0; i < this.models; ++i ) {
+            final String name = getModelName( i );
+            final CRC32 checksum = new CRC32();
+            checksum.update( modelFiles[ i ] );
+
+            xml.start( "model",
+                       "visible",
+                       "true",
+                       "type",
+                       ( isView( i ) ? "VIRTUAL" : "PHYSICAL" ),
+                       "name",
+                       name,
+                       "path",
+                       '/' + getModelEntryPath( i ) );
+            xml.empty( "property", "value", Long.toString( checksum.getValue() ), "name", "checksum" );
+            xml.empty( "property", "value", "Relational", "name", "modelClass" );
+            xml.empty( "property", "value", "false", "name", "builtIn" );
+
+            if ( isView( i ) ) {
+                xml.empty( "property", "value", '/' + getModelEntryPath( i - 1 ), "name", "imports" );
+            } else {
+                xml.empty( "source", "translator-name", "oracle", "connection-jndi-name", name, "name", name );
+            }
+
+            xml.end( "model" );
+        }
+
+        for ( int i = 0; i < this.ddlFileModels; ++i ) {
+            xml.start( "model", "visible", "true", "type", "VIRTUAL", "name", getDdlFileModelName( i ) );
+            xml.leaf( "metadata", '/' + getDdlFileEntryPath( i ), "type", "DDL-FILE" );
+            xml.end( "model" );
+        }
+
+        xml.empty( "translator", "description", "Generated translator override", "type", "oracle", "name", "benchOracle" );
+        xml.start( "data-role", "allow-create-temporary-tables", "false", "any-authenticated", "false", "name", "Readers" );
+        xml.leaf( "description", "Read access to the source models" );
+
+        for ( int i = 0; i < this.models; i += 2 ) {
+            xml.start( "permission" );
+            xml.leaf( "resource-name", getModelName( i ) );
+            xml.leaf( "allow-read", "true" );
+            xml.end( "permission" );
+        }
+
+        xml.leaf( "mapped-role-name", "reader" );
+        xml.end( "data-role" );
+        xml.end( "vdb" );
+
+        return xml.toBytes();
+    }
+
+    /**
+     * @param index the index of the relational model (see {@link #isView(int)})
+     * @return the XMI of the model (never <code>null</code>)
+     */
+    public byte[] generateModel( final int index ) {
+        CheckArg.isNonNegative( index, "index" );
+        CheckArg.isLessThan( index, this.models, "index" );
+
+        final boolean view = isView( index );
+        final Xml xml = new Xml( "ASCII" );
+        xml.start( "xmi:XMI",
+                   "xmi:version",
+                   "2.0",
+                   "xmlns:xmi",
+                   "http://www.omg.org/XMI",
+                   "xmlns:xsi",
+                   "http://www.w3.org/2001/XMLSchema-instance",
+                   "xmlns:mmcore",
+                   CORE_URI,
+                   "xmlns:relational",
+                   RELATIONAL_URI,
+                   "xmlns:transformation",
+                   TRANSFORMATION_URI );
+
+        // model annotation
+        xml.start( "mmcore:ModelAnnotation",
+                   "xmi:uuid",
+                   uuid( KIND_MODEL, index, 0, 0 ),
+                   "description",
+                   "Generated " + ( view ? "view" : "source" ) + " model " + index,
+                   "primaryMetamodelUri",
+                   RELATIONAL_URI,
+                   "modelType",
+                   ( view ? "VIRTUAL" : "PHYSICAL" ),
+                   "ProducerName",
+                   "Teiid Designer",
+                   "ProducerVersion",
+                   "8.0.0" );
+        xml.empty( "modelImports",
+                   "xmi:uuid",
+                   uuid( KIND_IMPORT, index, 0, 0 ),
+                   "name",
+                   "XMLSchema",
+                   "modelLocation",
+                   "http://www.w3.org/2001/XMLSchema",
+                   "modelType",
+                   "TYPE",
+                   "primaryMetamodelUri",
+                   XSD_URI );
+
+        if ( view ) {
+            final String sourceName = getModelName( index - 1 );
+            xml.empty( "modelImports",
+                       "xmi:uuid",
+                       uuid( KIND_IMPORT, index, 1, 0 ),
+                       "name",
+                       sourceName,
+                       "modelLocation",
+                       sourceName + ".xmi",
+                       "uuid",
+                       uuid( KIND_MODEL, index - 1, 0, 0 ),
+                       "modelType",
+                       "PHYSICAL",
+                       "primaryMetamodelUri",
+                       RELATIONAL_URI );
+        }
+
+        xml.end( "mmcore:ModelAnnotation" );
+
+        for ( int table = 0; table < this.tables; ++table ) {
+            writeTable( xml, index, table, view );
+        }
+
+        if ( view ) {
+            writeTransformations( xml, index );
+        } else {
+            writeAnnotations( xml, index );
+        }
+
+        xml.end( "xmi:XMI" );
+        return xml.toBytes();
+    }
+
+    /**
+     * @return the number of columns of each table
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * @param index the index of the DDL-FILE model
+     * @return the path of the DDL file in the archive (never <code>null</code>)
+     */
+    public String getDdlFileEntryPath( final int index ) {
+        return "ddl/" + getDdlFileModelName( index ) + ".ddl";
+    }
+
+    /**
+     * @param index the index of the DDL-FILE model
+     * @return the model name (never <code>null</code>)
+     */
+    public String getDdlFileModelName( final int index ) {
+        return "Ddl_" + index;
+    }
+
+    /**
+     * @return the number of DDL-FILE models
+     */
+    public int getDdlFileModels() {
+        return this.ddlFileModels;
+    }
+
+    /**
+     * @param index the index of the resource
+     * @return the path of the resource in the archive (never <code>null</code>)
+     */
+    public String getLibResourceEntryPath( final int index ) {
+        return "lib/udf_" + index + ".jar";
+    }
+
+    /**
+     * @return the number of <code>lib/</code> resources
+     */
+    public int getLibResources() {
+        return this.libResources;
+    }
+
+    /**
+     * @param index the index of the relational model
+     * @return the path of the model file in the archive (never <code>null</code>)
+     */
+    public String getModelEntryPath( final int index ) {
+        return PROJECT + '/' + getModelName( index ) + ".xmi";
+    }
+
+    /**
+     * @param index the index of the relational model
+     * @return the model name (never <code>null</code>)
+     */
+    public String getModelName( final int index ) {
+        return ( isView( index ) ? "View_" : "Source_" ) + index;
+    }
+
+    /**
+     * @return the number of relational models
+     */
+    public int getModels() {
+        return this.models;
+    }
+
+    /**
+     * @return the number of tables of each relational model
+     */
+    public int getTables() {
+        return this.tables;
+    }
+
+    /**
+     * @param index the index of the relational model
+     * @return <code>true</code> if the model is a view model selecting from the source model before it
+     */
+    public boolean isView( final int index ) {
+        return ( ( index % 2 ) == 1 );
+    }
+
+    /**
+     * @param newDdlFileModels the number of DDL-FILE models (cannot be negative)
+     */
+    public void setDdlFileModels( final int newDdlFileModels ) {
+        CheckArg.isNonNegative( newDdlFileModels, "newDdlFileModels" );
+        this.ddlFileModels = newDdlFileModels;
+    }
+
+    /**
+     * @param newLibResources the number of <code>lib/</code> resources (cannot be negative)
+     */
+    public void setLibResources( final int newLibResources ) {
+        CheckArg.isNonNegative( newLibResources, "newLibResources" );
+        this.libResources = newLibResources;
+    }
+
+    private void writeAnnotations( final Xml xml,
+                                   final int model ) {
+        final String modelUuid = uuid( KIND_MODEL, model, 0, 0 );
+        final String medTag = uuid( KIND_MED, model, 0, 0 );
+        final String modelTypesTag = uuid( KIND_MED, model, 0, 1 );
+        final String metaclassTag = uuid( KIND_MED, model, 0, 2 );
+        final String propertyTag = uuid( KIND_MED, model, 0, 3 );
+        final String displayNameTag = uuid( KIND_MED, model, 0, 4 );
+        int next = 5;
+
+        xml.start( "mmcore:AnnotationContainer", "xmi:uuid", uuid( KIND_CONTAINER, model, 0, 0 ) );
+
+        // the model extension definition
+        xml.start( "annotations", "xmi:uuid", uuid( KIND_MED, model, 1, 0 ), "annotatedObject", href( modelUuid ) );
+        xml.empty( "tags", "xmi:uuid", medTag, "key", "modelExtensionDefinition:" + MED_PREFIX, "value", MED_PREFIX );
+        xml.end( "annotations" );
+
+        xml.start( "annotations", "xmi:uuid", uuid( KIND_MED, model, 1, 1 ), "annotatedObject", href( medTag ) );
+        next = tag( xml, model, next, "metamodel", RELATIONAL_URI );
+        next = tag( xml, model, next, "namespacePrefix", MED_PREFIX );
+        next = tag( xml, model, next, "namespaceUri", MED_URI );
+        next = tag( xml, model, next, "version", "1" );
+        next = tag( xml, model, next, "description", "Generated benchmark extension properties" );
+        xml.empty( "tags", "xmi:uuid", modelTypesTag, "key", "modelTypes", "value", "" );
+        xml.empty( "tags",
+                   "xmi:uuid",
+                   metaclassTag,
+                   "key",
+                   "extendedMetaclass:" + BASE_TABLE_METACLASS,
+                   "value",
+                   BASE_TABLE_METACLASS );
+        xml.end( "annotations" );
+
+        xml.start( "annotations", "xmi:uuid", uuid( KIND_MED, model, 1, 2 ), "annotatedObject", href( modelTypesTag ) );
+        next = tag( xml, model, next, "PHYSICAL", "" );
+        xml.end( "annotations" );
+
+        xml.start( "annotations", "xmi:uuid", uuid( KIND_MED, model, 1, 3 ), "annotatedObject", href( metaclassTag ) );
+        xml.empty( "tags", "xmi:uuid", propertyTag, "key", "propertyDefinition:tier", "value", "tier" );
+        xml.end( "annotations" );
+
+        xml.start( "annotations", "xmi:uuid", uuid( KIND_MED, model, 1, 4 ), "annotatedObject", href( propertyTag ) );
+        next = tag( xml, model, next, "advance", "false" );
+        xml.empty( "tags", "xmi:uuid", displayNameTag, "key", "displayName", "value", "" );
+        next = tag( xml, model, next, "defaultValue", "bronze" );
+        next = tag( xml, model, next, "id", "tier" );
+        next = tag( xml, model, next, "index", "true" );
+        next = tag( xml, model, next, "modifiable", "true" );
+        next = tag( xml, model, next, "masked", "false" );
+        next = tag( xml, model, next, "required", "false" );
+        next = tag( xml, model, next, "runtimeType", "string" );
+        xml.end( "annotations" );
+
+        xml.start( "annotations", "xmi:uuid", uuid( KIND_MED, model, 1, 5 ), "annotatedObject", href( displayNameTag ) );
+        next = tag( xml, model, next, "en", "Tier" );
+        xml.end( "annotations" );
+
+        // the extension property and a description of each table
+        for ( int table = 0; table < this.tables; ++table ) {
+            xml.start( "annotations",
+                       "xmi:uuid",
+                       uuid( KIND_ANNOTATION, model, table, 0 ),
+                       "description",
+                       "Generated table " + table,
+                       "annotatedObject",
+                       href( uuid( KIND_TABLE, model, table, 0 ) ) );
+            xml.empty( "tags",
+                       "xmi:uuid",
+                       uuid( KIND_TAG, model, table, 0 ),
+                       "key",
+                       MED_PREFIX + ":tier",
+                       "value",
+                       ( ( ( table % 2 ) == 0 ) ? "gold" : "silver" ) );
+            xml.end( "annotations" );
+        }
+
+        xml.end( "mmcore:AnnotationContainer" );
+    }
+
+    private void writeTable( final Xml xml,
+                             final int model,
+                             final int table,
+                             final boolean view ) {
+        final boolean keys = !view;
+        final boolean foreignKey = ( keys && ( table > 0 ) && ( this.columns > 1 ) );
+        final boolean referenced = ( keys && ( table < ( this.tables - 1 ) ) && ( this.columns > 1 ) );
+
+        xml.start( "relational:BaseTable",
+                   "xmi:uuid",
+                   uuid( KIND_TABLE, model, table, 0 ),
+                   "name",
+                   "Table_" + table,
+                   "nameInSource",
+                   "\"SCHEMA\".\"TABLE_" + table + '"',
+                   "supportsUpdate",
+                   Boolean.toString( !view ) );
+
+        for ( int column = 0; column < this.columns; ++column ) {
+            final boolean string = ( ( column % 2 ) == 0 );
+            final String uuid = uuid( KIND_COLUMN, model, table, column );
+
+            if ( keys && ( column == 0 ) ) {
+                xml.start( "columns",
+                           "xmi:uuid",
+                           uuid,
+                           "name",
+                           "Column_" + column,
+                           "nameInSource",
+                           "COLUMN_" + column,
+                           "nativeType",
+                           "VARCHAR2",
+                           "length",
+                           "255",
+                           "nullable",
+                           "NO_NULLS",
+                           "uniqueKeys",
+                           href( uuid( KIND_PRIMARY_KEY, model, table, 0 ) ) );
+            } else if ( foreignKey && ( column == 1 ) ) {
+                xml.start( "columns",
+                           "xmi:uuid",
+                           uuid,
+                           "name",
+                           "Column_" + column,
+                           "nameInSource",
+                           "COLUMN_" + column,
+                           "nativeType",
+                           "NUMBER",
+                           "fixedLength",
+                           "true",
+                           "precision",
+                           "10",
+                           "foreignKeys",
+                           href( uuid( KIND_FOREIGN_KEY, model, table, 0 ) ) );
+            } else if ( string ) {
+                xml.start( "columns",
+                           "xmi:uuid",
+                           uuid,
+                           "name",
+                           "Column_" + column,
+                           "nameInSource",
+                           "COLUMN_" + column,
+                           "nativeType",
+                           "VARCHAR2",
+                           "length",
+                           "255" );
+            } else {
+                xml.start( "columns",
+                           "xmi:uuid",
+                           uuid,
+                           "name",
+                           "Column_" + column,
+                           "nameInSource",
+                           "COLUMN_" + column,
+                           "nativeType",
+                           "NUMBER",
+                           "fixedLength",
+                           "true",
+                           "precision",
+                           "10" );
+            }
+
+            xml.empty( "type", "href", ( string ? STRING_TYPE : BIGDECIMAL_TYPE ) );
+            xml.end( "columns" );
+        }
+
+        if ( foreignKey ) {
+            // references the primary key of the previous table
+            xml.empty( "foreignKeys",
+                       "xmi:uuid",
+                       uuid( KIND_FOREIGN_KEY, model, table, 0 ),
+                       "name",
+                       "FK_" + table,
+                       "nameInSource",
+                       "FK_" + table,
+                       "foreignKeyMultiplicity",
+                       "UNSPECIFIED",
+                       "primaryKeyMultiplicity",
+                       "UNSPECIFIED",
+                       "columns",
+                       href( uuid( KIND_COLUMN, model, table, 1 ) ),
+                       "uniqueKey",
+                       href( uuid( KIND_PRIMARY_KEY, model, table - 1, 0 ) ) );
+        }
+
+        if ( keys ) {
+            final String primaryKey = uuid( KIND_PRIMARY_KEY, model, table, 0 );
+            final String columnRef = href( uuid( KIND_COLUMN, model, table, 0 ) );
+
+            if ( referenced ) {
+                // a forward reference to the foreign key of the next table
+                xml.empty( "primaryKey",
+                           "xmi:uuid",
+                           primaryKey,
+                           "name",
+                           "PK_" + table,
+                           "nameInSource",
+                           "PK_" + table,
+                           "columns",
+                           columnRef,
+                           "foreignKeys",
+                           href( uuid( KIND_FOREIGN_KEY, model, table + 1, 0 ) ) );
+            } else {
+                xml.empty( "primaryKey",
+                           "xmi:uuid",
+                           primaryKey,
+                           "name",
+                           "PK_" + table,
+                           "nameInSource",
+                           "PK_" + table,
+                           "columns",
+                           columnRef );
+            }
+        }
+
+        xml.end( "relational:BaseTable" );
+    }
+
+    private void writeTransformations( final Xml xml,
+                                       final int model ) {
+        final int source = ( model - 1 );
+        final String sourceFile = getModelName( source ) + ".xmi#";
+
+        xml.start( "transformation:TransformationContainer", "xmi:uuid", uuid( KIND_CONTAINER, model, 0, 0 ) );
+
+        for ( int table = 0; table < this.tables; ++table ) {
+            final String target = href( uuid( KIND_TABLE, model, table, 0 ) );
+            final String sourceTable = sourceFile + href( uuid( KIND_TABLE, source, table, 0 ) );
+
+            xml.start( "transformationMappings",
+                       "xsi:type",
+                       "transformation:SqlTransformationMappingRoot",
+                       "xmi:uuid",
+                       uuid( KIND_MAPPING, model, table, 0 ),
+                       "outputs",
+                       target,
+                       "target",
+                       target );
+            xml.start( "helper",
+                       "xsi:type",
+                       "transformation:SqlTransformation",
+                       "xmi:uuid",
+                       uuid( KIND_MAPPING, model, table, 1 ) );
+            xml.empty( "nested",
+                       "xsi:type",
+                       "transformation:SqlTransformation",
+                       "xmi:uuid",
+                       uuid( KIND_MAPPING, model, table, 2 ),
+                       "selectSql",
+                       "SELECT * FROM " + getModelName( source ) + ".Table_" + table );
+            xml.start( "aliases", "xmi:uuid", uuid( KIND_MAPPING, model, table, 3 ), "alias", "Table_" + table );
+            xml.empty( "aliasedObject", "href", sourceTable );
+            xml.end( "aliases" );
+            xml.end( "helper" );
+
+            for ( int column = 0; column < this.columns; ++column ) {
+                xml.start( "nested",
+                           "xsi:type",
+                           "transformation:TransformationMapping",
+                           "xmi:uuid",
+                           uuid( KIND_COLUMN_MAPPING, model, table, column ),
+                           "outputs",
+                           href( uuid( KIND_COLUMN, model, table, column ) ) );
+                xml.empty( "inputs", "href", sourceFile + href( uuid( KIND_COLUMN, source, table, column ) ) );
+                xml.end( "nested" );
+            }
+
+            xml.empty( "inputs", "href", sourceTable );
+            xml.end( "transformationMappings" );
+        }
+
+        xml.end( "transformation:TransformationContainer" );
+    }
+
+    private static void addEntry( final ZipOutputStream archive,
+                                  final String path,
+                                  final byte[] content ) throws IOException {
+        final ZipEntry entry = new ZipEntry( path );
+        entry.setTime( ENTRY_TIME );
+        archive.putNextEntry( entry );
+        archive.write( content );
+        archive.closeEntry();
+    }
+
+    private static String href( final String uuid ) {
+        return "mmuuid/" + uuid.substring( "mmuuid:".length() );
+    }
+
+    private static int tag( final Xml xml,
+                            final int model,
+                            final int index,
+                            final String key,
+                            final String value ) {
+        xml.empty( "tags", "xmi:uuid", uuid( KIND_MED, model, 0, index ), "key", key, "value", value );
+        return ( index + 1 );
+    }
+
+    private static String uuid( final int kind,
+                                final int model,
+                                final int table,
+                                final int item ) {
+        final long high = ( UUID_SEED | ( ( long )kind << 40 ) | ( ( long )model << 20 ) | table );
+        return "mmuuid:" + new UUID( high, ( UUID_VARIANT | item ) );
+    }
+
+    /**
+     * Appends indented XML markup. Attribute values and text are escaped but names are not checked.
+     */
+    private static final class Xml {
+
+        private int depth;
+        private final StringBuilder text = new StringBuilder( 8192 );
+
+        Xml( final String encoding ) {
+            this.text.append( "<?xml version=\"1.0\" encoding=\"" ).append( encoding ).append( "\"?>\n" );
+        }
+
+        void empty( final String name,
+                    final String... attributes ) {
+            element( name, attributes ).append( "/>\n" );
+        }
+
+        void end( final String name ) {
+            --this.depth;
+            indent().append( "</" ).append( name ).append( ">\n" );
+        }
+
+        void leaf( final String name,
+                   final String value,
+                   final String... attributes ) {
+            element( name, attributes ).append( '>' );
+            escape( value );
+            this.text.append( "</" ).append( name ).append( ">\n" );
+        }
+
+        void start( final String name,
+                    final String... attributes ) {
+            element( name, attributes ).append( ">\n" );
+            ++this.depth;
+        }
+
+        byte[] toBytes() {
+            return this.text.toString().getBytes( StandardCharsets.UTF_8 );
+        }
+
+        private StringBuilder element( final String name,
+                                       final String... attributes ) {
+            assert ( ( attributes.length % 2 ) == 0 ) : "attribute without value";
+            indent().append( '<' ).append( name );
+
+            for ( int i = 0; i < attributes.length; i += 2 ) {
+                this.text.append( ' ' ).append( attributes[ i ] ).append( "=\"" );
+                escape( attributes[ i + 1 ] );
+                this.text.append( '"' );
+            }
+
+            return this.text;
+        }
+
+        private void escape( final String value ) {
+            for ( int i = 0, length = value.length(); i < length; ++i ) {
+                final char c = value.charAt( i );
+
+                switch ( c ) {
+                    case '&':
+                        this.text.append( "&amp;" );
+                        break;
+                    case '<':
+                        this.text.append( "&lt;" );
+                        break;
+                    case '"':
+                        this.text.append( "&quot;" );
+                        break;
+                    default:
+                        this.text.append( c );
+                }
+            }
+        }
+
+        private StringBuilder indent() {
+            for ( int i = 0; i < this.depth; ++i ) {
+                this.text.append( "  " );
+            }
+
+            return this.text;
+        }
+
+    }
+
+}
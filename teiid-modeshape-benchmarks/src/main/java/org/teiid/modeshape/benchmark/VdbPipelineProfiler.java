@@ -0,0 +1,173 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.teiid.modeshape.metrics.DefaultMetrics;
+import org.teiid.modeshape.metrics.Metrics;
+import org.teiid.modeshape.metrics.MetricsRegistry;
+
+/**
+ * A JMH profiler reporting, for each iteration:
+ * <ul>
+ * <li><code>heap.peak</code> - the peak heap usage,</li>
+ * <li><code>alloc.model</code> - the bytes allocated by all threads per model (per operation when the benchmark has no
+ * <code>models</code> parameter),</li>
+ * <li>the time per operation spent in each sequencing phase and the counters per operation, as recorded in
+ * {@link DefaultMetrics} installed for the iteration.</li>
+ * </ul>
+ * Use it with <code>-prof org.teiid.modeshape.benchmark.VdbPipelineProfiler</code>.
+ */
+public final class VdbPipelineProfiler implements InternalProfiler {
+
+    private static final String MODELS_PARAM = "models";
+    private static final String TIMER_TOTAL_SUFFIX = ".total";
+
+    private long allocatedBefore;
+    private final DefaultMetrics metrics = new DefaultMetrics();
+    private Metrics previousMetrics;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.openjdk.jmh.profile.InternalProfiler#afterIteration(org.openjdk.jmh.infra.BenchmarkParams,
+     *      org.openjdk.jmh.infra.IterationParams, org.openjdk.jmh.results.IterationResult)
+     */
+    @Override
+    public Collection< ? extends Result > afterIteration( final BenchmarkParams benchmarkParams,
+                                                         final IterationParams iterationParams,
+                                                         final IterationResult result ) {
+        final long allocated = ( allocatedBytes() - this.allocatedBefore );
+        MetricsRegistry.set( this.previousMetrics );
+
+        final List< Result > results = new ArrayList<>();
+        long peak = 0;
+
+        for ( final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() ) {
+            if ( pool.getType() == MemoryType.HEAP ) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        results.add( new ScalarResult( "heap.peak", peak, "bytes", AggregationPolicy.MAX ) );
+
+        final long ops = result.getMetadata().getAllOps();
+
+        if ( ops != 0 ) {
+            final String models = benchmarkParams.getParam( MODELS_PARAM );
+            final double perModel = ( ( models == null ) ? ops : ( ( double )ops * Integer.parseInt( models ) ) );
+
+            if ( allocated >= 0 ) {
+                results.add( new ScalarResult( "alloc.model", ( allocated / perModel ), "B/model", AggregationPolicy.AVG ) );
+            }
+
+            for ( final Map.Entry< String, Long > entry : this.metrics.getTimers().entrySet() ) {
+                final String name = entry.getKey();
+
+                if ( name.endsWith( TIMER_TOTAL_SUFFIX ) ) {
+                    results.add( new ScalarResult( name.substring( 0, name.length() - TIMER_TOTAL_SUFFIX.length() ),
+                                                   ( entry.getValue() / ( double )ops ),
+                                                   "ns/op",
+                                                   AggregationPolicy.AVG ) );
+                }
+            }
+
+            for ( final Map.Entry< String, Long > entry : this.metrics.getCounters().entrySet() ) {
+                results.add( new ScalarResult( entry.getKey(),
+                                               ( entry.getValue() / ( double )ops ),
+                                               "#/op",
+                                               AggregationPolicy.AVG ) );
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.openjdk.jmh.profile.InternalProfiler#beforeIteration(org.openjdk.jmh.infra.BenchmarkParams,
+     *      org.openjdk.jmh.infra.IterationParams)
+     */
+    @Override
+    public void beforeIteration( final BenchmarkParams benchmarkParams,
+                                 final IterationParams iterationParams ) {
+        for ( final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() ) {
+            if ( pool.getType() == MemoryType.HEAP ) {
+                pool.resetPeakUsage();
+            }
+        }
+
+        this.metrics.reset();
+        this.previousMetrics = MetricsRegistry.set( this.metrics );
+        this.allocatedBefore = allocatedBytes();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.openjdk.jmh.profile.Profiler#getDescription()
+     */
+    @Override
+    public String getDescription() {
+        return "Peak heap, allocation per model and VDB sequencing metrics";
+    }
+
+    /**
+     * @return the bytes allocated by the live threads or a negative number if the JVM does not count them
+     */
+    private static long allocatedBytes() {
+        if ( !( ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean ) ) {
+            return -1;
+        }
+
+        final com.sun.management.ThreadMXBean threads = ( com.sun.management.ThreadMXBean )ManagementFactory.getThreadMXBean();
+
+        if ( !threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled() ) {
+            return -1;
+        }
+
+        long total = 0;
+
+        for ( final long allocated : threads.getThreadAllocatedBytes( threads.getAllThreadIds() ) ) {
+            if ( allocated > 0 ) {
+                total += allocated;
+            }
+        }
+
+        return total;
+    }
+
+}
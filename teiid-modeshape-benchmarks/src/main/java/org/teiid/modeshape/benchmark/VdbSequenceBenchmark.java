@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import javax.jcr.Node;
+import javax.jcr.Property;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teiid.modeshape.sequencer.vdb.VdbSequencer;
+
+/**
+ * Measures sequencing a whole generated VDB archive: the manifest, the model files with the references between them, the
+ * DDL-FILE models and the <code>lib/</code> resources. The nodes are discarded without being saved after each operation.
+ */
+@BenchmarkMode( Mode.Throughput )
+@Fork( 1 )
+@Measurement( iterations = 5 )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@State( Scope.Benchmark )
+@Warmup( iterations = 5 )
+public class VdbSequenceBenchmark {
+
+    @Param( { "2", "20" } )
+    public int models;
+
+    @Param( { "10" } )
+    public int tables;
+
+    @Param( { "10" } )
+    public int columns;
+
+    @Param( { "false", "true" } )
+    public boolean lazy;
+
+    private Property archive;
+    private InMemoryRepository repository;
+    private final VdbSequencer sequencer = new VdbSequencer();
+
+    @Setup
+    public void setUp() throws Exception {
+        this.repository = new InMemoryRepository();
+        this.repository.initialize( this.sequencer );
+        this.sequencer.setLazy( this.lazy );
+        this.archive = this.repository.createFile( VdbGenerator.VDB_NAME + ".vdb",
+                                                   new VdbGenerator( this.models, this.tables, this.columns ).generateArchive() );
+    }
+
+    @TearDown( Level.Invocation )
+    public void discardNodes() throws Exception {
+        this.repository.getSession().refresh( false );
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.repository.close();
+    }
+
+    @Benchmark
+    public boolean sequence() throws Exception {
+        final Node outputNode = this.repository.getSession().getRootNode().addNode( VdbGenerator.VDB_NAME );
+        return this.sequencer.execute( this.archive, outputNode, this.repository.getContext() );
+    }
+
+}
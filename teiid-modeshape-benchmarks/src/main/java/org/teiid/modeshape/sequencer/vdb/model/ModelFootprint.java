@@ -0,0 +1,110 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.vdb.model;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import org.teiid.modeshape.benchmark.InMemoryRepository;
+import org.teiid.modeshape.benchmark.VdbGenerator;
+import org.teiid.modeshape.sequencer.vdb.VdbSequencer;
+
+/**
+ * Prints the heap retained by a model reader after it has read a generated source model. This is the memory the XMI elements of a
+ * model take while the model is written into nodes, which a JMH benchmark does not report. The arguments are the number of
+ * tables and the number of columns of each table, which default to <code>2000</code> and <code>20</code>. Run it with a serial
+ * collector so that each measurement is taken after a full collection:
+ *
+ * <pre>
+ * java -XX:+UseSerialGC -cp target/benchmarks.jar org.teiid.modeshape.sequencer.vdb.model.ModelFootprint 2000 20
+ * </pre>
+ *
+ * The tool is in the package of the reader because the reader is not public.
+ */
+public final class ModelFootprint {
+
+    private static final int RUNS = 3;
+
+    /**
+     * @param args the number of tables and the number of columns of each table (can be empty)
+     * @throws Exception if the model cannot be read
+     */
+    public static void main( final String[] args ) throws Exception {
+        final int tables = ( ( args.length > 0 ) ? Integer.parseInt( args[ 0 ] ) : 2000 );
+        final int columns = ( ( args.length > 1 ) ? Integer.parseInt( args[ 1 ] ) : 20 );
+        final VdbGenerator generator = new VdbGenerator( 1, tables, columns );
+        final byte[] content = generator.generateModel( 0 );
+        final String path = generator.getModelEntryPath( 0 );
+
+        try ( final InMemoryRepository repository = new InMemoryRepository() ) {
+            repository.initialize( new VdbSequencer() ); // registers the namespaces of the model
+            final ModelFootprint footprint = new ModelFootprint( content, path, repository );
+            footprint.read(); // load the classes the reader uses before measuring
+
+            System.out.println( String.format( "model of %d tables with %d columns: %d bytes",
+                                               tables,
+                                               columns,
+                                               content.length ) );
+
+            for ( int run = 1; run <= RUNS; ++run ) {
+                final long before = usedHeap();
+                final ModelReader reader = footprint.read();
+                final long retained = ( usedHeap() - before );
+                System.out.println( String.format( "run %d: %d bytes retained by %d root elements",
+                                                   run,
+                                                   retained,
+                                                   reader.getElements().size() ) );
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        for ( int i = 0; i < 5; ++i ) {
+            memory.gc();
+        }
+
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private final byte[] content;
+    private final String path;
+    private final InMemoryRepository repository;
+
+    private ModelFootprint( final byte[] content,
+                            final String path,
+                            final InMemoryRepository repository ) {
+        this.content = content;
+        this.path = path;
+        this.repository = repository;
+    }
+
+    private ModelReader read() throws Exception {
+        final ModelReader reader = new ModelReader( this.path,
+                                                    new ReferenceResolver(),
+                                                    this.repository.getSession().getWorkspace().getNamespaceRegistry() );
+        reader.readModel( new ByteArrayInputStream( this.content ) );
+        return reader;
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.vdb.model;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Appender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.varia.NullAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teiid.modeshape.benchmark.InMemoryRepository;
+import org.teiid.modeshape.benchmark.VdbGenerator;
+import org.teiid.modeshape.sequencer.internal.NamespaceRegistryCache;
+
+/**
+ * Measures reading a generated model file into XMI elements without writing any nodes. With a <code>logLevel</code> of
+ * <code>OFF</code> this is the cost of the reader when its debug logging is disabled, which is how it runs in production. With
+ * <code>DEBUG</code> the messages are built and then discarded, which shows what the disabled logging saves. The benchmark is in
+ * the package of the reader because the reader is not public.
+ */
+@BenchmarkMode( Mode.Throughput )
+@Fork( 1 )
+@Measurement( iterations = 5 )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@State( Scope.Benchmark )
+@Warmup( iterations = 5 )
+public class XmiReadBenchmark {
+
+    private static final String LOGGER_NAME = "org.teiid.modeshape";
+
+    @Param( { "10", "100" } )
+    public int tables;
+
+    @Param( { "10" } )
+    public int columns;
+
+    @Param( { "source", "view" } )
+    public String model;
+
+    @Param( { "OFF", "DEBUG" } )
+    public String logLevel;
+
+    private byte[] content;
+    private final Appender discard = new NullAppender();
+    private Level level;
+    private NamespaceRegistryCache namespaces;
+    private String path;
+    private InMemoryRepository repository;
+
+    @Setup
+    public void setUp() throws Exception {
+        final VdbGenerator generator = new VdbGenerator( 2, this.tables, this.columns );
+        final int index = ( "view".equals( this.model ) ? 1 : 0 );
+        this.content = generator.generateModel( index );
+        this.path = generator.getModelEntryPath( index );
+
+        this.repository = new InMemoryRepository();
+        this.namespaces = new NamespaceRegistryCache( this.repository.getSession().getWorkspace().getNamespaceRegistry() );
+
+        // send the messages nowhere so that only building them is measured
+        final Logger logger = Logger.getLogger( LOGGER_NAME );
+        this.level = logger.getLevel();
+        logger.setLevel( Level.toLevel( this.logLevel ) );
+        logger.setAdditivity( false );
+        logger.addAppender( this.discard );
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        final Logger logger = Logger.getLogger( LOGGER_NAME );
+        logger.removeAppender( this.discard );
+        logger.setAdditivity( true );
+        logger.setLevel( this.level );
+
+        this.repository.close();
+    }
+
+    @Benchmark
+    public ModelReader readModel() throws Exception {
+        final ModelReader reader = new ModelReader( this.path, new ReferenceResolver(), this.namespaces );
+        reader.readModel( new ByteArrayInputStream( this.content ) );
+        return reader;
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.benchmark;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import javax.jcr.Node;
+import org.junit.Test;
+import org.teiid.modeshape.sequencer.vdb.VdbManifest;
+import org.teiid.modeshape.sequencer.vdb.VdbModel;
+import org.teiid.modeshape.sequencer.vdb.VdbSequencer;
+import org.teiid.modeshape.sequencer.vdb.lexicon.VdbLexicon;
+
+public final class VdbGeneratorTest {
+
+    @Test
+    public void shouldGenerateSameArchiveEachTime() {
+        final VdbGenerator generator = new VdbGenerator( 4, 3, 2 );
+        assertTrue( Arrays.equals( generator.generateArchive(), generator.generateArchive() ) );
+        assertTrue( Arrays.equals( generator.generateArchive(), new VdbGenerator( 4, 3, 2 ).generateArchive() ) );
+    }
+
+    @Test
+    public void shouldGenerateManifestListingAllModels() throws Exception {
+        final VdbGenerator generator = new VdbGenerator( 4, 3, 2 );
+        generator.setDdlFileModels( 2 );
+
+        final VdbManifest manifest = VdbManifest.read( new ByteArrayInputStream( generator.generateManifest() ), null );
+        assertThat( manifest.getName(), is( VdbGenerator.VDB_NAME ) );
+        assertThat( manifest.getModels().size(), is( 6 ) );
+
+        for ( int i = 0; i < generator.getModels(); ++i ) {
+            final VdbModel model = manifest.getModel( generator.getModelEntryPath( i ) );
+            assertThat( model, is( notNullValue() ) );
+            assertThat( model.getName(), is( generator.getModelName( i ) ) );
+        }
+
+        for ( int i = 0; i < generator.getDdlFileModels(); ++i ) {
+            final VdbModel model = manifest.getDdlFileModel( generator.getDdlFileEntryPath( i ) );
+            assertThat( model, is( notNullValue() ) );
+            assertThat( model.getName(), is( generator.getDdlFileModelName( i ) ) );
+        }
+    }
+
+    @Test
+    public void shouldGenerateArchiveTheVdbSequencerCanSequence() throws Exception {
+        final VdbGenerator generator = new VdbGenerator( 2, 3, 2 );
+
+        try ( final InMemoryRepository repository = new InMemoryRepository() ) {
+            final VdbSequencer sequencer = repository.initialize( new VdbSequencer() );
+            final Node vdb = repository.getSession().getRootNode().addNode( "vdb" );
+
+            assertThat( sequencer.execute( repository.createFile( "generated.vdb", generator.generateArchive() ),
+                                           vdb,
+                                           repository.getContext() ),
+                        is( true ) );
+            assertThat( vdb.getProperty( VdbLexicon.Vdb.NAME ).getString(), is( VdbGenerator.VDB_NAME ) );
+
+            for ( int i = 0; i < generator.getModels(); ++i ) {
+                final Node model = vdb.getNode( generator.getModelName( i ) + ".xmi" );
+                assertThat( model.getNodes( "Table_*" ).getSize(), is( ( long )generator.getTables() ) );
+            }
+
+            final Node ddlModel = vdb.getNode( generator.getDdlFileModelName( 0 ) );
+            assertThat( ddlModel.hasProperty( VdbLexicon.Model.MODEL_DEFINITION ), is( true ) );
+        }
+    }
+
+}
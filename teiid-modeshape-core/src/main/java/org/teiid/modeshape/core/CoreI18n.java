@@ -31,6 +31,7 @@ public final class CoreI18n {
 
     public static I18n errorConstructingExportResult;
     public static I18n errorDuringExport;
+    public static I18n exportOutcomeCannotBeStreamed;
     public static I18n unmodifiableResultData;
 
     /**
@@ -0,0 +1,213 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.modeshape.common.annotation.ThreadSafe;
+
+/**
+ * Metrics kept in memory and viewable through JMX. Counters and statistics are updated without locking.
+ *
+ * @see #register()
+ */
+@ThreadSafe
+public final class DefaultMetrics implements Metrics, MetricsMXBean {
+
+    /**
+     * The JMX object name used by {@link #register()}. Value is {@value}.
+     */
+    public static final String OBJECT_NAME = "org.teiid.modeshape:type=Metrics";
+
+    private final ConcurrentMap< String, LongAdder > counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap< String, Statistics > histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap< String, Statistics > timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param name
+     *        the name of the counter (cannot be <code>null</code> or empty)
+     * @return the value of the counter or zero if nothing has been counted
+     */
+    public long getCount( final String name ) {
+        final LongAdder counter = this.counters.get( name );
+        return ( ( counter == null ) ? 0 : counter.sum() );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.MetricsMXBean#getCounters()
+     */
+    @Override
+    public Map< String, Long > getCounters() {
+        final Map< String, Long > result = new TreeMap<>();
+
+        for ( final Map.Entry< String, LongAdder > entry : this.counters.entrySet() ) {
+            result.put( entry.getKey(), entry.getValue().sum() );
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.MetricsMXBean#getHistograms()
+     */
+    @Override
+    public Map< String, Long > getHistograms() {
+        return flatten( this.histograms );
+    }
+
+    /**
+     * @param name
+     *        the name of the timer (cannot be <code>null</code> or empty)
+     * @return the number of times recorded by the timer
+     */
+    public long getTimerCount( final String name ) {
+        final Statistics statistics = this.timers.get( name );
+        return ( ( statistics == null ) ? 0 : statistics.count.sum() );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.MetricsMXBean#getTimers()
+     */
+    @Override
+    public Map< String, Long > getTimers() {
+        return flatten( this.timers );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.Metrics#increment(java.lang.String, long)
+     */
+    @Override
+    public void increment( final String counter,
+                           final long delta ) {
+        this.counters.computeIfAbsent( counter, name -> new LongAdder() ).add( delta );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.Metrics#record(java.lang.String, long)
+     */
+    @Override
+    public void record( final String histogram,
+                        final long value ) {
+        this.histograms.computeIfAbsent( histogram, name -> new Statistics() ).add( value );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.Metrics#recordTime(java.lang.String, long)
+     */
+    @Override
+    public void recordTime( final String timer,
+                            final long nanos ) {
+        this.timers.computeIfAbsent( timer, name -> new Statistics() ).add( nanos );
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server using {@link #OBJECT_NAME}.
+     *
+     * @return the name the metrics were registered with (never <code>null</code>)
+     * @throws Exception
+     *         if the metrics could not be registered
+     */
+    public ObjectName register() throws Exception {
+        return register( ManagementFactory.getPlatformMBeanServer(), new ObjectName( OBJECT_NAME ) );
+    }
+
+    /**
+     * @param server
+     *        the MBean server (cannot be <code>null</code>)
+     * @param name
+     *        the name to register with (cannot be <code>null</code>)
+     * @return the name the metrics were registered with (never <code>null</code>)
+     * @throws Exception
+     *         if the metrics could not be registered
+     */
+    public ObjectName register( final MBeanServer server,
+                                final ObjectName name ) throws Exception {
+        return server.registerMBean( this, name ).getObjectName();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.MetricsMXBean#reset()
+     */
+    @Override
+    public void reset() {
+        this.counters.clear();
+        this.histograms.clear();
+        this.timers.clear();
+    }
+
+    private Map< String, Long > flatten( final Map< String, Statistics > statistics ) {
+        final Map< String, Long > result = new TreeMap<>();
+
+        for ( final Map.Entry< String, Statistics > entry : statistics.entrySet() ) {
+            final String name = entry.getKey();
+            final Statistics stats = entry.getValue();
+            final long count = stats.count.sum();
+            final long total = stats.total.sum();
+
+            result.put( name + ".count", count );
+            result.put( name + ".total", total );
+            result.put( name + ".min", ( ( count == 0 ) ? 0 : stats.min.get() ) );
+            result.put( name + ".max", ( ( count == 0 ) ? 0 : stats.max.get() ) );
+            result.put( name + ".mean", ( ( count == 0 ) ? 0 : ( total / count ) ) );
+        }
+
+        return result;
+    }
+
+    private static final class Statistics {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator( Math::max, Long.MIN_VALUE );
+        private final LongAccumulator min = new LongAccumulator( Math::min, Long.MAX_VALUE );
+        private final LongAdder total = new LongAdder();
+
+        void add( final long value ) {
+            this.count.increment();
+            this.total.add( value );
+            this.min.accumulate( value );
+            this.max.accumulate( value );
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipInputStream;
+
+/**
+ * A zip input stream that counts the uncompressed bytes it reads as {@link MetricNames#BYTES_INFLATED}.
+ */
+public final class MeteredZipInputStream extends ZipInputStream {
+
+    private final Metrics metrics;
+
+    /**
+     * @param stream
+     *        the stream of the zip archive (cannot be <code>null</code>)
+     */
+    public MeteredZipInputStream( final InputStream stream ) {
+        super( stream );
+        this.metrics = MetricsRegistry.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.zip.ZipInputStream#read(byte[], int, int)
+     */
+    @Override
+    public int read( final byte[] b,
+                     final int off,
+                     final int len ) throws IOException {
+        final int count = super.read( b, off, len );
+
+        if ( count > 0 ) {
+            this.metrics.increment( MetricNames.BYTES_INFLATED, count );
+        }
+
+        return count;
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.metrics;
+
+/**
+ * The names of the metrics recorded by the sequencers and exporters. Timers are in nanoseconds.
+ */
+public interface MetricNames {
+
+    /**
+     * The counter of the uncompressed bytes read from VDB and data service archives.
+     */
+    String BYTES_INFLATED = "bytes.inflated";
+
+    /**
+     * The counter of the nodes created by the sequencers.
+     */
+    String NODES_CREATED = "nodes.created";
+
+    /**
+     * The counter of the properties set by the sequencers.
+     */
+    String PROPERTIES_SET = "properties.set";
+
+    /**
+     * The counter of the model object references resolved.
+     */
+    String REFERENCES_RESOLVED = "references.resolved";
+
+    /**
+     * The timer of data service manifest parsing.
+     */
+    String DATA_SERVICE_MANIFEST_READ = "dataservice.manifest.read";
+
+    /**
+     * The timer of sequencing data service archives.
+     */
+    String DATA_SERVICE_SEQUENCE = "dataservice.sequence";
+
+    /**
+     * The timer of DDL parsing.
+     */
+    String DDL_PARSE = "ddl.parse";
+
+    /**
+     * The timer of setting the properties, including the references, of the nodes created from DDL.
+     */
+    String DDL_REFERENCES = "ddl.references";
+
+    /**
+     * The timer of sequencing DDL.
+     */
+    String DDL_SEQUENCE = "ddl.sequence";
+
+    /**
+     * The timer of creating the nodes of parsed DDL.
+     */
+    String DDL_WRITE = "ddl.write";
+
+    /**
+     * The prefix of the timer of each exporter. The simple class name of the exporter is appended.
+     */
+    String EXPORT_PREFIX = "export.";
+
+    /**
+     * The histogram of the sizes of data service and VDB archives being sequenced.
+     */
+    String SEQUENCED_ARCHIVE_SIZE = "sequenced.archive.size";
+
+    /**
+     * The timer of VDB manifest parsing.
+     */
+    String VDB_MANIFEST_READ = "vdb.manifest.read";
+
+    /**
+     * The counter of the VDB models copied from a previous sequencing of the same model file instead of being read.
+     */
+    String VDB_MODELS_COPIED = "vdb.models.copied";
+
+    /**
+     * The timer of reading XMI models.
+     */
+    String VDB_MODEL_READ = "vdb.model.read";
+
+    /**
+     * The timer of writing the nodes of XMI models.
+     */
+    String VDB_MODEL_WRITE = "vdb.model.write";
+
+    /**
+     * The timer of resolving the references of XMI models.
+     */
+    String VDB_REFERENCES = "vdb.references";
+
+    /**
+     * The timer of sequencing VDB archives.
+     */
+    String VDB_SEQUENCE = "vdb.sequence";
+
+}
@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.metrics;
+
+/**
+ * Receives the timings, counts, and sizes recorded while sequencing and exporting. Implementations must be thread-safe. The
+ * names used by the sequencers and exporters are found in {@link MetricNames}.
+ *
+ * @see MetricsRegistry#set(Metrics)
+ */
+public interface Metrics {
+
+    /**
+     * @param counter
+     *        the name of the counter (cannot be <code>null</code> or empty)
+     * @param delta
+     *        the amount added to the counter
+     */
+    void increment( final String counter,
+                    final long delta );
+
+    /**
+     * @param histogram
+     *        the name of the histogram (cannot be <code>null</code> or empty)
+     * @param value
+     *        the value recorded in the histogram
+     */
+    void record( final String histogram,
+                 final long value );
+
+    /**
+     * @param timer
+     *        the name of the timer (cannot be <code>null</code> or empty)
+     * @param nanos
+     *        the elapsed time in nanoseconds
+     */
+    void recordTime( final String timer,
+                     final long nanos );
+
+    /**
+     * Starts timing a phase. The time is recorded when the returned timer is closed.
+     *
+     * @param timer
+     *        the name of the timer (cannot be <code>null</code> or empty)
+     * @return the started timer (never <code>null</code>)
+     */
+    default Timer start( final String timer ) {
+        return new Timer( this, timer );
+    }
+
+}
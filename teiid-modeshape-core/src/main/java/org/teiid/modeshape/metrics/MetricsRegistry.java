@@ -0,0 +1,54 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.metrics;
+
+/**
+ * Holds the metrics that the sequencers and exporters record to. Sequencers are constructed by the repository, so the metrics are
+ * set here instead of being passed to them.
+ */
+public final class MetricsRegistry {
+
+    private static volatile Metrics metrics = NoOpMetrics.INSTANCE;
+
+    /**
+     * @return the current metrics (never <code>null</code>)
+     */
+    public static Metrics get() {
+        return metrics;
+    }
+
+    /**
+     * @param newMetrics
+     *        the metrics to record to (can be <code>null</code> to stop recording)
+     * @return the previous metrics (never <code>null</code>)
+     */
+    public static Metrics set( final Metrics newMetrics ) {
+        final Metrics previous = metrics;
+        metrics = ( ( newMetrics == null ) ? NoOpMetrics.INSTANCE : newMetrics );
+        return previous;
+    }
+
+    private MetricsRegistry() {
+        // static access only
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.metrics;
+
+/**
+ * Metrics that record nothing. This is the default so that metrics cost almost nothing unless they are turned on.
+ */
+public final class NoOpMetrics implements Metrics {
+
+    /**
+     * The shared instance.
+     */
+    public static final NoOpMetrics INSTANCE = new NoOpMetrics();
+
+    private NoOpMetrics() {
+        // use INSTANCE
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.Metrics#increment(java.lang.String, long)
+     */
+    @Override
+    public void increment( final String counter,
+                           final long delta ) {
+        // nothing to do
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.Metrics#record(java.lang.String, long)
+     */
+    @Override
+    public void record( final String histogram,
+                        final long value ) {
+        // nothing to do
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.Metrics#recordTime(java.lang.String, long)
+     */
+    @Override
+    public void recordTime( final String timer,
+                            final long nanos ) {
+        // nothing to do
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.metrics.Metrics#start(java.lang.String)
+     */
+    @Override
+    public Timer start( final String timer ) {
+        return new Timer( null, timer );
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times one run of a phase. Use in a <code>try</code>-with-resources statement. Not thread-safe.
+ *
+ * @see Metrics#start(String)
+ */
+public final class Timer implements AutoCloseable {
+
+    private final Metrics metrics;
+    private final String name;
+    private final long start;
+
+    Timer( final Metrics metrics,
+           final String name ) {
+        this.metrics = metrics;
+        this.name = name;
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Records the time since the timer was started.
+     *
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() {
+        if ( this.metrics != null ) {
+            this.metrics.recordTime( this.name, System.nanoTime() - this.start );
+        }
+    }
+
+    /**
+     * Timers of {@link NoOpMetrics} record nothing but still measure the elapsed time.
+     *
+     * @return the milliseconds since the timer was started
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - this.start );
+    }
+
+}
@@ -0,0 +1,551 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.jcr.Workspace;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+import org.modeshape.common.annotation.ThreadSafe;
+import org.modeshape.common.logging.Logger;
+
+/**
+ * A size-bounded, least-recently-used cache of successful exports. An export is cached by exporter, workspace, session user,
+ * node identifier, node last modified date (when the node has one), and options. The user is part of the key as the nodes an
+ * export reads depend on the access rights of the session. Exports made while the session has unsaved changes are neither
+ * served from nor put in the cache. Set the cache as the {@link Options#EXPORT_CACHE_PROPERTY export cache option} to use it.
+ * <p>
+ * Cached exports are removed when a node at or below one of the paths the export read from changes. The cache must be
+ * {@link #register(Workspace) registered} with the workspace of the exported nodes to be told about changes, or else be
+ * {@link #invalidate(String) invalidated} or {@link #clear() cleared} by the caller. Only <code>String</code> and byte array
+ * outcomes are cached, and they are copied when served so callers cannot change the cached export.
+ */
+@ThreadSafe
+public final class ExportCache implements EventListener {
+
+    /**
+     * The default maximum number of cached exports. Value is {@value}.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 100;
+
+    /**
+     * The types of events that invalidate cached exports.
+     */
+    public static final int EVENT_TYPES = ( Event.NODE_ADDED
+                                            | Event.NODE_MOVED
+                                            | Event.NODE_REMOVED
+                                            | Event.PROPERTY_ADDED
+                                            | Event.PROPERTY_CHANGED
+                                            | Event.PROPERTY_REMOVED );
+
+    private static final Logger LOGGER = Logger.getLogger( ExportCache.class );
+
+    /**
+     * The result data key of the outcome.
+     */
+    private static final String RESULT_OUTCOME = "exporter.outcome";
+
+    private final Map< Key, CachedExport > exports;
+    private long generation = 0;
+
+    /**
+     * Constructs a cache holding at most {@link #DEFAULT_MAX_ENTRIES} exports.
+     */
+    public ExportCache() {
+        this( DEFAULT_MAX_ENTRIES );
+    }
+
+    /**
+     * @param maxEntries
+     *        the maximum number of cached exports (must be positive)
+     */
+    @SuppressWarnings( "serial" )
+    public ExportCache( final int maxEntries ) {
+        if ( maxEntries < 1 ) {
+            throw new IllegalArgumentException( "maxEntries" );
+        }
+
+        this.exports = new LinkedHashMap< Key, CachedExport >( 16, 0.75f, true ) {
+
+            /**
+             * {@inheritDoc}
+             *
+             * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+             */
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry< Key, CachedExport > eldest ) {
+                return ( size() > maxEntries );
+            }
+
+        };
+    }
+
+    /**
+     * Removes all cached exports.
+     */
+    public synchronized void clear() {
+        this.exports.clear();
+        ++this.generation;
+    }
+
+    /**
+     * Used by exporters. Returns the cached export of the node.
+     *
+     * @param exporter
+     *        the exporter (cannot be <code>null</code>)
+     * @param node
+     *        the node being exported (cannot be <code>null</code>)
+     * @param options
+     *        the export options (cannot be <code>null</code>)
+     * @return a copy of the cached result or <code>null</code> if the export is not cached or the session of the node has
+     *         unsaved changes
+     * @throws RepositoryException
+     *         if an error occurs reading the node
+     */
+    public Result get( final Exporter exporter,
+                       final Node node,
+                       final Options options ) throws RepositoryException {
+        if ( node.getSession().hasPendingChanges() ) {
+            return null; // the export must see the unsaved changes
+        }
+
+        final Key key = new Key( exporter, node, options );
+        CachedExport cached = null;
+
+        synchronized ( this ) {
+            cached = this.exports.get( key );
+        }
+
+        if ( cached == null ) {
+            return null;
+        }
+
+        LOGGER.debug( "Export of node {0} by exporter {1} served from cache", node.getPath(), exporter.getClass().getSimpleName() );
+        return new CachedResult( cached, options );
+    }
+
+    /**
+     * Used by exporters. An export must not be cached if the generation changed while it ran, as the change may not be part of
+     * the export.
+     *
+     * @return a number that changes each time cached exports are invalidated
+     * @see #put(Exporter, Node, Options, Result, Collection, long)
+     */
+    public synchronized long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Removes the cached exports that read from the path, from a node below the path, or from a node above the path.
+     *
+     * @param path
+     *        the absolute path of the changed node or property (cannot be <code>null</code> or empty)
+     */
+    public synchronized void invalidate( final String path ) {
+        Objects.requireNonNull( path, "path" );
+        ++this.generation;
+
+        for ( final Iterator< CachedExport > itr = this.exports.values().iterator(); itr.hasNext(); ) {
+            final CachedExport cached = itr.next();
+
+            for ( final String dependency : cached.dependencies ) {
+                if ( isSameOrDescendant( path, dependency ) || isSameOrDescendant( dependency, path ) ) {
+                    itr.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean isSameOrDescendant( final String path,
+                                        final String ancestor ) {
+        return ( path.startsWith( ancestor )
+                 && ( ( path.length() == ancestor.length() )
+                      || ( path.charAt( ancestor.length() ) == '/' )
+                      || ancestor.equals( "/" ) ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.jcr.observation.EventListener#onEvent(javax.jcr.observation.EventIterator)
+     */
+    @Override
+    public void onEvent( final EventIterator events ) {
+        while ( events.hasNext() ) {
+            final Event event = events.nextEvent();
+
+            try {
+                invalidate( event.getPath() );
+            } catch ( final RepositoryException e ) {
+                LOGGER.debug( e, "Clearing export cache as the event path is unknown" );
+                clear();
+            }
+        }
+    }
+
+    /**
+     * Used by exporters. Caches a successful export with a <code>String</code> or byte array outcome.
+     *
+     * @param exporter
+     *        the exporter (cannot be <code>null</code>)
+     * @param node
+     *        the node that was exported (cannot be <code>null</code>)
+     * @param options
+     *        the export options (cannot be <code>null</code>)
+     * @param result
+     *        the result of the export (cannot be <code>null</code>)
+     * @param dependencies
+     *        the absolute paths of the nodes the export read from besides the exported subtree (cannot be <code>null</code>)
+     * @param generation
+     *        the {@link #getGeneration() generation} when the export started
+     * @throws RepositoryException
+     *         if an error occurs reading the node
+     */
+    public void put( final Exporter exporter,
+                     final Node node,
+                     final Options options,
+                     final Result result,
+                     final Collection< String > dependencies,
+                     final long generation ) throws RepositoryException {
+        if ( !result.wasSuccessful() || !isCacheable( result.getOutcome() ) || node.getSession().hasPendingChanges() ) {
+            return; // an export of unsaved changes is not seen by other sessions
+        }
+
+        final Key key = new Key( exporter, node, options );
+        final List< String > paths = new ArrayList<>( dependencies.size() + 1 );
+        paths.add( node.getPath() );
+        paths.addAll( dependencies );
+
+        final Map< String, Object > data = new HashMap<>();
+
+        for ( final String dataKey : result ) {
+            final Object value = result.getData( dataKey );
+
+            if ( value != result.getOutcome() ) {
+                data.put( dataKey, copy( value ) );
+            }
+        }
+
+        final CachedExport cached = new CachedExport( data, copy( result.getOutcome() ), result.getType(), paths );
+
+        synchronized ( this ) {
+            if ( generation == this.generation ) {
+                this.exports.put( key, cached );
+            }
+        }
+    }
+
+    /**
+     * Starts listening to changes of the nodes of the workspace.
+     *
+     * @param workspace
+     *        the workspace of the exported nodes (cannot be <code>null</code>)
+     * @throws RepositoryException
+     *         if an error occurs adding the listener
+     */
+    public void register( final Workspace workspace ) throws RepositoryException {
+        workspace.getObservationManager().addEventListener( this, EVENT_TYPES, "/", true, null, null, false );
+    }
+
+    /**
+     * @return the number of cached exports
+     */
+    public synchronized int size() {
+        return this.exports.size();
+    }
+
+    /**
+     * Stops listening to changes of the nodes of the workspace.
+     *
+     * @param workspace
+     *        the workspace the cache was registered with (cannot be <code>null</code>)
+     * @throws RepositoryException
+     *         if an error occurs removing the listener
+     */
+    public void unregister( final Workspace workspace ) throws RepositoryException {
+        workspace.getObservationManager().removeEventListener( this );
+    }
+
+    private static Object copy( final Object value ) {
+        if ( value instanceof byte[] ) {
+            return ( ( byte[] )value ).clone();
+        }
+
+        if ( value instanceof Object[] ) {
+            final Object[] copy = ( ( Object[] )value ).clone();
+
+            for ( int i = 0; i < copy.length; ++i ) {
+                copy[ i ] = copy( copy[ i ] );
+            }
+
+            return copy;
+        }
+
+        return value;
+    }
+
+    private static boolean isCacheable( final Object outcome ) {
+        return ( ( outcome instanceof String ) || ( outcome instanceof byte[] ) || ( outcome instanceof byte[][] ) );
+    }
+
+    /**
+     * The outcome is kept apart from the other result data.
+     */
+    private static final class CachedExport {
+
+        private final Map< String, Object > data;
+        private final List< String > dependencies;
+        private final Object outcome;
+        private final Class< ? > type;
+
+        CachedExport( final Map< String, Object > data,
+                      final Object outcome,
+                      final Class< ? > type,
+                      final List< String > dependencies ) {
+            this.data = data;
+            this.outcome = outcome;
+            this.type = type;
+            this.dependencies = dependencies;
+        }
+
+    }
+
+    private static final class CachedResult implements Result {
+
+        private final Map< String, Object > data;
+        private final List< String > dependencies;
+        private final Options options;
+        private final Object outcome;
+        private final Class< ? > type;
+
+        CachedResult( final CachedExport cached,
+                      final Options options ) {
+            this.data = new HashMap<>();
+            this.dependencies = cached.dependencies.subList( 1, cached.dependencies.size() ); // first is the exported node
+            this.options = options;
+            this.outcome = copy( cached.outcome );
+            this.type = cached.type;
+
+            for ( final Map.Entry< String, Object > entry : cached.data.entrySet() ) {
+                this.data.put( entry.getKey(), copy( entry.getValue() ) );
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.Result#getData(java.lang.String)
+         */
+        @Override
+        public Object getData( final String key ) {
+            if ( !this.data.containsKey( key ) ) {
+                return ( ( RESULT_OUTCOME.equals( key ) ) ? this.outcome : null );
+            }
+
+            final Object value = this.data.get( key );
+            return ( ( value instanceof Options ) ? this.options : value );
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.Result#getDependencies()
+         */
+        @Override
+        public Collection< String > getDependencies() {
+            return Collections.unmodifiableList( this.dependencies );
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.Result#getError()
+         */
+        @Override
+        public Exception getError() {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.Result#getErrorMessage()
+         */
+        @Override
+        public String getErrorMessage() {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.Result#getOptions()
+         */
+        @Override
+        public Options getOptions() {
+            return this.options;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.Result#getOutcome()
+         */
+        @Override
+        public Object getOutcome() {
+            return this.outcome;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.Result#getType()
+         */
+        @Override
+        public Class< ? > getType() {
+            return this.type;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.lang.Iterable#iterator()
+         */
+        @Override
+        public Iterator< String > iterator() {
+            final List< String > keys = new ArrayList<>( this.data.keySet() );
+            keys.add( RESULT_OUTCOME );
+            return Collections.unmodifiableList( keys ).iterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.Result#wasSuccessful()
+         */
+        @Override
+        public boolean wasSuccessful() {
+            return true;
+        }
+
+    }
+
+    /**
+     * Option values are compared by equality, and arrays by their elements, so the same options set on different
+     * {@link Options} objects find the same export.
+     */
+    private static final class Key {
+
+        private final String exporter;
+        private final String identifier;
+        private final Object lastModified;
+        private final Map< String, Object > options;
+        private final String user;
+        private final String workspace;
+
+        Key( final Exporter exporter,
+             final Node node,
+             final Options options ) throws RepositoryException {
+            this.exporter = exporter.getClass().getName();
+            this.workspace = node.getSession().getWorkspace().getName();
+            this.user = node.getSession().getUserID();
+            this.identifier = node.getIdentifier();
+            this.options = new TreeMap<>();
+
+            if ( node.hasProperty( Property.JCR_LAST_MODIFIED ) ) {
+                this.lastModified = node.getProperty( Property.JCR_LAST_MODIFIED ).getString();
+            } else {
+                this.lastModified = null;
+            }
+
+            for ( final Map.Entry< String, Object > entry : options.getAll().entrySet() ) {
+                if ( !Options.EXPORT_CACHE_PROPERTY.equals( entry.getKey() ) ) {
+                    this.options.put( entry.getKey(), toComparable( entry.getValue() ) );
+                }
+            }
+        }
+
+        private static Object toComparable( final Object value ) {
+            if ( value instanceof Object[] ) {
+                return Arrays.asList( Arrays.stream( ( Object[] )value ).map( Key::toComparable ).toArray() );
+            }
+
+            if ( value instanceof byte[] ) {
+                return ByteBuffer.wrap( ( ( byte[] )value ).clone() );
+            }
+
+            return value;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals( final Object obj ) {
+            if ( this == obj ) {
+                return true;
+            }
+
+            if ( !( obj instanceof Key ) ) {
+                return false;
+            }
+
+            final Key that = ( Key )obj;
+            return ( this.identifier.equals( that.identifier )
+                     && this.exporter.equals( that.exporter )
+                     && this.workspace.equals( that.workspace )
+                     && Objects.equals( this.user, that.user )
+                     && Objects.equals( this.lastModified, that.lastModified )
+                     && this.options.equals( that.options ) );
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash( this.exporter, this.workspace, this.user, this.identifier, this.lastModified, this.options );
+        }
+
+    }
+
+}
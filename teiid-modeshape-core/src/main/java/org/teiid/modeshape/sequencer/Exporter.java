@@ -22,10 +22,12 @@
 
 package org.teiid.modeshape.sequencer;
 
+import java.io.OutputStream;
+import java.util.Objects;
 import javax.jcr.Node;
 
 /**
- * A base implementation of an exporter.
+ * A base implementation of an exporter. Implementations must be thread-safe so that one exporter can run concurrent exports.
  */
 public interface Exporter {
 
@@ -39,4 +41,24 @@ public interface Exporter {
     Result execute( final Node node,
                     final Options options );
 
+    /**
+     * Writes the export directly to the stream instead of collecting it in the result. The outcome of a successful result is the
+     * number of bytes written as a {@link Long}. The stream is neither flushed nor closed. The default implementation exports to
+     * a result and then writes its <code>String</code> or <code>byte[]</code> outcome to the stream.
+     *
+     * @param node
+     *        the node being exported (cannot be <code>null</code>)
+     * @param options
+     *        the exporter options (can be <code>null</code> or empty if default options should be used)
+     * @param stream
+     *        the stream the export is written to (cannot be <code>null</code>)
+     * @return the result of the export (never <code>null</code>)
+     * @see java.nio.channels.Channels#newOutputStream(java.nio.channels.WritableByteChannel)
+     */
+    default Result execute( final Node node,
+                            final Options options,
+                            final OutputStream stream ) {
+        return StreamedResult.write( this, execute( node, options ), Objects.requireNonNull( stream, "stream" ) );
+    }
+
 }
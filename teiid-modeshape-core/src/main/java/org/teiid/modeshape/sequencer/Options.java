@@ -27,6 +27,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 import org.teiid.modeshape.util.StringUtil;
 
 /**
@@ -44,6 +46,11 @@ public class Options {
      */
     public static final boolean DEFAULT_PRETTY_PRINT = true;
 
+    /**
+     * The default option value for if child nodes are found using queries. Value is {@value}.
+     */
+    public static final boolean DEFAULT_QUERY_CHILD_NODES = false;
+
     /**
      * A default property filter that filters out properties of these namespaces:
      * <p>
@@ -62,19 +69,21 @@ public class Options {
      * </ul>
      *
      * @see PropertyFilter
+     * @see PropertyFilterBuilder
      */
-    public static final PropertyFilter DEFAULT_PROPERTY_FILTER = propertyName -> !propertyName.startsWith( "dv:" )
-                                                                                 && !propertyName.startsWith( "jcr:" )
-                                                                                 && !propertyName.startsWith( "jdbc:" )
-                                                                                 && !propertyName.startsWith( "med:" )
-                                                                                 && !propertyName.startsWith( "mix:" )
-                                                                                 && !propertyName.startsWith( "mmcore:" )
-                                                                                 && !propertyName.startsWith( "mode:" )
-                                                                                 && !propertyName.startsWith( "nt:" )
-                                                                                 && !propertyName.startsWith( "relational:" )
-                                                                                 && !propertyName.startsWith( "transformation:" )
-                                                                                 && !propertyName.startsWith( "vdb:" )
-                                                                                 && !propertyName.startsWith( "xmi:" );
+    public static final PropertyFilter DEFAULT_PROPERTY_FILTER = new PropertyFilterBuilder().rejectPrefix( "dv:",
+                                                                                                    "jcr:",
+                                                                                                    "jdbc:",
+                                                                                                    "med:",
+                                                                                                    "mix:",
+                                                                                                    "mmcore:",
+                                                                                                    "mode:",
+                                                                                                    "nt:",
+                                                                                                    "relational:",
+                                                                                                    "transformation:",
+                                                                                                    "vdb:",
+                                                                                                    "xmi:" )
+                                                                                       .build();
 
     @SuppressWarnings( "serial" )
     private static final Map< String, Object > DEFAULTS = Collections.unmodifiableMap( new HashMap< String, Object >() {
@@ -82,9 +91,15 @@ public class Options {
             put( Options.INDENT_AMOUNT_PROPERTY, Options.DEFAULT_INDENT_AMOUNT );
             put( Options.PRETTY_PRINT_PROPERTY, Options.DEFAULT_PRETTY_PRINT );
             put( Options.PROPERTY_FILTER_PROPERTY, Options.DEFAULT_PROPERTY_FILTER );
+            put( Options.QUERY_CHILD_NODES_PROPERTY, Options.DEFAULT_QUERY_CHILD_NODES );
         }
     } );
 
+    /**
+     * The option name for the {@link ExportCache cache} of exports. Exports are not cached by default.
+     */
+    public static final String EXPORT_CACHE_PROPERTY = "export-cache";
+
     /**
      * The option name for the number of spaces for each indent level of the output.
      */
@@ -102,6 +117,12 @@ public class Options {
      */
     public static final String PROPERTY_FILTER_PROPERTY = "property-filter";
 
+    /**
+     * The option name for if child nodes are found using JCR-SQL2 queries instead of by iterating over the children of their
+     * parent. Queries only find saved and indexed nodes.
+     */
+    public static final String QUERY_CHILD_NODES_PROPERTY = "query-child-nodes";
+
     private final Map< String, Object > options = new HashMap<>( DEFAULTS );
 
     /**
@@ -136,6 +157,13 @@ public class Options {
         return ( ( value == null ) ? Objects.requireNonNull( defaultValue, "defaultValue" ) : value );
     }
 
+    /**
+     * @return the option values, including default values (never <code>null</code>)
+     */
+    Map< String, Object > getAll() {
+        return Collections.unmodifiableMap( this.options );
+    }
+
     /**
      * Removes the named option if the value is <code>null</code> or an empty <code>String</code>.
      *
@@ -181,6 +209,19 @@ public class Options {
          */
         boolean accept( final String propertyName );
 
+        /**
+         * Called once per export before any property is checked. The default implementation returns this filter.
+         *
+         * @param session
+         *        the session of the node being exported (cannot be <code>null</code>)
+         * @return the filter to use for the export (never <code>null</code>)
+         * @throws RepositoryException
+         *         if an error occurs reading from the session
+         */
+        default PropertyFilter forSession( final Session session ) throws RepositoryException {
+            return this;
+        }
+
     }
 
 }
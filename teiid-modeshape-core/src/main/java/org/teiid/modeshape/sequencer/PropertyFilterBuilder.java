@@ -0,0 +1,277 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import javax.jcr.NamespaceException;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import org.teiid.modeshape.sequencer.Options.PropertyFilter;
+import org.teiid.modeshape.util.StringUtil;
+
+/**
+ * Builds a {@link PropertyFilter property filter} that rejects properties by name prefix, by exact name, or by namespace URI.
+ * All the rules are compiled into one character trie, so checking a property name reads each of its characters at most once no
+ * matter how many rules there are. Namespace URIs are resolved to prefixes once per export using the session of the exported
+ * node. Filters that are not built here can be composed with a built filter using {@link #and(PropertyFilter)}.
+ *
+ * @see Options#PROPERTY_FILTER_PROPERTY
+ */
+public final class PropertyFilterBuilder {
+
+    private final List< PropertyFilter > filters = new ArrayList<>();
+    private final Set< String > names = new LinkedHashSet<>();
+    private final Set< String > namespaceUris = new LinkedHashSet<>();
+    private final Set< String > prefixes = new LinkedHashSet<>();
+
+    /**
+     * @param filter
+     *        a filter that must also accept the property (cannot be <code>null</code>)
+     * @return this builder (never <code>null</code>)
+     */
+    public PropertyFilterBuilder and( final PropertyFilter filter ) {
+        this.filters.add( Objects.requireNonNull( filter, "filter" ) );
+        return this;
+    }
+
+    /**
+     * @return the filter (never <code>null</code>)
+     */
+    public PropertyFilter build() {
+        final Trie trie = new Trie();
+
+        for ( final String prefix : this.prefixes ) {
+            trie.add( prefix, true );
+        }
+
+        for ( final String name : this.names ) {
+            trie.add( name, false );
+        }
+
+        return new CompiledFilter( trie,
+                                   this.namespaceUris.toArray( new String[ this.namespaceUris.size() ] ),
+                                   this.filters.toArray( new PropertyFilter[ this.filters.size() ] ) );
+    }
+
+    /**
+     * @param propertyNames
+     *        the qualified names (like <code>jcr:uuid</code>) of the properties to reject (cannot be <code>null</code> or contain
+     *        empty names)
+     * @return this builder (never <code>null</code>)
+     */
+    public PropertyFilterBuilder rejectName( final String... propertyNames ) {
+        for ( final String name : propertyNames ) {
+            this.names.add( StringUtil.requireNonEmpty( name, "propertyName" ) );
+        }
+
+        return this;
+    }
+
+    /**
+     * @param uris
+     *        the URIs of the namespaces whose properties are rejected (cannot be <code>null</code> or contain empty URIs)
+     * @return this builder (never <code>null</code>)
+     */
+    public PropertyFilterBuilder rejectNamespaceUri( final String... uris ) {
+        for ( final String uri : uris ) {
+            this.namespaceUris.add( StringUtil.requireNonEmpty( uri, "uri" ) );
+        }
+
+        return this;
+    }
+
+    /**
+     * @param namePrefixes
+     *        the prefixes (like <code>jcr:</code>) of the names of the properties to reject (cannot be <code>null</code> or
+     *        contain empty prefixes)
+     * @return this builder (never <code>null</code>)
+     */
+    public PropertyFilterBuilder rejectPrefix( final String... namePrefixes ) {
+        for ( final String prefix : namePrefixes ) {
+            this.prefixes.add( StringUtil.requireNonEmpty( prefix, "namePrefix" ) );
+        }
+
+        return this;
+    }
+
+    private static final class CompiledFilter implements PropertyFilter {
+
+        private final PropertyFilter[] filters;
+        private final String[] namespaceUris;
+        private final Trie trie;
+
+        CompiledFilter( final Trie trie,
+                        final String[] namespaceUris,
+                        final PropertyFilter[] filters ) {
+            this.trie = trie;
+            this.namespaceUris = namespaceUris;
+            this.filters = filters;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.Options.PropertyFilter#accept(java.lang.String)
+         */
+        @Override
+        public boolean accept( final String propertyName ) {
+            if ( this.trie.matches( propertyName ) ) {
+                return false;
+            }
+
+            for ( final PropertyFilter filter : this.filters ) {
+                if ( !filter.accept( propertyName ) ) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Namespace URIs are turned into name prefix rules of a new filter. URIs not registered in the session cannot match any
+         * property and are dropped.
+         *
+         * @see org.teiid.modeshape.sequencer.Options.PropertyFilter#forSession(javax.jcr.Session)
+         */
+        @Override
+        public PropertyFilter forSession( final Session session ) throws RepositoryException {
+            final PropertyFilter[] sessionFilters = new PropertyFilter[ this.filters.length ];
+            boolean changed = false;
+
+            for ( int i = 0; i < this.filters.length; ++i ) {
+                sessionFilters[ i ] = this.filters[ i ].forSession( session );
+                changed |= ( sessionFilters[ i ] != this.filters[ i ] );
+            }
+
+            if ( ( this.namespaceUris.length == 0 ) && !changed ) {
+                return this;
+            }
+
+            final Trie sessionTrie = this.trie.copy();
+
+            for ( final String uri : this.namespaceUris ) {
+                try {
+                    sessionTrie.add( session.getNamespacePrefix( uri ) + ':', true );
+                } catch ( final NamespaceException e ) {
+                    // not registered
+                }
+            }
+
+            return new CompiledFilter( sessionTrie, new String[ 0 ], sessionFilters );
+        }
+
+    }
+
+    /**
+     * A node of a character trie. Children are kept in arrays sorted by character.
+     */
+    private static final class Trie {
+
+        private char[] chars = new char[ 0 ];
+        private Trie[] children = new Trie[ 0 ];
+        private boolean name; // a rejected name ends here
+        private boolean prefix; // a rejected prefix ends here
+
+        void add( final String text,
+                  final boolean isPrefix ) {
+            Trie node = this;
+
+            for ( int i = 0; i < text.length(); ++i ) {
+                node = node.getOrCreateChild( text.charAt( i ) );
+            }
+
+            if ( isPrefix ) {
+                node.prefix = true;
+            } else {
+                node.name = true;
+            }
+        }
+
+        Trie copy() {
+            final Trie copy = new Trie();
+            copy.chars = this.chars.clone();
+            copy.children = new Trie[ this.children.length ];
+            copy.name = this.name;
+            copy.prefix = this.prefix;
+
+            for ( int i = 0; i < this.children.length; ++i ) {
+                copy.children[ i ] = this.children[ i ].copy();
+            }
+
+            return copy;
+        }
+
+        private Trie getOrCreateChild( final char c ) {
+            final int index = Arrays.binarySearch( this.chars, c );
+
+            if ( index >= 0 ) {
+                return this.children[ index ];
+            }
+
+            final int insertAt = ( -index - 1 );
+            final char[] newChars = new char[ this.chars.length + 1 ];
+            final Trie[] newChildren = new Trie[ this.children.length + 1 ];
+            System.arraycopy( this.chars, 0, newChars, 0, insertAt );
+            System.arraycopy( this.children, 0, newChildren, 0, insertAt );
+            System.arraycopy( this.chars, insertAt, newChars, insertAt + 1, this.chars.length - insertAt );
+            System.arraycopy( this.children, insertAt, newChildren, insertAt + 1, this.children.length - insertAt );
+
+            final Trie child = new Trie();
+            newChars[ insertAt ] = c;
+            newChildren[ insertAt ] = child;
+            this.chars = newChars;
+            this.children = newChildren;
+            return child;
+        }
+
+        /**
+         * @return <code>true</code> if the text starts with a rejected prefix or is a rejected name
+         */
+        boolean matches( final String text ) {
+            Trie node = this;
+
+            for ( int i = 0, length = text.length(); i < length; ++i ) {
+                if ( node.prefix ) {
+                    return true;
+                }
+
+                final int index = Arrays.binarySearch( node.chars, text.charAt( i ) );
+
+                if ( index < 0 ) {
+                    return false;
+                }
+
+                node = node.children[ index ];
+            }
+
+            return ( node.prefix || node.name );
+        }
+
+    }
+
+}
@@ -22,6 +22,8 @@
 
 package org.teiid.modeshape.sequencer;
 
+import java.util.Collection;
+import java.util.Collections;
 import javax.jcr.Node;
 
 /**
@@ -36,6 +38,17 @@ public interface Result extends Iterable< String > {
      */
     Object getData( final String key );
 
+    /**
+     * The default implementation returns an empty collection for results that do not record what the export read.
+     *
+     * @return the absolute paths of the nodes outside of the exported subtree that the export read from (never
+     *         <code>null</code> but can be empty)
+     * @see ExportCache
+     */
+    default Collection< String > getDependencies() {
+        return Collections.emptyList();
+    }
+
     /**
      * An unsuccessful export may not have a caught exception.
      * 
@@ -0,0 +1,190 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.modeshape.sequencer;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import javax.jcr.Node;
+import org.modeshape.common.util.StringUtil;
+import org.teiid.modeshape.core.CoreI18n;
+
+/**
+ * The result of an {@link Exporter#execute(Node, Options, OutputStream) export} written to a stream by an exporter that only
+ * exports to a result. The outcome is the number of bytes written.
+ */
+final class StreamedResult implements Result {
+
+    private static final String RESULT_OUTCOME = "exporter.outcome";
+
+    /**
+     * Writes the <code>String</code> or <code>byte[]</code> outcome of the result to the stream.
+     *
+     * @param exporter
+     *        the exporter that produced the result (cannot be <code>null</code>)
+     * @param result
+     *        the result of the export (cannot be <code>null</code>)
+     * @param stream
+     *        the stream the outcome is written to (cannot be <code>null</code> and is not closed)
+     * @return the result of writing the outcome (never <code>null</code>)
+     */
+    static Result write( final Exporter exporter,
+                         final Result result,
+                         final OutputStream stream ) {
+        if ( !result.wasSuccessful() ) {
+            return result;
+        }
+
+        final Object outcome = result.getOutcome();
+        final byte[] bytes;
+
+        if ( outcome instanceof String ) {
+            bytes = ( ( String )outcome ).getBytes( StandardCharsets.UTF_8 );
+        } else if ( outcome instanceof byte[] ) {
+            bytes = ( byte[] )outcome;
+        } else {
+            final String msg = CoreI18n.exportOutcomeCannotBeStreamed.text( exporter.getClass().getName(), result.getType() );
+            return new StreamedResult( result, null, msg, null );
+        }
+
+        try {
+            stream.write( bytes );
+        } catch ( final Exception e ) {
+            return new StreamedResult( result, null, CoreI18n.errorDuringExport.text( exporter.getClass().getName() ), e );
+        }
+
+        return new StreamedResult( result, ( long )bytes.length, null, null );
+    }
+
+    private final Result delegate;
+    private final Exception error;
+    private final String errorMsg;
+    private final Long outcome;
+
+    private StreamedResult( final Result delegate,
+                            final Long outcome,
+                            final String errorMsg,
+                            final Exception error ) {
+        this.delegate = delegate;
+        this.error = error;
+        this.errorMsg = errorMsg;
+        this.outcome = outcome;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.Result#getData(java.lang.String)
+     */
+    @Override
+    public Object getData( final String key ) {
+        return ( RESULT_OUTCOME.equals( key ) ? this.outcome : this.delegate.getData( key ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.Result#getDependencies()
+     */
+    @Override
+    public Collection< String > getDependencies() {
+        return this.delegate.getDependencies();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.Result#getError()
+     */
+    @Override
+    public Exception getError() {
+        return this.error;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.Result#getErrorMessage()
+     */
+    @Override
+    public String getErrorMessage() {
+        if ( StringUtil.isBlank( this.errorMsg ) ) {
+            return ( ( this.error == null ) ? null : this.error.getLocalizedMessage() );
+        }
+
+        return this.errorMsg;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.Result#getOptions()
+     */
+    @Override
+    public Options getOptions() {
+        return this.delegate.getOptions();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.Result#getOutcome()
+     */
+    @Override
+    public Object getOutcome() {
+        return this.outcome;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.Result#getType()
+     */
+    @Override
+    public Class< ? > getType() {
+        return ( ( this.outcome == null ) ? null : Long.class );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Iterable#iterator()
+     */
+    @Override
+    public Iterator< String > iterator() {
+        return this.delegate.iterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.Result#wasSuccessful()
+     */
+    @Override
+    public boolean wasSuccessful() {
+        return ( ( this.error == null )
+                 && StringUtil.isBlank( this.errorMsg ) );
+    }
+
+}
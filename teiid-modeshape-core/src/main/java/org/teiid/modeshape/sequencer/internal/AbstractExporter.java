@@ -22,32 +22,41 @@
 
 package org.teiid.modeshape.sequencer.internal;
 
-import java.io.StringReader;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import javax.jcr.Node;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+import org.modeshape.common.annotation.ThreadSafe;
 import org.modeshape.common.logging.Logger;
 import org.modeshape.common.util.StringUtil;
 import org.teiid.modeshape.core.CoreI18n;
+import org.teiid.modeshape.metrics.MetricNames;
+import org.teiid.modeshape.metrics.Metrics;
+import org.teiid.modeshape.metrics.MetricsRegistry;
+import org.teiid.modeshape.metrics.Timer;
+import org.teiid.modeshape.sequencer.ExportCache;
 import org.teiid.modeshape.sequencer.Exporter;
 import org.teiid.modeshape.sequencer.Options;
 import org.teiid.modeshape.sequencer.Result;
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
 
 /**
- * A base implementation of an exporter.
+ * A base implementation of an exporter. Exporters keep no state between exports so one instance can be used by many threads.
  */
+@ThreadSafe
 public abstract class AbstractExporter implements Exporter {
 
     private static final Logger LOGGER = Logger.getLogger( AbstractExporter.class );
@@ -69,6 +78,40 @@ public abstract class AbstractExporter implements Exporter {
                                       final Options options,
                                       final ResultImpl result );
 
+    /**
+     * Writes the export to the stream. The default implementation exports to the result and then writes the <code>String</code>
+     * or <code>byte[]</code> outcome to the stream. Exporters override this to write without collecting the whole export first.
+     *
+     * @param nodeBeingExported
+     *        the node being exported (never <code>null</code>)
+     * @param options
+     *        the export options (never <code>null</code>)
+     * @param stream
+     *        the stream to write the export to (never <code>null</code> and must not be closed)
+     * @param result
+     *        the object to set errors on (never <code>null</code>)
+     * @throws Exception
+     *         if an error occurs writing to the stream
+     */
+    protected void doExport( final Node nodeBeingExported,
+                             final Options options,
+                             final OutputStream stream,
+                             final ResultImpl result ) throws Exception {
+        doExport( nodeBeingExported, options, result );
+
+        if ( result.wasSuccessful() ) {
+            final Object outcome = result.getOutcome();
+
+            if ( outcome instanceof String ) {
+                stream.write( ( ( String )outcome ).getBytes( StandardCharsets.UTF_8 ) );
+            } else if ( outcome instanceof byte[] ) {
+                stream.write( ( byte[] )outcome );
+            } else {
+                result.setError( CoreI18n.exportOutcomeCannotBeStreamed.text( getClass().getName(), result.getType() ), null );
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -77,7 +120,59 @@ public abstract class AbstractExporter implements Exporter {
     @Override
     public final Result execute( final Node nodeBeingExported,
                                  final Options exportOptions ) {
-        final long start = System.currentTimeMillis();
+        final ExportCache cache = getExportCache( exportOptions );
+
+        if ( cache == null ) {
+            return execute( nodeBeingExported,
+                            exportOptions,
+                            ( options, result ) -> doExport( nodeBeingExported, options, result ) );
+        }
+
+        try {
+            final Result cached = cache.get( this, nodeBeingExported, exportOptions );
+
+            if ( cached != null ) {
+                return cached;
+            }
+        } catch ( final Exception e ) {
+            LOGGER.debug( e, "Unable to find export in cache" );
+        }
+
+        final long generation = cache.getGeneration();
+        return execute( nodeBeingExported, exportOptions, ( options, result ) -> {
+            doExport( nodeBeingExported, options, result );
+
+            try {
+                cache.put( this, nodeBeingExported, options, result, result.dependencies, generation );
+            } catch ( final Exception e ) {
+                LOGGER.debug( e, "Unable to cache export" );
+            }
+        } );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.teiid.modeshape.sequencer.Exporter#execute(javax.jcr.Node, org.teiid.modeshape.sequencer.Options,
+     *      java.io.OutputStream)
+     */
+    @Override
+    public final Result execute( final Node nodeBeingExported,
+                                 final Options exportOptions,
+                                 final OutputStream stream ) {
+        return execute( nodeBeingExported, exportOptions, ( options, result ) -> {
+            final CountingOutputStream counter = new CountingOutputStream( Objects.requireNonNull( stream, "stream" ) );
+            doExport( nodeBeingExported, options, counter, result );
+
+            if ( result.wasSuccessful() ) {
+                result.setOutcome( counter.count, Long.class );
+            }
+        } );
+    }
+
+    private Result execute( final Node nodeBeingExported,
+                            final Options exportOptions,
+                            final Export export ) {
         final Options options = ( ( exportOptions == null ) ? new Options() : exportOptions );
         ResultImpl result = null;
         String nodePath = null;
@@ -94,32 +189,45 @@ public abstract class AbstractExporter implements Exporter {
             return result;
         }
 
-        try {
+        final Metrics metrics = MetricsRegistry.get();
+
+        try ( final Timer timer = metrics.start( MetricNames.EXPORT_PREFIX + getClass().getSimpleName() ) ) {
             LOGGER.debug( "Starting export of node {0} by exporter {1}", nodePath, getClass().getSimpleName() );
-            doExport( nodeBeingExported, options, result );
-        } catch ( final Exception e ) {
-            result.setError( CoreI18n.errorDuringExport.text( getClass().getName() ), e );
-        } finally {
+
+            try {
+                export.run( options, result );
+            } catch ( final Exception e ) {
+                result.setError( CoreI18n.errorDuringExport.text( getClass().getName() ), e );
+            }
+
             LOGGER.debug( "Finished export of node {0} by exporter {1} in {2}ms and success = {3}",
-                          ( nodePath == null ) ? "null node path" : nodePath,
+                          nodePath,
                           getClass().getSimpleName(),
-                          ( System.currentTimeMillis()
-                            - start ),
+                          timer.getElapsedMillis(),
                           result.wasSuccessful() );
         }
 
         return result;
     }
 
-    protected String getIndentAmount( final Options options ) {
+    private ExportCache getExportCache( final Options options ) {
+        if ( options == null ) {
+            return null;
+        }
+
+        final Object value = options.get( Options.EXPORT_CACHE_PROPERTY );
+        return ( ( value instanceof ExportCache ) ? ( ExportCache )value : null );
+    }
+
+    protected int getIndentAmount( final Options options ) {
         assert ( options != null );
         final Object value = options.get( Options.INDENT_AMOUNT_PROPERTY, Options.DEFAULT_INDENT_AMOUNT );
 
-        if ( !( value instanceof Integer ) ) {
-            return Integer.toString( Options.DEFAULT_INDENT_AMOUNT );
+        if ( !( value instanceof Integer ) || ( ( Integer )value < 0 ) ) {
+            return Options.DEFAULT_INDENT_AMOUNT;
         }
 
-        return Integer.toString( ( Integer )value );
+        return ( Integer )value;
     }
 
     protected Options.PropertyFilter getPropertyFilter( final Options options ) {
@@ -133,6 +241,24 @@ public abstract class AbstractExporter implements Exporter {
         return ( Options.PropertyFilter )value;
     }
 
+    /**
+     * Exporters should get the filter once per export using this method so that the filter can resolve what it needs from the
+     * session.
+     *
+     * @param options
+     *        the export options (cannot be <code>null</code>)
+     * @param session
+     *        the session of the node being exported (cannot be <code>null</code>)
+     * @return the property filter for the export (never <code>null</code>)
+     * @throws RepositoryException
+     *         if an error occurs reading from the session
+     * @see Options.PropertyFilter#forSession(Session)
+     */
+    protected Options.PropertyFilter getPropertyFilter( final Options options,
+                                                        final Session session ) throws RepositoryException {
+        return getPropertyFilter( options ).forSession( session );
+    }
+
     protected boolean isPrettyPrint( final Options options ) {
         assert ( options != null );
         final Object value = options.get( Options.PRETTY_PRINT_PROPERTY, Options.DEFAULT_PRETTY_PRINT );
@@ -144,31 +270,145 @@ public abstract class AbstractExporter implements Exporter {
         return ( Boolean )value;
     }
 
-    protected Document parseXmlFile( final String xml ) throws Exception {
-        final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        final DocumentBuilder db = dbf.newDocumentBuilder();
-        final InputSource is = new InputSource( new StringReader( xml ) );
-        return db.parse( is );
+    protected boolean isQueryChildNodes( final Options options ) {
+        assert ( options != null );
+        final Object value = options.get( Options.QUERY_CHILD_NODES_PROPERTY, Options.DEFAULT_QUERY_CHILD_NODES );
+
+        if ( !( value instanceof Boolean ) ) {
+            return Options.DEFAULT_QUERY_CHILD_NODES;
+        }
+
+        return ( Boolean )value;
     }
 
-    protected String prettyPrint( final String xml,
-                                  final Options options ) throws Exception {
+    /**
+     * @param options
+     *        the export options (cannot be <code>null</code>)
+     * @param content
+     *        writes the XML document (cannot be <code>null</code>)
+     * @return the XML that was written, indented if pretty printing (never <code>null</code>)
+     * @throws Exception
+     *         if an error occurs writing the XML
+     */
+    protected String writeXml( final Options options,
+                               final XmlContent content ) throws Exception {
         assert ( options != null );
-        final Document document = parseXmlFile( xml );
-        final TransformerFactory factory = TransformerFactory.newInstance();
+        final StringWriter stringWriter = new StringWriter();
+        XMLStreamWriter xmlWriter = null;
 
-        final Transformer transformer = factory.newTransformer();
-        transformer.setOutputProperty( OutputKeys.ENCODING, "UTF-8" );
-        transformer.setOutputProperty( OutputKeys.OMIT_XML_DECLARATION, "yes" );
-        transformer.setOutputProperty( OutputKeys.INDENT, "yes" );
-        transformer.setOutputProperty( "{http://xml.apache.org/xslt}indent-amount", getIndentAmount( options ) );
+        try {
+            xmlWriter = createXmlWriter( XMLOutputFactory.newInstance().createXMLStreamWriter( stringWriter ), options );
+            content.write( xmlWriter );
+        } finally {
+            close( xmlWriter );
+        }
+
+        final String xml = stringWriter.toString();
+        return ( isPrettyPrint( options ) ? xml : xml.trim() );
+    }
+
+    /**
+     * Writes the XML document as UTF-8 to the stream.
+     *
+     * @param stream
+     *        the stream the XML is written to (cannot be <code>null</code> and is not closed)
+     * @param options
+     *        the export options (cannot be <code>null</code>)
+     * @param content
+     *        writes the XML document (cannot be <code>null</code>)
+     * @throws Exception
+     *         if an error occurs writing the XML
+     */
+    protected void writeXml( final OutputStream stream,
+                             final Options options,
+                             final XmlContent content ) throws Exception {
+        assert ( options != null );
+        XMLStreamWriter xmlWriter = null;
+
+        try {
+            xmlWriter = createXmlWriter( XMLOutputFactory.newInstance().createXMLStreamWriter( stream, "UTF-8" ), options );
+            content.write( xmlWriter );
+            xmlWriter.flush();
+        } finally {
+            close( xmlWriter );
+        }
+    }
+
+    private XMLStreamWriter createXmlWriter( final XMLStreamWriter xmlWriter,
+                                             final Options options ) {
+        if ( isPrettyPrint( options ) ) {
+            return new IndentingXMLStreamWriter( xmlWriter, getIndentAmount( options ), true );
+        }
 
-        final DOMSource source = new DOMSource( document );
-        final StringWriter output = new StringWriter();
-        final StreamResult result = new StreamResult( output );
-        transformer.transform( source, result );
+        return xmlWriter;
+    }
+
+    private void close( final XMLStreamWriter xmlWriter ) {
+        if ( xmlWriter != null ) {
+            try {
+                xmlWriter.close(); // does not close the underlying writer or stream
+            } catch ( final Exception e ) {
+                // do nothing
+            }
+        }
+    }
+
+    /**
+     * Writes an XML document.
+     */
+    @FunctionalInterface
+    protected interface XmlContent {
+
+        /**
+         * @param xmlWriter
+         *        the writer the document is written to (never <code>null</code>)
+         * @throws Exception
+         *         if an error occurs writing the document
+         */
+        void write( final XMLStreamWriter xmlWriter ) throws Exception;
+
+    }
+
+    @FunctionalInterface
+    private interface Export {
+
+        void run( final Options options,
+                  final ResultImpl result ) throws Exception;
+
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream( final OutputStream stream ) {
+            super( stream );
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.io.FilterOutputStream#write(int)
+         */
+        @Override
+        public void write( final int b ) throws IOException {
+            this.out.write( b );
+            ++this.count;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.io.FilterOutputStream#write(byte[], int, int)
+         */
+        @Override
+        public void write( final byte[] b,
+                           final int off,
+                           final int len ) throws IOException {
+            this.out.write( b, off, len );
+            this.count += len;
+        }
 
-        return output.toString();
     }
 
     protected class ResultImpl implements Result {
@@ -201,6 +441,7 @@ public abstract class AbstractExporter implements Exporter {
         public static final String TYPE = "exporter.outcome-type";
 
         private final Map< String, Object > data;
+        private final List< String > dependencies = new ArrayList<>();
         private Exception error = null;
         private String errorMsg = null;
         private Class< ? > type = null;
@@ -217,6 +458,18 @@ public abstract class AbstractExporter implements Exporter {
             this.data.put( OPTIONS, options );
         }
 
+        /**
+         * Records a node outside of the exported subtree that the export read from. A cached export is invalidated when the
+         * exported subtree or one of these nodes changes.
+         *
+         * @param path
+         *        the absolute path of the node (cannot be <code>null</code> or empty)
+         * @see ExportCache
+         */
+        public void addDependency( final String path ) {
+            this.dependencies.add( org.teiid.modeshape.util.StringUtil.requireNonEmpty( path, "path" ) );
+        }
+
         /**
          * {@inheritDoc}
          *
@@ -227,6 +480,16 @@ public abstract class AbstractExporter implements Exporter {
             return this.data.get( key );
         }
 
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.teiid.modeshape.sequencer.Result#getDependencies()
+         */
+        @Override
+        public Collection< String > getDependencies() {
+            return Collections.unmodifiableList( this.dependencies );
+        }
+
         /**
          * {@inheritDoc}
          *
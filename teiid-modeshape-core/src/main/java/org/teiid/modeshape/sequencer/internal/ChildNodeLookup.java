@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryManager;
+import javax.jcr.query.QueryResult;
+
+/**
+ * Finds child nodes by type for the duration of one export. By default children are found by iterating over the children of
+ * their parent, which are read once per parent and kept along with each requested type. Finding children with JCR-SQL2 queries
+ * is kept as a fallback. Not thread-safe.
+ */
+public final class ChildNodeLookup {
+
+    /**
+     * First param is child node type. Second param is the parent node path. Third param is child node name.
+     */
+    private static final String FIND_CHILD_BY_NAME_AND_TYPE = "SELECT [jcr:path] FROM ['%s'] WHERE ISCHILDNODE('%s') AND [jcr:name] = '%s' LIMIT 1";
+
+    /**
+     * First param is child node type. Second param is the parent node path.
+     */
+    private static final String FIND_CHILD_WITH_TYPE = "SELECT [jcr:path] FROM ['%s'] WHERE ISCHILDNODE('%s')";
+
+    private static final Node[] NO_NODES = new Node[ 0 ];
+
+    private final Map< String, Node[] > childrenByParent = new HashMap<>();
+    private final Map< String, Node[] > childrenByParentAndType = new HashMap<>();
+    private final boolean useQueries;
+
+    /**
+     * @param useQueries
+     *        <code>true</code> if children should be found using queries
+     */
+    public ChildNodeLookup( final boolean useQueries ) {
+        this.useQueries = useQueries;
+    }
+
+    private Node[] getChildren( final Node parentNode ) throws Exception {
+        final String parentId = parentNode.getIdentifier();
+        Node[] children = this.childrenByParent.get( parentId );
+
+        if ( children == null ) {
+            children = toArray( parentNode.getNodes() );
+            this.childrenByParent.put( parentId, children );
+        }
+
+        return children;
+    }
+
+    /**
+     * @param parentNode
+     *        the node whose child is being requested (cannot be <code>null</code>)
+     * @param childName
+     *        the name of the child (cannot be <code>null</code> or empty)
+     * @param childType
+     *        the node type the child must have (cannot be <code>null</code> or empty)
+     * @return the first child with the name and type (can be <code>null</code> if not found)
+     * @throws Exception
+     *         if an error occurs finding the child
+     */
+    public Node getChild( final Node parentNode,
+                          final String childName,
+                          final String childType ) throws Exception {
+        if ( this.useQueries ) {
+            final NodeIterator itr = query( parentNode,
+                                            String.format( FIND_CHILD_BY_NAME_AND_TYPE,
+                                                           childType,
+                                                           parentNode.getPath(),
+                                                           childName ) );
+            return ( itr.hasNext() ? itr.nextNode() : null );
+        }
+
+        for ( final Node child : getChildren( parentNode, childType ) ) {
+            if ( childName.equals( child.getName() ) ) {
+                return child;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param parentNode
+     *        the node whose children are being requested (cannot be <code>null</code>)
+     * @param childType
+     *        the node type the children must have (cannot be <code>null</code> or empty)
+     * @return the children with the type (never <code>null</code> but can be empty)
+     * @throws Exception
+     *         if an error occurs finding the children
+     */
+    public Node[] getChildren( final Node parentNode,
+                               final String childType ) throws Exception {
+        if ( this.useQueries ) {
+            final NodeIterator itr = query( parentNode, String.format( FIND_CHILD_WITH_TYPE, childType, parentNode.getPath() ) );
+            return toArray( itr );
+        }
+
+        final String key = parentNode.getIdentifier() + '|' + childType;
+        Node[] result = this.childrenByParentAndType.get( key );
+
+        if ( result == null ) {
+            final List< Node > matches = new ArrayList<>();
+
+            for ( final Node child : getChildren( parentNode ) ) {
+                if ( child.isNodeType( childType ) ) {
+                    matches.add( child );
+                }
+            }
+
+            result = ( matches.isEmpty() ? NO_NODES : matches.toArray( new Node[ matches.size() ] ) );
+            this.childrenByParentAndType.put( key, result );
+        }
+
+        return result;
+    }
+
+    private NodeIterator query( final Node parentNode,
+                                final String queryText ) throws Exception {
+        final QueryManager queryMgr = parentNode.getSession().getWorkspace().getQueryManager();
+        final Query query = queryMgr.createQuery( queryText, Query.JCR_SQL2 );
+        final QueryResult result = query.execute();
+        return result.getNodes();
+    }
+
+    private Node[] toArray( final NodeIterator itr ) {
+        if ( !itr.hasNext() ) {
+            return NO_NODES;
+        }
+
+        final List< Node > nodes = new ArrayList<>();
+
+        while ( itr.hasNext() ) {
+            nodes.add( itr.nextNode() );
+        }
+
+        return nodes.toArray( new Node[ nodes.size() ] );
+    }
+
+}
@@ -0,0 +1,601 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * An {@link XMLStreamWriter} decorator that indents elements as they are written. The output is the same as parsing the XML and
+ * writing it with an indenting {@link javax.xml.transform.Transformer transformer}: nested elements start on their own line,
+ * elements without content are written as empty elements, text stays on the line of its element, attributes are sorted by name,
+ * and line ends in text and whitespace in attribute values are normalized like a parser would.
+ */
+public final class IndentingXMLStreamWriter implements XMLStreamWriter {
+
+    private static final int HAS_CHILD = 1;
+    private static final int HAS_TEXT = 2;
+
+    private final XMLStreamWriter delegate;
+    private final String indent;
+    private final String lineSeparator = System.lineSeparator();
+    private final boolean omitXmlDeclaration;
+
+    private int depth = 0;
+    private int[] state = new int[ 16 ];
+    private boolean started = false;
+
+    private Write pendingStart = null;
+    private Write pendingEmpty = null;
+    private boolean pendingOpen = false;
+    private final List< PendingAttribute > pendingAttributes = new ArrayList<>();
+
+    /**
+     * @param delegate
+     *        the writer being decorated (cannot be <code>null</code>)
+     * @param indentAmount
+     *        the number of spaces each nesting level is indented (cannot be negative)
+     * @param omitXmlDeclaration
+     *        <code>true</code> if the XML declaration should not be written
+     */
+    public IndentingXMLStreamWriter( final XMLStreamWriter delegate,
+                                     final int indentAmount,
+                                     final boolean omitXmlDeclaration ) {
+        this.delegate = Objects.requireNonNull( delegate, "delegate" );
+
+        if ( indentAmount < 0 ) {
+            throw new IllegalArgumentException( "indentAmount" );
+        }
+
+        final char[] spaces = new char[ indentAmount ];
+        Arrays.fill( spaces, ' ' );
+        this.indent = new String( spaces );
+        this.omitXmlDeclaration = omitXmlDeclaration;
+    }
+
+    private void beforeChild() throws XMLStreamException {
+        if ( this.depth == 0 ) {
+            if ( this.started ) {
+                this.delegate.writeCharacters( this.lineSeparator );
+            }
+
+            this.started = true;
+        } else {
+            final int parent = this.state[ this.depth - 1 ];
+            this.state[ this.depth - 1 ] |= HAS_CHILD;
+
+            if ( ( parent & HAS_TEXT ) == 0 ) {
+                writeIndent( this.depth );
+            }
+        }
+    }
+
+    private void beforeText() throws XMLStreamException {
+        writePending( false );
+
+        if ( this.depth != 0 ) {
+            this.state[ this.depth - 1 ] |= HAS_TEXT;
+        }
+    }
+
+    private String normalizeAttribute( final String value ) {
+        if ( value == null ) {
+            return null;
+        }
+
+        // a parser replaces line ends, tabs, and newlines in attribute values with a space
+        return value.replace( "\r\n", " " ).replace( '\r', ' ' ).replace( '\n', ' ' ).replace( '\t', ' ' );
+    }
+
+    private String normalizeText( final String text ) {
+        if ( ( text.indexOf( '\r' ) == -1 ) && ( ( text.indexOf( '\n' ) == -1 ) || "\n".equals( this.lineSeparator ) ) ) {
+            return text;
+        }
+
+        return text.replace( "\r\n", "\n" ).replace( '\r', '\n' ).replace( "\n", this.lineSeparator );
+    }
+
+    private void pushElement() {
+        if ( this.depth == this.state.length ) {
+            this.state = Arrays.copyOf( this.state, this.depth * 2 );
+        }
+
+        this.state[ this.depth++ ] = 0;
+    }
+
+    private void emptyElement( final Write empty ) throws XMLStreamException {
+        writePending( false );
+        beforeChild();
+        this.pendingStart = empty;
+        this.pendingEmpty = empty;
+        this.pendingOpen = false;
+    }
+
+    private void startElement( final Write start,
+                               final Write empty ) throws XMLStreamException {
+        writePending( false );
+        beforeChild();
+        pushElement();
+        this.pendingStart = start;
+        this.pendingEmpty = empty;
+        this.pendingOpen = true;
+    }
+
+    private void writeIndent( final int level ) throws XMLStreamException {
+        final StringBuilder text = new StringBuilder( this.lineSeparator.length() + ( level * this.indent.length() ) );
+        text.append( this.lineSeparator );
+
+        for ( int i = 0; i < level; ++i ) {
+            text.append( this.indent );
+        }
+
+        this.delegate.writeCharacters( text.toString() );
+    }
+
+    private void writeOrPend( final String name,
+                              final Write write ) throws XMLStreamException {
+        if ( this.pendingStart == null ) {
+            write.write( this.delegate );
+        } else {
+            this.pendingAttributes.add( new PendingAttribute( name, write ) );
+        }
+    }
+
+    /**
+     * The start tag is held back until its content is known so an element without content is written as an empty element. Its
+     * attributes are held back too so they can be written in name order.
+     */
+    private void writePending( final boolean empty ) throws XMLStreamException {
+        if ( this.pendingStart != null ) {
+            ( empty ? this.pendingEmpty : this.pendingStart ).write( this.delegate );
+            this.pendingStart = null;
+            this.pendingEmpty = null;
+            this.pendingOpen = false;
+
+            if ( this.pendingAttributes.size() > 1 ) {
+                this.pendingAttributes.sort( ( thisAttr, thatAttr ) -> thisAttr.name.compareTo( thatAttr.name ) );
+            }
+
+            for ( final PendingAttribute attribute : this.pendingAttributes ) {
+                attribute.write.write( this.delegate );
+            }
+
+            this.pendingAttributes.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#close()
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        this.delegate.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#flush()
+     */
+    @Override
+    public void flush() throws XMLStreamException {
+        this.delegate.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#getNamespaceContext()
+     */
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return this.delegate.getNamespaceContext();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#getPrefix(java.lang.String)
+     */
+    @Override
+    public String getPrefix( final String uri ) throws XMLStreamException {
+        return this.delegate.getPrefix( uri );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#getProperty(java.lang.String)
+     */
+    @Override
+    public Object getProperty( final String name ) throws IllegalArgumentException {
+        return this.delegate.getProperty( name );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#setDefaultNamespace(java.lang.String)
+     */
+    @Override
+    public void setDefaultNamespace( final String uri ) throws XMLStreamException {
+        this.delegate.setDefaultNamespace( uri );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#setNamespaceContext(javax.xml.namespace.NamespaceContext)
+     */
+    @Override
+    public void setNamespaceContext( final NamespaceContext context ) throws XMLStreamException {
+        this.delegate.setNamespaceContext( context );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#setPrefix(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void setPrefix( final String prefix,
+                           final String uri ) throws XMLStreamException {
+        this.delegate.setPrefix( prefix, uri );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeAttribute(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void writeAttribute( final String localName,
+                                final String value ) throws XMLStreamException {
+        final String normalized = normalizeAttribute( value );
+        writeOrPend( localName, writer -> writer.writeAttribute( localName, normalized ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeAttribute(java.lang.String, java.lang.String, java.lang.String)
+     */
+    @Override
+    public void writeAttribute( final String namespaceURI,
+                                final String localName,
+                                final String value ) throws XMLStreamException {
+        final String normalized = normalizeAttribute( value );
+        writeOrPend( localName, writer -> writer.writeAttribute( namespaceURI, localName, normalized ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeAttribute(java.lang.String, java.lang.String, java.lang.String,
+     *      java.lang.String)
+     */
+    @Override
+    public void writeAttribute( final String prefix,
+                                final String namespaceURI,
+                                final String localName,
+                                final String value ) throws XMLStreamException {
+        final String normalized = normalizeAttribute( value );
+        final String name = ( ( ( prefix == null ) || prefix.isEmpty() ) ? localName : ( prefix + ':' + localName ) );
+        writeOrPend( name, writer -> writer.writeAttribute( prefix, namespaceURI, localName, normalized ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeCData(java.lang.String)
+     */
+    @Override
+    public void writeCData( final String data ) throws XMLStreamException {
+        beforeText();
+        this.delegate.writeCData( data );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeCharacters(char[], int, int)
+     */
+    @Override
+    public void writeCharacters( final char[] text,
+                                 final int start,
+                                 final int len ) throws XMLStreamException {
+        writeCharacters( new String( text, start, len ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeCharacters(java.lang.String)
+     */
+    @Override
+    public void writeCharacters( final String text ) throws XMLStreamException {
+        if ( ( text != null ) && !text.isEmpty() ) {
+            beforeText();
+            this.delegate.writeCharacters( normalizeText( text ) );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeComment(java.lang.String)
+     */
+    @Override
+    public void writeComment( final String data ) throws XMLStreamException {
+        writePending( false );
+        beforeChild();
+        this.delegate.writeComment( data );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeDTD(java.lang.String)
+     */
+    @Override
+    public void writeDTD( final String dtd ) throws XMLStreamException {
+        beforeChild();
+        this.delegate.writeDTD( dtd );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeDefaultNamespace(java.lang.String)
+     */
+    @Override
+    public void writeDefaultNamespace( final String namespaceURI ) throws XMLStreamException {
+        writeOrPend( "xmlns", writer -> writer.writeDefaultNamespace( namespaceURI ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeEmptyElement(java.lang.String)
+     */
+    @Override
+    public void writeEmptyElement( final String localName ) throws XMLStreamException {
+        emptyElement( writer -> writer.writeEmptyElement( localName ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeEmptyElement(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void writeEmptyElement( final String namespaceURI,
+                                   final String localName ) throws XMLStreamException {
+        emptyElement( writer -> writer.writeEmptyElement( namespaceURI, localName ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeEmptyElement(java.lang.String, java.lang.String, java.lang.String)
+     */
+    @Override
+    public void writeEmptyElement( final String prefix,
+                                   final String localName,
+                                   final String namespaceURI ) throws XMLStreamException {
+        emptyElement( writer -> writer.writeEmptyElement( prefix, localName, namespaceURI ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeEndDocument()
+     */
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        while ( this.depth != 0 ) {
+            writeEndElement();
+        }
+
+        writePending( false );
+
+        this.delegate.writeEndDocument();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeEndElement()
+     */
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        if ( this.pendingOpen ) {
+            writePending( true );
+        } else {
+            writePending( false );
+
+            if ( this.depth != 0 ) {
+                final int element = this.state[ this.depth - 1 ];
+
+                if ( ( element & ( HAS_CHILD | HAS_TEXT ) ) == HAS_CHILD ) {
+                    writeIndent( this.depth - 1 );
+                }
+            }
+
+            this.delegate.writeEndElement();
+        }
+
+        if ( ( this.depth != 0 ) && ( --this.depth == 0 ) ) {
+            this.delegate.writeCharacters( this.lineSeparator );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeEntityRef(java.lang.String)
+     */
+    @Override
+    public void writeEntityRef( final String name ) throws XMLStreamException {
+        beforeText();
+        this.delegate.writeEntityRef( name );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeNamespace(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void writeNamespace( final String prefix,
+                                final String namespaceURI ) throws XMLStreamException {
+        writeOrPend( "xmlns:" + prefix, writer -> writer.writeNamespace( prefix, namespaceURI ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeProcessingInstruction(java.lang.String)
+     */
+    @Override
+    public void writeProcessingInstruction( final String target ) throws XMLStreamException {
+        writePending( false );
+        beforeChild();
+        this.delegate.writeProcessingInstruction( target );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeProcessingInstruction(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void writeProcessingInstruction( final String target,
+                                            final String data ) throws XMLStreamException {
+        writePending( false );
+        beforeChild();
+        this.delegate.writeProcessingInstruction( target, data );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeStartDocument()
+     */
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        if ( !this.omitXmlDeclaration ) {
+            this.delegate.writeStartDocument();
+            this.started = true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeStartDocument(java.lang.String)
+     */
+    @Override
+    public void writeStartDocument( final String version ) throws XMLStreamException {
+        if ( !this.omitXmlDeclaration ) {
+            this.delegate.writeStartDocument( version );
+            this.started = true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeStartDocument(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void writeStartDocument( final String encoding,
+                                    final String version ) throws XMLStreamException {
+        if ( !this.omitXmlDeclaration ) {
+            this.delegate.writeStartDocument( encoding, version );
+            this.started = true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeStartElement(java.lang.String)
+     */
+    @Override
+    public void writeStartElement( final String localName ) throws XMLStreamException {
+        startElement( writer -> writer.writeStartElement( localName ), writer -> writer.writeEmptyElement( localName ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeStartElement(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void writeStartElement( final String namespaceURI,
+                                   final String localName ) throws XMLStreamException {
+        startElement( writer -> writer.writeStartElement( namespaceURI, localName ),
+                      writer -> writer.writeEmptyElement( namespaceURI, localName ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.xml.stream.XMLStreamWriter#writeStartElement(java.lang.String, java.lang.String, java.lang.String)
+     */
+    @Override
+    public void writeStartElement( final String prefix,
+                                   final String localName,
+                                   final String namespaceURI ) throws XMLStreamException {
+        startElement( writer -> writer.writeStartElement( prefix, localName, namespaceURI ),
+                      writer -> writer.writeEmptyElement( prefix, localName, namespaceURI ) );
+    }
+
+    private static final class PendingAttribute {
+
+        private final String name;
+        private final Write write;
+
+        PendingAttribute( final String name,
+                          final Write write ) {
+            this.name = name;
+            this.write = write;
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface Write {
+
+        void write( final XMLStreamWriter writer ) throws XMLStreamException;
+
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.internal;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.jcr.NamespaceException;
+import javax.jcr.NamespaceRegistry;
+import javax.jcr.RepositoryException;
+
+/**
+ * Caches the namespace mappings of a {@link NamespaceRegistry} for the duration of one sequencing session. Every URI and prefix
+ * is looked up in the registry at most once, and namespaces registered through the cache are added to its mappings. The
+ * registry is only consulted again right before a registration, so a namespace registered by another session in the meantime is
+ * never remapped. Not thread-safe.
+ */
+public final class NamespaceRegistryCache {
+
+    private final NamespaceRegistry registry;
+    private final Map< String, String > prefixes = new HashMap<>(); // key = URI, value = prefix
+    private final Map< String, String > uris = new HashMap<>(); // key = prefix, value = URI
+    private final Set< String > unregisteredUris = new HashSet<>();
+    private final Set< String > unregisteredPrefixes = new HashSet<>();
+    private final Map< String, Long > nextSuffixes = new HashMap<>(); // key = prefix, value = next suffix to try
+
+    /**
+     * @param registry
+     *        the namespace registry of the session being used for sequencing (cannot be <code>null</code>)
+     */
+    public NamespaceRegistryCache( final NamespaceRegistry registry ) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param uri
+     *        the namespace URI (cannot be <code>null</code>)
+     * @return the registered prefix or <code>null</code> if the URI is not registered
+     * @throws RepositoryException
+     *         if an error occurs reading from the registry
+     */
+    public String getPrefix( final String uri ) throws RepositoryException {
+        String prefix = this.prefixes.get( uri );
+
+        if ( ( prefix == null ) && !this.unregisteredUris.contains( uri ) ) {
+            prefix = lookupPrefix( uri );
+        }
+
+        return prefix;
+    }
+
+    /**
+     * @param prefix
+     *        the namespace prefix (cannot be <code>null</code>)
+     * @return the registered URI or <code>null</code> if the prefix is not registered
+     * @throws RepositoryException
+     *         if an error occurs reading from the registry
+     */
+    public String getUri( final String prefix ) throws RepositoryException {
+        String uri = this.uris.get( prefix );
+
+        if ( ( uri == null ) && !this.unregisteredPrefixes.contains( prefix ) ) {
+            uri = lookupUri( prefix );
+        }
+
+        return uri;
+    }
+
+    /**
+     * @param prefix
+     *        the namespace prefix (cannot be <code>null</code>)
+     * @return <code>true</code> if the prefix is registered
+     * @throws RepositoryException
+     *         if an error occurs reading from the registry
+     */
+    public boolean isRegisteredPrefix( final String prefix ) throws RepositoryException {
+        return ( getUri( prefix ) != null );
+    }
+
+    /**
+     * @param uri
+     *        the namespace URI (cannot be <code>null</code>)
+     * @return <code>true</code> if the URI is registered
+     * @throws RepositoryException
+     *         if an error occurs reading from the registry
+     */
+    public boolean isRegisteredUri( final String uri ) throws RepositoryException {
+        return ( getPrefix( uri ) != null );
+    }
+
+    /**
+     * Registers a namespace URI unless it is already registered. The preferred prefix is used if it is free. Otherwise a number,
+     * starting with the first suffix, is appended to it. The next suffix tried for a prefix is remembered so generating many
+     * prefixes from the same one does not probe the same names again.
+     *
+     * @param preferredPrefix
+     *        the prefix to use if it is not already registered (cannot be <code>null</code> or empty)
+     * @param uri
+     *        the namespace URI (cannot be <code>null</code>)
+     * @param firstSuffix
+     *        the first number appended to the preferred prefix if it is already registered
+     * @return the prefix the URI is registered with (never <code>null</code>)
+     * @throws RepositoryException
+     *         if an error occurs reading from or writing to the registry
+     */
+    public String register( final String preferredPrefix,
+                            final String uri,
+                            final long firstSuffix ) throws RepositoryException {
+        String prefix = this.prefixes.get( uri );
+
+        if ( prefix != null ) {
+            return prefix;
+        }
+
+        // registry may have changed since the URI was looked up
+        prefix = lookupPrefix( uri );
+
+        if ( prefix != null ) {
+            return prefix;
+        }
+
+        prefix = preferredPrefix;
+
+        if ( isTaken( prefix ) ) {
+            final Long next = this.nextSuffixes.get( preferredPrefix );
+            long suffix = ( ( next == null ) ? firstSuffix : Math.max( next, firstSuffix ) );
+
+            do {
+                prefix = preferredPrefix + suffix++;
+            } while ( isTaken( prefix ) );
+
+            this.nextSuffixes.put( preferredPrefix, suffix );
+        }
+
+        this.registry.registerNamespace( prefix, uri );
+        this.prefixes.put( uri, prefix );
+        this.uris.put( prefix, uri );
+        this.unregisteredUris.remove( uri );
+        this.unregisteredPrefixes.remove( prefix );
+
+        return prefix;
+    }
+
+    /*
+     * Prefixes known to be registered are never looked up again. All others are checked in the registry as they are about to be
+     * registered.
+     */
+    private boolean isTaken( final String prefix ) throws RepositoryException {
+        return ( this.uris.containsKey( prefix ) || ( lookupUri( prefix ) != null ) );
+    }
+
+    private String lookupPrefix( final String uri ) throws RepositoryException {
+        try {
+            final String prefix = this.registry.getPrefix( uri );
+            this.prefixes.put( uri, prefix );
+            this.uris.put( prefix, uri );
+            this.unregisteredUris.remove( uri );
+            return prefix;
+        } catch ( final NamespaceException e ) {
+            this.unregisteredUris.add( uri );
+            return null;
+        }
+    }
+
+    private String lookupUri( final String prefix ) throws RepositoryException {
+        try {
+            final String uri = this.registry.getURI( prefix );
+            this.uris.put( prefix, uri );
+            this.prefixes.put( uri, prefix );
+            this.unregisteredPrefixes.remove( prefix );
+            return uri;
+        } catch ( final NamespaceException e ) {
+            this.unregisteredPrefixes.add( prefix );
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.modeshape.sequencer.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+/**
+ * Resolves namespace prefixes to URIs for the duration of one export. Each prefix is looked up in the session once. Not
+ * thread-safe.
+ */
+public final class NamespaceResolver {
+
+    private final Session session;
+    private final Map< String, String > uris = new HashMap<>();
+
+    /**
+     * @param session
+     *        the session of the node being exported (cannot be <code>null</code>)
+     */
+    public NamespaceResolver( final Session session ) {
+        this.session = session;
+    }
+
+    /**
+     * @param prefix
+     *        the namespace prefix (cannot be <code>null</code>)
+     * @return the namespace URI (never <code>null</code>)
+     * @throws RepositoryException
+     *         if the prefix is not registered or an error occurs reading from the session
+     */
+    public String getUri( final String prefix ) throws RepositoryException {
+        String uri = this.uris.get( prefix );
+
+        if ( uri == null ) {
+            uri = this.session.getNamespaceURI( prefix );
+            this.uris.put( prefix, uri );
+        }
+
+        return uri;
+    }
+
+    /**
+     * @param qualifiedName
+     *        a name like <code>prefix:localName</code> or a name without a prefix (cannot be <code>null</code>)
+     * @return the name like <code>{uri}localName</code> or the name if it has no prefix (never <code>null</code>)
+     * @throws RepositoryException
+     *         if the prefix is not registered or an error occurs reading from the session
+     */
+    public String toExpandedName( final String qualifiedName ) throws RepositoryException {
+        final int index = qualifiedName.indexOf( ':' );
+
+        if ( index == -1 ) {
+            return qualifiedName;
+        }
+
+        return ( '{' + getUri( qualifiedName.substring( 0, index ) ) + '}' + qualifiedName.substring( index + 1 ) );
+    }
+
+}